@@ -0,0 +1,110 @@
+package com.infotrode.support_triage.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.infotrode.support_triage.ai.dto.AiTriageSuggestion;
+import com.infotrode.support_triage.config.JacksonConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handling of a triage answer: {@link OllamaClient} parses Ollama's envelope, the service parses
+ * the model's JSON out of its "response" string, binds it and cleans the tags. A non-streamed
+ * envelope also carries the "context" token array, hence {@code contextTokens}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OllamaResponseBenchmark {
+
+    private static final String TRIAGE_JSON = """
+            {"category":"billing","priority":"HIGH","tags":[" Billing","export","TIMEOUT","","export"],\
+            "rationale":"Invoice exports fail for a paying customer at month end.",\
+            "entities":{"type":"ticket","requesterEmail":"finance@customer.example","orderId":"INV-2291",\
+            "product":"Invoices","errorCode":"504"}}""";
+
+    @Param({"0", "4096"})
+    int contextTokens;
+
+    private ObjectMapper om;
+    private String raw;
+    private String responseText;
+    private JsonNode output;
+    private List<String> tags;
+
+    @Setup
+    public void setUp() throws Exception {
+        om = new JacksonConfig().objectMapper();
+
+        ObjectNode envelope = om.createObjectNode()
+                .put("model", "llama3.2")
+                .put("created_at", "2026-10-18T06:51:04.737Z")
+                .put("response", TRIAGE_JSON)
+                .put("done", true)
+                .put("done_reason", "stop");
+        if (contextTokens > 0) {
+            ArrayNode context = envelope.putArray("context");
+            Random random = new Random(1);
+            for (int i = 0; i < contextTokens; i++) context.add(random.nextInt(128_000));
+        }
+        envelope.put("total_duration", 2_180_442_083L)
+                .put("load_duration", 21_093_750L)
+                .put("prompt_eval_count", 412)
+                .put("eval_count", 96);
+        raw = om.writeValueAsString(envelope);
+
+        responseText = TRIAGE_JSON;
+        output = om.readTree(TRIAGE_JSON);
+        tags = om.treeToValue(output, AiTriageSuggestion.class).tags();
+    }
+
+    @Benchmark
+    public String envelope() throws Exception {
+        return OllamaClient.extractResponseText(om.readTree(raw));
+    }
+
+    @Benchmark
+    public JsonNode output() throws Exception {
+        return om.readTree(responseText);
+    }
+
+    @Benchmark
+    public AiTriageSuggestion bind() throws Exception {
+        return om.treeToValue(output, AiTriageSuggestion.class);
+    }
+
+    @Benchmark
+    public List<String> tags() {
+        return AiTriageService.cleanTags(tags);
+    }
+
+    /** Envelope to cleaned suggestion, in the order the request path does it. */
+    @Benchmark
+    public AiTriageSuggestion pipeline() throws Exception {
+        String text = OllamaClient.extractResponseText(om.readTree(raw));
+        JsonNode tree = om.readTree(text);
+        JsonNode entities = tree.path("entities");
+        if (entities.isObject()) ((ObjectNode) entities).remove("type");
+        AiTriageSuggestion parsed = om.treeToValue(tree, AiTriageSuggestion.class);
+        return new AiTriageSuggestion(parsed.category(), parsed.priority(), AiTriageService.cleanTags(parsed.tags()),
+                parsed.rationale().trim(), parsed.entities(), null);
+    }
+}
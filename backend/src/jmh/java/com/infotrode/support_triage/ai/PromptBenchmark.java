@@ -0,0 +1,116 @@
+package com.infotrode.support_triage.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infotrode.support_triage.config.JacksonConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What an AI request spends before Ollama is called: the user prompt, the cache key over it, and
+ * the input_json snapshot every ai_runs row carries. {@code registry} builds the three JSON
+ * schemas; that happens once at startup ({@link PromptRegistry}), not per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromptBenchmark {
+
+    /** Ticket body length; most are short, pasted logs are not. */
+    @Param({"400", "8000"})
+    int bodyChars;
+
+    private ObjectMapper om;
+    private PromptRegistry prompts;
+    private AiResponseCache cache;
+
+    private String subject;
+    private String body;
+    private String email;
+    private List<String> tags;
+    private String triagePrompt;
+
+    @Setup
+    public void setUp() {
+        om = new JacksonConfig().objectMapper();
+        prompts = new PromptRegistry(om);
+        cache = new AiResponseCache(null, null, null, new AiCacheProperties(), new SimpleMeterRegistry());
+
+        subject = "Invoice export stops at 80% and times out";
+        email = "finance@customer.example";
+        tags = List.of("billing", "export", "timeout");
+        StringBuilder b = new StringBuilder(bodyChars);
+        while (b.length() < bodyChars) {
+            b.append("Since Monday the CSV export of our invoices stops at 80% and the page shows a gateway timeout. ");
+        }
+        body = b.substring(0, bodyChars);
+        triagePrompt = PromptTemplates.triageUserPrompt(subject, body, email);
+    }
+
+    @Benchmark
+    public String triagePrompt() {
+        return PromptTemplates.triageUserPrompt(subject, body, email);
+    }
+
+    @Benchmark
+    public String summaryPrompt() {
+        return PromptTemplates.summaryUserPrompt(subject, body, email, "billing", "OPEN", "HIGH");
+    }
+
+    @Benchmark
+    public String replyPrompt() {
+        return PromptTemplates.replyDraftUserPrompt(subject, body, email, "billing", "OPEN", "HIGH", tags, ReplyTone.EMPATHETIC);
+    }
+
+    @Benchmark
+    public String cacheKey() {
+        PromptRegistry.Prompt p = prompts.triage();
+        return cache.key("llama3.2", p.version(), p.system(), triagePrompt);
+    }
+
+    /** As {@link AiTriageService} builds it. */
+    @Benchmark
+    public JsonNode inputJson() {
+        PromptRegistry.Prompt p = prompts.triage();
+
+        Map<String, Object> ticketSnapshot = new LinkedHashMap<>();
+        ticketSnapshot.put("id", 42L);
+        ticketSnapshot.put("subject", subject);
+        ticketSnapshot.put("requesterEmail", email);
+        ticketSnapshot.put("body", body);
+        ticketSnapshot.put("status", "OPEN");
+        ticketSnapshot.put("priority", "HIGH");
+        ticketSnapshot.put("category", null);
+        ticketSnapshot.put("tags", tags);
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("system", p.system());
+        payload.put("prompt", triagePrompt);
+        payload.put("schema", p.schema());
+        payload.put("ticketSnapshot", ticketSnapshot);
+        return om.valueToTree(payload);
+    }
+
+    @Benchmark
+    public PromptRegistry registry() {
+        return new PromptRegistry(om);
+    }
+}
@@ -0,0 +1,90 @@
+package com.infotrode.support_triage.ticket;
+
+import com.infotrode.support_triage.ticket.dto.TicketPageResponse;
+import com.infotrode.support_triage.ticket.dto.TicketResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response bodies of the ticket API, written by the same Jackson 3 mapper type MVC uses:
+ * a full ticket ({@link TicketResponse#from} plus its JSON), and list pages and delta-sync
+ * responses of {@code rows} {@link TicketSummary} rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicketSerializationBenchmark {
+
+    @Param({"50", "200", "1000"})
+    int rows;
+
+    private JsonMapper json;
+    private Ticket ticket;
+    private TicketPageResponse page;
+    private TicketService.TicketChanges changes;
+
+    @Setup
+    public void setUp() {
+        json = JsonMapper.builder().findAndAddModules().build();
+
+        ticket = new Ticket();
+        ticket.setSubject("Invoice export stops at 80% and times out");
+        ticket.setRequesterEmail("finance@customer.example");
+        ticket.setBody("Since Monday the CSV export of our invoices stops at 80% and the page shows a gateway timeout. ".repeat(20));
+        ticket.setStatus(TicketStatus.OPEN);
+        ticket.setPriority(TicketPriority.HIGH);
+        ticket.setCategory("billing");
+        ticket.setTags(new ArrayList<>(List.of("billing", "export", "timeout")));
+        ticket.setCreatedAt(Instant.parse("2026-10-01T09:30:00Z"));
+
+        List<TicketSummary> summaries = new ArrayList<>(rows);
+        Instant at = Instant.parse("2026-10-01T09:30:00Z");
+        for (int i = 0; i < rows; i++) {
+            summaries.add(new TicketSummary((long) i + 1, "Ticket " + i + ": invoice export times out",
+                    "customer" + i + "@example.com", TicketStatus.OPEN, TicketPriority.values()[i % TicketPriority.values().length],
+                    "billing", List.of("billing", "export"), at.plusSeconds(i), at.plusSeconds(i + 60),
+                    "Since Monday the CSV export of our invoices stops at 80% and the page shows a gateway timeout. Ou"));
+        }
+        page = TicketPageResponse.from(new TicketService.TicketPage(summaries, "eyJjIjoiMjAyNi0xMC0wMVQwOTozMDowMFoiLCJpIjo0Mn0"));
+        changes = new TicketService.TicketChanges(summaries, List.of(new TicketService.TicketChanges.Deleted(7, at)),
+                at.plusSeconds(rows + 60), rows, false);
+    }
+
+    @Benchmark
+    public TicketResponse map() {
+        return TicketResponse.from(ticket);
+    }
+
+    @Benchmark
+    public byte[] ticket() {
+        return json.writeValueAsBytes(TicketResponse.from(ticket));
+    }
+
+    @Benchmark
+    public byte[] page() {
+        return json.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] changes() {
+        return json.writeValueAsBytes(changes);
+    }
+}
@@ -0,0 +1,74 @@
+package com.infotrode.support_triage.ai;
+
+/**
+ * AIMD limit on concurrent calls, driven by latency.
+ *
+ * Each successful call feeds a slow moving average of latency (the baseline). A call slower than
+ * {@code tolerance x baseline}, or one that failed, multiplies the limit by {@code backoffRatio};
+ * any other completion adds one, but only while the limit is actually being used (at least half
+ * of it in flight), so an idle service does not grow an unbounded limit.
+ */
+final class AdaptiveConcurrencyLimit {
+
+    private static final double BASELINE_ALPHA = 0.05;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double tolerance;
+
+    // guarded by this
+    private double limit;
+    private int inFlight;
+    private double baselineNanos;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double tolerance) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.backoffRatio = backoffRatio;
+        this.tolerance = tolerance;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) return false;
+        inFlight++;
+        return true;
+    }
+
+    synchronized void onSuccess(long latencyNanos) {
+        int inFlightAtCompletion = inFlight--;
+        boolean slow = baselineNanos > 0 && latencyNanos > baselineNanos * tolerance;
+
+        baselineNanos = baselineNanos == 0
+                ? latencyNanos
+                : baselineNanos + BASELINE_ALPHA * (latencyNanos - baselineNanos);
+
+        if (slow) {
+            decrease();
+        } else if (inFlightAtCompletion * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    /** Failed or timed out: treat as congestion. */
+    synchronized void onDropped() {
+        inFlight--;
+        decrease();
+    }
+
+    /** Ended for reasons that say nothing about the backend (caller went away, bad request). */
+    synchronized void onIgnored() {
+        inFlight--;
+    }
+
+    private void decrease() {
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+
+    synchronized int limit() { return (int) limit; }
+
+    synchronized int inFlight() { return inFlight; }
+
+    synchronized double baselineMs() { return baselineNanos / 1_000_000.0; }
+}
@@ -0,0 +1,30 @@
+package com.infotrode.support_triage.ai;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Hands a synchronous AI call to {@code aiRequestExecutor} via Servlet async, so the Tomcat thread is
+ * released while the model generates. Clients see the same request/response as before.
+ */
+@Component
+public class AiAsync {
+
+    private final AsyncTaskExecutor executor;
+    private final long timeoutMs;
+
+    public AiAsync(@Qualifier("aiRequestExecutor") AsyncTaskExecutor executor, OllamaProperties props) {
+        this.executor = executor;
+        // the Ollama total timeout ends the call first; leave slack for the DB write afterwards
+        this.timeoutMs = Duration.ofSeconds(props.getTotalTimeoutSeconds()).plusSeconds(30).toMillis();
+    }
+
+    public <T> WebAsyncTask<T> run(Callable<T> call) {
+        return new WebAsyncTask<>(timeoutMs, executor, call);
+    }
+}
@@ -0,0 +1,25 @@
+package com.infotrode.support_triage.ai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "ai.async")
+public class AiAsyncProperties {
+    // only honoured on Java 21+; older runtimes fall back to the bounded platform pools below
+    private boolean virtualThreads = true;
+    // upper bound on AI calls waiting on Ollama at once, whichever thread kind is used
+    private int maxConcurrency = 256;
+    private int platformThreads = 64;
+    private int queueCapacity = 1000;
+
+    public boolean isVirtualThreads() { return virtualThreads; }
+    public void setVirtualThreads(boolean virtualThreads) { this.virtualThreads = virtualThreads; }
+
+    public int getMaxConcurrency() { return maxConcurrency; }
+    public void setMaxConcurrency(int maxConcurrency) { this.maxConcurrency = maxConcurrency; }
+
+    public int getPlatformThreads() { return platformThreads; }
+    public void setPlatformThreads(int platformThreads) { this.platformThreads = platformThreads; }
+
+    public int getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+}
@@ -0,0 +1,25 @@
+package com.infotrode.support_triage.ai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "ai.bulk")
+public class AiBulkProperties {
+    private int defaultParallelism = 2;
+    // hard cap on concurrent Ollama calls per bulk request, whatever the client asks for
+    private int maxParallelism = 4;
+    private int maxTickets = 1000;
+    // threads of the executor all bulk requests on this node share, i.e. their combined Ollama calls
+    private int executorThreads = 8;
+
+    public int getDefaultParallelism() { return defaultParallelism; }
+    public void setDefaultParallelism(int defaultParallelism) { this.defaultParallelism = defaultParallelism; }
+
+    public int getMaxParallelism() { return maxParallelism; }
+    public void setMaxParallelism(int maxParallelism) { this.maxParallelism = maxParallelism; }
+
+    public int getMaxTickets() { return maxTickets; }
+    public void setMaxTickets(int maxTickets) { this.maxTickets = maxTickets; }
+
+    public int getExecutorThreads() { return executorThreads; }
+    public void setExecutorThreads(int executorThreads) { this.executorThreads = executorThreads; }
+}
@@ -0,0 +1,208 @@
+package com.infotrode.support_triage.ai;
+
+import com.infotrode.support_triage.ai.dto.AiBulkTriageProgress;
+import com.infotrode.support_triage.ai.dto.AiBulkTriageRequest;
+import com.infotrode.support_triage.ai.dto.AiBulkTriageSummary;
+import com.infotrode.support_triage.ai.dto.AiTriageSuggestion;
+import com.infotrode.support_triage.ticket.TicketSummary;
+import com.infotrode.support_triage.ticket.TicketService;
+import com.infotrode.support_triage.ticket.dto.UpdateTicketRequest;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Triage many tickets at once (e.g. the backlog after an outage) with a bounded number of
+ * concurrent Ollama calls, reporting each ticket as it finishes.
+ */
+@Service
+public class AiBulkTriageService {
+
+    private final AiTriageService triageService;
+    private final TicketService ticketService;
+    private final AiBulkProperties props;
+    private final TaskExecutor executor;
+
+    public AiBulkTriageService(
+            AiTriageService triageService,
+            TicketService ticketService,
+            AiBulkProperties props,
+            @Qualifier("aiBulkExecutor") TaskExecutor executor
+    ) {
+        this.triageService = triageService;
+        this.ticketService = ticketService;
+        this.props = props;
+        this.executor = executor;
+    }
+
+    public List<Long> resolveTicketIds(AiBulkTriageRequest req) {
+        List<Long> ids;
+        if (req.ticketIds() != null && !req.ticketIds().isEmpty()) {
+            ids = req.ticketIds().stream().filter(id -> id != null).distinct().toList();
+        } else {
+            // one page of max+1 is enough to tell "too many" without loading every match
+            ids = ticketService.list(req.status(), req.q(), null, props.getMaxTickets() + 1)
+                    .items().stream().map(TicketSummary::id).toList();
+        }
+
+        if (ids.size() > props.getMaxTickets()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Bulk triage matched more than " + props.getMaxTickets() + " tickets. Narrow the filter.");
+        }
+        return ids;
+    }
+
+    public int effectiveParallelism(Integer requested) {
+        int p = requested == null ? props.getDefaultParallelism() : requested;
+        return Math.max(1, Math.min(p, props.getMaxParallelism()));
+    }
+
+    /**
+     * Triages {@code ticketIds} on the shared bulk executor with at most {@code parallelism} calls
+     * in flight. A failing ticket is reported and skipped; one the AI backend sheds (429/503) is
+     * retried after its Retry-After. If {@code onProgress} throws (client gone), tickets not
+     * started yet are abandoned.
+     */
+    public AiBulkTriageSummary run(
+            List<Long> ticketIds,
+            boolean apply,
+            int parallelism,
+            Consumer<AiBulkTriageProgress> onProgress
+    ) throws InterruptedException {
+        int total = ticketIds.size();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger applied = new AtomicInteger();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(total));
+
+        long start = System.nanoTime();
+
+        // tickets of this run queued or running on the shared executor
+        Semaphore inFlight = new Semaphore(parallelism);
+
+        try {
+            for (Long id : ticketIds) {
+                inFlight.acquire();
+                if (cancelled.get()) {
+                    inFlight.release();
+                    break;
+                }
+                executor.execute(() -> {
+                    try {
+                        if (cancelled.get()) return;
+
+                        long t0 = System.nanoTime();
+                        AiTriageSuggestion suggestion = null;
+                        String error = null;
+                        boolean didApply = false;
+
+                        try {
+                            while (true) {
+                                try {
+                                    suggestion = triageService.triage(id);
+                                    break;
+                                } catch (AiUnavailableException e) {
+                                    // shed before Ollama was called: wait as told, then try the same ticket again
+                                    Thread.sleep(TimeUnit.SECONDS.toMillis(Math.max(1, e.getRetryAfterSeconds())));
+                                    if (cancelled.get()) return;
+                                    t0 = System.nanoTime();
+                                }
+                            }
+                            if (apply) {
+                                ticketService.update(id, toUpdate(suggestion));
+                                didApply = true;
+                                applied.incrementAndGet();
+                            }
+                            succeeded.incrementAndGet();
+                        } catch (Exception e) {
+                            error = (e.getMessage() == null || e.getMessage().isBlank())
+                                    ? e.getClass().getSimpleName()
+                                    : e.getMessage();
+                        }
+
+                        long latencyMs = (System.nanoTime() - t0) / 1_000_000;
+                        latencies.add(latencyMs);
+
+                        // one at a time so "completed" counts arrive in order
+                        synchronized (completed) {
+                            try {
+                                onProgress.accept(new AiBulkTriageProgress(
+                                        completed.incrementAndGet(), total, id, error == null, didApply, latencyMs, suggestion, error));
+                            } catch (RuntimeException e) {
+                                cancelled.set(true);
+                            }
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } catch (InterruptedException | RuntimeException e) {
+            cancelled.set(true);
+            throw e;
+        } finally {
+            // wait for the tickets already handed over (the cancelled ones return at once)
+            inFlight.acquireUninterruptibly(parallelism);
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        int done = latencies.size();
+        double perMinute = elapsedMs == 0 ? 0.0 : done * 60_000.0 / elapsedMs;
+
+        return new AiBulkTriageSummary(
+                total,
+                succeeded.get(),
+                done - succeeded.get(),
+                applied.get(),
+                parallelism,
+                elapsedMs,
+                Math.round(perMinute * 10) / 10.0,
+                latencySummary(latencies)
+        );
+    }
+
+    private static UpdateTicketRequest toUpdate(AiTriageSuggestion s) {
+        UpdateTicketRequest u = new UpdateTicketRequest();
+        u.setCategory(s.category());
+        u.setPriority(s.priority());
+        if (s.tags() != null && !s.tags().isEmpty()) u.setTags(s.tags());
+        return u;
+    }
+
+    private static AiBulkTriageSummary.Latency latencySummary(List<Long> latencies) {
+        List<Long> sorted;
+        synchronized (latencies) {
+            sorted = new ArrayList<>(latencies);
+        }
+        if (sorted.isEmpty()) return new AiBulkTriageSummary.Latency(0, 0, 0, 0, 0, 0.0);
+        Collections.sort(sorted);
+
+        double avg = sorted.stream().mapToLong(Long::longValue).average().orElse(0);
+        return new AiBulkTriageSummary.Latency(
+                sorted.get(0),
+                percentile(sorted, 50),
+                percentile(sorted, 95),
+                percentile(sorted, 99),
+                sorted.get(sorted.size() - 1),
+                Math.round(avg * 10) / 10.0
+        );
+    }
+
+    // nearest-rank percentile over an ascending list
+    private static long percentile(List<Long> sorted, int p) {
+        int idx = (int) Math.ceil(p / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(idx, sorted.size() - 1)));
+    }
+}
@@ -0,0 +1,39 @@
+package com.infotrode.support_triage.ai;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/aicache}: hit rate and saved latency of {@link AiResponseCache}.
+ * POST rebuilds the persistent tier from ai_runs, DELETE drops the in-memory tier.
+ */
+@Component
+@Endpoint(id = "aicache")
+public class AiCacheEndpoint {
+
+    private final AiResponseCache cache;
+
+    public AiCacheEndpoint(AiResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return cache.stats();
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild() {
+        return Map.of("keyed", cache.rebuildPersistentTier());
+    }
+
+    @DeleteOperation
+    public void clear() {
+        cache.clear();
+    }
+}
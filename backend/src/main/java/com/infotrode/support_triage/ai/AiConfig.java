@@ -1,33 +1,116 @@
 package com.infotrode.support_triage.ai;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infotrode.support_triage.ai.jobs.AiJobProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
-import org.springframework.web.client.RestClient;
-
-import java.time.Duration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration
-@EnableConfigurationProperties(OllamaProperties.class)
+@EnableConfigurationProperties({
+        OllamaProperties.class,
+        AiCacheProperties.class,
+        AiJobProperties.class,
+        AiBulkProperties.class,
+        AiAsyncProperties.class,
+        AiLimiterProperties.class,
+        AiRunsProperties.class,
+        AiStatsProperties.class
+})
 public class AiConfig {
+    private static final Logger log = LoggerFactory.getLogger(AiConfig.class);
+
+    @Bean
+    OllamaRequestFactory ollamaRequestFactory(OllamaProperties props, MeterRegistry registry) {
+        OllamaRequestFactory rf = new OllamaRequestFactory(props);
+        Gauge.builder("ai.ollama.connections", rf, OllamaRequestFactory::leased).tag("state", "leased").register(registry);
+        Gauge.builder("ai.ollama.connections", rf, OllamaRequestFactory::available).tag("state", "idle").register(registry);
+        Gauge.builder("ai.ollama.connections", rf, OllamaRequestFactory::pending).tag("state", "pending").register(registry);
+        return rf;
+    }
+
+    @Bean
+    public OllamaBackendPool ollamaBackendPool(
+            OllamaProperties props,
+            OllamaRequestFactory ollamaRequestFactory,
+            ObjectMapper om,
+            MeterRegistry registry
+    ) {
+        return new OllamaBackendPool(props, ollamaRequestFactory, om, registry);
+    }
+
+    /**
+     * Runs the blocking part of the synchronous AI endpoints (see {@link AiAsync}) so that waiting on
+     * Ollama does not hold a Tomcat request thread.
+     */
+    @Bean
+    public AsyncTaskExecutor aiRequestExecutor(AiAsyncProperties props) {
+        return aiExecutor("ai-request-", props);
+    }
 
+    /** Runs SSE producers (streamed drafts, bulk triage) off the servlet thread. */
     @Bean
-    public RestClient ollamaRestClient(OllamaProperties props) {
-        SimpleClientHttpRequestFactory rf = new SimpleClientHttpRequestFactory();
-        int timeoutMs = (int) Duration.ofSeconds(props.getTimeoutSeconds()).toMillis();
-        rf.setConnectTimeout(timeoutMs);
-        rf.setReadTimeout(timeoutMs);
+    public AsyncTaskExecutor aiStreamExecutor(AiAsyncProperties props) {
+        return aiExecutor("ai-stream-", props);
+    }
+
+    /**
+     * Runs the per-ticket work of every bulk triage request. Each request keeps at most its own
+     * parallelism queued or running here, and the thread count caps them all together.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor aiBulkExecutor(AiBulkProperties props) {
+        ThreadPoolTaskExecutor ex = new ThreadPoolTaskExecutor();
+        ex.setThreadNamePrefix("ai-bulk-");
+        ex.setCorePoolSize(props.getExecutorThreads());
+        ex.setMaxPoolSize(props.getExecutorThreads());
+        ex.setAllowCoreThreadTimeOut(true);
+        ex.initialize();
+        return ex;
+    }
 
-        return RestClient.builder()
-                .baseUrl(props.getBaseUrl())
-                .requestFactory(rf)
-                .build();
+    /**
+     * Virtual threads when the runtime has them (Java 21+), capped at {@code ai.async.max-concurrency}.
+     * Otherwise a bounded platform pool that queues a burst instead of spawning unbounded threads.
+     */
+    private static AsyncTaskExecutor aiExecutor(String prefix, AiAsyncProperties props) {
+        if (props.isVirtualThreads() && Runtime.version().feature() >= 21) {
+            SimpleAsyncTaskExecutor ex = new SimpleAsyncTaskExecutor(prefix);
+            ex.setVirtualThreads(true);
+            ex.setConcurrencyLimit(props.getMaxConcurrency());
+            return ex;
+        }
+        if (props.isVirtualThreads()) {
+            log.info("Virtual threads need Java 21+ (running {}); {} executor uses {} platform threads",
+                    Runtime.version().feature(), prefix, props.getPlatformThreads());
+        }
+
+        ThreadPoolTaskExecutor ex = new ThreadPoolTaskExecutor();
+        ex.setThreadNamePrefix(prefix);
+        // core == max: a ThreadPoolExecutor only grows past core once the queue is full
+        ex.setCorePoolSize(props.getPlatformThreads());
+        ex.setMaxPoolSize(props.getPlatformThreads());
+        ex.setAllowCoreThreadTimeOut(true);
+        ex.setQueueCapacity(props.getQueueCapacity());
+        ex.setWaitForTasksToCompleteOnShutdown(true);
+        ex.initialize();
+        return ex;
+    }
+
+    @Bean
+    public OllamaGuard ollamaGuard(AiLimiterProperties props, MeterRegistry registry) {
+        return new OllamaGuard(props, registry);
     }
 
     @Bean
-    public OllamaClient ollamaClient(RestClient ollamaRestClient, ObjectMapper om) {
-        return new OllamaClient(ollamaRestClient, om);
+    public OllamaClient ollamaClient(OllamaBackendPool ollamaBackendPool, OllamaGuard ollamaGuard, ObjectMapper om) {
+        return new OllamaClient(ollamaBackendPool, ollamaGuard, om);
     }
 }
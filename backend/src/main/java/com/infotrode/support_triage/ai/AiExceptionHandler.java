@@ -3,8 +3,10 @@ package com.infotrode.support_triage.ai;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -29,7 +31,28 @@ public class AiExceptionHandler {
         Map<String, Object> body = new LinkedHashMap<>();
         body.put("error", "REQUEST_FAILED");
         body.put("message", ex.getReason() == null ? ex.getMessage() : ex.getReason());
-        return ResponseEntity.status(ex.getStatusCode()).body(body);
+        return ResponseEntity.status(ex.getStatusCode()).headers(ex.getHeaders()).body(body);
+    }
+
+    @ExceptionHandler(AiUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleUnavailable(AiUnavailableException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", ex.getError());
+        body.put("message", ex.getMessage());
+        body.put("retryAfterSeconds", ex.getRetryAfterSeconds());
+        return ResponseEntity.status(ex.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(body);
+    }
+
+    // otherwise a malformed body (bad enum value, broken JSON) would fall into handleAi as a 502
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, Object> handleUnreadable(HttpMessageNotReadableException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", "BAD_REQUEST");
+        body.put("message", ex.getMostSpecificCause().getMessage());
+        return body;
     }
 
     @ExceptionHandler(RuntimeException.class)
@@ -0,0 +1,45 @@
+package com.infotrode.support_triage.ai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "ai.limiter")
+public class AiLimiterProperties {
+    private boolean enabled = true;
+
+    // AIMD concurrency limit on Ollama calls in flight
+    private int initialLimit = 8;
+    private int minLimit = 1;
+    private int maxLimit = 64;
+    /** Multiplicative decrease on a slow or failed call. */
+    private double backoffRatio = 0.9;
+    /** A call counts as slow once it takes this many times the smoothed baseline latency. */
+    private double latencyTolerance = 2.0;
+
+    // circuit breaker
+    private int circuitFailureThreshold = 5;
+    private int circuitOpenSeconds = 30;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getInitialLimit() { return initialLimit; }
+    public void setInitialLimit(int initialLimit) { this.initialLimit = initialLimit; }
+
+    public int getMinLimit() { return minLimit; }
+    public void setMinLimit(int minLimit) { this.minLimit = minLimit; }
+
+    public int getMaxLimit() { return maxLimit; }
+    public void setMaxLimit(int maxLimit) { this.maxLimit = maxLimit; }
+
+    public double getBackoffRatio() { return backoffRatio; }
+    public void setBackoffRatio(double backoffRatio) { this.backoffRatio = backoffRatio; }
+
+    public double getLatencyTolerance() { return latencyTolerance; }
+    public void setLatencyTolerance(double latencyTolerance) { this.latencyTolerance = latencyTolerance; }
+
+    public int getCircuitFailureThreshold() { return circuitFailureThreshold; }
+    public void setCircuitFailureThreshold(int circuitFailureThreshold) { this.circuitFailureThreshold = circuitFailureThreshold; }
+
+    public int getCircuitOpenSeconds() { return circuitOpenSeconds; }
+    public void setCircuitOpenSeconds(int circuitOpenSeconds) { this.circuitOpenSeconds = circuitOpenSeconds; }
+}
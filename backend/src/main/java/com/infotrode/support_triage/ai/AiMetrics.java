@@ -0,0 +1,78 @@
+package com.infotrode.support_triage.ai;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the AI pipeline that sit above a single Ollama backend.
+ *
+ * {@code ai.ollama.requests} times each model call, tagged by operation (the ai_runs type), mode
+ * ({@code blocking} / {@code stream}), model and outcome: {@code success}, {@code timeout},
+ * {@code error}, or {@code rejected} when {@link OllamaGuard} shed the call before it was sent.
+ * {@code ai.response.parse.failures} counts model answers that were not valid JSON.
+ *
+ * Per-node latency is {@code ai.ollama.backend.latency} ({@link OllamaBackendPool}); HTTP latency
+ * per endpoint is Spring's own {@code http.server.requests}.
+ */
+@Component
+public class AiMetrics {
+
+    public static final String MODE_BLOCKING = "blocking";
+    public static final String MODE_STREAM = "stream";
+
+    private final MeterRegistry registry;
+
+    public AiMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /** Runs {@code call} (one Ollama request) and records it under {@code ai.ollama.requests}. */
+    public <T> T timeOllama(String operation, String mode, String model, Supplier<T> call) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = "success";
+            return result;
+        } catch (AiUnavailableException e) {
+            outcome = "rejected";
+            throw e;
+        } catch (RuntimeException e) {
+            if (isTimeout(e)) outcome = "timeout";
+            throw e;
+        } finally {
+            Timer.builder("ai.ollama.requests")
+                    .description("Ollama generate calls, from the caller's side (admission and failover to another node included)")
+                    .tag("operation", operation)
+                    .tag("mode", mode)
+                    .tag("model", model == null ? "" : model)
+                    .tag("outcome", outcome)
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /** The model answered, but not with parseable JSON. */
+    public void parseFailure(String operation, String model) {
+        Counter.builder("ai.response.parse.failures")
+                .description("Model responses that were not valid JSON")
+                .tag("operation", operation)
+                .tag("model", model == null ? "" : model)
+                .register(registry)
+                .increment();
+    }
+
+    // read timeout, pool wait and an aborted total deadline all surface as an InterruptedIOException cause
+    private static boolean isTimeout(Throwable t) {
+        for (Throwable c = t; c != null; c = c.getCause()) {
+            if (c instanceof InterruptedIOException) return true;
+        }
+        return false;
+    }
+}
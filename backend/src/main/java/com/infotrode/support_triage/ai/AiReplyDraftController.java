@@ -3,20 +3,72 @@ package com.infotrode.support_triage.ai;
 import com.infotrode.support_triage.ai.dto.AiReplyDraftRequest;
 import com.infotrode.support_triage.ai.dto.AiReplyDraftResponse;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/ai")
 public class AiReplyDraftController {
+    private static final Logger log = LoggerFactory.getLogger(AiReplyDraftController.class);
 
     private final AiReplyDraftService service;
+    private final AiAsync async;
+    private final TaskExecutor streamExecutor;
+    private final OllamaProperties props;
 
-    public AiReplyDraftController(AiReplyDraftService service) {
+    public AiReplyDraftController(
+            AiReplyDraftService service,
+            AiAsync async,
+            @Qualifier("aiStreamExecutor") TaskExecutor streamExecutor,
+            OllamaProperties props
+    ) {
         this.service = service;
+        this.async = async;
+        this.streamExecutor = streamExecutor;
+        this.props = props;
     }
 
     @PostMapping("/reply-draft")
-    public AiReplyDraftResponse replyDraft(@Valid @RequestBody AiReplyDraftRequest req) {
-        return service.draftReply(req.ticketId(), req.tone());
+    public WebAsyncTask<AiReplyDraftResponse> replyDraft(@Valid @RequestBody AiReplyDraftRequest req) {
+        return async.run(() -> service.draftReply(req.ticketId(), req.tone()));
+    }
+
+    /**
+     * SSE variant of {@link #replyDraft}. Events:
+     * - "delta": {"text": "..."} — next piece of the draft as it is generated
+     * - "done":  AiReplyDraftResponse — final cleaned-up draft + aiRunId
+     * - "error": {"error": "AI_FAILED", "message": "..."}
+     */
+    @PostMapping(path = "/reply-draft/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter replyDraftStream(@Valid @RequestBody AiReplyDraftRequest req) {
+        // generation is bounded by the Ollama total timeout; leave some slack for the final save
+        long timeoutMs = Duration.ofSeconds(props.getTotalTimeoutSeconds()).plusSeconds(30).toMillis();
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+
+        streamExecutor.execute(() -> {
+            try {
+                AiReplyDraftResponse res = service.draftReplyStream(
+                        req.ticketId(),
+                        req.tone(),
+                        delta -> SseEvents.send(emitter, "delta", Map.of("text", delta))
+                );
+                SseEvents.send(emitter, "done", res);
+                emitter.complete();
+            } catch (Exception e) {
+                log.error("AI reply draft stream failed", e);
+                SseEvents.sendErrorAndComplete(emitter, e);
+            }
+        });
+
+        return emitter;
     }
 }
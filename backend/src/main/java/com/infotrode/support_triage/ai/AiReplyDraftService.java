@@ -3,53 +3,143 @@ package com.infotrode.support_triage.ai;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.infotrode.support_triage.ai.dto.AiReplyDraftResponse;
-import com.infotrode.support_triage.ticket.Ticket;
-import com.infotrode.support_triage.ticket.TicketRepository;
-import jakarta.persistence.EntityNotFoundException;
+import com.infotrode.support_triage.ticket.TicketService;
+import com.infotrode.support_triage.ticket.dto.TicketResponse;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Duration;
-import java.time.Instant;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 public class AiReplyDraftService {
 
-    private final TicketRepository ticketRepository;
-    private final AiRunRepository aiRunRepository;
+    private final TicketService ticketService;
+    private final AiRunRecorder recorder;
     private final OllamaClient ollama;
+    private final AiResponseCache cache;
+    private final AiMetrics metrics;
+    private final AiRequestCoalescer coalescer;
+    private final PromptRegistry prompts;
     private final OllamaProperties props;
     private final ObjectMapper om;
 
     public AiReplyDraftService(
-            TicketRepository ticketRepository,
-            AiRunRepository aiRunRepository,
+            TicketService ticketService,
+            AiRunRecorder recorder,
             OllamaClient ollama,
+            AiResponseCache cache,
+            AiMetrics metrics,
+            AiRequestCoalescer coalescer,
+            PromptRegistry prompts,
             OllamaProperties props,
             ObjectMapper om
     ) {
-        this.ticketRepository = ticketRepository;
-        this.aiRunRepository = aiRunRepository;
+        this.ticketService = ticketService;
+        this.recorder = recorder;
         this.ollama = ollama;
+        this.cache = cache;
+        this.metrics = metrics;
+        this.coalescer = coalescer;
+        this.prompts = prompts;
         this.props = props;
         this.om = om;
     }
 
-    @Transactional
     public AiReplyDraftResponse draftReply(long ticketId, ReplyTone tone) {
-        Ticket t = ticketRepository.findById(ticketId)
-                .orElseThrow(() -> new EntityNotFoundException("Ticket not found: " + ticketId));
+        TicketResponse t = ticketService.find(ticketId);
 
-        JsonNode schema = replySchema();
+        AiRequestCoalescer.Key key = new AiRequestCoalescer.Key(
+                "REPLY_DRAFT", ticketId, t.getUpdatedAt(), prompts.reply().version(), tone.name());
+        return coalescer.run(key, () -> draftReply(t, tone));
+    }
+
+    private AiReplyDraftResponse draftReply(TicketResponse t, ReplyTone tone) {
+        long ticketId = t.getId();
+        String prompt = buildPrompt(t, tone);
+        AiRun run = newRun(t, tone, prompt);
+
+        try {
+            AiResponseCache.Generation gen = cache.generate(
+                    run.getType(), run.getCacheKey(), props.getModel(), prompts.reply().system(), prompt, prompts.reply().schema());
+
+            run.setLatencyMs(gen.latencyMs());
+            run.setCacheHit(gen.cacheHit());
+
+            AiReplyDraftResponse res = complete(run, ticketId, tone, gen.responseText());
+            cache.remember(gen);
+            return res;
+
+        } catch (AiUnavailableException e) {
+            // shed before Ollama was called: nothing ran, so no ai_runs row
+            throw e;
+        } catch (Exception e) {
+            throw fail(run, e);
+        }
+    }
 
-        String schemaJson;
-        try { schemaJson = om.writeValueAsString(schema); }
-        catch (Exception e) { schemaJson = "{}"; }
+    /**
+     * Same as {@link #draftReply} but streams the draft text while Ollama generates it.
+     * {@code onDelta} receives each newly decoded piece of the "draft" field (not raw JSON);
+     * the returned response carries the final, cleaned-up draft and the saved run id.
+     */
+    public AiReplyDraftResponse draftReplyStream(long ticketId, ReplyTone tone, Consumer<String> onDelta) {
+        TicketResponse t = ticketService.find(ticketId);
+
+        String prompt = buildPrompt(t, tone);
+        AiRun run = newRun(t, tone, prompt);
+
+        PartialJsonField draftField = new PartialJsonField("draft");
+        StringBuilder buffer = new StringBuilder();
+
+        try {
+            long start = System.nanoTime();
+            Optional<AiResponseCache.Hit> hit = cache.lookup(run.getCacheKey());
+            if (hit.isPresent()) {
+                // nothing to stream: hand over the whole cached draft at once
+                String text = hit.get().responseText();
+                String draft = draftField.decodedSoFar(text);
+                if (!draft.isEmpty()) onDelta.accept(draft);
+
+                int latencyMs = (int) ((System.nanoTime() - start) / 1_000_000);
+                run.setLatencyMs(latencyMs);
+                run.setFirstTokenMs(latencyMs);
+                run.setCacheHit(true);
+
+                return complete(run, ticketId, tone, text);
+            }
+
+            OllamaClient.StreamResult result = metrics.timeOllama(run.getType(), AiMetrics.MODE_STREAM, props.getModel(),
+                    () -> ollama.generateJsonStream(
+                            props.getModel(),
+                            prompts.reply().system(),
+                            prompt,
+                            prompts.reply().schema(),
+                            token -> {
+                                buffer.append(token);
+                                String delta = draftField.newlyDecoded(buffer);
+                                if (!delta.isEmpty()) onDelta.accept(delta);
+                            }
+                    ));
+
+            run.setLatencyMs((int) result.totalMs());
+            run.setFirstTokenMs(result.firstTokenMs() == null ? null : result.firstTokenMs().intValue());
+
+            AiReplyDraftResponse res = complete(run, ticketId, tone, result.responseText());
+            cache.remember(run.getCacheKey(), result.responseText(), run.getLatencyMs());
+            return res;
+
+        } catch (AiUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw fail(run, e);
+        }
+    }
 
-        String prompt = PromptTemplates.replyDraftUserPrompt(
+    private String buildPrompt(TicketResponse t, ReplyTone tone) {
+        return PromptTemplates.replyDraftUserPrompt(
                 t.getSubject(),
                 t.getBody(),
                 t.getRequesterEmail(),
@@ -57,16 +147,17 @@ public class AiReplyDraftService {
                 String.valueOf(t.getStatus()),
                 String.valueOf(t.getPriority()),
                 (t.getTags() == null ? List.<String>of() : t.getTags()),
-                tone,
-                schemaJson
+                tone
         );
+    }
 
+    private AiRun newRun(TicketResponse t, ReplyTone tone, String prompt) {
         AiRun run = new AiRun();
-        run.setTicketId(ticketId);
+        run.setTicketId(t.getId());
         run.setType("REPLY_DRAFT");
         run.setProvider("ollama");
         run.setModel(props.getModel());
-        run.setPromptVersion(PromptTemplates.REPLY_V1);
+        run.setPromptVersion(prompts.reply().version());
 
         // ticket snapshot
         Map<String, Object> ticketSnapshot = new LinkedHashMap<>();
@@ -80,81 +171,63 @@ public class AiReplyDraftService {
         ticketSnapshot.put("tags", t.getTags());
 
         Map<String, Object> payload = new LinkedHashMap<>();
-        payload.put("system", PromptTemplates.REPLY_SYSTEM);
+        payload.put("system", prompts.reply().system());
         payload.put("prompt", prompt);
-        payload.put("schema", schema);
+        payload.put("schema", prompts.reply().schema());
         payload.put("ticketSnapshot", ticketSnapshot);
         payload.put("tone", tone.name());
 
         run.setInputJson(om.valueToTree(payload));
+        run.setCacheKey(cache.key(props.getModel(), prompts.reply().version(), prompts.reply().system(), prompt));
+        return run;
+    }
 
-        Instant start = Instant.now();
+    private AiReplyDraftResponse complete(AiRun run, long ticketId, ReplyTone tone, String responseText) {
+        if (responseText == null || responseText.isBlank()) {
+            throw new RuntimeException("Ollama returned empty response text.");
+        }
 
+        JsonNode output;
         try {
-            JsonNode raw = ollama.generateJson(props.getModel(), PromptTemplates.REPLY_SYSTEM, prompt);
-
-            int latencyMs = (int) Duration.between(start, Instant.now()).toMillis();
-            run.setLatencyMs(latencyMs);
-
-            String responseText = OllamaClient.extractResponseText(raw);
-            if (responseText == null || responseText.isBlank()) {
-                throw new RuntimeException("Ollama returned empty response text.");
-            }
-
-            JsonNode output;
-            try {
-                output = om.readTree(responseText);
-            } catch (Exception parseEx) {
-                throw new RuntimeException("Ollama response was not valid JSON: " + responseText, parseEx);
-            }
-
-            run.setOutputJson(output);
-            run.setStatus(AiRun.Status.SUCCESS);
-
-            String draft = output.path("draft").asText("").trim();
-            if (draft.isEmpty()) {
-                throw new RuntimeException("AI reply draft missing required field: draft");
-            }
+            output = om.readTree(responseText);
+        } catch (Exception parseEx) {
+            metrics.parseFailure(run.getType(), run.getModel());
+            throw new RuntimeException("Ollama response was not valid JSON: " + responseText, parseEx);
+        }
 
-            // tiny cleanup: avoid trailing spaces / keep within reason
-            draft = draft.replaceAll("[ \\t]+\\n", "\n").trim();
+        run.setOutputJson(output);
+        run.setStatus(AiRun.Status.SUCCESS);
 
-            AiRun saved = aiRunRepository.save(run);
+        String draft = output.path("draft").asText("").trim();
+        if (draft.isEmpty()) {
+            throw new RuntimeException("AI reply draft missing required field: draft");
+        }
 
-            return new AiReplyDraftResponse(ticketId, tone, draft, saved.getId());
+        // tiny cleanup: avoid trailing spaces / keep within reason
+        draft = draft.replaceAll("[ \\t]+\\n", "\n").trim();
 
-        } catch (Exception e) {
-            String msg = (e.getMessage() == null || e.getMessage().isBlank())
-                    ? e.getClass().getSimpleName()
-                    : e.getMessage();
+        AiRun saved = recorder.record(run);
 
-            run.setStatus(AiRun.Status.ERROR);
-            run.setErrorMessage(msg);
-            run.setOutputJson(null);
-            run.setLatencyMs(null);
+        return new AiReplyDraftResponse(ticketId, tone, draft, saved.getId());
+    }
 
-            if (run.getInputJson() == null) {
-                run.setInputJson(om.createObjectNode());
-            }
+    private RuntimeException fail(AiRun run, Exception e) {
+        String msg = (e.getMessage() == null || e.getMessage().isBlank())
+                ? e.getClass().getSimpleName()
+                : e.getMessage();
 
-            try { aiRunRepository.save(run); } catch (Exception ignored) {}
+        run.setStatus(AiRun.Status.ERROR);
+        run.setErrorMessage(msg);
+        run.setOutputJson(null);
+        run.setLatencyMs(null);
+        run.setFirstTokenMs(null);
 
-            throw new RuntimeException("AI reply draft failed: " + msg, e);
+        if (run.getInputJson() == null) {
+            run.setInputJson(om.createObjectNode());
         }
-    }
 
-    private JsonNode replySchema() {
-        Map<String, Object> schema = Map.of(
-                "type", "object",
-                "required", List.of("draft"),
-                "properties", Map.of(
-                        "draft", Map.of(
-                                "type", "string",
-                                "minLength", 20,
-                                "maxLength", 2500
-                        )
-                )
-        );
-        return om.valueToTree(schema);
+        recorder.recordFailure(run);
+
+        return new RuntimeException("AI reply draft failed: " + msg, e);
     }
 }
@@ -0,0 +1,95 @@
+package com.infotrode.support_triage.ai;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for the AI services: while a generation for a {@link Key} is running, identical
+ * requests wait for it and get the same result (same {@code aiRunId}) or the same exception,
+ * instead of starting a second Ollama call.
+ *
+ * The key includes the ticket's {@code updatedAt}, so a request made after an edit never joins a
+ * generation for the old text. Only calls that overlap are merged; afterwards the response cache
+ * takes over. Streaming drafts are not coalesced (each caller has its own token callback).
+ *
+ * Meters: {@code ai.coalesce.requests} (tagged operation and role=leader|joined) and
+ * {@code ai.coalesce.ratio} (share of requests that joined another one).
+ */
+@Component
+public class AiRequestCoalescer {
+
+    /** What makes two AI requests interchangeable. {@code variant} is e.g. the reply tone. */
+    public record Key(String operation, long ticketId, Instant updatedAt, String promptVersion, String variant) {}
+
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry registry;
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+
+    public AiRequestCoalescer(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("ai.coalesce.in.flight", inFlight, Map::size).register(registry);
+        Gauge.builder("ai.coalesce.ratio", this, AiRequestCoalescer::joinedRatio).register(registry);
+    }
+
+    /** Runs {@code work}, unless the same key is already running, in which case its outcome is shared. */
+    @SuppressWarnings("unchecked")
+    public <T> T run(Key key, Supplier<T> work) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            joined.increment();
+            counter(key, "joined").increment();
+            return (T) await(running);
+        }
+
+        leaders.increment();
+        counter(key, "leader").increment();
+        try {
+            T result = work.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw e;
+        }
+    }
+
+    private Counter counter(Key key, String role) {
+        return Counter.builder("ai.coalesce.requests")
+                .tag("operation", key.operation())
+                .tag("role", role)
+                .register(registry);
+    }
+
+    private double joinedRatio() {
+        long j = joined.sum();
+        long total = j + leaders.sum();
+        return total == 0 ? 0.0 : (double) j / total;
+    }
+
+    int inFlight() { return inFlight.size(); }
+}
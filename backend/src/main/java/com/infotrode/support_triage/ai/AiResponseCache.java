@@ -0,0 +1,257 @@
+package com.infotrode.support_triage.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.infotrode.support_triage.common.BoundedCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Content-addressed cache in front of {@link OllamaClient#generateJson}.
+ *
+ * The key is a SHA-256 over (model, prompt version, system prompt, user prompt). The user prompt
+ * embeds the ticket, so editing a ticket (or bumping a prompt version) naturally misses.
+ *
+ * Two tiers:
+ * - memory: bounded LRU with TTL ({@code ai.cache.max-entries}, {@code ai.cache.ttl-minutes})
+ * - persistent: the latest successful, non-cached {@code ai_runs} row with the same {@code cache_key}.
+ *   Rows written before keys existed are backfilled by {@link #rebuildPersistentTier()}.
+ *
+ * Only responses the caller has validated are remembered ({@link #remember}), so a malformed
+ * model answer is never served twice.
+ */
+@Component
+public class AiResponseCache {
+    private static final Logger log = LoggerFactory.getLogger(AiResponseCache.class);
+
+    public static final String TIER_MEMORY = "memory";
+    public static final String TIER_PERSISTENT = "persistent";
+
+    /** A cached model response plus the latency it originally cost. */
+    public record Hit(String responseText, Integer originalLatencyMs, String tier) {}
+
+    /** Outcome of {@link #generate}: either a cache hit or a fresh Ollama call. */
+    public record Generation(String cacheKey, String responseText, boolean cacheHit, int latencyMs, Integer savedMs) {}
+
+    private record Cached(String responseText, Integer latencyMs) {}
+
+    private final OllamaClient ollama;
+    private final AiMetrics metrics;
+    private final AiRunRepository aiRunRepository;
+    private final AiCacheProperties props;
+    private final BoundedCache<String, Cached> memory;
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder persistentHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder savedLatencyMs = new LongAdder();
+
+    private final Counter memoryHitCounter;
+    private final Counter persistentHitCounter;
+    private final Counter missCounter;
+    private final DistributionSummary savedLatency;
+
+    @Autowired
+    public AiResponseCache(
+            OllamaClient ollama,
+            AiMetrics metrics,
+            AiRunRepository aiRunRepository,
+            AiCacheProperties props,
+            MeterRegistry registry
+    ) {
+        this(ollama, metrics, aiRunRepository, props, registry, System::nanoTime);
+    }
+
+    AiResponseCache(
+            OllamaClient ollama,
+            AiMetrics metrics,
+            AiRunRepository aiRunRepository,
+            AiCacheProperties props,
+            MeterRegistry registry,
+            LongSupplier nanoClock
+    ) {
+        this.ollama = ollama;
+        this.metrics = metrics;
+        this.aiRunRepository = aiRunRepository;
+        this.props = props;
+        this.memory = new BoundedCache<>(props.getMaxEntries(), Duration.ofMinutes(props.getTtlMinutes()), nanoClock);
+
+        this.memoryHitCounter = Counter.builder("ai.cache.lookups")
+                .tag("result", "hit").tag("tier", TIER_MEMORY).register(registry);
+        this.persistentHitCounter = Counter.builder("ai.cache.lookups")
+                .tag("result", "hit").tag("tier", TIER_PERSISTENT).register(registry);
+        this.missCounter = Counter.builder("ai.cache.lookups")
+                .tag("result", "miss").tag("tier", "none").register(registry);
+        this.savedLatency = DistributionSummary.builder("ai.cache.saved.latency")
+                .description("Ollama latency avoided by serving a cached response")
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("ai.cache.entries", memory, BoundedCache::size).register(registry);
+        Gauge.builder("ai.cache.hit.ratio", this, AiResponseCache::hitRatio).register(registry);
+    }
+
+    /**
+     * Hashes the parts as plain strings, in this fixed order. Nothing here is serialized from a
+     * map, so the key does not depend on any ObjectMapper setting.
+     */
+    public String key(String model, String promptVersion, String system, String prompt) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        // NUL separators so ("ab", "c") and ("a", "bc") never collide
+        for (String part : List.of(nz(model), nz(promptVersion), nz(system), nz(prompt))) {
+            md.update(part.getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    /** Looks the key up in memory, then in ai_runs. Records hit/miss metrics. */
+    public Optional<Hit> lookup(String cacheKey) {
+        if (!props.isEnabled()) return Optional.empty();
+
+        Cached c = memory.get(cacheKey);
+        if (c != null) {
+            recordHit(memoryHits, memoryHitCounter, c.latencyMs());
+            return Optional.of(new Hit(c.responseText(), c.latencyMs(), TIER_MEMORY));
+        }
+
+        if (props.isPersistent()) {
+            Optional<AiRun> run = aiRunRepository
+                    .findFirstByCacheKeyAndStatusAndCacheHitFalseOrderByIdDesc(cacheKey, AiRun.Status.SUCCESS);
+            if (run.isPresent() && run.get().getOutputJson() != null) {
+                Cached fromDb = new Cached(run.get().getOutputJson().toString(), run.get().getLatencyMs());
+                memory.put(cacheKey, fromDb);
+                recordHit(persistentHits, persistentHitCounter, fromDb.latencyMs());
+                return Optional.of(new Hit(fromDb.responseText(), fromDb.latencyMs(), TIER_PERSISTENT));
+            }
+        }
+
+        misses.increment();
+        missCounter.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Cached response when available, otherwise a blocking {@link OllamaClient#generateJson} call,
+     * timed under {@code operation} (see {@link AiMetrics}).
+     */
+    public Generation generate(String operation, String cacheKey, String model, String system, String prompt, JsonNode format) {
+        long start = System.nanoTime();
+
+        Optional<Hit> hit = lookup(cacheKey);
+        if (hit.isPresent()) {
+            return new Generation(cacheKey, hit.get().responseText(), true, elapsedMs(start), hit.get().originalLatencyMs());
+        }
+
+        JsonNode raw = metrics.timeOllama(operation, AiMetrics.MODE_BLOCKING, model,
+                () -> ollama.generateJson(model, system, prompt, format));
+        return new Generation(cacheKey, OllamaClient.extractResponseText(raw), false, elapsedMs(start), null);
+    }
+
+    /** Stores a validated fresh response. Hits are already cached and are ignored. */
+    public void remember(Generation g) {
+        if (g.cacheHit()) return;
+        remember(g.cacheKey(), g.responseText(), g.latencyMs());
+    }
+
+    public void remember(String cacheKey, String responseText, Integer latencyMs) {
+        if (!props.isEnabled() || cacheKey == null || responseText == null) return;
+        memory.put(cacheKey, new Cached(responseText, latencyMs));
+    }
+
+    public void clear() {
+        memory.clear();
+    }
+
+    /**
+     * Backfills {@code cache_key} on successful runs that predate it, so their outputs become
+     * persistent cache entries. Safe to run repeatedly; returns the number of rows keyed.
+     */
+    public int rebuildPersistentTier() {
+        int keyed = 0;
+        long afterId = 0;
+
+        while (true) {
+            List<AiRunRepository.UnkeyedRun> batch = aiRunRepository.findUnkeyedAfter(afterId);
+            if (batch.isEmpty()) break;
+
+            for (AiRunRepository.UnkeyedRun r : batch) {
+                afterId = r.getId();
+                if (r.getSystem() == null || r.getPrompt() == null) continue;
+
+                String k = key(r.getModel(), r.getPromptVersion(), r.getSystem(), r.getPrompt());
+                keyed += aiRunRepository.setCacheKey(r.getId(), k);
+            }
+        }
+        return keyed;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!props.isEnabled() || !props.isPersistent() || !props.isRebuildOnStartup()) return;
+        try {
+            int n = rebuildPersistentTier();
+            if (n > 0) log.info("AI response cache: keyed {} historical ai_runs rows", n);
+        } catch (Exception e) {
+            log.warn("AI response cache: persistent tier rebuild failed", e);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("enabled", props.isEnabled());
+        m.put("entries", memory.size());
+        m.put("maxEntries", memory.maxEntries());
+        m.put("ttlMinutes", props.getTtlMinutes());
+        m.put("memoryHits", memoryHits.sum());
+        m.put("persistentHits", persistentHits.sum());
+        m.put("misses", misses.sum());
+        m.put("hitRatio", hitRatio());
+        m.put("savedLatencyMs", savedLatencyMs.sum());
+        return m;
+    }
+
+    private double hitRatio() {
+        long hits = memoryHits.sum() + persistentHits.sum();
+        long total = hits + misses.sum();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    private void recordHit(LongAdder tierHits, Counter counter, Integer originalLatencyMs) {
+        tierHits.increment();
+        counter.increment();
+        if (originalLatencyMs != null) {
+            savedLatencyMs.add(originalLatencyMs);
+            savedLatency.record(originalLatencyMs);
+        }
+    }
+
+    private static int elapsedMs(long startNanos) {
+        return (int) ((System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    private static String nz(String s) { return s == null ? "" : s; }
+}
@@ -32,8 +32,11 @@ public class AiRun {
     @Column(name = "prompt_version", nullable = false, length = 64)
     private String promptVersion;
 
+    // stored compacted: values of 128+ bytes become {"$blob": hash} references into
+    // ai_prompt_blobs (V13). Read back through ai_input_expand(), not from a loaded entity.
+    // Written once: the entity never holds the compacted form, so an update would inflate it again.
     @JdbcTypeCode(SqlTypes.JSON)
-    @Column(name = "input_json", nullable = false, columnDefinition = "jsonb")
+    @Column(name = "input_json", nullable = false, updatable = false, columnDefinition = "jsonb")
     private JsonNode inputJson;
 
     @JdbcTypeCode(SqlTypes.JSON)
@@ -43,6 +46,10 @@ public class AiRun {
     @Column(name = "latency_ms")
     private Integer latencyMs;
 
+    // only set for streamed runs; null when the response arrived in one piece
+    @Column(name = "first_token_ms")
+    private Integer firstTokenMs;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 16)
     private Status status = Status.SUCCESS;
@@ -50,10 +57,19 @@ public class AiRun {
     @Column(name = "error_message", columnDefinition = "text")
     private String errorMessage;
 
+    // content hash of (model, prompt version, system, prompt); see AiResponseCache
+    @Column(name = "cache_key", length = 64)
+    private String cacheKey;
+
+    @Column(name = "cache_hit", nullable = false)
+    private boolean cacheHit;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt = Instant.now();
 
     public Long getId() { return id; }
+    // assigned up front by AiRunWriter, which writes the row later
+    void setId(Long id) { this.id = id; }
 
     public Long getTicketId() { return ticketId; }
     public void setTicketId(Long ticketId) { this.ticketId = ticketId; }
@@ -79,11 +95,20 @@ public class AiRun {
     public Integer getLatencyMs() { return latencyMs; }
     public void setLatencyMs(Integer latencyMs) { this.latencyMs = latencyMs; }
 
+    public Integer getFirstTokenMs() { return firstTokenMs; }
+    public void setFirstTokenMs(Integer firstTokenMs) { this.firstTokenMs = firstTokenMs; }
+
     public Status getStatus() { return status; }
     public void setStatus(Status status) { this.status = status; }
 
     public String getErrorMessage() { return errorMessage; }
     public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
 
+    public String getCacheKey() { return cacheKey; }
+    public void setCacheKey(String cacheKey) { this.cacheKey = cacheKey; }
+
+    public boolean isCacheHit() { return cacheHit; }
+    public void setCacheHit(boolean cacheHit) { this.cacheHit = cacheHit; }
+
     public Instant getCreatedAt() { return createdAt; }
 }
@@ -0,0 +1,28 @@
+package com.infotrode.support_triage.ai;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.Instant;
+
+/**
+ * One AI run as written by {@code GET /api/export/ai-runs}. The jsonb payloads are selected as
+ * text and copied into the output verbatim: parsing them into trees only to print them again
+ * would be most of the export's cost.
+ */
+public record AiRunExportRow(
+        Long id,
+        Long ticketId,
+        String type,
+        String provider,
+        String model,
+        String promptVersion,
+        AiRun.Status status,
+        @JsonRawValue String inputJson,
+        @JsonRawValue String outputJson,
+        Integer latencyMs,
+        Integer firstTokenMs,
+        String errorMessage,
+        String cacheKey,
+        boolean cacheHit,
+        Instant createdAt
+) {}
@@ -0,0 +1,161 @@
+package com.infotrode.support_triage.ai;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upkeep of the partitioned ai_runs table (V13), at startup and every
+ * {@code ai.runs.maintenance-interval-minutes}:
+ * - creates the monthly partitions for the next {@code ai.runs.partitions-ahead-months}, so
+ *   inserts never land in the default partition;
+ * - detaches and drops every month that ended more than {@code ai.runs.retention-days} ago,
+ *   which costs the same whatever the month holds and leaves nothing to vacuum;
+ * - deletes prompt blobs no remaining run can reference.
+ *
+ * Every node runs it; a transaction-scoped advisory lock lets one node at a time do the work.
+ */
+@Component
+public class AiRunMaintenance implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(AiRunMaintenance.class);
+
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    /** What one pass did; {@code skipped} when another node was already at it. */
+    public record Result(boolean skipped, int partitionsCreated, List<String> partitionsDropped, int blobsDeleted) {}
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final AiRunsProperties props;
+
+    private volatile boolean running;
+    private ScheduledExecutorService scheduler;
+
+    public AiRunMaintenance(JdbcTemplate jdbc, TransactionTemplate tx, AiRunsProperties props) {
+        this.jdbc = jdbc;
+        this.tx = tx;
+        this.props = props;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!props.isMaintenanceEnabled()) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ai-runs-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(1, props.getMaintenanceIntervalMinutes());
+        scheduler.scheduleWithFixedDelay(this::runQuietly, 0, interval, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) scheduler.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runQuietly() {
+        try {
+            Result r = run(Instant.now());
+            if (r.partitionsCreated() > 0 || !r.partitionsDropped().isEmpty() || r.blobsDeleted() > 0) {
+                log.info("ai_runs maintenance: {} partitions created, dropped {}, {} prompt blobs deleted",
+                        r.partitionsCreated(), r.partitionsDropped(), r.blobsDeleted());
+            }
+        } catch (Exception e) {
+            log.warn("ai_runs maintenance failed; retrying in {} min", props.getMaintenanceIntervalMinutes(), e);
+        }
+    }
+
+    /** One pass as of {@code now}. */
+    public Result run(Instant now) {
+        return tx.execute(status -> {
+            Boolean locked = jdbc.queryForObject(
+                    "select pg_try_advisory_xact_lock(hashtext('ai_runs_maintenance'))", Boolean.class);
+            if (!Boolean.TRUE.equals(locked)) return new Result(true, 0, List.of(), 0);
+            // DETACH needs an exclusive lock on ai_runs; rather give up until the next pass than
+            // queue every insert behind a long-running report
+            jdbc.execute("set local lock_timeout = '5s'");
+
+            YearMonth current = YearMonth.from(now.atOffset(ZoneOffset.UTC));
+            OffsetDateTime ahead = current.plusMonths(props.getPartitionsAheadMonths() + 1L).atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+            Integer created = jdbc.queryForObject("select ai_runs_create_partitions(?, ?)", Integer.class,
+                    now.atOffset(ZoneOffset.UTC), ahead);
+
+            List<String> dropped = new ArrayList<>();
+            if (props.getRetentionDays() > 0) {
+                Instant cutoff = now.minus(Duration.ofDays(props.getRetentionDays()));
+                for (String partition : monthlyPartitions()) {
+                    YearMonth month = YearMonth.parse(partition.substring("ai_runs_".length()), PARTITION_MONTH);
+                    Instant end = month.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+                    if (end.isAfter(cutoff)) break; // sorted oldest first
+                    jdbc.execute("alter table ai_runs detach partition " + partition);
+                    jdbc.execute("drop table " + partition);
+                    dropped.add(partition);
+                }
+            }
+
+            // a run references blobs that were used at most a day before it was written (see V13);
+            // one more day covers clock skew between the app, which stamps created_at, and the database.
+            // A run being inserted right now holds a KEY SHARE lock on each blob it uses (V14): skip those.
+            int blobs = jdbc.update("""
+                    delete from ai_prompt_blobs
+                    where hash in (
+                      select hash from ai_prompt_blobs
+                      where last_used_at < (select min(created_at) from ai_runs) - interval '2 days'
+                      for update skip locked)
+                    """);
+            return new Result(false, created == null ? 0 : created, dropped, blobs);
+        });
+    }
+
+    /** Row estimates and sizes per partition, plus the blob store, for {@code /actuator/airuns}. */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("retentionDays", props.getRetentionDays());
+        m.put("partitions", jdbc.queryForList("""
+                select c.relname as name, pg_get_expr(c.relpartbound, c.oid) as bounds,
+                       greatest(c.reltuples, 0)::bigint as "estimatedRows",
+                       pg_total_relation_size(c.oid) as bytes
+                from pg_inherits i join pg_class c on c.oid = i.inhrelid
+                where i.inhparent = 'ai_runs'::regclass
+                order by c.relname
+                """));
+        m.put("promptBlobs", jdbc.queryForMap("""
+                select count(*) as count, pg_total_relation_size('ai_prompt_blobs') as bytes from ai_prompt_blobs
+                """));
+        return m;
+    }
+
+    private List<String> monthlyPartitions() {
+        return jdbc.queryForList("""
+                select c.relname
+                from pg_inherits i join pg_class c on c.oid = i.inhrelid
+                where i.inhparent = 'ai_runs'::regclass and c.relname ~ '^ai_runs_[0-9]{4}_[0-9]{2}$'
+                order by c.relname
+                """, String.class);
+    }
+}
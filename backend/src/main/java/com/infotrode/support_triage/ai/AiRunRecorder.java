@@ -0,0 +1,60 @@
+package com.infotrode.support_triage.ai;
+
+import com.infotrode.support_triage.notes.TicketNote;
+import com.infotrode.support_triage.notes.TicketNoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Write phase of the AI pipeline.
+ *
+ * The AI services read the ticket, call Ollama with no transaction open, and only then come here
+ * to persist the outcome. The ai_runs row is written behind the response by {@link AiRunWriter};
+ * its id is assigned here, so the response can still point at it.
+ */
+@Component
+public class AiRunRecorder {
+    private static final Logger log = LoggerFactory.getLogger(AiRunRecorder.class);
+
+    private final AiRunWriter writer;
+    private final AiRunStats stats;
+    private final TicketNoteRepository noteRepository;
+
+    public AiRunRecorder(AiRunWriter writer, AiRunStats stats, TicketNoteRepository noteRepository) {
+        this.writer = writer;
+        this.stats = stats;
+        this.noteRepository = noteRepository;
+    }
+
+    /** Returns the run with its id set; the row is written shortly after. */
+    public AiRun record(AiRun run) {
+        stats.record(run);
+        writer.submit(run);
+        return run;
+    }
+
+    /**
+     * Saves the note now, since the response returns its id and the UI shows it at once, and the
+     * run behind it. Returns the saved note.
+     */
+    public TicketNote recordWithNote(AiRun run, TicketNote note) {
+        TicketNote saved = noteRepository.save(note);
+        stats.record(run);
+        writer.submit(run);
+        return saved;
+    }
+
+    /**
+     * A failed audit write must not mask the original AI error. It only fails here when the queue
+     * was full and the caller's own write failed too; the writer logs and counts its own failures.
+     */
+    public void recordFailure(AiRun run) {
+        stats.record(run);
+        try {
+            writer.submit(run);
+        } catch (Exception e) {
+            log.error("Failed to record {} ai_run for ticket {}", run.getType(), run.getTicketId(), e);
+        }
+    }
+}
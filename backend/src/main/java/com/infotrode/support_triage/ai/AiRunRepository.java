@@ -1,5 +1,67 @@
 package com.infotrode.support_triage.ai;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface AiRunRepository extends JpaRepository<AiRun, Long> {}
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface AiRunRepository extends JpaRepository<AiRun, Long> {
+
+    // persistent tier of AiResponseCache: latest real (non-cached) success for a request hash
+    Optional<AiRun> findFirstByCacheKeyAndStatusAndCacheHitFalseOrderByIdDesc(String cacheKey, AiRun.Status status);
+
+    interface UnkeyedRun {
+        long getId();
+        String getModel();
+        String getPromptVersion();
+        String getSystem();
+        String getPrompt();
+    }
+
+    // successful rows written before cache keys existed, with system and prompt read back from
+    // the blob store (V13); used to rebuild the persistent tier in batches
+    @Query(value = """
+      select r.id as id, r.model as model, r.prompt_version as promptVersion,
+             i ->> 'system' as system, i ->> 'prompt' as prompt
+      from ai_runs r, ai_input_expand(r.input_json) i
+      where r.id > :afterId and r.cache_key is null and r.status = 'SUCCESS'
+      order by r.id
+      limit 200
+    """, nativeQuery = true)
+    List<UnkeyedRun> findUnkeyedAfter(@Param("afterId") long afterId);
+
+    @Modifying
+    @Transactional
+    @Query("update AiRun r set r.cacheKey = :cacheKey where r.id = :id")
+    int setCacheKey(@Param("id") Long id, @Param("cacheKey") String cacheKey);
+
+    // export: server-side cursor, consume inside a transaction and close. input/output are cast
+    // to text so the driver hands over the jsonb as a string instead of Jackson building a tree;
+    // the input comes back whole, blobs (V13) expanded
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+      select new com.infotrode.support_triage.ai.AiRunExportRow(
+        r.id, r.ticketId, r.type, r.provider, r.model, r.promptVersion, r.status,
+        cast(function('ai_input_expand', r.inputJson) as String), cast(r.outputJson as String),
+        r.latencyMs, r.firstTokenMs, r.errorMessage, r.cacheKey, r.cacheHit, r.createdAt)
+      from AiRun r
+      where (:status is null or r.status = :status)
+        and r.createdAt >= :from
+        and r.createdAt < :to
+      order by r.id
+    """)
+    Stream<AiRunExportRow> streamForExport(
+            @Param("status") AiRun.Status status,
+            @Param("from") Instant from,
+            @Param("to") Instant to
+    );
+}
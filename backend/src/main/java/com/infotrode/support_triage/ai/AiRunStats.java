@@ -0,0 +1,201 @@
+package com.infotrode.support_triage.ai;
+
+import com.infotrode.support_triage.common.RollingHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolling latency percentiles and error rates of the Ollama calls behind ai_runs, per
+ * (type, model, prompt version, status), over the last {@code ai.stats.window-minutes}.
+ *
+ * Every run is recorded as it is handed to {@link AiRunRecorder}, without a lock (see
+ * {@link RollingHistogram}), so a model or prompt change shows in {@code /actuator/aistats}
+ * within a slot. Cache hits are left out: no model ran. At startup the window is seeded from
+ * ai_runs before the web server takes requests, so a restart doesn't blank the figures.
+ */
+@Component
+public class AiRunStats implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(AiRunStats.class);
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    public record Slice(String type, String model, String promptVersion, String status) {}
+
+    private static final Comparator<Slice> ORDER = Comparator.comparing(Slice::type)
+            .thenComparing(Slice::model)
+            .thenComparing(Slice::promptVersion)
+            .thenComparing(Slice::status);
+
+    private final JdbcTemplate jdbc;
+    private final AiStatsProperties props;
+    private final Map<Slice, RollingHistogram> slices = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private ScheduledExecutorService rotator;
+
+    public AiRunStats(JdbcTemplate jdbc, AiStatsProperties props) {
+        this.jdbc = jdbc;
+        this.props = props;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!props.isEnabled()) return;
+        if (props.isSeedOnStartup()) {
+            try {
+                seed(Instant.now());
+            } catch (Exception e) {
+                log.warn("Could not seed AI run stats from ai_runs; starting empty", e);
+            }
+        }
+        rotator = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ai-stats-rotator");
+            t.setDaemon(true);
+            return t;
+        });
+        long slotMs = slot().toMillis();
+        rotator.scheduleAtFixedRate(this::rotate, slotMs - System.currentTimeMillis() % slotMs, slotMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (rotator != null) rotator.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // seeded before the web server and the AI job worker start recording runs
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 8192;
+    }
+
+    public void record(AiRun run) {
+        if (!props.isEnabled() || run.isCacheHit()) return;
+        RollingHistogram h = slices.computeIfAbsent(slice(run.getType(), run.getModel(), run.getPromptVersion(),
+                run.getStatus().name()), s -> histogram(System.currentTimeMillis()));
+        if (run.getLatencyMs() == null) h.recordWithoutValue();
+        else h.record(run.getLatencyMs());
+    }
+
+    /** Loads the runs of the last window; returns how many. */
+    int seed(Instant now) {
+        long[] n = {0};
+        jdbc.query("""
+                select type, model, prompt_version, status, latency_ms, created_at
+                from ai_runs
+                where created_at >= ? and cache_hit = false
+                """, rs -> {
+            long at = rs.getObject("created_at", OffsetDateTime.class).toInstant().toEpochMilli();
+            Number latency = (Number) rs.getObject("latency_ms");
+            slices.computeIfAbsent(slice(rs.getString("type"), rs.getString("model"), rs.getString("prompt_version"),
+                            rs.getString("status")), s -> histogram(now.toEpochMilli()))
+                    .recordAt(at, latency == null ? null : latency.longValue());
+            n[0]++;
+        }, now.minus(window()).atOffset(ZoneOffset.UTC));
+        log.info("AI run stats: seeded {} runs from the last {} min", n[0], props.getWindowMinutes());
+        return (int) n[0];
+    }
+
+    void rotate() {
+        long now = System.currentTimeMillis();
+        slices.values().forEach(h -> h.rotate(now));
+    }
+
+    /** Figures over the last {@code minutes} (at most the configured window). */
+    public Map<String, Object> stats(Integer minutes) {
+        Duration window = minutes == null || minutes <= 0 || minutes > props.getWindowMinutes()
+                ? window() : Duration.ofMinutes(minutes);
+        long now = System.currentTimeMillis();
+
+        Map<Slice, RollingHistogram.Snapshot> snapshots = new LinkedHashMap<>();
+        slices.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(ORDER))
+                .forEach(e -> {
+                    RollingHistogram.Snapshot s = e.getValue().snapshot(now, window);
+                    if (s.events() > 0) snapshots.put(e.getKey(), s);
+                });
+
+        // error rate per (type, model, prompt version), over all its statuses
+        Map<List<String>, long[]> runsAndErrors = new LinkedHashMap<>();
+        snapshots.forEach((slice, s) -> {
+            long[] re = runsAndErrors.computeIfAbsent(
+                    List.of(slice.type(), slice.model(), slice.promptVersion()), k -> new long[2]);
+            re[0] += s.events();
+            if (AiRun.Status.ERROR.name().equals(slice.status())) re[1] += s.events();
+        });
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        snapshots.forEach((slice, s) -> {
+            long[] re = runsAndErrors.get(List.of(slice.type(), slice.model(), slice.promptVersion()));
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("type", slice.type());
+            row.put("model", slice.model());
+            row.put("promptVersion", slice.promptVersion());
+            row.put("status", slice.status());
+            row.put("runs", s.events());
+            row.put("errorRate", (double) re[1] / re[0]);
+            if (s.values() > 0) {
+                Map<String, Object> latency = new LinkedHashMap<>();
+                latency.put("count", s.values());
+                latency.put("p50", s.p50());
+                latency.put("p95", s.p95());
+                latency.put("p99", s.p99());
+                latency.put("max", s.max());
+                latency.put("mean", Math.round(s.mean()));
+                row.put("latencyMs", latency);
+            }
+            rows.add(row);
+        });
+
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("windowMinutes", window.toMinutes());
+        m.put("slotSeconds", slot().toSeconds());
+        m.put("slices", rows);
+        return m;
+    }
+
+    private RollingHistogram histogram(long nowMillis) {
+        // plus the slot in progress
+        int slots = (int) Math.max(1, window().toMillis() / slot().toMillis()) + 1;
+        return new RollingHistogram(slot(), slots, Math.max(1, props.getMaxLatencyMs()), SIGNIFICANT_DIGITS, nowMillis);
+    }
+
+    private Duration slot() {
+        return Duration.ofSeconds(Math.max(1, props.getSlotSeconds()));
+    }
+
+    private Duration window() {
+        return Duration.ofMinutes(Math.max(1, props.getWindowMinutes()));
+    }
+
+    private static Slice slice(String type, String model, String promptVersion, String status) {
+        return new Slice(nz(type), nz(model), nz(promptVersion), nz(status));
+    }
+
+    private static String nz(String s) {
+        return s == null ? "" : s;
+    }
+}
@@ -0,0 +1,304 @@
+package com.infotrode.support_triage.ai;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind for ai_runs: the AI services hand their run over and return; one background
+ * thread inserts what has queued up in multi-row batches.
+ *
+ * Ids come from ai_runs_id_seq in blocks when the run is handed over, so responses can still
+ * carry their {@code aiRunId}; the row follows within one batch. Nothing is dropped for load:
+ * when the queue is full the caller waits up to {@code ai.runs.writer-enqueue-timeout-ms} and
+ * then writes its own run. The only rows that never make it are ones the database refuses (the
+ * ticket was deleted meanwhile) and, if the database stays down through shutdown, what is still
+ * queued after {@code ai.runs.writer-shutdown-timeout-seconds}; both are logged and counted in
+ * {@code ai.runs.writer.dropped}, as is a batch lost to an unexpected error.
+ *
+ * "Down" includes not getting a connection at all: the transaction manager reports that as a
+ * {@link TransactionException}, which is retried like any {@link DataAccessException}.
+ */
+@Component
+public class AiRunWriter implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(AiRunWriter.class);
+
+    private static final String INSERT = """
+            insert into ai_runs (id, ticket_id, type, provider, model, prompt_version, input_json, output_json,
+                                 latency_ms, created_at, status, error_message, first_token_ms, cache_key, cache_hit)
+            values (?, ?, ?, ?, ?, ?, ?::jsonb, ?::jsonb, ?, ?, ?, ?, ?, ?, ?)
+            on conflict do nothing
+            """;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ObjectMapper om;
+    private final AiRunsProperties props;
+    private final BlockingQueue<AiRun> queue;
+
+    private final ArrayDeque<Long> ids = new ArrayDeque<>();
+
+    // handed over / finished (written or dropped); flush() waits for the second to catch up
+    private final Object progress = new Object();
+    private long submitted;
+    private long finished;
+
+    private final Timer flushLatency;
+    private final DistributionSummary batchSize;
+    private final Counter inline;
+    private final Counter rejected;
+    private final Counter abandoned;
+    private final Counter failed;
+
+    private volatile boolean running;
+    private volatile long giveUpAt = Long.MAX_VALUE;
+    private volatile Thread thread;
+
+    public AiRunWriter(JdbcTemplate jdbc, TransactionTemplate tx, ObjectMapper om, AiRunsProperties props,
+                       MeterRegistry registry) {
+        this.jdbc = jdbc;
+        this.tx = tx;
+        this.om = om;
+        this.props = props;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, props.getWriterQueueCapacity()));
+
+        Gauge.builder("ai.runs.writer.queue", queue, BlockingQueue::size)
+                .description("ai_runs rows waiting to be written").register(registry);
+        this.flushLatency = Timer.builder("ai.runs.writer.flush")
+                .description("Time to write one batch of ai_runs rows, retries included")
+                .register(registry);
+        this.batchSize = DistributionSummary.builder("ai.runs.writer.batch.size").register(registry);
+        this.inline = Counter.builder("ai.runs.writer.inline")
+                .description("Runs written on the caller's thread: queue full, writer stopped or write-behind off")
+                .register(registry);
+        this.rejected = Counter.builder("ai.runs.writer.dropped").tag("reason", "rejected").register(registry);
+        this.abandoned = Counter.builder("ai.runs.writer.dropped").tag("reason", "shutdown").register(registry);
+        this.failed = Counter.builder("ai.runs.writer.dropped").tag("reason", "error").register(registry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        giveUpAt = Long.MAX_VALUE;
+        if (!props.isWriteBehind()) return;
+        thread = new Thread(this::loop, "ai-runs-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Drains the queue before returning, for up to {@code ai.runs.writer-shutdown-timeout-seconds}. */
+    @Override
+    public void stop() {
+        giveUpAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(props.getWriterShutdownTimeoutSeconds());
+        running = false;
+        if (thread == null) return;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(props.getWriterShutdownTimeoutSeconds() + 5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+        // handed over while the writer was finishing
+        List<AiRun> late = new ArrayList<>();
+        queue.drainTo(late);
+        if (late.isEmpty()) return;
+        try {
+            insert(late);
+        } catch (DataAccessException | TransactionException e) {
+            log.error("Shutting down: could not write {} ai_runs rows", late.size(), e);
+            abandoned.increment(late.size());
+        }
+        completed(late.size());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // after the web server and the AI job worker, which are still handing runs over while they stop
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /** Reserves the run's id and queues it; the caller can use {@code run.getId()} at once. */
+    public void submit(AiRun run) {
+        if (run.getId() == null) run.setId(nextId());
+        if (running && thread != null) {
+            try {
+                synchronized (progress) {
+                    submitted++;
+                }
+                if (queue.offer(run, props.getWriterEnqueueTimeoutMs(), TimeUnit.MILLISECONDS)) return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            completed(1); // not queued after all
+        }
+        // backpressure: the caller pays for its own write
+        inline.increment();
+        insert(List.of(run));
+    }
+
+    /** Waits until every run submitted so far is written (or dropped); false on timeout. */
+    public boolean flush(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (progress) {
+            long target = submitted;
+            while (finished < target) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) return false;
+                TimeUnit.NANOSECONDS.timedWait(progress, left);
+            }
+        }
+        return true;
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    private long nextId() {
+        synchronized (ids) {
+            if (ids.isEmpty()) {
+                ids.addAll(jdbc.queryForList("select nextval('ai_runs_id_seq') from generate_series(1, ?)",
+                        Long.class, Math.max(1, props.getWriterBatchSize())));
+            }
+            return ids.poll();
+        }
+    }
+
+    private void loop() {
+        List<AiRun> batch = new ArrayList<>(props.getWriterBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                AiRun first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, Math.max(1, props.getWriterBatchSize()) - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("ai_runs writer failed on a batch of {}; dropping it", batch.size(), e);
+                failed.increment(batch.size());
+            } finally {
+                completed(batch.size());
+                batch.clear();
+            }
+        }
+        if (!queue.isEmpty()) {
+            log.error("ai_runs writer stopped with {} runs unwritten", queue.size());
+            abandoned.increment(queue.size());
+            completed(queue.size());
+            queue.clear();
+        }
+    }
+
+    /** Retries until written, or until shutdown gives up; the insert is idempotent. */
+    private void write(List<AiRun> batch) throws InterruptedException {
+        long backoffMs = 100;
+        long start = System.nanoTime();
+        while (true) {
+            try {
+                try {
+                    insert(batch);
+                } catch (DataIntegrityViolationException e) {
+                    // one row the database refuses must not take the rest of the batch with it
+                    for (AiRun run : batch) insertOrReject(run);
+                }
+                flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                batchSize.record(batch.size());
+                return;
+            } catch (DataAccessException | TransactionException e) {
+                if (System.nanoTime() - giveUpAt > 0) {
+                    log.error("Shutting down: giving up on {} ai_runs rows", batch.size(), e);
+                    abandoned.increment(batch.size());
+                    return;
+                }
+                log.warn("Writing {} ai_runs rows failed; retrying in {} ms", batch.size(), backoffMs, e);
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    private void insertOrReject(AiRun run) {
+        try {
+            insert(List.of(run));
+        } catch (DataIntegrityViolationException e) {
+            log.error("Dropping ai_run {} ({} for ticket {}): {}", run.getId(), run.getType(), run.getTicketId(),
+                    e.getMostSpecificCause().getMessage());
+            rejected.increment();
+        }
+    }
+
+    private void insert(List<AiRun> runs) {
+        tx.executeWithoutResult(status -> jdbc.batchUpdate(INSERT, runs, runs.size(), this::bind));
+    }
+
+    private void bind(PreparedStatement ps, AiRun run) throws SQLException {
+        ps.setLong(1, run.getId());
+        ps.setLong(2, run.getTicketId());
+        ps.setString(3, run.getType());
+        ps.setString(4, run.getProvider());
+        ps.setString(5, run.getModel());
+        ps.setString(6, run.getPromptVersion());
+        ps.setString(7, json(run.getInputJson() == null ? om.createObjectNode() : run.getInputJson()));
+        ps.setString(8, json(run.getOutputJson()));
+        ps.setObject(9, run.getLatencyMs(), Types.INTEGER);
+        ps.setObject(10, OffsetDateTime.ofInstant(run.getCreatedAt(), ZoneOffset.UTC));
+        ps.setString(11, run.getStatus().name());
+        ps.setString(12, run.getErrorMessage());
+        ps.setObject(13, run.getFirstTokenMs(), Types.INTEGER);
+        ps.setString(14, run.getCacheKey());
+        ps.setBoolean(15, run.isCacheHit());
+    }
+
+    private String json(JsonNode node) {
+        if (node == null) return null;
+        try {
+            return om.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private void completed(int n) {
+        if (n == 0) return;
+        synchronized (progress) {
+            finished += n;
+            progress.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.infotrode.support_triage.ai;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * {@code /actuator/airuns}: partitions of ai_runs and the size of the prompt blob store.
+ * POST runs {@link AiRunMaintenance} now instead of waiting for its next pass.
+ */
+@Component
+@Endpoint(id = "airuns")
+public class AiRunsEndpoint {
+
+    private final AiRunMaintenance maintenance;
+
+    public AiRunsEndpoint(AiRunMaintenance maintenance) {
+        this.maintenance = maintenance;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return maintenance.stats();
+    }
+
+    @WriteOperation
+    public AiRunMaintenance.Result maintain() {
+        return maintenance.run(Instant.now());
+    }
+}
@@ -0,0 +1,47 @@
+package com.infotrode.support_triage.ai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "ai.runs")
+public class AiRunsProperties {
+    // a monthly partition is dropped once all of it is older than this; 0 keeps runs forever,
+    // the default, so that upgrading never deletes history nobody asked to expire
+    private int retentionDays = 0;
+    private int partitionsAheadMonths = 3;
+    private boolean maintenanceEnabled = true;
+    private long maintenanceIntervalMinutes = 360;
+    // write-behind (AiRunWriter); false writes every run on the caller's thread
+    private boolean writeBehind = true;
+    private int writerQueueCapacity = 10_000;
+    private int writerBatchSize = 200;
+    // a full queue makes the caller wait this long, then write its run itself
+    private long writerEnqueueTimeoutMs = 100;
+    private long writerShutdownTimeoutSeconds = 30;
+
+    public int getRetentionDays() { return retentionDays; }
+    public void setRetentionDays(int retentionDays) { this.retentionDays = retentionDays; }
+
+    public int getPartitionsAheadMonths() { return partitionsAheadMonths; }
+    public void setPartitionsAheadMonths(int partitionsAheadMonths) { this.partitionsAheadMonths = partitionsAheadMonths; }
+
+    public boolean isMaintenanceEnabled() { return maintenanceEnabled; }
+    public void setMaintenanceEnabled(boolean maintenanceEnabled) { this.maintenanceEnabled = maintenanceEnabled; }
+
+    public long getMaintenanceIntervalMinutes() { return maintenanceIntervalMinutes; }
+    public void setMaintenanceIntervalMinutes(long maintenanceIntervalMinutes) { this.maintenanceIntervalMinutes = maintenanceIntervalMinutes; }
+
+    public boolean isWriteBehind() { return writeBehind; }
+    public void setWriteBehind(boolean writeBehind) { this.writeBehind = writeBehind; }
+
+    public int getWriterQueueCapacity() { return writerQueueCapacity; }
+    public void setWriterQueueCapacity(int writerQueueCapacity) { this.writerQueueCapacity = writerQueueCapacity; }
+
+    public int getWriterBatchSize() { return writerBatchSize; }
+    public void setWriterBatchSize(int writerBatchSize) { this.writerBatchSize = writerBatchSize; }
+
+    public long getWriterEnqueueTimeoutMs() { return writerEnqueueTimeoutMs; }
+    public void setWriterEnqueueTimeoutMs(long writerEnqueueTimeoutMs) { this.writerEnqueueTimeoutMs = writerEnqueueTimeoutMs; }
+
+    public long getWriterShutdownTimeoutSeconds() { return writerShutdownTimeoutSeconds; }
+    public void setWriterShutdownTimeoutSeconds(long writerShutdownTimeoutSeconds) { this.writerShutdownTimeoutSeconds = writerShutdownTimeoutSeconds; }
+}
@@ -0,0 +1,29 @@
+package com.infotrode.support_triage.ai;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/aistats?minutes=}: latency percentiles and error rates of recent AI runs per
+ * type, model, prompt version and status, from {@link AiRunStats}. {@code minutes} narrows the
+ * window (default and maximum {@code ai.stats.window-minutes}).
+ */
+@Component
+@Endpoint(id = "aistats")
+public class AiStatsEndpoint {
+
+    private final AiRunStats stats;
+
+    public AiStatsEndpoint(AiRunStats stats) {
+        this.stats = stats;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats(@Nullable Integer minutes) {
+        return stats.stats(minutes);
+    }
+}
@@ -0,0 +1,30 @@
+package com.infotrode.support_triage.ai;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "ai.stats")
+public class AiStatsProperties {
+    private boolean enabled = true;
+    // a run shows up in /actuator/aistats at most this long after it finished
+    private int slotSeconds = 30;
+    private int windowMinutes = 60;
+    // latencies above this are counted as this
+    private long maxLatencyMs = 600_000;
+    // read the last window of ai_runs at startup, so a restart doesn't blank the figures
+    private boolean seedOnStartup = true;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getSlotSeconds() { return slotSeconds; }
+    public void setSlotSeconds(int slotSeconds) { this.slotSeconds = slotSeconds; }
+
+    public int getWindowMinutes() { return windowMinutes; }
+    public void setWindowMinutes(int windowMinutes) { this.windowMinutes = windowMinutes; }
+
+    public long getMaxLatencyMs() { return maxLatencyMs; }
+    public void setMaxLatencyMs(long maxLatencyMs) { this.maxLatencyMs = maxLatencyMs; }
+
+    public boolean isSeedOnStartup() { return seedOnStartup; }
+    public void setSeedOnStartup(boolean seedOnStartup) { this.seedOnStartup = seedOnStartup; }
+}
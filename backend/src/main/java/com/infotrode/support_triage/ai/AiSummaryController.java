@@ -4,20 +4,23 @@ import com.infotrode.support_triage.ai.dto.AiSummaryRequest;
 import com.infotrode.support_triage.ai.dto.AiSummaryResponse;
 import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 @RestController
 @RequestMapping("/api/ai")
 public class AiSummaryController {
 
     private final AiSummaryService service;
+    private final AiAsync async;
 
-    public AiSummaryController(AiSummaryService service) {
+    public AiSummaryController(AiSummaryService service, AiAsync async) {
         this.service = service;
+        this.async = async;
     }
 
     @PostMapping("/summary")
-    public AiSummaryResponse summary(@Valid @RequestBody AiSummaryRequest req) {
+    public WebAsyncTask<AiSummaryResponse> summary(@Valid @RequestBody AiSummaryRequest req) {
         boolean save = Boolean.TRUE.equals(req.saveAsNote());
-        return service.summarize(req.ticketId(), save);
+        return async.run(() -> service.summarize(req.ticketId(), save));
     }
 }
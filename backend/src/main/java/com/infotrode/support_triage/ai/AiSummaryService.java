@@ -4,54 +4,57 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.infotrode.support_triage.ai.dto.AiSummaryResponse;
 import com.infotrode.support_triage.notes.TicketNote;
-import com.infotrode.support_triage.notes.TicketNoteRepository;
-import com.infotrode.support_triage.ticket.Ticket;
-import com.infotrode.support_triage.ticket.TicketRepository;
-import jakarta.persistence.EntityNotFoundException;
+import com.infotrode.support_triage.ticket.TicketService;
+import com.infotrode.support_triage.ticket.dto.TicketResponse;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Duration;
-import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class AiSummaryService {
 
-    private final TicketRepository ticketRepository;
-    private final TicketNoteRepository noteRepository;
-    private final AiRunRepository aiRunRepository;
-    private final OllamaClient ollama;
+    private final TicketService ticketService;
+    private final AiRunRecorder recorder;
+    private final AiResponseCache cache;
+    private final AiMetrics metrics;
+    private final AiRequestCoalescer coalescer;
+    private final PromptRegistry prompts;
     private final OllamaProperties props;
     private final ObjectMapper om;
 
     public AiSummaryService(
-            TicketRepository ticketRepository,
-            TicketNoteRepository noteRepository,
-            AiRunRepository aiRunRepository,
-            OllamaClient ollama,
+            TicketService ticketService,
+            AiRunRecorder recorder,
+            AiResponseCache cache,
+            AiMetrics metrics,
+            AiRequestCoalescer coalescer,
+            PromptRegistry prompts,
             OllamaProperties props,
             ObjectMapper om
     ) {
-        this.ticketRepository = ticketRepository;
-        this.noteRepository = noteRepository;
-        this.aiRunRepository = aiRunRepository;
-        this.ollama = ollama;
+        this.ticketService = ticketService;
+        this.recorder = recorder;
+        this.cache = cache;
+        this.metrics = metrics;
+        this.coalescer = coalescer;
+        this.prompts = prompts;
         this.props = props;
         this.om = om;
     }
 
-    @Transactional
     public AiSummaryResponse summarize(long ticketId, boolean saveAsNote) {
-        Ticket t = ticketRepository.findById(ticketId)
-                .orElseThrow(() -> new EntityNotFoundException("Ticket not found: " + ticketId));
+        TicketResponse t = ticketService.find(ticketId);
 
-        JsonNode schema = summarySchema();
+        // saveAsNote is part of the key: a double-clicked "save" writes one note, not two
+        AiRequestCoalescer.Key key = new AiRequestCoalescer.Key(
+                "SUMMARY", ticketId, t.getUpdatedAt(), prompts.summary().version(), saveAsNote ? "note" : null);
+        return coalescer.run(key, () -> summarize(t, saveAsNote));
+    }
 
-        String schemaJson;
-        try { schemaJson = om.writeValueAsString(schema); }
-        catch (Exception e) { schemaJson = "{}"; }
+    private AiSummaryResponse summarize(TicketResponse t, boolean saveAsNote) {
+        long ticketId = t.getId();
+        PromptRegistry.Prompt p = prompts.summary();
 
         String prompt = PromptTemplates.summaryUserPrompt(
                 t.getSubject(),
@@ -59,8 +62,7 @@ public class AiSummaryService {
                 t.getRequesterEmail(),
                 t.getCategory(),
                 String.valueOf(t.getStatus()),
-                String.valueOf(t.getPriority()),
-                schemaJson
+                String.valueOf(t.getPriority())
         );
 
         AiRun run = new AiRun();
@@ -68,7 +70,7 @@ public class AiSummaryService {
         run.setType("SUMMARY");
         run.setProvider("ollama");
         run.setModel(props.getModel());
-        run.setPromptVersion(PromptTemplates.SUMMARY_V1);
+        run.setPromptVersion(p.version());
 
         // input_json is NOT NULL in AiRun, so always set it.
         Map<String, Object> ticketSnapshot = new LinkedHashMap<>();
@@ -82,23 +84,23 @@ public class AiSummaryService {
         ticketSnapshot.put("tags", t.getTags());
 
         Map<String, Object> payload = new LinkedHashMap<>();
-        payload.put("system", PromptTemplates.SUMMARY_SYSTEM);
+        payload.put("system", p.system());
         payload.put("prompt", prompt);
-        payload.put("schema", schema);
+        payload.put("schema", p.schema());
         payload.put("ticketSnapshot", ticketSnapshot);
         payload.put("saveAsNote", saveAsNote);
 
         run.setInputJson(om.valueToTree(payload));
-
-        Instant start = Instant.now();
+        run.setCacheKey(cache.key(props.getModel(), p.version(), p.system(), prompt));
 
         try {
-            JsonNode raw = ollama.generateJson(props.getModel(), PromptTemplates.SUMMARY_SYSTEM, prompt);
+            AiResponseCache.Generation gen = cache.generate(
+                    run.getType(), run.getCacheKey(), props.getModel(), p.system(), prompt, p.schema());
 
-            int latencyMs = (int) Duration.between(start, Instant.now()).toMillis();
-            run.setLatencyMs(latencyMs);
+            run.setLatencyMs(gen.latencyMs());
+            run.setCacheHit(gen.cacheHit());
 
-            String responseText = OllamaClient.extractResponseText(raw);
+            String responseText = gen.responseText();
             if (responseText == null || responseText.isBlank()) {
                 throw new RuntimeException("Ollama returned empty response text.");
             }
@@ -107,6 +109,7 @@ public class AiSummaryService {
             try {
                 output = om.readTree(responseText);
             } catch (Exception parseEx) {
+                metrics.parseFailure(run.getType(), run.getModel());
                 throw new RuntimeException("Ollama response was not valid JSON: " + responseText, parseEx);
             }
 
@@ -142,13 +145,18 @@ public class AiSummaryService {
                 note.setTicketId(ticketId);
                 note.setType("ai_summary");
                 note.setBody(formatNoteBody(t.getSubject(), summary, keyPoints));
-                savedNoteId = noteRepository.save(note).getId();
+                savedNoteId = recorder.recordWithNote(run, note).getId();
+            } else {
+                recorder.record(run);
             }
 
-            aiRunRepository.save(run);
+            cache.remember(gen);
 
-            return new AiSummaryResponse(ticketId, summary, keyPoints, savedNoteId);
+            return new AiSummaryResponse(ticketId, summary, keyPoints, savedNoteId, run.getId());
 
+        } catch (AiUnavailableException e) {
+            // shed before Ollama was called: nothing ran, so no ai_runs row
+            throw e;
         } catch (Exception e) {
             String msg = (e.getMessage() == null || e.getMessage().isBlank())
                     ? e.getClass().getSimpleName()
@@ -163,27 +171,12 @@ public class AiSummaryService {
                 run.setInputJson(om.createObjectNode());
             }
 
-            try { aiRunRepository.save(run); } catch (Exception ignored) {}
+            recorder.recordFailure(run);
 
             throw new RuntimeException("AI summary failed: " + msg, e);
         }
     }
 
-    private JsonNode summarySchema() {
-        Map<String, Object> schema = Map.of(
-                "type", "object",
-                "required", List.of("summary", "keyPoints"),
-                "properties", Map.of(
-                        "summary", Map.of("type", "string"),
-                        "keyPoints", Map.of(
-                                "type", "array",
-                                "items", Map.of("type", "string")
-                        )
-                )
-        );
-        return om.valueToTree(schema);
-    }
-
     private String formatNoteBody(String subject, String summary, List<String> keyPoints) {
         StringBuilder sb = new StringBuilder();
         sb.append("AI Summary");
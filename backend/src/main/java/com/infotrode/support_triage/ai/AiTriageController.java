@@ -1,22 +1,78 @@
 package com.infotrode.support_triage.ai;
 
+import com.infotrode.support_triage.ai.dto.AiBulkTriageRequest;
+import com.infotrode.support_triage.ai.dto.AiBulkTriageSummary;
 import com.infotrode.support_triage.ai.dto.AiTriageRequest;
 import com.infotrode.support_triage.ai.dto.AiTriageSuggestion;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/ai")
 public class AiTriageController {
+    private static final Logger log = LoggerFactory.getLogger(AiTriageController.class);
 
     private final AiTriageService service;
+    private final AiBulkTriageService bulkService;
+    private final AiAsync async;
+    private final TaskExecutor streamExecutor;
 
-    public AiTriageController(AiTriageService service) {
+    public AiTriageController(
+            AiTriageService service,
+            AiBulkTriageService bulkService,
+            AiAsync async,
+            @Qualifier("aiStreamExecutor") TaskExecutor streamExecutor
+    ) {
         this.service = service;
+        this.bulkService = bulkService;
+        this.async = async;
+        this.streamExecutor = streamExecutor;
     }
 
     @PostMapping("/triage")
-    public AiTriageSuggestion triage(@Valid @RequestBody AiTriageRequest req) {
-        return service.triage(req.ticketId());
+    public WebAsyncTask<AiTriageSuggestion> triage(@Valid @RequestBody AiTriageRequest req) {
+        return async.run(() -> service.triage(req.ticketId()));
+    }
+
+    /**
+     * Bulk triage over SSE. Events:
+     * - "start":    {"total": n, "parallelism": p}
+     * - "progress": AiBulkTriageProgress, one per ticket as it completes
+     * - "done":     AiBulkTriageSummary (throughput + latency percentiles)
+     * - "error":    fatal failure of the whole run
+     */
+    @PostMapping(path = "/triage/bulk", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter bulkTriage(@Valid @RequestBody AiBulkTriageRequest req) {
+        // resolve up front so a bad filter is a plain 400, not an SSE error
+        List<Long> ids = bulkService.resolveTicketIds(req);
+        int parallelism = bulkService.effectiveParallelism(req.parallelism());
+        boolean apply = Boolean.TRUE.equals(req.apply());
+
+        SseEmitter emitter = new SseEmitter(0L); // a backlog can take a long time; ends with "done"
+
+        streamExecutor.execute(() -> {
+            try {
+                SseEvents.send(emitter, "start", Map.of("total", ids.size(), "parallelism", parallelism));
+                AiBulkTriageSummary summary = bulkService.run(
+                        ids, apply, parallelism, p -> SseEvents.send(emitter, "progress", p));
+                SseEvents.send(emitter, "done", summary);
+                emitter.complete();
+            } catch (Exception e) {
+                log.error("Bulk triage failed", e);
+                SseEvents.sendErrorAndComplete(emitter, e);
+            }
+        });
+
+        return emitter;
     }
 }
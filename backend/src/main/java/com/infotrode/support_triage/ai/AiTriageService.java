@@ -4,16 +4,10 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.infotrode.support_triage.ai.dto.AiTriageSuggestion;
-import com.infotrode.support_triage.ticket.Ticket;
-import com.infotrode.support_triage.ticket.TicketPriority;
-import com.infotrode.support_triage.ticket.TicketRepository;
-import jakarta.persistence.EntityNotFoundException;
+import com.infotrode.support_triage.ticket.TicketService;
+import com.infotrode.support_triage.ticket.dto.TicketResponse;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Duration;
-import java.time.Instant;
-import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,42 +15,52 @@ import java.util.Map;
 @Service
 public class AiTriageService {
 
-    private final TicketRepository ticketRepository;
-    private final AiRunRepository aiRunRepository;
-    private final OllamaClient ollama;
+    private final TicketService ticketService;
+    private final AiRunRecorder recorder;
+    private final AiResponseCache cache;
+    private final AiMetrics metrics;
+    private final AiRequestCoalescer coalescer;
+    private final PromptRegistry prompts;
     private final OllamaProperties props;
     private final ObjectMapper om;
 
     public AiTriageService(
-            TicketRepository ticketRepository,
-            AiRunRepository aiRunRepository,
-            OllamaClient ollama,
+            TicketService ticketService,
+            AiRunRecorder recorder,
+            AiResponseCache cache,
+            AiMetrics metrics,
+            AiRequestCoalescer coalescer,
+            PromptRegistry prompts,
             OllamaProperties props,
             ObjectMapper om
     ) {
-        this.ticketRepository = ticketRepository;
-        this.aiRunRepository = aiRunRepository;
-        this.ollama = ollama;
+        this.ticketService = ticketService;
+        this.recorder = recorder;
+        this.cache = cache;
+        this.metrics = metrics;
+        this.coalescer = coalescer;
+        this.prompts = prompts;
         this.props = props;
         this.om = om;
     }
 
-    @Transactional
+    // read ticket -> generate (no transaction) -> record; see AiRunRecorder
     public AiTriageSuggestion triage(long ticketId) {
-        Ticket t = ticketRepository.findById(ticketId)
-                .orElseThrow(() -> new EntityNotFoundException("Ticket not found: " + ticketId));
+        TicketResponse t = ticketService.find(ticketId);
 
-        JsonNode schema = triageSchema();
+        AiRequestCoalescer.Key key = new AiRequestCoalescer.Key(
+                "TRIAGE", ticketId, t.getUpdatedAt(), prompts.triage().version(), null);
+        return coalescer.run(key, () -> triage(t));
+    }
 
-        String schemaJson;
-        try { schemaJson = om.writeValueAsString(schema); }
-        catch (Exception e) { schemaJson = "{}"; }
+    private AiTriageSuggestion triage(TicketResponse t) {
+        long ticketId = t.getId();
+        PromptRegistry.Prompt p = prompts.triage();
 
         String prompt = PromptTemplates.triageUserPrompt(
                 t.getSubject(),
                 t.getBody(),
-                t.getRequesterEmail(),
-                schemaJson
+                t.getRequesterEmail()
         );
 
         AiRun run = new AiRun();
@@ -64,7 +68,7 @@ public class AiTriageService {
         run.setType("TRIAGE");
         run.setProvider("ollama");
         run.setModel(props.getModel());
-        run.setPromptVersion(PromptTemplates.TRIAGE_V2);
+        run.setPromptVersion(p.version());
 
         // ✅ ALWAYS set input_json (null-safe: DO NOT use Map.of)
         Map<String, Object> ticketSnapshot = new LinkedHashMap<>();
@@ -78,22 +82,22 @@ public class AiTriageService {
         ticketSnapshot.put("tags", t.getTags());
 
         Map<String, Object> payload = new LinkedHashMap<>();
-        payload.put("system", PromptTemplates.SYSTEM);
+        payload.put("system", p.system());
         payload.put("prompt", prompt);
-        payload.put("schema", schema);
+        payload.put("schema", p.schema());
         payload.put("ticketSnapshot", ticketSnapshot);
 
         run.setInputJson(om.valueToTree(payload));
-
-        Instant start = Instant.now();
+        run.setCacheKey(cache.key(props.getModel(), p.version(), p.system(), prompt));
 
         try {
-            JsonNode raw = ollama.generateJson(props.getModel(), PromptTemplates.SYSTEM, prompt);
+            AiResponseCache.Generation gen = cache.generate(
+                    run.getType(), run.getCacheKey(), props.getModel(), p.system(), prompt, p.schema());
 
-            int latencyMs = (int) Duration.between(start, Instant.now()).toMillis();
-            run.setLatencyMs(latencyMs);
+            run.setLatencyMs(gen.latencyMs());
+            run.setCacheHit(gen.cacheHit());
 
-            String responseText = OllamaClient.extractResponseText(raw);
+            String responseText = gen.responseText();
             if (responseText == null || responseText.isBlank()) {
                 throw new RuntimeException("Ollama returned empty response text.");
             }
@@ -102,6 +106,7 @@ public class AiTriageService {
             try {
                 output = om.readTree(responseText);
             } catch (Exception parseEx) {
+                metrics.parseFailure(run.getType(), run.getModel());
                 throw new RuntimeException("Ollama response was not valid JSON: " + responseText, parseEx);
             }
 
@@ -117,12 +122,7 @@ public class AiTriageService {
             AiTriageSuggestion parsed = om.treeToValue(output, AiTriageSuggestion.class);
 
             // ✅ SANITIZE tags (trim, lowercase, remove empties/duplicates)
-            List<String> cleanedTags = (parsed.tags() == null ? List.<String>of() : parsed.tags())
-                    .stream()
-                    .map(s -> s == null ? "" : s.trim().toLowerCase())
-                    .filter(s -> !s.isEmpty())
-                    .distinct()
-                    .toList();
+            List<String> cleanedTags = cleanTags(parsed.tags());
 
             // ✅ SANITIZE rationale (trim)
             String cleanedRationale = parsed.rationale() == null ? "" : parsed.rationale().trim();
@@ -131,7 +131,8 @@ public class AiTriageService {
                 cleanedRationale = "Derived based on the ticket description and observed user impact.";
             }
 
-            AiRun saved = aiRunRepository.save(run);
+            AiRun saved = recorder.record(run);
+            cache.remember(gen);
 
             return new AiTriageSuggestion(
                     parsed.category(),
@@ -142,6 +143,9 @@ public class AiTriageService {
                     saved.getId()
             );
 
+        } catch (AiUnavailableException e) {
+            // shed before Ollama was called: nothing ran, so no ai_runs row
+            throw e;
         } catch (Exception e) {
             String msg = (e.getMessage() == null || e.getMessage().isBlank())
                     ? e.getClass().getSimpleName()
@@ -157,52 +161,19 @@ public class AiTriageService {
                 run.setInputJson(om.createObjectNode());
             }
 
-            try { aiRunRepository.save(run); } catch (Exception ignored) {}
+            recorder.recordFailure(run);
 
             throw new RuntimeException("AI triage failed: " + msg, e);
         }
     }
 
-    private JsonNode triageSchema() {
-        List<String> priorityEnums = Arrays.stream(TicketPriority.values())
-                .map(Enum::name)
+    /** Trims and lowercases model tags, dropping empties and duplicates. */
+    static List<String> cleanTags(List<String> tags) {
+        return (tags == null ? List.<String>of() : tags)
+                .stream()
+                .map(s -> s == null ? "" : s.trim().toLowerCase())
+                .filter(s -> !s.isEmpty())
+                .distinct()
                 .toList();
-
-        Map<String, Object> schema = Map.of(
-                "type", "object",
-                "required", List.of("category", "priority", "tags", "rationale", "entities"),
-                "properties", Map.of(
-                        "category", Map.of(
-                                "type", "string",
-                                "enum", List.of("billing", "bug", "feature", "account", "incident", "question", "other")
-                        ),
-                        "priority", Map.of(
-                                "type", "string",
-                                "enum", priorityEnums
-                        ),
-                        "tags", Map.of(
-                                "type", "array",
-                                "minItems", 2,
-                                "maxItems", 6,
-                                "items", Map.of("type", "string")
-                        ),
-                        "rationale", Map.of(
-                                "type", "string",
-                                "minLength", 20
-                        ),
-                        "entities", Map.of(
-                                "type", "object",
-                                "required", List.of("requesterEmail", "orderId", "product", "errorCode"),
-                                "properties", Map.of(
-                                        "requesterEmail", Map.of("type", "string"),
-                                        "orderId", Map.of("type", "string"),
-                                        "product", Map.of("type", "string"),
-                                        "errorCode", Map.of("type", "string")
-                                )
-                        )
-                )
-        );
-
-        return om.valueToTree(schema);
     }
 }
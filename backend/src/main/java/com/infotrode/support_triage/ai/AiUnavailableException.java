@@ -0,0 +1,37 @@
+package com.infotrode.support_triage.ai;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The AI backend was not called because it is saturated (429) or known to be failing (503).
+ * Raised before anything is sent to Ollama, so retrying after {@link #getRetryAfterSeconds()} is safe.
+ */
+public class AiUnavailableException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final String error;
+    private final long retryAfterSeconds;
+
+    private AiUnavailableException(HttpStatus status, String error, String message, long retryAfterSeconds) {
+        super(message);
+        this.status = status;
+        this.error = error;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /** Concurrency limit reached: shed instead of queueing behind a slow model. */
+    public static AiUnavailableException overloaded(int limit, long retryAfterSeconds) {
+        return new AiUnavailableException(HttpStatus.TOO_MANY_REQUESTS, "AI_OVERLOADED",
+                "Too many AI requests in flight (limit " + limit + "); retry later.", retryAfterSeconds);
+    }
+
+    /** Circuit open after repeated backend failures. */
+    public static AiUnavailableException circuitOpen(long retryAfterSeconds) {
+        return new AiUnavailableException(HttpStatus.SERVICE_UNAVAILABLE, "AI_UNAVAILABLE",
+                "AI backend is failing; not calling it for now.", retryAfterSeconds);
+    }
+
+    public HttpStatus getStatus() { return status; }
+    public String getError() { return error; }
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
@@ -0,0 +1,298 @@
+package com.infotrode.support_triage.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The Ollama nodes {@link OllamaClient} talks to.
+ *
+ * Routing: among healthy nodes that serve the requested model, the one with the fewest requests in
+ * flight (ties rotate). A node that refuses the connection is retried once on another node, since
+ * nothing was sent yet.
+ *
+ * Health: every {@code ai.ollama.health-check-interval-seconds} each node's {@code /api/tags} is
+ * probed, which also refreshes the models it serves. {@code ai.ollama.eject-after-failures}
+ * consecutive failed probes or calls eject a node; the next successful probe (or call) re-admits it.
+ * If no healthy node is left, calls still go out (fail open) rather than being refused locally.
+ *
+ * Meters per node: {@code ai.ollama.backend.in.flight}, {@code ai.ollama.backend.healthy},
+ * {@code ai.ollama.backend.latency} (tagged outcome=success|error).
+ */
+public class OllamaBackendPool implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(OllamaBackendPool.class);
+
+    private static final int MAX_ATTEMPTS = 2;
+
+    private final List<Backend> backends;
+    private final ObjectMapper om;
+    private final int ejectAfterFailures;
+    private final int healthCheckIntervalSeconds;
+    private final AtomicInteger rotation = new AtomicInteger();
+
+    private volatile boolean running;
+    private ScheduledExecutorService prober;
+
+    public OllamaBackendPool(
+            OllamaProperties props,
+            ClientHttpRequestFactory requestFactory,
+            ObjectMapper om,
+            MeterRegistry registry
+    ) {
+        SimpleClientHttpRequestFactory probeFactory = new SimpleClientHttpRequestFactory();
+        probeFactory.setConnectTimeout(props.getHealthCheckTimeoutMs());
+        probeFactory.setReadTimeout(props.getHealthCheckTimeoutMs());
+
+        List<OllamaProperties.Backend> configured = props.getBackends();
+        if (configured == null || configured.isEmpty()) {
+            OllamaProperties.Backend single = new OllamaProperties.Backend();
+            single.setUrl(props.getBaseUrl());
+            configured = List.of(single);
+        }
+
+        List<Backend> list = new ArrayList<>();
+        for (OllamaProperties.Backend c : configured) {
+            if (c.getUrl() == null || c.getUrl().isBlank()) {
+                throw new IllegalArgumentException("ai.ollama.backends[].url must be set");
+            }
+            list.add(new Backend(
+                    c.getUrl(),
+                    RestClient.builder().baseUrl(c.getUrl()).requestFactory(requestFactory).build(),
+                    RestClient.builder().baseUrl(c.getUrl()).requestFactory(probeFactory).build(),
+                    normalize(c.getModels()),
+                    registry));
+        }
+        this.backends = List.copyOf(list);
+        this.om = om;
+        this.ejectAfterFailures = Math.max(1, props.getEjectAfterFailures());
+        this.healthCheckIntervalSeconds = props.getHealthCheckIntervalSeconds();
+    }
+
+    /** One fixed node, no probing and no exported meters; for tools and tests. */
+    public static OllamaBackendPool of(RestClient client) {
+        return new OllamaBackendPool(List.of(new Backend("default", client, client, Set.of(), new SimpleMeterRegistry())));
+    }
+
+    private OllamaBackendPool(List<Backend> backends) {
+        this.backends = backends;
+        this.om = new ObjectMapper();
+        this.ejectAfterFailures = 1;
+        this.healthCheckIntervalSeconds = 0;
+    }
+
+    /**
+     * Runs {@code call} against the chosen node's RestClient (base URL already set). Only transport
+     * errors and 5xx answers count against the node; anything else the callback throws (bad JSON,
+     * a consumer that went away) passes straight through.
+     */
+    public <T> T execute(String model, Function<RestClient, T> call) {
+        List<Backend> tried = new ArrayList<>(MAX_ATTEMPTS);
+        while (true) {
+            Backend b = choose(model, tried);
+            b.inFlight.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                T result = call.apply(b.client);
+                b.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                b.recordSuccess();
+                return result;
+            } catch (RestClientException e) {
+                b.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (countsAgainstBackend(e)) recordFailure(b, e.getMessage());
+
+                tried.add(b);
+                if (isConnectFailure(e) && tried.size() < MAX_ATTEMPTS && tried.size() < backends.size()) {
+                    log.warn("Ollama backend {} refused connection; retrying on another node", b.name);
+                    continue;
+                }
+                throw e;
+            } finally {
+                b.inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private Backend choose(String model, List<Backend> exclude) {
+        String wanted = normalize(model);
+        List<Backend> serving = new ArrayList<>();
+        List<Backend> healthy = new ArrayList<>();
+        List<Backend> any = new ArrayList<>();
+        for (Backend b : backends) {
+            if (exclude.contains(b)) continue;
+            any.add(b);
+            if (!b.healthy) continue;
+            healthy.add(b);
+            if (b.serves(wanted)) serving.add(b);
+        }
+        // prefer healthy+serving; fall back so a stale model list or a full outage still tries a node
+        List<Backend> candidates = !serving.isEmpty() ? serving : !healthy.isEmpty() ? healthy : any;
+        if (candidates.isEmpty()) candidates = backends;
+
+        int offset = Math.floorMod(rotation.getAndIncrement(), candidates.size());
+        Backend best = null;
+        for (int i = 0; i < candidates.size(); i++) {
+            Backend b = candidates.get((offset + i) % candidates.size());
+            if (best == null || b.inFlight.get() < best.inFlight.get()) best = b;
+        }
+        return best;
+    }
+
+    void probeAll() {
+        for (Backend b : backends) {
+            try {
+                String raw = b.probe.get().uri("/api/tags").retrieve().body(String.class);
+                Set<String> models = new LinkedHashSet<>();
+                for (JsonNode m : om.readTree(raw == null ? "{}" : raw).path("models")) {
+                    models.add(normalize(m.path("name").asText("")));
+                }
+                b.discoveredModels = Collections.unmodifiableSet(models);
+                if (!b.healthy) log.info("Ollama backend {} is healthy again; re-admitted", b.name);
+                b.recordSuccess();
+            } catch (Exception e) {
+                recordFailure(b, "health check failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void recordFailure(Backend b, String reason) {
+        int failures = b.consecutiveFailures.incrementAndGet();
+        if (b.healthy && failures >= ejectAfterFailures) {
+            b.healthy = false;
+            log.warn("Ejecting Ollama backend {} after {} consecutive failures ({})", b.name, failures, reason);
+        }
+    }
+
+    private static boolean countsAgainstBackend(RestClientException e) {
+        if (e instanceof HttpServerErrorException) return true;
+        // waiting for one of our own pooled connections says nothing about the node
+        return e instanceof ResourceAccessException && !hasCause(e, ConnectionRequestTimeoutException.class);
+    }
+
+    private static boolean isConnectFailure(RestClientException e) {
+        return hasCause(e, ConnectException.class) || hasCause(e, ConnectTimeoutException.class);
+    }
+
+    private static boolean hasCause(Throwable t, Class<? extends Throwable> type) {
+        for (Throwable c = t; c != null; c = c.getCause()) {
+            if (type.isInstance(c)) return true;
+        }
+        return false;
+    }
+
+    /** "llama3.2" and "llama3.2:latest" are the same model to Ollama. */
+    private static String normalize(String model) {
+        String m = model == null ? "" : model.trim().toLowerCase(Locale.ROOT);
+        return m.endsWith(":latest") ? m.substring(0, m.length() - ":latest".length()) : m;
+    }
+
+    private static Set<String> normalize(List<String> models) {
+        if (models == null) return Set.of();
+        return models.stream().map(OllamaBackendPool::normalize).filter(m -> !m.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /** Name, health and in-flight count per node, in configuration order. */
+    public List<BackendState> state() {
+        return backends.stream()
+                .map(b -> new BackendState(b.name, b.healthy, b.inFlight.get(), b.consecutiveFailures.get(),
+                        b.declaredModels.isEmpty() ? b.discoveredModels : b.declaredModels))
+                .toList();
+    }
+
+    public record BackendState(String url, boolean healthy, int inFlight, int consecutiveFailures, Set<String> models) {}
+
+    @Override
+    public void start() {
+        if (healthCheckIntervalSeconds <= 0) {
+            running = true;
+            return;
+        }
+        prober = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ollama-health");
+            t.setDaemon(true);
+            return t;
+        });
+        prober.scheduleWithFixedDelay(this::probeAll, 0, healthCheckIntervalSeconds, TimeUnit.SECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (prober != null) prober.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private static final class Backend {
+        final String name;
+        final RestClient client;
+        final RestClient probe;
+        final Set<String> declaredModels;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger consecutiveFailures = new AtomicInteger();
+        final Timer success;
+        final Timer error;
+
+        volatile boolean healthy = true;
+        /** From the last successful probe; null until then. */
+        volatile Set<String> discoveredModels;
+
+        Backend(String name, RestClient client, RestClient probe, Set<String> declaredModels, MeterRegistry registry) {
+            this.name = name;
+            this.client = client;
+            this.probe = probe;
+            this.declaredModels = declaredModels;
+            this.success = Timer.builder("ai.ollama.backend.latency")
+                    .tag("backend", name).tag("outcome", "success").register(registry);
+            this.error = Timer.builder("ai.ollama.backend.latency")
+                    .tag("backend", name).tag("outcome", "error").register(registry);
+            Gauge.builder("ai.ollama.backend.in.flight", inFlight, AtomicInteger::get)
+                    .tag("backend", name).register(registry);
+            Gauge.builder("ai.ollama.backend.healthy", this, b -> b.healthy ? 1 : 0)
+                    .tag("backend", name).register(registry);
+        }
+
+        boolean serves(String model) {
+            if (!declaredModels.isEmpty()) return declaredModels.contains(model);
+            Set<String> discovered = discoveredModels;
+            return discovered == null || discovered.contains(model);
+        }
+
+        void recordSuccess() {
+            consecutiveFailures.set(0);
+            healthy = true;
+        }
+    }
+}
@@ -1,39 +1,60 @@
 package com.infotrode.support_triage.ai;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.springframework.http.MediaType;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestClient;
 
-import java.util.Map;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
 
 public class OllamaClient {
 
-    private final RestClient rc;
+    private final OllamaBackendPool backends;
+    private final OllamaGuard guard;
     private final ObjectMapper om;
 
-    public OllamaClient(RestClient rc, ObjectMapper om) {
-        this.rc = rc;
+    public OllamaClient(OllamaBackendPool backends, OllamaGuard guard, ObjectMapper om) {
+        this.backends = backends;
+        this.guard = guard;
         this.om = om;
     }
 
+    /** No admission control; for tools and tests. */
+    public OllamaClient(OllamaBackendPool backends, ObjectMapper om) {
+        this(backends, OllamaGuard.disabled(), om);
+    }
+
+    /** Single fixed Ollama node, no admission control. */
+    public OllamaClient(RestClient rc, ObjectMapper om) {
+        this(OllamaBackendPool.of(rc), om);
+    }
+
     public JsonNode generateJson(String model, String system, String prompt) {
-        Map<String, Object> body = Map.of(
-                "model", model,
-                "system", system,
-                "prompt", prompt,
-                "stream", false,
-                "format", "json"
-        );
+        return generateJson(model, system, prompt, null);
+    }
+
+    /**
+     * {@code format} is a JSON schema for Ollama's structured output (decoding is constrained to
+     * it); null falls back to plain JSON mode.
+     */
+    public JsonNode generateJson(String model, String system, String prompt, JsonNode format) {
+        String body = requestBody(model, system, prompt, false, format);
 
         // Read as String to avoid content-type quirks
-        String raw = rc.post()
+        String raw = guard.call(() -> backends.execute(model, rc -> rc.post()
                 .uri("/api/generate")
                 .contentType(MediaType.APPLICATION_JSON)
                 .accept(MediaType.APPLICATION_JSON)
                 .body(body)
                 .retrieve()
-                .body(String.class);
+                .body(String.class)));
 
         try {
             return om.readTree(raw);
@@ -42,8 +63,114 @@ public class OllamaClient {
         }
     }
 
+    /**
+     * Streaming variant of {@link #generateJson}: Ollama answers with one JSON object per line
+     * (NDJSON), each carrying the next fragment in "response". Every non-empty fragment is handed
+     * to {@code onToken} as soon as its line arrives; the concatenated text is returned at the end.
+     *
+     * If {@code onToken} throws (e.g. the SSE client went away) the HTTP exchange is closed,
+     * which makes Ollama stop generating.
+     *
+     * Both calls pass through {@link OllamaGuard}, so they may fail fast with {@link AiUnavailableException}.
+     */
+    public StreamResult generateJsonStream(String model, String system, String prompt, Consumer<String> onToken) {
+        return generateJsonStream(model, system, prompt, null, onToken);
+    }
+
+    public StreamResult generateJsonStream(
+            String model, String system, String prompt, JsonNode format, Consumer<String> onToken) {
+        String body = requestBody(model, system, prompt, true, format);
+
+        long startNanos = System.nanoTime();
+
+        return guard.call(() -> backends.execute(model, rc -> rc.post()
+                .uri("/api/generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON)
+                .body(body)
+                .exchange((req, res) -> {
+                    if (res.getStatusCode().isError()) {
+                        byte[] err = res.getBody().readAllBytes();
+                        // same exception types retrieve() raises, so the pool and guard classify them alike
+                        throw res.getStatusCode().is5xxServerError()
+                                ? HttpServerErrorException.create(res.getStatusCode(), res.getStatusText(), res.getHeaders(), err, StandardCharsets.UTF_8)
+                                : HttpClientErrorException.create(res.getStatusCode(), res.getStatusText(), res.getHeaders(), err, StandardCharsets.UTF_8);
+                    }
+
+                    StringBuilder text = new StringBuilder();
+                    Long firstTokenMs = null;
+                    JsonNode last = null;
+
+                    try (BufferedReader reader = new BufferedReader(
+                            new InputStreamReader(res.getBody(), StandardCharsets.UTF_8))) {
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            if (line.isBlank()) continue;
+
+                            JsonNode chunk;
+                            try {
+                                chunk = om.readTree(line);
+                            } catch (Exception e) {
+                                throw new RuntimeException("Failed to parse Ollama stream chunk as JSON. Raw: " + line, e);
+                            }
+
+                            String err = chunk.path("error").asText(null);
+                            if (err != null) {
+                                throw new RuntimeException("Ollama stream error: " + err);
+                            }
+
+                            String token = extractResponseText(chunk);
+                            if (token != null && !token.isEmpty()) {
+                                if (firstTokenMs == null) firstTokenMs = elapsedMs(startNanos);
+                                text.append(token);
+                                onToken.accept(token);
+                            }
+
+                            last = chunk;
+                            if (chunk.path("done").asBoolean(false)) break;
+                        }
+                    }
+
+                    if (last == null || !last.path("done").asBoolean(false)) {
+                        throw new RuntimeException("Ollama stream ended before completion.");
+                    }
+
+                    return new StreamResult(text.toString(), last, firstTokenMs, elapsedMs(startNanos));
+                })));
+    }
+
+    // serialized with the app's mapper: the schema is a Jackson 2 tree, which RestClient's converters don't know
+    private String requestBody(String model, String system, String prompt, boolean stream, JsonNode format) {
+        ObjectNode body = om.createObjectNode()
+                .put("model", model)
+                .put("system", system)
+                .put("prompt", prompt)
+                .put("stream", stream);
+        if (format == null) body.put("format", "json");
+        else body.set("format", format);
+        try {
+            return om.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize Ollama request", e);
+        }
+    }
+
     public static String extractResponseText(JsonNode json) {
         if (json == null) return null;
         return json.path("response").asText(null);
     }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Outcome of a streamed generation.
+     *
+     * @param responseText concatenation of every "response" fragment
+     * @param finalChunk   the closing {@code "done": true} object (eval counts, durations)
+     * @param firstTokenMs time from request start to the first non-empty fragment; null if none came
+     * @param totalMs      time from request start to the closing chunk
+     */
+    public record StreamResult(String responseText, JsonNode finalChunk, Long firstTokenMs, long totalMs) {}
 }
@@ -0,0 +1,103 @@
+package com.infotrode.support_triage.ai;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of every Ollama call made by {@link OllamaClient}.
+ *
+ * An overloaded Ollama used to make every caller wait out the full timeout and then fail with a
+ * 502, while the queue of waiting requests made the overload worse. Now:
+ * - an {@link AdaptiveConcurrencyLimit} sheds calls beyond the current limit at once
+ *   ({@link AiUnavailableException} -> 429 + Retry-After)
+ * - a {@link CircuitBreaker} stops calling a backend that keeps failing (503 + Retry-After)
+ *
+ * Transport errors and 5xx answers count as failures; 4xx answers and errors raised by the caller's
+ * own callback (a streaming client that went away) do not.
+ */
+public class OllamaGuard {
+
+    private final boolean enabled;
+    private final AdaptiveConcurrencyLimit limit;
+    private final CircuitBreaker breaker;
+    private final Counter shedByLimit;
+    private final Counter shedByCircuit;
+
+    public OllamaGuard(AiLimiterProperties props, MeterRegistry registry) {
+        this(props, registry, System::nanoTime);
+    }
+
+    OllamaGuard(AiLimiterProperties props, MeterRegistry registry, LongSupplier nanoClock) {
+        this.enabled = props.isEnabled();
+        this.limit = new AdaptiveConcurrencyLimit(props.getInitialLimit(), props.getMinLimit(), props.getMaxLimit(),
+                props.getBackoffRatio(), props.getLatencyTolerance());
+        this.breaker = new CircuitBreaker("ollama", props.getCircuitFailureThreshold(), props.getCircuitOpenSeconds(), nanoClock);
+
+        this.shedByLimit = Counter.builder("ai.limiter.rejected").tag("reason", "limit").register(registry);
+        this.shedByCircuit = Counter.builder("ai.limiter.rejected").tag("reason", "circuit_open").register(registry);
+        Gauge.builder("ai.limiter.limit", limit, AdaptiveConcurrencyLimit::limit).register(registry);
+        Gauge.builder("ai.limiter.in.flight", limit, AdaptiveConcurrencyLimit::inFlight).register(registry);
+        Gauge.builder("ai.limiter.baseline.latency", limit, AdaptiveConcurrencyLimit::baselineMs)
+                .baseUnit("milliseconds").register(registry);
+        Gauge.builder("ai.circuit.state", breaker, b -> b.state().ordinal())
+                .description("0 = closed, 1 = half-open, 2 = open").register(registry);
+    }
+
+    /** Pass-through guard, for tools and tests that build an {@link OllamaClient} by hand. */
+    public static OllamaGuard disabled() {
+        AiLimiterProperties props = new AiLimiterProperties();
+        props.setEnabled(false);
+        return new OllamaGuard(props, new SimpleMeterRegistry());
+    }
+
+    public <T> T call(Supplier<T> work) {
+        if (!enabled) return work.get();
+
+        if (!breaker.tryAcquire()) {
+            shedByCircuit.increment();
+            throw AiUnavailableException.circuitOpen(breaker.retryAfterSeconds());
+        }
+        if (!limit.tryAcquire()) {
+            breaker.onIgnored();
+            shedByLimit.increment();
+            throw AiUnavailableException.overloaded(limit.limit(), retryAfterSeconds());
+        }
+
+        long start = System.nanoTime();
+        try {
+            T result = work.get();
+            limit.onSuccess(System.nanoTime() - start);
+            breaker.onSuccess();
+            return result;
+        } catch (HttpClientErrorException e) {
+            limit.onIgnored();
+            breaker.onIgnored();
+            throw e;
+        } catch (RestClientException e) {
+            limit.onDropped();
+            breaker.onFailure();
+            throw e;
+        } catch (RuntimeException | Error e) {
+            limit.onIgnored();
+            breaker.onIgnored();
+            throw e;
+        }
+    }
+
+    /** About one typical call: roughly when a slot should free up. */
+    private long retryAfterSeconds() {
+        long s = (long) Math.ceil(limit.baselineMs() / 1000.0);
+        return Math.min(60, Math.max(1, s));
+    }
+
+    CircuitBreaker.State circuitState() { return breaker.state(); }
+
+    int currentLimit() { return limit.limit(); }
+}
@@ -2,18 +2,89 @@ package com.infotrode.support_triage.ai;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @ConfigurationProperties(prefix = "ai.ollama")
 public class OllamaProperties {
+    /** Used when {@link #backends} is empty. */
     private String baseUrl = "http://localhost:11434";
     private String model = "llama3.2";
+
+    /** Ollama nodes to spread calls over; see {@link OllamaBackendPool}. */
+    private List<Backend> backends = new ArrayList<>();
+
+    private int healthCheckIntervalSeconds = 10;
+    private int healthCheckTimeoutMs = 2000;
+    /** Consecutive failed probes/calls before a backend stops receiving traffic. */
+    private int ejectAfterFailures = 2;
+
+    /** Read timeout: longest silence allowed between two bytes of a response. */
     private int timeoutSeconds = 60;
 
+    /** TCP connect timeout. */
+    private int connectTimeoutMs = 2000;
+
+    /** Hard cap on a whole exchange, including long token streams. */
+    private int totalTimeoutSeconds = 180;
+
+    /** How long a call waits for a pooled connection before failing. */
+    private int poolTimeoutMs = 5000;
+
+    private int maxConnections = 64;
+    private int maxConnectionsPerHost = 16;
+
+    /** Idle keep-alive connections older than this are closed. */
+    private int idleEvictSeconds = 30;
+
     public String getBaseUrl() { return baseUrl; }
     public void setBaseUrl(String baseUrl) { this.baseUrl = baseUrl; }
 
     public String getModel() { return model; }
     public void setModel(String model) { this.model = model; }
 
+    public List<Backend> getBackends() { return backends; }
+    public void setBackends(List<Backend> backends) { this.backends = backends; }
+
+    public int getHealthCheckIntervalSeconds() { return healthCheckIntervalSeconds; }
+    public void setHealthCheckIntervalSeconds(int healthCheckIntervalSeconds) { this.healthCheckIntervalSeconds = healthCheckIntervalSeconds; }
+
+    public int getHealthCheckTimeoutMs() { return healthCheckTimeoutMs; }
+    public void setHealthCheckTimeoutMs(int healthCheckTimeoutMs) { this.healthCheckTimeoutMs = healthCheckTimeoutMs; }
+
+    public int getEjectAfterFailures() { return ejectAfterFailures; }
+    public void setEjectAfterFailures(int ejectAfterFailures) { this.ejectAfterFailures = ejectAfterFailures; }
+
     public int getTimeoutSeconds() { return timeoutSeconds; }
     public void setTimeoutSeconds(int timeoutSeconds) { this.timeoutSeconds = timeoutSeconds; }
+
+    public int getConnectTimeoutMs() { return connectTimeoutMs; }
+    public void setConnectTimeoutMs(int connectTimeoutMs) { this.connectTimeoutMs = connectTimeoutMs; }
+
+    public int getTotalTimeoutSeconds() { return totalTimeoutSeconds; }
+    public void setTotalTimeoutSeconds(int totalTimeoutSeconds) { this.totalTimeoutSeconds = totalTimeoutSeconds; }
+
+    public int getPoolTimeoutMs() { return poolTimeoutMs; }
+    public void setPoolTimeoutMs(int poolTimeoutMs) { this.poolTimeoutMs = poolTimeoutMs; }
+
+    public int getMaxConnections() { return maxConnections; }
+    public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+
+    public int getMaxConnectionsPerHost() { return maxConnectionsPerHost; }
+    public void setMaxConnectionsPerHost(int maxConnectionsPerHost) { this.maxConnectionsPerHost = maxConnectionsPerHost; }
+
+    public int getIdleEvictSeconds() { return idleEvictSeconds; }
+    public void setIdleEvictSeconds(int idleEvictSeconds) { this.idleEvictSeconds = idleEvictSeconds; }
+
+    public static class Backend {
+        private String url;
+        /** Models this node serves; empty means "whatever its /api/tags lists". */
+        private List<String> models = new ArrayList<>();
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        public List<String> getModels() { return models; }
+        public void setModels(List<String> models) { this.models = models; }
+    }
 }
@@ -0,0 +1,96 @@
+package com.infotrode.support_triage.ai;
+
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pooled keep-alive HTTP client for Ollama.
+ *
+ * Timeouts are separate: connect ({@code connect-timeout-ms}), read ({@code timeout-seconds}, the
+ * longest gap between bytes) and total ({@code total-timeout-seconds}). Apache HttpClient has no
+ * total deadline of its own, so each request gets a timer that cancels it; cancelling aborts the
+ * socket and the caller sees an I/O error.
+ */
+class OllamaRequestFactory extends HttpComponentsClientHttpRequestFactory {
+    private static final Logger log = LoggerFactory.getLogger(OllamaRequestFactory.class);
+
+    private final PoolingHttpClientConnectionManager pool;
+    private final ScheduledExecutorService deadlines;
+    private final long totalTimeoutMs;
+
+    OllamaRequestFactory(OllamaProperties props) {
+        this(props, buildPool(props));
+    }
+
+    private OllamaRequestFactory(OllamaProperties props, PoolingHttpClientConnectionManager pool) {
+        super(HttpClients.custom()
+                .setConnectionManager(pool)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(props.getPoolTimeoutMs()))
+                        .setResponseTimeout(Timeout.ofSeconds(props.getTimeoutSeconds()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(props.getIdleEvictSeconds()))
+                .build());
+        this.pool = pool;
+        this.totalTimeoutMs = TimeUnit.SECONDS.toMillis(props.getTotalTimeoutSeconds());
+        this.deadlines = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ollama-deadline");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static PoolingHttpClientConnectionManager buildPool(OllamaProperties props) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(props.getMaxConnections())
+                .setMaxConnPerRoute(props.getMaxConnectionsPerHost())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(props.getConnectTimeoutMs()))
+                        .setSocketTimeout(Timeout.ofSeconds(props.getTimeoutSeconds()))
+                        .build())
+                .build();
+    }
+
+    @Override
+    protected void postProcessHttpRequest(ClassicHttpRequest request) {
+        if (totalTimeoutMs <= 0 || !(request instanceof HttpUriRequestBase cancellable)) return;
+
+        // weak: a finished request must not be kept alive (with its body) until the deadline fires.
+        // Cancelling one that already completed is a no-op: its connection is back in the pool and
+        // no longer reachable from the request.
+        WeakReference<HttpUriRequestBase> ref = new WeakReference<>(cancellable);
+        deadlines.schedule(() -> {
+            HttpUriRequestBase r = ref.get();
+            if (r != null) {
+                log.debug("Total timeout ({} ms) reached for {}; aborting if still in flight", totalTimeoutMs, r.getRequestUri());
+                r.cancel();
+            }
+        }, totalTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    int leased() { return pool.getTotalStats().getLeased(); }
+    int available() { return pool.getTotalStats().getAvailable(); }
+    int pending() { return pool.getTotalStats().getPending(); }
+
+    @Override
+    public void destroy() throws Exception {
+        deadlines.shutdownNow();
+        super.destroy();
+    }
+}
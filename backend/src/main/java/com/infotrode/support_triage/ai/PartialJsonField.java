@@ -0,0 +1,148 @@
+package com.infotrode.support_triage.ai;
+
+/**
+ * Pulls the (possibly still incomplete) value of one top-level string field out of a JSON
+ * document that is being streamed in token by token, e.g. {@code {"draft": "Hi Sam, thanks fo}.
+ *
+ * Feed it the growing buffer; {@link #newlyDecoded(CharSequence)} returns whatever part of the
+ * value became decodable since the last call (escape sequences cut in half, and a high surrogate
+ * still waiting for its pair, are held back until complete). The scan position is kept between
+ * calls, so each character of the buffer is looked at about once: the buffer may only grow.
+ * One instance per document.
+ */
+final class PartialJsonField {
+
+    private enum State { NAME, COLON, OPEN_QUOTE, VALUE, DONE }
+
+    private final String quotedName;
+    private final StringBuilder value = new StringBuilder();
+
+    private State state = State.NAME;
+    /** Next character of the buffer to look at; in VALUE it sits on a '\' until the escape is complete. */
+    private int pos;
+    /** How much of {@link #value} {@link #newlyDecoded} has already handed out. */
+    private int emitted;
+
+    PartialJsonField(String fieldName) {
+        this.quotedName = "\"" + fieldName + "\"";
+    }
+
+    /** Decoded value so far, or "" if the field has not started yet. */
+    String decodedSoFar(CharSequence json) {
+        scan(json);
+        return value.substring(0, visibleLength());
+    }
+
+    /** Decoded text added since the previous call (or since the start), "" if none. */
+    String newlyDecoded(CharSequence json) {
+        scan(json);
+        int end = visibleLength();
+        if (end <= emitted) return "";
+        String delta = value.substring(emitted, end);
+        emitted = end;
+        return delta;
+    }
+
+    private int visibleLength() {
+        int n = value.length();
+        if (state != State.DONE && n > 0 && Character.isHighSurrogate(value.charAt(n - 1))) n--;
+        return n;
+    }
+
+    private void scan(CharSequence s) {
+        int len = s.length();
+        while (pos < len && state != State.DONE) {
+            switch (state) {
+                case NAME -> {
+                    int i = indexOfName(s, pos);
+                    if (i < 0) {
+                        // the name may be cut off at the end: look at its start again next time
+                        pos = Math.max(pos, len - quotedName.length() + 1);
+                        return;
+                    }
+                    pos = i + quotedName.length();
+                    state = State.COLON;
+                }
+                // skip whitespace, ':' and whitespace up to the opening quote
+                case COLON -> {
+                    char c = s.charAt(pos);
+                    if (Character.isWhitespace(c)) pos++;
+                    else if (c == ':') { pos++; state = State.OPEN_QUOTE; }
+                    else state = State.NAME; // the name was a value, not a key
+                }
+                case OPEN_QUOTE -> {
+                    char c = s.charAt(pos);
+                    if (Character.isWhitespace(c)) pos++;
+                    else if (c == '"') { pos++; state = State.VALUE; }
+                    else state = State.DONE; // not a string field
+                }
+                case VALUE -> {
+                    if (!scanValue(s, len)) return;
+                }
+                case DONE -> { }
+            }
+        }
+    }
+
+    /** Decodes value characters up to the closing quote; false if it stopped on an incomplete escape. */
+    private boolean scanValue(CharSequence s, int len) {
+        while (pos < len) {
+            char c = s.charAt(pos);
+            if (c == '"') { // value complete
+                pos++;
+                state = State.DONE;
+                return true;
+            }
+            if (c != '\\') {
+                value.append(c);
+                pos++;
+                continue;
+            }
+
+            if (pos + 1 >= len) return false; // escape not complete yet
+            char e = s.charAt(pos + 1);
+            switch (e) {
+                case 'n' -> value.append('\n');
+                case 't' -> value.append('\t');
+                case 'r' -> value.append('\r');
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'u' -> {
+                    if (pos + 6 > len) return false;
+                    int code = hex4(s, pos + 2);
+                    if (code < 0) { // malformed: keep what we have
+                        state = State.DONE;
+                        return true;
+                    }
+                    value.append((char) code);
+                    pos += 4;
+                }
+                default -> value.append(e); // \" \\ \/
+            }
+            pos += 2;
+        }
+        return true;
+    }
+
+    private int indexOfName(CharSequence s, int from) {
+        int last = s.length() - quotedName.length();
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < quotedName.length(); j++) {
+                if (s.charAt(i + j) != quotedName.charAt(j)) continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static int hex4(CharSequence s, int from) {
+        int code = 0;
+        for (int i = from; i < from + 4; i++) {
+            int d = Character.digit(s.charAt(i), 16);
+            if (d < 0) return -1;
+            code = code * 16 + d;
+        }
+        return code;
+    }
+}
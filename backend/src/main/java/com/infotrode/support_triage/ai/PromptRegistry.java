@@ -0,0 +1,157 @@
+package com.infotrode.support_triage.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infotrode.support_triage.ticket.TicketPriority;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The prompts the AI services send, built once at startup.
+ *
+ * Each {@link Prompt} holds its version, system prompt and JSON schema. The schema is sent as
+ * Ollama's structured-output {@code format}, so the model is constrained to it while decoding.
+ * It is no longer pasted into every user prompt, which made each call re-evaluate a few hundred
+ * schema tokens.
+ *
+ * Startup fails if a {@code *_V<n>} version constant in {@link PromptTemplates} has no prompt
+ * registered here. That catches a version bump that forgot its schema.
+ */
+@Component
+public class PromptRegistry {
+
+    public record Prompt(String version, String system, JsonNode schema) {}
+
+    private final Prompt triage;
+    private final Prompt summary;
+    private final Prompt reply;
+    private final Map<String, Prompt> byVersion;
+
+    public PromptRegistry(ObjectMapper om) {
+        this.triage = new Prompt(PromptTemplates.TRIAGE_V3, PromptTemplates.SYSTEM, om.valueToTree(triageSchema()));
+        this.summary = new Prompt(PromptTemplates.SUMMARY_V2, PromptTemplates.SUMMARY_SYSTEM, om.valueToTree(summarySchema()));
+        this.reply = new Prompt(PromptTemplates.REPLY_V2, PromptTemplates.REPLY_SYSTEM, om.valueToTree(replySchema()));
+
+        Map<String, Prompt> m = new LinkedHashMap<>();
+        for (Prompt p : List.of(triage, summary, reply)) m.put(p.version(), p);
+        this.byVersion = Collections.unmodifiableMap(m);
+
+        Set<String> missing = new TreeSet<>(declaredVersions());
+        missing.removeAll(byVersion.keySet());
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("PromptTemplates versions without a registered prompt/schema: " + missing);
+        }
+    }
+
+    public Prompt triage() { return triage; }
+
+    public Prompt summary() { return summary; }
+
+    public Prompt reply() { return reply; }
+
+    public Map<String, Prompt> byVersion() { return byVersion; }
+
+    /** Values of the public static String constants named like TRIAGE_V3. */
+    static Set<String> declaredVersions() {
+        Set<String> versions = new TreeSet<>();
+        for (Field f : PromptTemplates.class.getDeclaredFields()) {
+            int mod = f.getModifiers();
+            if (!Modifier.isStatic(mod) || !Modifier.isPublic(mod) || f.getType() != String.class) continue;
+            if (!f.getName().matches("[A-Z]+_V\\d+")) continue;
+            try {
+                versions.add((String) f.get(null));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return versions;
+    }
+
+    private static Map<String, Object> triageSchema() {
+        List<String> priorityEnums = Arrays.stream(TicketPriority.values())
+                .map(Enum::name)
+                .toList();
+
+        return obj(
+                "type", "object",
+                "required", List.of("category", "priority", "tags", "rationale", "entities"),
+                "properties", obj(
+                        "category", obj(
+                                "type", "string",
+                                "enum", List.of("billing", "bug", "feature", "account", "incident", "question", "other")
+                        ),
+                        "priority", obj(
+                                "type", "string",
+                                "enum", priorityEnums
+                        ),
+                        "tags", obj(
+                                "type", "array",
+                                "minItems", 2,
+                                "maxItems", 6,
+                                "items", obj("type", "string")
+                        ),
+                        "rationale", obj(
+                                "type", "string",
+                                "minLength", 20
+                        ),
+                        "entities", obj(
+                                "type", "object",
+                                "required", List.of("requesterEmail", "orderId", "product", "errorCode"),
+                                "properties", obj(
+                                        "requesterEmail", obj("type", "string"),
+                                        "orderId", obj("type", "string"),
+                                        "product", obj("type", "string"),
+                                        "errorCode", obj("type", "string")
+                                )
+                        )
+                )
+        );
+    }
+
+    private static Map<String, Object> summarySchema() {
+        return obj(
+                "type", "object",
+                "required", List.of("summary", "keyPoints"),
+                "properties", obj(
+                        "summary", obj("type", "string"),
+                        "keyPoints", obj(
+                                "type", "array",
+                                "items", obj("type", "string")
+                        )
+                )
+        );
+    }
+
+    private static Map<String, Object> replySchema() {
+        return obj(
+                "type", "object",
+                "required", List.of("draft"),
+                "properties", obj(
+                        "draft", obj(
+                                "type", "string",
+                                "minLength", 20,
+                                "maxLength", 2500
+                        )
+                )
+        );
+    }
+
+    /**
+     * Insertion-ordered, unlike Map.of. The app ObjectMapper keeps map order (no key sorting), so the
+     * schema, and the fields of the model output it constrains, come in the order written here.
+     */
+    private static Map<String, Object> obj(Object... keyValues) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) m.put((String) keyValues[i], keyValues[i + 1]);
+        return m;
+    }
+}
@@ -3,13 +3,14 @@ package com.infotrode.support_triage.ai;
 public final class PromptTemplates {
     private PromptTemplates() {}
 
-    public static final String TRIAGE_V2 = "triage_v2";   // bump version
-    public static final String SUMMARY_V1 = "summary_v1";
+    // v3/v2/v2: the schema is sent as Ollama's structured-output format instead of in the prompt
+    public static final String TRIAGE_V3 = "triage_v3";
+    public static final String SUMMARY_V2 = "summary_v2";
 
     public static final String SYSTEM = """
         You are a support triage assistant for a SaaS product.
 
-        Return ONLY a JSON object that matches the provided JSON schema exactly.
+        Return ONLY a JSON object in the required response format.
         Do not include any extra keys.
 
         Hard requirements:
@@ -25,7 +26,7 @@ public final class PromptTemplates {
     public static final String SUMMARY_SYSTEM = """
         You are an internal support assistant.
 
-        Return ONLY a JSON object that matches the provided JSON schema exactly.
+        Return ONLY a JSON object in the required response format.
         Do not include any extra keys.
 
         Rules:
@@ -34,12 +35,12 @@ public final class PromptTemplates {
         - Do not guess unknown facts; say "Unknown" briefly if needed.
         """;
 
-    public static final String REPLY_V1 = "reply_v1";
+    public static final String REPLY_V2 = "reply_v2";
 
     public static final String REPLY_SYSTEM = """
         You are a customer support agent drafting a reply to the customer.
     
-        Return ONLY a JSON object that matches the provided JSON schema exactly.
+        Return ONLY a JSON object in the required response format.
         Do not include any extra keys.
     
         Safety & policy rules (must follow):
@@ -62,8 +63,7 @@ public final class PromptTemplates {
         String status,
         String priority,
         java.util.List<String> tags,
-        com.infotrode.support_triage.ai.ReplyTone tone,
-        String schemaJson
+        com.infotrode.support_triage.ai.ReplyTone tone
     ) {
         return """
         Draft a reply to the customer for the following support ticket.
@@ -89,9 +89,6 @@ public final class PromptTemplates {
         - Write the reply message only (no subject line needed).
         - If you need more info, ask at most 1–2 questions.
         - Do NOT ask for full card details, passwords, or other sensitive info.
-
-        JSON SCHEMA (must match exactly):
-        %s
         """.formatted(
             safe(tone == null ? "" : tone.name()),
             safe(subject),
@@ -100,12 +97,11 @@ public final class PromptTemplates {
             safe(status),
             safe(priority),
             tags == null ? "" : tags.toString(),
-            safe(body),
-            safe(schemaJson)
+            safe(body)
         );
     }
 
-    public static String triageUserPrompt(String subject, String body, String requesterEmail, String schemaJson) {
+    public static String triageUserPrompt(String subject, String body, String requesterEmail) {
         return """
             Triage this support ticket and return JSON only.
 
@@ -117,14 +113,10 @@ public final class PromptTemplates {
             Guidance:
             - tags should reflect themes like: auth, billing, outage, latency, mobile, api, refund, subscription, data-loss, security, escalation, sev1, sev2
             - choose priority based on user impact and urgency
-
-            JSON SCHEMA (must match exactly):
-            %s
             """.formatted(
                 safe(subject),
                 safe(requesterEmail),
-                safe(body),
-                safe(schemaJson)
+                safe(body)
         );
     }
 
@@ -134,8 +126,7 @@ public final class PromptTemplates {
         String requesterEmail,
         String category,
         String status,
-        String priority,
-        String schemaJson
+        String priority
     ) {
         return """
             Create an internal summary for this support ticket and return JSON only.
@@ -147,17 +138,13 @@ public final class PromptTemplates {
             Priority: %s
             Body:
             %s
-
-            JSON SCHEMA (must match exactly):
-            %s
             """.formatted(
                 safe(subject),
                 safe(requesterEmail),
                 safe(category),
                 safe(status),
                 safe(priority),
-                safe(body),
-                safe(schemaJson)
+                safe(body)
         );
     }
 
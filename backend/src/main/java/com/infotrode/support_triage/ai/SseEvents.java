@@ -0,0 +1,53 @@
+package com.infotrode.support_triage.ai;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Shared helpers for the AI endpoints that answer with Server-Sent Events. */
+final class SseEvents {
+    private SseEvents() {}
+
+    /**
+     * Sends one JSON event. Throws {@link UncheckedIOException} if the client went away so the
+     * producer (an Ollama stream, a bulk loop) can stop early.
+     */
+    static void send(SseEmitter emitter, String event, Object data) {
+        try {
+            // emitters are fed from worker threads (bulk triage); keep frames from interleaving
+            synchronized (emitter) {
+                emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Sends a terminal "error" event shaped like AiExceptionHandler's bodies and completes. */
+    static void sendErrorAndComplete(SseEmitter emitter, Exception e) {
+        String msg = (e.getMessage() == null || e.getMessage().isBlank())
+                ? e.getClass().getSimpleName()
+                : e.getMessage();
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        if (e instanceof AiUnavailableException u) {
+            body.put("error", u.getError());
+            body.put("message", msg);
+            body.put("retryAfterSeconds", u.getRetryAfterSeconds());
+        } else {
+            body.put("error", e instanceof EntityNotFoundException ? "NOT_FOUND" : "AI_FAILED");
+            body.put("message", msg);
+        }
+        try {
+            send(emitter, "error", body);
+            emitter.complete();
+        } catch (Exception ignored) {
+            emitter.completeWithError(e);
+        }
+    }
+}
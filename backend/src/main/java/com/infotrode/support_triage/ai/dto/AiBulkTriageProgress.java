@@ -0,0 +1,13 @@
+package com.infotrode.support_triage.ai.dto;
+
+/** One "progress" event per ticket, in completion order. */
+public record AiBulkTriageProgress(
+        int completed,
+        int total,
+        Long ticketId,
+        boolean ok,
+        boolean applied,
+        long latencyMs,
+        AiTriageSuggestion suggestion,
+        String error
+) {}
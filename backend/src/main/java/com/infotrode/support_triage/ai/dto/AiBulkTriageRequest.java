@@ -0,0 +1,18 @@
+package com.infotrode.support_triage.ai.dto;
+
+import com.infotrode.support_triage.ticket.TicketStatus;
+import jakarta.validation.constraints.Min;
+
+import java.util.List;
+
+/**
+ * Either an explicit {@code ticketIds} list, or a filter with the same semantics as
+ * {@code GET /api/tickets?status=&q=} (both empty = every ticket, up to ai.bulk.max-tickets).
+ */
+public record AiBulkTriageRequest(
+        List<Long> ticketIds,
+        TicketStatus status,
+        String q,
+        Boolean apply,          // write suggested category/priority/tags onto the ticket
+        @Min(1) Integer parallelism
+) {}
@@ -0,0 +1,15 @@
+package com.infotrode.support_triage.ai.dto;
+
+/** Final "done" event: throughput and per-ticket latency, for sizing Ollama hosts. */
+public record AiBulkTriageSummary(
+        int total,
+        int succeeded,
+        int failed,
+        int applied,
+        int parallelism,
+        long elapsedMs,
+        double ticketsPerMinute,
+        Latency latencyMs
+) {
+    public record Latency(long min, long p50, long p95, long p99, long max, double avg) {}
+}
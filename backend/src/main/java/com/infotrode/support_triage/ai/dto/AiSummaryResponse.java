@@ -6,5 +6,6 @@ public record AiSummaryResponse(
         Long ticketId,
         String summary,
         List<String> keyPoints,
-        Long savedNoteId
+        Long savedNoteId,
+        Long aiRunId
 ) {}
@@ -0,0 +1,112 @@
+package com.infotrode.support_triage.ai.jobs;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "ai_jobs")
+public class AiJob {
+
+    public enum Type { TRIAGE, SUMMARY, REPLY_DRAFT }
+
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private Type type;
+
+    @Column(name = "ticket_id", nullable = false)
+    private Long ticketId;
+
+    // handler arguments, e.g. {"tone": "CONCISE"} or {"saveAsNote": true}
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "params_json", nullable = false, columnDefinition = "jsonb")
+    private JsonNode paramsJson;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.QUEUED;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "max_attempts", nullable = false)
+    private int maxAttempts;
+
+    @Column(name = "run_after", nullable = false)
+    private Instant runAfter;
+
+    @Column(name = "lease_owner", length = 128)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    @Column(name = "ai_run_id")
+    private Long aiRunId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "result_json", columnDefinition = "jsonb")
+    private JsonNode resultJson;
+
+    @Column(name = "last_error", columnDefinition = "text")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @PrePersist
+    void prePersist() {
+        Instant now = Instant.now();
+        this.createdAt = now;
+        this.updatedAt = now;
+        if (this.runAfter == null) this.runAfter = now;
+        if (this.status == null) this.status = Status.QUEUED;
+    }
+
+    public Long getId() { return id; }
+
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public Long getTicketId() { return ticketId; }
+    public void setTicketId(Long ticketId) { this.ticketId = ticketId; }
+
+    public JsonNode getParamsJson() { return paramsJson; }
+    public void setParamsJson(JsonNode paramsJson) { this.paramsJson = paramsJson; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public int getAttempts() { return attempts; }
+
+    public int getMaxAttempts() { return maxAttempts; }
+    public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+
+    public Instant getRunAfter() { return runAfter; }
+
+    public String getLeaseOwner() { return leaseOwner; }
+    public Instant getLeaseExpiresAt() { return leaseExpiresAt; }
+
+    public Long getAiRunId() { return aiRunId; }
+    public JsonNode getResultJson() { return resultJson; }
+    public String getLastError() { return lastError; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+}
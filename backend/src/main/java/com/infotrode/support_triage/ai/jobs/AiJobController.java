@@ -0,0 +1,64 @@
+package com.infotrode.support_triage.ai.jobs;
+
+import com.infotrode.support_triage.ai.jobs.dto.AiJobResponse;
+import com.infotrode.support_triage.ai.jobs.dto.SubmitAiJobRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/ai/jobs")
+public class AiJobController {
+
+    private final AiJobService service;
+
+    public AiJobController(AiJobService service) {
+        this.service = service;
+    }
+
+    @PostMapping
+    public ResponseEntity<AiJobResponse> submit(@Valid @RequestBody SubmitAiJobRequest req) {
+        AiJob job = service.submit(req);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/ai/jobs/" + job.getId()))
+                .body(AiJobResponse.from(job));
+    }
+
+    @GetMapping("/{id}")
+    public AiJobResponse get(@PathVariable long id) {
+        return AiJobResponse.from(service.get(id));
+    }
+
+    /**
+     * 200 with the same payload the synchronous endpoint would have returned once the job
+     * succeeded, 202 with the job status while it is queued/running, 502 if it failed for good.
+     */
+    @GetMapping("/{id}/result")
+    public ResponseEntity<?> result(@PathVariable long id) {
+        AiJob job = service.get(id);
+        return switch (job.getStatus()) {
+            // stored JSON is written as-is
+            case SUCCEEDED -> job.getResultJson() == null
+                    ? failed(job, "job succeeded without a stored result")
+                    : ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(job.getResultJson().toString());
+            case FAILED -> failed(job, job.getLastError());
+            default -> ResponseEntity.accepted().body(AiJobResponse.from(job));
+        };
+    }
+
+    private static ResponseEntity<Map<String, Object>> failed(AiJob job, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", "AI_FAILED");
+        body.put("message", message);
+        body.put("jobId", job.getId());
+        return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(body);
+    }
+}
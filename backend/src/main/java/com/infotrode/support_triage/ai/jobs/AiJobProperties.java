@@ -0,0 +1,36 @@
+package com.infotrode.support_triage.ai.jobs;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "ai.jobs")
+public class AiJobProperties {
+    private boolean workerEnabled = true;
+    private int concurrency = 2;
+    private long pollIntervalMs = 1000;
+    // must comfortably exceed the Ollama timeout, otherwise a slow job gets reclaimed mid-flight
+    private int leaseSeconds = 300;
+    private int maxAttempts = 3;
+    private int backoffBaseSeconds = 10;
+    private int backoffMaxSeconds = 600;
+
+    public boolean isWorkerEnabled() { return workerEnabled; }
+    public void setWorkerEnabled(boolean workerEnabled) { this.workerEnabled = workerEnabled; }
+
+    public int getConcurrency() { return concurrency; }
+    public void setConcurrency(int concurrency) { this.concurrency = concurrency; }
+
+    public long getPollIntervalMs() { return pollIntervalMs; }
+    public void setPollIntervalMs(long pollIntervalMs) { this.pollIntervalMs = pollIntervalMs; }
+
+    public int getLeaseSeconds() { return leaseSeconds; }
+    public void setLeaseSeconds(int leaseSeconds) { this.leaseSeconds = leaseSeconds; }
+
+    public int getMaxAttempts() { return maxAttempts; }
+    public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+
+    public int getBackoffBaseSeconds() { return backoffBaseSeconds; }
+    public void setBackoffBaseSeconds(int backoffBaseSeconds) { this.backoffBaseSeconds = backoffBaseSeconds; }
+
+    public int getBackoffMaxSeconds() { return backoffMaxSeconds; }
+    public void setBackoffMaxSeconds(int backoffMaxSeconds) { this.backoffMaxSeconds = backoffMaxSeconds; }
+}
@@ -0,0 +1,108 @@
+package com.infotrode.support_triage.ai.jobs;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface AiJobRepository extends JpaRepository<AiJob, Long> {
+
+    /**
+     * Leases up to {@code limit} due jobs to {@code owner}: queued jobs whose backoff has elapsed,
+     * plus running jobs whose lease expired (their worker died). SKIP LOCKED lets concurrent
+     * workers on other nodes claim disjoint rows without blocking each other.
+     */
+    @Query(value = """
+        update ai_jobs
+           set status = 'RUNNING',
+               attempts = attempts + 1,
+               lease_owner = :owner,
+               lease_expires_at = now() + make_interval(secs => :leaseSeconds),
+               updated_at = now()
+         where id in (
+               select id from ai_jobs
+                where (status = 'QUEUED' and run_after <= now())
+                   or (status = 'RUNNING' and lease_expires_at < now() and attempts < max_attempts)
+                order by run_after, id
+                limit :limit
+                for update skip locked
+         )
+        returning id
+        """, nativeQuery = true)
+    List<Long> claim(@Param("owner") String owner, @Param("leaseSeconds") int leaseSeconds, @Param("limit") int limit);
+
+    /** Jobs whose lease expired on their last allowed attempt will never be reclaimed: fail them. */
+    @Modifying
+    @Query(value = """
+        update ai_jobs
+           set status = 'FAILED',
+               last_error = coalesce(last_error, 'lease expired') || ' (gave up after ' || attempts || ' attempts)',
+               lease_owner = null,
+               lease_expires_at = null,
+               finished_at = now(),
+               updated_at = now()
+         where status = 'RUNNING' and lease_expires_at < now() and attempts >= max_attempts
+        """, nativeQuery = true)
+    int failExhaustedLeases();
+
+    @Modifying
+    @Query(value = """
+        update ai_jobs
+           set status = 'SUCCEEDED',
+               ai_run_id = :aiRunId,
+               result_json = cast(:resultJson as jsonb),
+               last_error = null,
+               lease_owner = null,
+               lease_expires_at = null,
+               finished_at = now(),
+               updated_at = now()
+         where id = :id and lease_owner = :owner and status = 'RUNNING'
+        """, nativeQuery = true)
+    int succeed(@Param("id") long id, @Param("owner") String owner,
+                @Param("aiRunId") Long aiRunId, @Param("resultJson") String resultJson);
+
+    @Modifying
+    @Query(value = """
+        update ai_jobs
+           set status = 'QUEUED',
+               run_after = now() + make_interval(secs => :delaySeconds),
+               last_error = :error,
+               lease_owner = null,
+               lease_expires_at = null,
+               updated_at = now()
+         where id = :id and lease_owner = :owner and status = 'RUNNING'
+        """, nativeQuery = true)
+    int retryLater(@Param("id") long id, @Param("owner") String owner,
+                   @Param("delaySeconds") int delaySeconds, @Param("error") String error);
+
+    /** Hands back a job that was not attempted (the AI backend shed it): the claim's attempt is undone. */
+    @Modifying
+    @Query(value = """
+        update ai_jobs
+           set status = 'QUEUED',
+               attempts = attempts - 1,
+               run_after = now() + make_interval(secs => :delaySeconds),
+               last_error = :error,
+               lease_owner = null,
+               lease_expires_at = null,
+               updated_at = now()
+         where id = :id and lease_owner = :owner and status = 'RUNNING'
+        """, nativeQuery = true)
+    int postpone(@Param("id") long id, @Param("owner") String owner,
+                 @Param("delaySeconds") long delaySeconds, @Param("error") String error);
+
+    @Modifying
+    @Query(value = """
+        update ai_jobs
+           set status = 'FAILED',
+               last_error = :error,
+               lease_owner = null,
+               lease_expires_at = null,
+               finished_at = now(),
+               updated_at = now()
+         where id = :id and lease_owner = :owner and status = 'RUNNING'
+        """, nativeQuery = true)
+    int fail(@Param("id") long id, @Param("owner") String owner, @Param("error") String error);
+}
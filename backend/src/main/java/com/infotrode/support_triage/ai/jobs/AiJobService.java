@@ -0,0 +1,115 @@
+package com.infotrode.support_triage.ai.jobs;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.infotrode.support_triage.ai.jobs.dto.SubmitAiJobRequest;
+import com.infotrode.support_triage.ticket.TicketService;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Queue operations on ai_jobs. Every method is one short transaction; the AI work itself runs in
+ * {@link AiJobWorker} between {@link #claim} and {@link #succeed}/{@link #fail}.
+ */
+@Service
+public class AiJobService {
+    private static final Logger log = LoggerFactory.getLogger(AiJobService.class);
+
+    private final AiJobRepository repo;
+    private final TicketService ticketService;
+    private final AiJobProperties props;
+    private final ObjectMapper om;
+
+    public AiJobService(AiJobRepository repo, TicketService ticketService, AiJobProperties props, ObjectMapper om) {
+        this.repo = repo;
+        this.ticketService = ticketService;
+        this.props = props;
+        this.om = om;
+    }
+
+    @Transactional
+    public AiJob submit(SubmitAiJobRequest req) {
+        if (req.type() == AiJob.Type.REPLY_DRAFT && req.tone() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "tone is required for REPLY_DRAFT jobs");
+        }
+        if (!ticketService.exists(req.ticketId())) {
+            throw new EntityNotFoundException("Ticket not found: " + req.ticketId());
+        }
+
+        ObjectNode params = om.createObjectNode();
+        if (req.tone() != null) params.put("tone", req.tone().name());
+        if (req.saveAsNote() != null) params.put("saveAsNote", req.saveAsNote());
+
+        AiJob job = new AiJob();
+        job.setType(req.type());
+        job.setTicketId(req.ticketId());
+        job.setParamsJson(params);
+        job.setMaxAttempts(props.getMaxAttempts());
+        return repo.save(job);
+    }
+
+    @Transactional(readOnly = true)
+    public AiJob get(long id) {
+        return repo.findById(id).orElseThrow(() -> new EntityNotFoundException("AI job not found: " + id));
+    }
+
+    /** Leases up to {@code limit} jobs to {@code owner} and returns them. */
+    @Transactional
+    public List<AiJob> claim(String owner, int limit) {
+        repo.failExhaustedLeases();
+        List<Long> ids = repo.claim(owner, props.getLeaseSeconds(), limit);
+        if (ids.isEmpty()) return List.of();
+        return repo.findAllById(ids);
+    }
+
+    /**
+     * @return false if the lease was lost (job reclaimed by another worker); the result is dropped.
+     * A result that cannot be stored as JSON fails the job for good: running it again would
+     * produce the same result.
+     */
+    @Transactional
+    public boolean succeed(AiJob job, String owner, Long aiRunId, Object result) {
+        String json;
+        try {
+            json = om.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            log.warn("AI job {} result could not be serialized", job.getId(), e);
+            return repo.fail(job.getId(), owner, "result could not be serialized: " + e.getOriginalMessage()) == 1;
+        }
+        return repo.succeed(job.getId(), owner, aiRunId, json) == 1;
+    }
+
+    /**
+     * Records a failed attempt: re-queues with exponential backoff while attempts remain,
+     * otherwise (or if {@code retryable} is false) marks the job FAILED.
+     */
+    @Transactional
+    public boolean fail(AiJob job, String owner, String error, boolean retryable) {
+        if (retryable && job.getAttempts() < job.getMaxAttempts()) {
+            return repo.retryLater(job.getId(), owner, backoffSeconds(job.getAttempts()), error) == 1;
+        }
+        return repo.fail(job.getId(), owner, error) == 1;
+    }
+
+    /**
+     * Re-queues a job the AI backend refused before doing any work (429/503 with Retry-After).
+     * That is not a failed attempt: it does not count against max attempts or back off.
+     */
+    @Transactional
+    public boolean postpone(AiJob job, String owner, long retryAfterSeconds, String error) {
+        return repo.postpone(job.getId(), owner, Math.max(1, retryAfterSeconds), error) == 1;
+    }
+
+    int backoffSeconds(int attempts) {
+        long delay = (long) props.getBackoffBaseSeconds() << Math.min(Math.max(attempts - 1, 0), 20);
+        return (int) Math.min(delay, props.getBackoffMaxSeconds());
+    }
+}
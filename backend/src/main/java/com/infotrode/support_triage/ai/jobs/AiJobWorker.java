@@ -0,0 +1,175 @@
+package com.infotrode.support_triage.ai.jobs;
+
+import com.infotrode.support_triage.ai.AiReplyDraftService;
+import com.infotrode.support_triage.ai.AiSummaryService;
+import com.infotrode.support_triage.ai.AiTriageService;
+import com.infotrode.support_triage.ai.AiUnavailableException;
+import com.infotrode.support_triage.ai.ReplyTone;
+import com.infotrode.support_triage.ai.dto.AiReplyDraftResponse;
+import com.infotrode.support_triage.ai.dto.AiSummaryResponse;
+import com.infotrode.support_triage.ai.dto.AiTriageSuggestion;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Polls ai_jobs and runs claimed jobs through the regular AI services.
+ *
+ * Every backend node runs one of these; they coordinate only through the table (leases +
+ * SKIP LOCKED), so adding nodes adds AI throughput without any broker. Delivery is at-least-once:
+ * a job whose worker dies after the AI call but before {@link AiJobService#succeed} runs again.
+ */
+@Component
+public class AiJobWorker implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(AiJobWorker.class);
+
+    private final AiJobService jobs;
+    private final AiJobProperties props;
+    private final AiTriageService triageService;
+    private final AiSummaryService summaryService;
+    private final AiReplyDraftService replyService;
+
+    private final String workerId;
+    private final Semaphore slots;
+
+    private volatile boolean running;
+    private ScheduledExecutorService poller;
+    private ExecutorService executor;
+
+    public AiJobWorker(
+            AiJobService jobs,
+            AiJobProperties props,
+            AiTriageService triageService,
+            AiSummaryService summaryService,
+            AiReplyDraftService replyService
+    ) {
+        this.jobs = jobs;
+        this.props = props;
+        this.triageService = triageService;
+        this.summaryService = summaryService;
+        this.replyService = replyService;
+        this.workerId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+        this.slots = new Semaphore(props.getConcurrency());
+    }
+
+    @Override
+    public void start() {
+        if (!props.isWorkerEnabled()) return;
+
+        AtomicInteger n = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(props.getConcurrency(), r -> {
+            Thread t = new Thread(r, "ai-job-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ai-job-poller");
+            t.setDaemon(true);
+            return t;
+        });
+        running = true;
+        poller.scheduleWithFixedDelay(this::poll, props.getPollIntervalMs(), props.getPollIntervalMs(), TimeUnit.MILLISECONDS);
+        log.info("AI job worker {} started (concurrency={})", workerId, props.getConcurrency());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (poller != null) poller.shutdownNow();
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                // in-flight jobs that don't finish keep their lease and are reclaimed after it expires
+                executor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public String getWorkerId() {
+        return workerId;
+    }
+
+    void poll() {
+        if (!running) return;
+        try {
+            int free = slots.availablePermits();
+            if (free == 0) return;
+
+            List<AiJob> claimed = jobs.claim(workerId, free);
+            for (AiJob job : claimed) {
+                slots.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        process(job);
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        } catch (Exception e) {
+            log.warn("AI job poll failed", e);
+        }
+    }
+
+    void process(AiJob job) {
+        try {
+            Long aiRunId;
+            Object result;
+            switch (job.getType()) {
+                case TRIAGE -> {
+                    AiTriageSuggestion r = triageService.triage(job.getTicketId());
+                    aiRunId = r.aiRunId();
+                    result = r;
+                }
+                case SUMMARY -> {
+                    boolean save = job.getParamsJson().path("saveAsNote").asBoolean(false);
+                    AiSummaryResponse r = summaryService.summarize(job.getTicketId(), save);
+                    aiRunId = r.aiRunId();
+                    result = r;
+                }
+                case REPLY_DRAFT -> {
+                    ReplyTone tone = ReplyTone.valueOf(job.getParamsJson().path("tone").asText());
+                    AiReplyDraftResponse r = replyService.draftReply(job.getTicketId(), tone);
+                    aiRunId = r.aiRunId();
+                    result = r;
+                }
+                default -> throw new IllegalStateException("Unknown job type: " + job.getType());
+            }
+
+            if (!jobs.succeed(job, workerId, aiRunId, result)) {
+                log.warn("AI job {} finished after its lease was lost; result dropped", job.getId());
+            }
+        } catch (AiUnavailableException e) {
+            // shed before Ollama was called: come back when the limiter / circuit breaker says so
+            log.info("AI job {} postponed {}s: {}", job.getId(), e.getRetryAfterSeconds(), e.getMessage());
+            jobs.postpone(job, workerId, e.getRetryAfterSeconds(), e.getMessage());
+        } catch (Exception e) {
+            String msg = (e.getMessage() == null || e.getMessage().isBlank())
+                    ? e.getClass().getSimpleName()
+                    : e.getMessage();
+            // a deleted ticket will not come back; anything else (Ollama down, bad output) may
+            boolean retryable = !(e instanceof EntityNotFoundException || e.getCause() instanceof EntityNotFoundException);
+            log.warn("AI job {} attempt {} failed: {}", job.getId(), job.getAttempts(), msg);
+            jobs.fail(job, workerId, msg, retryable);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.infotrode.support_triage.ai.jobs.dto;
+
+import com.infotrode.support_triage.ai.jobs.AiJob;
+
+import java.time.Instant;
+
+public record AiJobResponse(
+        Long id,
+        AiJob.Type type,
+        Long ticketId,
+        AiJob.Status status,
+        int attempts,
+        int maxAttempts,
+        Instant runAfter,
+        Long aiRunId,
+        String lastError,
+        Instant createdAt,
+        Instant updatedAt,
+        Instant finishedAt
+) {
+    public static AiJobResponse from(AiJob j) {
+        return new AiJobResponse(
+                j.getId(),
+                j.getType(),
+                j.getTicketId(),
+                j.getStatus(),
+                j.getAttempts(),
+                j.getMaxAttempts(),
+                j.getRunAfter(),
+                j.getAiRunId(),
+                j.getLastError(),
+                j.getCreatedAt(),
+                j.getUpdatedAt(),
+                j.getFinishedAt()
+        );
+    }
+}
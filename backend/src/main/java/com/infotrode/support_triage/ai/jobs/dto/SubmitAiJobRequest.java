@@ -0,0 +1,12 @@
+package com.infotrode.support_triage.ai.jobs.dto;
+
+import com.infotrode.support_triage.ai.ReplyTone;
+import com.infotrode.support_triage.ai.jobs.AiJob;
+import jakarta.validation.constraints.NotNull;
+
+public record SubmitAiJobRequest(
+        @NotNull AiJob.Type type,
+        @NotNull Long ticketId,
+        ReplyTone tone,        // required for REPLY_DRAFT
+        Boolean saveAsNote     // SUMMARY only
+) {}
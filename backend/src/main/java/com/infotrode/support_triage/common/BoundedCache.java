@@ -0,0 +1,80 @@
+package com.infotrode.support_triage.common;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Small in-process LRU cache with a hard size bound and a per-entry time-to-live.
+ *
+ * Deliberately simple (one lock around an access-ordered LinkedHashMap): the things we cache
+ * are expensive to produce (LLM output, DB rows), so a lookup never dominates the cost.
+ */
+public final class BoundedCache<K, V> {
+
+    private record Entry<V>(V value, long expiresAtNanos) {}
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    public BoundedCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, System::nanoTime);
+    }
+
+    /** {@code nanoClock} stands in for {@link System#nanoTime()} (tests move time forward). */
+    public BoundedCache(int maxEntries, Duration ttl, LongSupplier nanoClock) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries must be > 0");
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > BoundedCache.this.maxEntries;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> e = map.get(key);
+        if (e == null) return null;
+        if (nanoClock.getAsLong() - e.expiresAtNanos > 0) {
+            map.remove(key);
+            return null;
+        }
+        return e.value();
+    }
+
+    public synchronized void put(K key, V value) {
+        map.put(key, new Entry<>(value, nanoClock.getAsLong() + ttlNanos));
+    }
+
+    /** Returns the cached value, loading (and caching) it when absent. Null results are not cached. */
+    public V computeIfAbsent(K key, Function<K, V> loader) {
+        V v = get(key);
+        if (v != null) return v;
+        v = loader.apply(key); // outside the lock: loaders hit the DB
+        if (v != null) put(key, v);
+        return v;
+    }
+
+    public synchronized void invalidate(K key) {
+        map.remove(key);
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public int maxEntries() {
+        return maxEntries;
+    }
+}
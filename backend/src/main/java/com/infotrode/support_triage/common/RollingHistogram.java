@@ -0,0 +1,121 @@
+package com.infotrode.support_triage.common;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.IntCountsHistogram;
+import org.HdrHistogram.Recorder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Value distribution over a sliding time window, cut into fixed slots.
+ *
+ * Recording goes to an HdrHistogram {@link Recorder}, which is wait-free, so any thread can
+ * record without locking. {@link #rotate} (one thread, once per slot) moves what was recorded
+ * into a ring with one histogram per slot; reads merge the slots inside the window asked for.
+ * A value is therefore visible after at most one slot. A ring position gets its histogram with
+ * its first value and reuses it from then on.
+ *
+ * Values are whole units (e.g. milliseconds) with {@code significantDigits} of precision;
+ * values above {@code highestValue} are recorded as {@code highestValue}.
+ */
+public final class RollingHistogram {
+
+    /** What the window holds: events with or without a value; percentiles over the values. */
+    public record Snapshot(long events, long values, long p50, long p95, long p99, long max, double mean) {}
+
+    private final long slotMillis;
+    private final long highestValue;
+    private final int significantDigits;
+    private final Recorder recorder;
+    private final LongAdder withoutValue = new LongAdder();
+
+    // ring[i] holds absolute slot ringSlot[i]; anything else there is stale
+    private final IntCountsHistogram[] ring;
+    private final long[] ringSlot;
+    private final long[] ringEvents;
+    private Histogram recycled;
+    private long rotatedAt;
+
+    public RollingHistogram(Duration slot, int slots, long highestValue, int significantDigits, long nowMillis) {
+        if (slots <= 0) throw new IllegalArgumentException("slots must be > 0");
+        this.slotMillis = Math.max(1, slot.toMillis());
+        this.highestValue = highestValue;
+        this.significantDigits = significantDigits;
+        this.recorder = new Recorder(highestValue, significantDigits);
+        this.ring = new IntCountsHistogram[slots];
+        this.ringSlot = new long[slots];
+        this.ringEvents = new long[slots];
+        Arrays.fill(ringSlot, Long.MIN_VALUE);
+        this.rotatedAt = nowMillis;
+    }
+
+    public void record(long value) {
+        recorder.recordValue(Math.max(0, Math.min(value, highestValue)));
+    }
+
+    /** Counts an event that has no value (e.g. a failed call without a latency). */
+    public void recordWithoutValue() {
+        withoutValue.increment();
+    }
+
+    /** Adds a value to the slot of {@code atMillis} directly, e.g. when seeding from history. */
+    public synchronized void recordAt(long atMillis, Long value) {
+        int i = claim(Math.floorDiv(atMillis, slotMillis));
+        if (i < 0) return; // older than the ring
+        ringEvents[i]++;
+        if (value != null) histogram(i).recordValue(Math.max(0, Math.min(value, highestValue)));
+    }
+
+    /** Moves everything recorded since the last rotation into the slot where that interval began. */
+    public synchronized void rotate(long nowMillis) {
+        Histogram interval = recorder.getIntervalHistogram(recycled);
+        recycled = interval;
+        long noValue = withoutValue.sumThenReset();
+        int i = claim(Math.floorDiv(rotatedAt, slotMillis));
+        rotatedAt = nowMillis;
+        if (i < 0) return;
+        ringEvents[i] += interval.getTotalCount() + noValue;
+        if (interval.getTotalCount() > 0) histogram(i).add(interval);
+    }
+
+    /** The slot in progress plus the {@code window} worth of complete slots before it (as many as the ring holds). */
+    public synchronized Snapshot snapshot(long nowMillis, Duration window) {
+        long newest = Math.floorDiv(nowMillis, slotMillis);
+        long oldest = newest - Math.min(ring.length - 1, Math.max(1, window.toMillis() / slotMillis));
+        Histogram merged = new Histogram(highestValue, significantDigits);
+        long events = 0;
+        for (int i = 0; i < ring.length; i++) {
+            if (ringSlot[i] < oldest || ringSlot[i] > newest) continue;
+            events += ringEvents[i];
+            if (ring[i] != null) merged.add(ring[i]);
+        }
+        long values = merged.getTotalCount();
+        if (values == 0) return new Snapshot(events, 0, 0, 0, 0, 0, 0);
+        return new Snapshot(events, values,
+                merged.getValueAtPercentile(50), merged.getValueAtPercentile(95), merged.getValueAtPercentile(99),
+                merged.getMaxValue(), merged.getMean());
+    }
+
+    /** Ring position of {@code slot}, cleared first if it held an older slot; -1 if the slot has left the ring. */
+    private int claim(long slot) {
+        int i = index(slot);
+        if (ringSlot[i] > slot) return -1;
+        if (ringSlot[i] != slot) {
+            ringSlot[i] = slot;
+            ringEvents[i] = 0;
+            if (ring[i] != null) ring[i].reset();
+        }
+        return i;
+    }
+
+    private IntCountsHistogram histogram(int i) {
+        if (ring[i] == null) ring[i] = new IntCountsHistogram(highestValue, significantDigits);
+        return ring[i];
+    }
+
+    private int index(long slot) {
+        return (int) Math.floorMod(slot, (long) ring.length);
+    }
+}
@@ -0,0 +1,21 @@
+package com.infotrode.support_triage.export;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/** Every export slot is taken: 503 with a Retry-After, before anything is streamed. */
+class ExportBusyException extends ResponseStatusException {
+
+    private final HttpHeaders headers = new HttpHeaders();
+
+    ExportBusyException(int limit, long retryAfterSeconds) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Too many exports running (limit " + limit + "); retry later.");
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+}
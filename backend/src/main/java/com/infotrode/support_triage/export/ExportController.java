@@ -0,0 +1,157 @@
+package com.infotrode.support_triage.export;
+
+import com.infotrode.support_triage.ai.AiRun;
+import com.infotrode.support_triage.ticket.TicketStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bulk downloads as NDJSON or CSV, optionally gzipped. Parameters are checked up front so a bad
+ * request is still a plain 400; after that the body is streamed by {@link ExportService}. A
+ * failure mid-way can only cut the download short, which is why the row count is logged.
+ *
+ * Each running export holds a pooled connection, so at most {@code export.max-concurrent} run at
+ * once; beyond that the answer is 503 with a Retry-After, before anything is streamed. A download
+ * is cut off after {@code export.timeout-minutes}, so a client that stops reading gives its
+ * connection back eventually.
+ */
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    private final ExportService service;
+    private final ExportProperties props;
+    private final Semaphore slots;
+
+    public ExportController(ExportService service, ExportProperties props, MeterRegistry registry) {
+        this.service = service;
+        this.props = props;
+        this.slots = new Semaphore(props.getMaxConcurrent());
+        Gauge.builder("export.running", this, ExportController::running)
+                .description("Exports holding a slot of export.max-concurrent").register(registry);
+    }
+
+    @GetMapping("/tickets")
+    public ResponseEntity<StreamingResponseBody> tickets(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletRequest request
+    ) {
+        TicketStatus s = parseEnum(TicketStatus.class, "status", status);
+        Instant f = parseTime("from", from), t = parseTime("to", to);
+        ExportFormat fmt = parseFormat(format);
+        return stream(request, "tickets", fmt, gzip, out -> service.exportTickets(s, f, t, fmt, gzip, out));
+    }
+
+    @GetMapping("/notes")
+    public ResponseEntity<StreamingResponseBody> notes(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletRequest request
+    ) {
+        Instant f = parseTime("from", from), t = parseTime("to", to);
+        ExportFormat fmt = parseFormat(format);
+        return stream(request, "notes", fmt, gzip, out -> service.exportNotes(f, t, fmt, gzip, out));
+    }
+
+    @GetMapping("/ai-runs")
+    public ResponseEntity<StreamingResponseBody> aiRuns(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletRequest request
+    ) {
+        AiRun.Status s = parseEnum(AiRun.Status.class, "status", status);
+        Instant f = parseTime("from", from), t = parseTime("to", to);
+        ExportFormat fmt = parseFormat(format);
+        return stream(request, "ai-runs", fmt, gzip, out -> service.exportAiRuns(s, f, t, fmt, gzip, out));
+    }
+
+    int running() {
+        return props.getMaxConcurrent() - slots.availablePermits();
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(
+            HttpServletRequest request, String name, ExportFormat format, boolean gzip, StreamingResponseBody body) {
+        if (!slots.tryAcquire()) throw new ExportBusyException(props.getMaxConcurrent(), props.getRetryAfterSeconds());
+
+        // the slot goes back when the body is done, or when the request ends without it ever starting
+        AtomicBoolean started = new AtomicBoolean();
+        AsyncWebRequest async = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+        async.setTimeout(TimeUnit.MINUTES.toMillis(props.getTimeoutMinutes()));
+        async.addCompletionHandler(() -> {
+            if (started.compareAndSet(false, true)) slots.release();
+        });
+
+        String filename = name + "." + format.extension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : format.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(out -> {
+                    if (!started.compareAndSet(false, true)) return;
+                    try {
+                        body.writeTo(out);
+                    } finally {
+                        slots.release();
+                    }
+                });
+    }
+
+    private static ExportFormat parseFormat(String format) {
+        ExportFormat parsed = parseEnum(ExportFormat.class, "format", format);
+        return parsed == null ? ExportFormat.NDJSON : parsed;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String name, String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid " + name + ": " + value + ". Allowed: " + Arrays.toString(type.getEnumConstants()));
+        }
+    }
+
+    /** An ISO-8601 instant, or a date meaning its start (UTC). */
+    private static Instant parseTime(String name, String value) {
+        if (value == null || value.isBlank()) return null;
+        String v = value.trim();
+        try {
+            return v.length() == 10 ? LocalDate.parse(v).atStartOfDay(ZoneOffset.UTC).toInstant() : Instant.parse(v);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid " + name + ": " + value + " (expected e.g. 2024-05-01 or 2024-05-01T09:30:00Z)");
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.infotrode.support_triage.export;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "export")
+public class ExportProperties {
+    // each running export holds a pooled connection (Hikari's default is 10) until the client has read it all
+    private int maxConcurrent = 4;
+    // cuts off a client that stopped reading; generous, as a big ai_runs export can take a while
+    private int timeoutMinutes = 60;
+    private int retryAfterSeconds = 30;
+
+    public int getMaxConcurrent() { return maxConcurrent; }
+    public void setMaxConcurrent(int maxConcurrent) { this.maxConcurrent = maxConcurrent; }
+
+    public int getTimeoutMinutes() { return timeoutMinutes; }
+    public void setTimeoutMinutes(int timeoutMinutes) { this.timeoutMinutes = timeoutMinutes; }
+
+    public int getRetryAfterSeconds() { return retryAfterSeconds; }
+    public void setRetryAfterSeconds(int retryAfterSeconds) { this.retryAfterSeconds = retryAfterSeconds; }
+}
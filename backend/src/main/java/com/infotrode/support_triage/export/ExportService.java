@@ -0,0 +1,142 @@
+package com.infotrode.support_triage.export;
+
+import com.infotrode.support_triage.ai.AiRun;
+import com.infotrode.support_triage.ai.AiRunExportRow;
+import com.infotrode.support_triage.ai.AiRunRepository;
+import com.infotrode.support_triage.export.ExportWriter.Column;
+import com.infotrode.support_triage.notes.TicketNoteExportRow;
+import com.infotrode.support_triage.notes.TicketNoteRepository;
+import com.infotrode.support_triage.ticket.TicketExportRow;
+import com.infotrode.support_triage.ticket.TicketRepository;
+import com.infotrode.support_triage.ticket.TicketStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Streams whole tables out for offline analysis. Each export is one read-only transaction over a
+ * server-side cursor (see the {@code streamForExport} queries), written row by row to the
+ * response: memory stays flat whether it is a hundred rows or millions of {@code ai_runs}. The
+ * transaction, and with it one pooled connection, is held until the client has read everything.
+ *
+ * {@code from} is inclusive and {@code to} exclusive; both are optional and filter on creation time.
+ */
+@Service
+public class ExportService {
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    // same names as the import reads (ids and updatedAt are ignored there)
+    static final List<Column<TicketExportRow>> TICKET_COLUMNS = List.of(
+            new Column<>("id", TicketExportRow::id),
+            new Column<>("subject", TicketExportRow::subject),
+            new Column<>("requesterEmail", TicketExportRow::requesterEmail),
+            new Column<>("body", TicketExportRow::body),
+            new Column<>("status", TicketExportRow::status),
+            new Column<>("priority", TicketExportRow::priority),
+            new Column<>("category", TicketExportRow::category),
+            new Column<>("tags", TicketExportRow::tags),
+            new Column<>("createdAt", TicketExportRow::createdAt),
+            new Column<>("updatedAt", TicketExportRow::updatedAt)
+    );
+
+    static final List<Column<TicketNoteExportRow>> NOTE_COLUMNS = List.of(
+            new Column<>("id", TicketNoteExportRow::id),
+            new Column<>("ticketId", TicketNoteExportRow::ticketId),
+            new Column<>("type", TicketNoteExportRow::type),
+            new Column<>("body", TicketNoteExportRow::body),
+            new Column<>("createdAt", TicketNoteExportRow::createdAt)
+    );
+
+    static final List<Column<AiRunExportRow>> AI_RUN_COLUMNS = List.of(
+            new Column<>("id", AiRunExportRow::id),
+            new Column<>("ticketId", AiRunExportRow::ticketId),
+            new Column<>("type", AiRunExportRow::type),
+            new Column<>("provider", AiRunExportRow::provider),
+            new Column<>("model", AiRunExportRow::model),
+            new Column<>("promptVersion", AiRunExportRow::promptVersion),
+            new Column<>("status", AiRunExportRow::status),
+            new Column<>("inputJson", AiRunExportRow::inputJson),
+            new Column<>("outputJson", AiRunExportRow::outputJson),
+            new Column<>("latencyMs", AiRunExportRow::latencyMs),
+            new Column<>("firstTokenMs", AiRunExportRow::firstTokenMs),
+            new Column<>("errorMessage", AiRunExportRow::errorMessage),
+            new Column<>("cacheKey", AiRunExportRow::cacheKey),
+            new Column<>("cacheHit", AiRunExportRow::cacheHit),
+            new Column<>("createdAt", AiRunExportRow::createdAt)
+    );
+
+    // open ends of the date range, as bounds Postgres can compare against (a typed null cannot be sent)
+    static final Instant EARLIEST = Instant.parse("0001-01-01T00:00:00Z");
+    static final Instant LATEST = Instant.parse("9999-12-31T00:00:00Z");
+
+    private final TicketRepository ticketRepository;
+    private final TicketNoteRepository noteRepository;
+    private final AiRunRepository aiRunRepository;
+    private final JsonMapper json;
+
+    public ExportService(
+            TicketRepository ticketRepository,
+            TicketNoteRepository noteRepository,
+            AiRunRepository aiRunRepository,
+            JsonMapper json
+    ) {
+        this.ticketRepository = ticketRepository;
+        this.noteRepository = noteRepository;
+        this.aiRunRepository = aiRunRepository;
+        this.json = json;
+    }
+
+    /** Returns the number of rows written. */
+    @Transactional(readOnly = true)
+    public long exportTickets(TicketStatus status, Instant from, Instant to,
+                              ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        try (Stream<TicketExportRow> rows = ticketRepository.streamForExport(status, orEarliest(from), orLatest(to))) {
+            return write("tickets", rows, TicketExportRow.class, TICKET_COLUMNS, format, gzip, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportNotes(Instant from, Instant to,
+                            ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        try (Stream<TicketNoteExportRow> rows = noteRepository.streamForExport(
+                orEarliest(from).atOffset(ZoneOffset.UTC), orLatest(to).atOffset(ZoneOffset.UTC))) {
+            return write("ticket_notes", rows, TicketNoteExportRow.class, NOTE_COLUMNS, format, gzip, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportAiRuns(AiRun.Status status, Instant from, Instant to,
+                             ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        try (Stream<AiRunExportRow> rows = aiRunRepository.streamForExport(status, orEarliest(from), orLatest(to))) {
+            return write("ai_runs", rows, AiRunExportRow.class, AI_RUN_COLUMNS, format, gzip, out);
+        }
+    }
+
+    private static Instant orEarliest(Instant from) { return from == null ? EARLIEST : from; }
+
+    private static Instant orLatest(Instant to) { return to == null ? LATEST : to; }
+
+    private <T> long write(String table, Stream<T> rows, Class<T> type, List<Column<T>> columns,
+                           ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        ExportWriter<T> writer = new ExportWriter<>(format, gzip, columns, json.writerFor(type), out);
+        try (writer) {
+            for (Iterator<T> it = rows.iterator(); it.hasNext(); ) {
+                writer.write(it.next());
+            }
+        }
+        log.info("Exported {} {} rows as {} in {} ms", writer.rows(), table, format,
+                (System.nanoTime() - start) / 1_000_000);
+        return writer.rows();
+    }
+}
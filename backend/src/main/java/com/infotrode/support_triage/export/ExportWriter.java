@@ -0,0 +1,100 @@
+package com.infotrode.support_triage.export;
+
+import tools.jackson.databind.ObjectWriter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes rows one at a time as NDJSON (the row record serialized by Jackson) or CSV (the given
+ * columns, with a header line), optionally gzipped. Output goes through a 64 KB buffer straight to
+ * the response, so nothing is held per row. {@link #close()} finishes the gzip trailer and
+ * flushes, but leaves the underlying stream open.
+ */
+final class ExportWriter<T> implements Closeable {
+
+    record Column<T>(String name, Function<T, Object> value) {}
+
+    private static final int BUFFER = 64 * 1024;
+
+    private final ExportFormat format;
+    private final List<Column<T>> columns;
+    private final ObjectWriter json;
+    private final GZIPOutputStream gzip;
+    private final Writer out;
+    private long rows;
+
+    ExportWriter(ExportFormat format, boolean gzip, List<Column<T>> columns, ObjectWriter json, OutputStream target)
+            throws IOException {
+        this.format = format;
+        this.columns = columns;
+        this.json = json;
+        this.gzip = gzip ? new FastGzip(target) : null;
+        this.out = new BufferedWriter(new OutputStreamWriter(gzip ? this.gzip : target, StandardCharsets.UTF_8), BUFFER);
+        if (format == ExportFormat.CSV) {
+            writeCsvLine(columns.stream().map(c -> (Object) c.name()).toList());
+        }
+    }
+
+    void write(T row) throws IOException {
+        if (format == ExportFormat.NDJSON) {
+            out.write(json.writeValueAsString(row));
+            out.write('\n');
+        } else {
+            writeCsvLine(columns.stream().map(c -> c.value().apply(row)).toList());
+        }
+        rows++;
+    }
+
+    long rows() { return rows; }
+
+    @Override
+    public void close() throws IOException {
+        out.flush();
+        if (gzip != null) gzip.finish();
+    }
+
+    /**
+     * Deflate level 1: at the default (6) compression took three quarters of an export's time, for
+     * files only ~6% smaller (see ExportBenchmark).
+     */
+    private static final class FastGzip extends GZIPOutputStream {
+        FastGzip(OutputStream out) throws IOException {
+            super(out, BUFFER);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+    }
+
+    private void writeCsvLine(List<Object> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) out.write(',');
+            writeCsvField(values.get(i));
+        }
+        out.write("\r\n");
+    }
+
+    // RFC 4180: quote only when needed, double embedded quotes; null is an empty field
+    private void writeCsvField(Object value) throws IOException {
+        if (value == null) return;
+        String s = (value instanceof Collection<?> list)
+                ? String.join(";", list.stream().map(String::valueOf).toList())
+                : value.toString();
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+            out.write(s);
+            return;
+        }
+        out.write('"');
+        out.write(s.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
@@ -0,0 +1,204 @@
+package com.infotrode.support_triage.live;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans change events out to everyone connected to this node. Events come from
+ * {@link LiveEventsListener}, which is the only reader of the database; subscribers cost no
+ * connection, just an open async request.
+ *
+ * Publishing only queues: each subscriber has a bounded queue ({@code live.events.subscriber-queue})
+ * that a small shared pool of sender threads ({@code live.events.sender-threads}) drains in order,
+ * one subscriber at a time. A client that stops reading fills its own queue and is dropped; it
+ * never holds up the listener thread or the other clients.
+ *
+ * Delivery is best effort: a subscriber whose queue overflows or whose send fails is dropped, and
+ * clients re-read state after (re)connecting anyway.
+ */
+@Component
+public class LiveEventHub implements DisposableBean {
+
+    /** Receives each event as its SSE name and raw JSON payload. */
+    @FunctionalInterface
+    public interface Subscriber {
+        void send(String event, String json) throws IOException;
+    }
+
+    private record Event(String name, String json) {}
+
+    /**
+     * Events waiting for one subscriber, how to end its subscription once it is dropped, and what
+     * to give back when it leaves (its stream slot).
+     */
+    private static final class Outbox {
+        final BlockingQueue<Event> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        final Runnable end;
+        final Runnable release;
+
+        Outbox(int capacity, Runnable end, Runnable release) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.end = end;
+            this.release = release;
+        }
+    }
+
+    private final LiveEventsProperties props;
+    private final Map<Subscriber, Outbox> subscribers = new ConcurrentHashMap<>();
+    // SSE streams holding a slot of live.events.max-clients, counted apart from the map so the
+    // check and the reservation are one step
+    private final AtomicInteger streams = new AtomicInteger();
+    private final ExecutorService senders;
+    private final MeterRegistry registry;
+    private final Map<String, Counter> published = new ConcurrentHashMap<>();
+    private final Counter droppedOverflow;
+    private final Counter droppedError;
+
+    public LiveEventHub(LiveEventsProperties props, MeterRegistry registry) {
+        this.props = props;
+        this.registry = registry;
+
+        AtomicInteger n = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(props.getSenderThreads(), r -> {
+            Thread t = new Thread(r, "live-events-sender-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        Gauge.builder("live.events.clients", subscribers, Map::size).register(registry);
+        this.droppedOverflow = Counter.builder("live.events.dropped").tag("reason", "overflow").register(registry);
+        this.droppedError = Counter.builder("live.events.dropped").tag("reason", "error").register(registry);
+    }
+
+    /** Registers {@code s} until the returned handle is closed, its queue overflows or a send to it fails. */
+    public AutoCloseable subscribe(Subscriber s) {
+        subscribers.put(s, new Outbox(props.getSubscriberQueue(), () -> {}, () -> {}));
+        return () -> remove(s);
+    }
+
+    /**
+     * A never-ending SSE stream for one browser tab. It starts with a "ready" event: anything that
+     * changed before the stream was up must be read normally, so clients sync once on "ready".
+     * "ready" is the first event in the stream's queue and the stream is registered with it in
+     * place, so every change published after the client could have read is sent after it.
+     */
+    public SseEmitter open() {
+        if (streams.incrementAndGet() > props.getMaxClients()) {
+            streams.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many live clients; poll instead");
+        }
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber s = (event, json) -> {
+            synchronized (emitter) {
+                SseEmitter.SseEventBuilder e = (event == null)
+                        ? SseEmitter.event().comment("")
+                        : SseEmitter.event().name(event).data(json);
+                emitter.send(e);
+            }
+        };
+        Outbox out = new Outbox(props.getSubscriberQueue(), emitter::complete, streams::decrementAndGet);
+        out.queue.add(new Event("ready", "{}"));
+        subscribers.put(s, out);
+        emitter.onCompletion(() -> remove(s));
+        emitter.onError(e -> remove(s));
+        schedule(s, out);
+        return emitter;
+    }
+
+    public int clients() {
+        return subscribers.size();
+    }
+
+    void publish(String event, String json) {
+        published.computeIfAbsent(event, e -> Counter.builder("live.events.published").tag("type", e).register(registry))
+                .increment();
+        sendAll(new Event(event, json));
+    }
+
+    /** An SSE comment: keeps proxies from closing idle streams and finds clients that went away. */
+    void heartbeat() {
+        sendAll(new Event(null, null));
+    }
+
+    /**
+     * Ends every stream, so open streams do not hold up a graceful shutdown. Browsers reconnect by
+     * themselves, to another node if this one is going away.
+     */
+    void closeAll() {
+        subscribers.keySet().forEach(this::drop);
+    }
+
+    @Override
+    public void destroy() {
+        senders.shutdownNow();
+    }
+
+    private void sendAll(Event event) {
+        subscribers.forEach((s, out) -> {
+            if (!out.queue.offer(event)) {
+                // not reading: a "ready" on reconnect is cheaper than buffering for it
+                droppedOverflow.increment();
+                drop(s);
+                return;
+            }
+            schedule(s, out);
+        });
+    }
+
+    private void schedule(Subscriber s, Outbox out) {
+        if (out.draining.compareAndSet(false, true)) senders.execute(() -> drain(s, out));
+    }
+
+    private void drain(Subscriber s, Outbox out) {
+        while (true) {
+            Event e;
+            while ((e = out.queue.poll()) != null) {
+                if (subscribers.get(s) != out) return; // dropped meanwhile
+                try {
+                    s.send(e.name(), e.json());
+                } catch (Exception ex) {
+                    droppedError.increment();
+                    drop(s);
+                    return;
+                }
+            }
+            out.draining.set(false);
+            // an event queued after the last poll but before the flag was cleared saw "draining"
+            if (out.queue.isEmpty() || !out.draining.compareAndSet(false, true)) return;
+        }
+    }
+
+    private void drop(Subscriber s) {
+        Outbox out = remove(s);
+        if (out == null) return;
+        out.queue.clear();
+        try {
+            out.end.run();
+        } catch (Exception ignored) {
+            // the client is gone either way
+        }
+    }
+
+    private Outbox remove(Subscriber s) {
+        Outbox out = subscribers.remove(s);
+        if (out != null) out.release.run();
+        return out;
+    }
+}
@@ -0,0 +1,33 @@
+package com.infotrode.support_triage.live;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+public class LiveEventsController {
+
+    private final LiveEventHub hub;
+
+    public LiveEventsController(LiveEventHub hub) {
+        this.hub = hub;
+    }
+
+    /**
+     * Change feed over SSE, for as long as the client stays. Events (data is JSON; "ids" lists carry
+     * at most 100 ids and "items" lists at most 50, {@code count} says how many there were):
+     * - "ready":   first event; read current state now
+     * - "tickets": {"op": "INSERT"|"UPDATE"|"DELETE", "count": n, "ids": [...]}
+     * - "notes":   {"count": n, "items": [{"id", "ticketId", "type"}]}
+     * - "ai-runs": {"count": n, "items": [{"id", "ticketId", "type", "status"}]}
+     * - "resync":  events may have been missed; read current state again
+     * Comment lines are sent as a heartbeat.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events() {
+        return hub.open();
+    }
+}
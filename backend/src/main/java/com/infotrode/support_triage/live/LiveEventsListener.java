@@ -0,0 +1,184 @@
+package com.infotrode.support_triage.live;
+
+import com.infotrode.support_triage.ticket.TicketService;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.jdbc.autoconfigure.JdbcConnectionDetails;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds this node's one LISTEN connection on {@value #CHANNEL} (see V12) and hands every
+ * notification to {@link LiveEventHub}, so the number of browsers watching costs no database
+ * connections at all.
+ *
+ * The connection is opened with the datasource settings but outside the Hikari pool: it stays
+ * checked out for the life of the node and would otherwise shrink the pool by one for good.
+ * Ticket events also evict this node's ticket cache, which is how changes made by other nodes
+ * reach it. Notifications sent while the connection is down are lost, so after a reconnect the
+ * cache is cleared and clients are told to "resync".
+ */
+@Component
+public class LiveEventsListener implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(LiveEventsListener.class);
+
+    static final String CHANNEL = "triage_events";
+
+    private final LiveEventsProperties props;
+    private final LiveEventHub hub;
+    private final TicketService ticketService;
+    private final JdbcConnectionDetails db;
+    private final JsonMapper json;
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile Connection connection;
+    private Thread thread;
+
+    public LiveEventsListener(
+            LiveEventsProperties props,
+            LiveEventHub hub,
+            TicketService ticketService,
+            JdbcConnectionDetails db,
+            JsonMapper json
+    ) {
+        this.props = props;
+        this.hub = hub;
+        this.ticketService = ticketService;
+        this.db = db;
+        this.json = json;
+    }
+
+    @Override
+    public void start() {
+        if (!props.isEnabled()) return;
+        running = true;
+        thread = new Thread(this::listen, "live-events-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        hub.closeAll();
+        Connection c = connection;
+        if (c != null) {
+            try {
+                c.abort(Runnable::run); // wakes the thread out of getNotifications
+            } catch (SQLException ignored) {
+                // closing anyway
+            }
+        }
+        if (thread != null) {
+            try {
+                thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Whether notifications are currently coming through. */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    private void listen() {
+        long backoffMs = 1000;
+        boolean reconnect = false;
+        while (running) {
+            try (Connection c = DriverManager.getConnection(db.getJdbcUrl(), db.getUsername(), db.getPassword())) {
+                connection = c;
+                try (Statement st = c.createStatement()) {
+                    st.execute("listen " + CHANNEL);
+                }
+                connected = true;
+                backoffMs = 1000;
+                log.info("Listening for live events on channel {}", CHANNEL);
+                if (reconnect) {
+                    ticketService.evictAll();
+                    hub.publish("resync", "{}");
+                }
+                reconnect = true;
+                receive(c);
+            } catch (SQLException e) {
+                if (!running) break;
+                connected = false;
+                log.warn("Live events connection lost ({}); retrying in {} ms", e.getMessage(), backoffMs);
+                sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, props.getReconnectMaxSeconds() * 1000L);
+            } finally {
+                connected = false;
+                connection = null;
+            }
+        }
+    }
+
+    private void receive(Connection c) throws SQLException {
+        PGConnection pg = c.unwrap(PGConnection.class);
+        int heartbeatMs = props.getHeartbeatSeconds() * 1000;
+        try (Statement ping = c.createStatement()) {
+            while (running) {
+                PGNotification[] notifications = pg.getNotifications(heartbeatMs);
+                if (notifications == null || notifications.length == 0) {
+                    // a quiet channel and a dead connection look the same until we ask
+                    ping.execute("select 1");
+                    hub.heartbeat();
+                    continue;
+                }
+                for (PGNotification n : notifications) dispatch(n.getParameter());
+            }
+        }
+    }
+
+    void dispatch(String payload) {
+        JsonNode event;
+        try {
+            event = json.readTree(payload);
+        } catch (JacksonException e) {
+            log.warn("Ignoring malformed live event: {}", payload);
+            return;
+        }
+        String type = event.path("type").asString("");
+        if (type.isEmpty()) return;
+
+        // a new ticket cannot be cached yet (misses never are)
+        if (type.equals("tickets") && !event.path("op").asString("").equals("INSERT")) {
+            JsonNode ids = event.path("ids");
+            if (event.path("count").asInt() > ids.size()) {
+                ticketService.evictAll();
+            } else {
+                List<Long> changed = new ArrayList<>(ids.size());
+                ids.forEach(id -> changed.add(id.asLong()));
+                ticketService.evict(changed);
+            }
+        }
+        hub.publish(type, payload);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
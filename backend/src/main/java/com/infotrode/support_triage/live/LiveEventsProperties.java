@@ -0,0 +1,33 @@
+package com.infotrode.support_triage.live;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "live.events")
+public class LiveEventsProperties {
+    private boolean enabled = true;
+    // under the idle timeout of typical proxies (60 s); also how often the LISTEN connection is checked
+    private int heartbeatSeconds = 25;
+    private int maxClients = 2000;
+    private int reconnectMaxSeconds = 30;
+    // events waiting for one client; a client this far behind is dropped and resyncs on reconnect
+    private int subscriberQueue = 256;
+    private int senderThreads = 4;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getHeartbeatSeconds() { return heartbeatSeconds; }
+    public void setHeartbeatSeconds(int heartbeatSeconds) { this.heartbeatSeconds = heartbeatSeconds; }
+
+    public int getMaxClients() { return maxClients; }
+    public void setMaxClients(int maxClients) { this.maxClients = maxClients; }
+
+    public int getReconnectMaxSeconds() { return reconnectMaxSeconds; }
+    public void setReconnectMaxSeconds(int reconnectMaxSeconds) { this.reconnectMaxSeconds = reconnectMaxSeconds; }
+
+    public int getSubscriberQueue() { return subscriberQueue; }
+    public void setSubscriberQueue(int subscriberQueue) { this.subscriberQueue = subscriberQueue; }
+
+    public int getSenderThreads() { return senderThreads; }
+    public void setSenderThreads(int senderThreads) { this.senderThreads = senderThreads; }
+}
@@ -2,7 +2,7 @@ package com.infotrode.support_triage.notes;
 
 import com.infotrode.support_triage.notes.dto.CreateNoteRequest;
 import com.infotrode.support_triage.notes.dto.TicketNoteDto;
-import com.infotrode.support_triage.ticket.TicketRepository;
+import com.infotrode.support_triage.ticket.TicketService;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
@@ -14,11 +14,11 @@ import java.util.List;
 public class TicketNoteController {
 
     private final TicketNoteRepository noteRepo;
-    private final TicketRepository ticketRepo;
+    private final TicketService ticketService;
 
-    public TicketNoteController(TicketNoteRepository noteRepo, TicketRepository ticketRepo) {
+    public TicketNoteController(TicketNoteRepository noteRepo, TicketService ticketService) {
         this.noteRepo = noteRepo;
-        this.ticketRepo = ticketRepo;
+        this.ticketService = ticketService;
     }
 
     @GetMapping
@@ -64,7 +64,7 @@ public class TicketNoteController {
     }
 
     private void ensureTicketExists(Long ticketId) {
-        if (!ticketRepo.existsById(ticketId)) {
+        if (!ticketService.exists(ticketId)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "ticket not found");
         }
     }
@@ -0,0 +1,12 @@
+package com.infotrode.support_triage.notes;
+
+import java.time.OffsetDateTime;
+
+/** One note as written by {@code GET /api/export/notes}. */
+public record TicketNoteExportRow(
+        Long id,
+        Long ticketId,
+        String type,
+        String body,
+        OffsetDateTime createdAt
+) {}
@@ -1,8 +1,27 @@
 package com.infotrode.support_triage.notes;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface TicketNoteRepository extends JpaRepository<TicketNote, Long> {
     List<TicketNote> findByTicketIdOrderByCreatedAtDesc(Long ticketId);
+
+    // export: server-side cursor, consume inside a transaction and close
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+      select new com.infotrode.support_triage.notes.TicketNoteExportRow(n.id, n.ticketId, n.type, n.body, n.createdAt)
+      from TicketNote n
+      where n.createdAt >= :from
+        and n.createdAt < :to
+      order by n.id
+    """)
+    Stream<TicketNoteExportRow> streamForExport(@Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to);
 }
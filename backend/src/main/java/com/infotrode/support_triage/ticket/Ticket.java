@@ -9,8 +9,11 @@ import java.util.List;
 @Table(name = "tickets")
 public class Ticket {
 
+    // pooled sequence (V10: increment 50), not IDENTITY: Hibernate can only batch inserts when it
+    // knows the ids up front, and one sequence call now covers 50 new tickets
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tickets_id")
+    @SequenceGenerator(name = "tickets_id", sequenceName = "tickets_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 255)
@@ -43,10 +46,14 @@ public class Ticket {
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
 
+    // generated by Postgres from body (V8); read-only here and only fresh after a reload
+    @Column(insertable = false, updatable = false, length = 200)
+    private String snippet;
+
     @PrePersist
     void prePersist() {
         Instant now = Instant.now();
-        this.createdAt = now;
+        if (this.createdAt == null) this.createdAt = now; // imports may carry the original time
         this.updatedAt = now;
         if (this.status == null) this.status = TicketStatus.OPEN;
         if (this.priority == null) this.priority = TicketPriority.MEDIUM;
@@ -85,6 +92,8 @@ public class Ticket {
     public void setTags(List<String> tags) { this.tags = tags; }
 
     public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
     public Instant getUpdatedAt() { return updatedAt; }
+    public String getSnippet() { return snippet; }
 }
 
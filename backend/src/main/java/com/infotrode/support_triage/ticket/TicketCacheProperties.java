@@ -0,0 +1,21 @@
+package com.infotrode.support_triage.ticket;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "tickets.cache")
+public class TicketCacheProperties {
+    private boolean enabled = true;
+    private int maxEntries = 5000;
+    // bounds staleness for changes this instance did not make itself (other instances, direct SQL)
+    // when their change events don't arrive, e.g. while the LISTEN connection is down
+    private int ttlSeconds = 30;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getMaxEntries() { return maxEntries; }
+    public void setMaxEntries(int maxEntries) { this.maxEntries = maxEntries; }
+
+    public int getTtlSeconds() { return ttlSeconds; }
+    public void setTtlSeconds(int ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+}
@@ -0,0 +1,9 @@
+package com.infotrode.support_triage.ticket;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(TicketCacheProperties.class)
+public class TicketConfig {
+}
@@ -1,12 +1,26 @@
 package com.infotrode.support_triage.ticket;
 
 import com.infotrode.support_triage.ticket.dto.CreateTicketRequest;
+import com.infotrode.support_triage.ticket.dto.TicketImportResult;
+import com.infotrode.support_triage.ticket.dto.TicketPageResponse;
 import com.infotrode.support_triage.ticket.dto.UpdateTicketRequest;
 import com.infotrode.support_triage.ticket.dto.TicketResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 @RestController
@@ -14,18 +28,75 @@ import java.util.List;
 public class TicketController {
 
     private final TicketService service;
+    private final TicketImportService importService;
 
-    public TicketController(TicketService service) {
+    public TicketController(TicketService service, TicketImportService importService) {
         this.service = service;
+        this.importService = importService;
     }
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+    static final int DEFAULT_CHANGES = 500;
+    static final int MAX_CHANGES = 2000;
+    static final int DEFAULT_SUGGESTIONS = 8;
+    static final int MAX_SUGGESTIONS = 20;
+
     @GetMapping
-    public List<TicketResponse> list(
+    public TicketPageResponse list(
             @RequestParam(required = false) String status,
-            @RequestParam(required = false) String q
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
     ) {
         TicketStatus parsedStatus = parseStatus(status);
-        return service.list(parsedStatus, q).stream().map(TicketResponse::from).toList();
+        int size = (limit == null) ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return TicketPageResponse.from(service.list(parsedStatus, q, cursor, size));
+    }
+
+    /** Delta sync; see {@link TicketService#changes}. */
+    @GetMapping("/changes")
+    public TicketService.TicketChanges changes(
+            @RequestParam(required = false) String updatedSince,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer limit
+    ) {
+        Instant since = null;
+        if (updatedSince != null && !updatedSince.isBlank()) {
+            try {
+                since = Instant.parse(updatedSince.trim());
+            } catch (DateTimeParseException ex) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Invalid updatedSince: " + updatedSince + " (pass back the updatedSince of the previous response)");
+            }
+        }
+        int size = (limit == null) ? DEFAULT_CHANGES : Math.max(1, Math.min(limit, MAX_CHANGES));
+        return service.changes(since, afterId == null ? 0 : afterId, size);
+    }
+
+    @GetMapping("/suggest")
+    public List<TicketSuggestion> suggest(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer limit
+    ) {
+        int size = (limit == null) ? DEFAULT_SUGGESTIONS : Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        return service.suggest(q, size);
+    }
+
+    /**
+     * Streams the request body into the database; see {@link TicketImportService}. Per-line
+     * errors are in the result, so this is a 200 even when some lines were rejected.
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public TicketImportResult importTickets(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body
+    ) throws IOException {
+        TicketImportService.Format format = contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? TicketImportService.Format.NDJSON
+                : TicketImportService.Format.CSV;
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        return importService.importTickets(body, charset, format);
     }
 
     private TicketStatus parseStatus(String status) {
@@ -50,9 +121,26 @@ public class TicketController {
         return TicketResponse.from(service.create(req));
     }
 
+    /**
+     * Conditional GET: the ETag and Last-Modified come from {@code updatedAt}, so a client that
+     * still has the current version gets a bodyless 304. With the ticket cached (see
+     * {@link TicketService#find}) that costs neither a query nor serialization. {@code no-cache}
+     * makes browsers revalidate every time instead of showing a stale copy.
+     */
     @GetMapping("/{id}")
-    public TicketResponse get(@PathVariable long id) {
-        return TicketResponse.from(service.get(id));
+    public ResponseEntity<TicketResponse> get(@PathVariable long id, WebRequest request) {
+        TicketResponse t = service.find(id);
+        String etag = etag(t);
+        if (request.checkNotModified(etag, t.getUpdatedAt().toEpochMilli())) {
+            return null; // 304, headers already set
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(t);
+    }
+
+    // id and updatedAt in microseconds (what Postgres stores), so every change yields a new tag
+    static String etag(TicketResponse t) {
+        Instant u = t.getUpdatedAt();
+        return "\"" + t.getId() + "-" + Long.toString(u.getEpochSecond() * 1_000_000 + u.getNano() / 1_000, 36) + "\"";
     }
 
     @PatchMapping("/{id}")
@@ -0,0 +1,97 @@
+package com.infotrode.support_triage.ticket;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 reader: comma-separated fields, optionally in double quotes, where
+ * {@code ""} is a literal quote and quoted fields may span lines. Holds one record at a time.
+ * A quote inside an unquoted field is kept as-is rather than rejected.
+ */
+final class TicketCsvReader {
+
+    private final Reader in;
+    private long line = 1;
+    private long recordLine;
+    private int pending = -2; // one char of look-ahead; -2 = none
+    private boolean started;
+
+    TicketCsvReader(Reader in) {
+        this.in = in;
+    }
+
+    /** Line the record returned by the last {@link #next()} starts on (1-based). */
+    long recordLine() {
+        return recordLine;
+    }
+
+    /**
+     * Next record, or null at end of input. Throws IllegalStateException when the input ends
+     * inside a quoted field; nothing after that point can be read reliably.
+     */
+    List<String> next() throws IOException {
+        int c = read();
+        if (!started) {
+            started = true;
+            if (c == '﻿') c = read(); // byte order mark from spreadsheet exports
+        }
+        if (c == -1) return null;
+        recordLine = line;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean inQuotes = false;
+        while (true) {
+            if (inQuotes) {
+                if (c == -1) throw new IllegalStateException("unterminated quoted field");
+                if (c == '"') {
+                    int n = read();
+                    if (n == '"') {
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                        c = n;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') line++;
+                    field.append((char) c);
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                quoted = false;
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r') {
+                    int n = read();
+                    if (n != '\n') unread(n);
+                }
+                if (c != -1) line++;
+                fields.add(field.toString());
+                return fields;
+            } else if (c == '"' && field.isEmpty() && !quoted) {
+                quoted = true;
+                inQuotes = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    private void unread(int c) {
+        pending = c;
+    }
+}
@@ -0,0 +1,62 @@
+package com.infotrode.support_triage.ticket;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position after the last ticket of a page, handed to clients as an opaque token.
+ *
+ * It holds the sort key of that ticket (createdAt, updatedAt or search rank) plus its id as a
+ * tie-breaker. The next page starts strictly after it, so rows inserted meanwhile never shift
+ * or duplicate entries the way OFFSET paging does. The token records which ordering it belongs
+ * to; reusing it with different filters is a 400.
+ */
+record TicketCursor(Order order, Instant time, float rank, long id) {
+
+    enum Order { CREATED, UPDATED, RANK }
+
+    static TicketCursor created(TicketSummary t) { return new TicketCursor(Order.CREATED, t.createdAt(), 0f, t.id()); }
+
+    static TicketCursor updated(TicketSummary t) { return new TicketCursor(Order.UPDATED, t.updatedAt(), 0f, t.id()); }
+
+    static TicketCursor rank(float rank, long id) { return new TicketCursor(Order.RANK, null, rank, id); }
+
+    String encode() {
+        // timestamps as epoch micros (Postgres precision); rank as raw float bits so it round-trips exactly
+        String key = order == Order.RANK
+                ? Integer.toHexString(Float.floatToIntBits(rank))
+                : Long.toString(toMicros(time));
+        String raw = order.name().charAt(0) + ":" + key + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Null for a null/blank token (first page). */
+    static TicketCursor decode(String token, Order expected) {
+        if (token == null || token.isBlank()) return null;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3 || parts[0].length() != 1 || parts[0].charAt(0) != expected.name().charAt(0)) {
+                throw new IllegalArgumentException("cursor does not belong to this listing");
+            }
+            long id = Long.parseLong(parts[2]);
+            return expected == Order.RANK
+                    ? rank(Float.intBitsToFloat(Integer.parseUnsignedInt(parts[1], 16)), id)
+                    : new TicketCursor(expected, fromMicros(Long.parseLong(parts[1])), 0f, id);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid cursor; start again without one (filters must not change between pages)");
+        }
+    }
+
+    private static long toMicros(Instant t) {
+        return Math.addExact(Math.multiplyExact(t.getEpochSecond(), 1_000_000L), t.getNano() / 1_000);
+    }
+
+    private static Instant fromMicros(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000);
+    }
+}
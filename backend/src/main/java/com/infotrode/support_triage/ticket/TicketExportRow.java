@@ -0,0 +1,21 @@
+package com.infotrode.support_triage.ticket;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One ticket as written by {@code GET /api/export/tickets}. The field names match what
+ * {@code POST /api/tickets/import} reads, so an export can be imported elsewhere as is.
+ */
+public record TicketExportRow(
+        Long id,
+        String subject,
+        String requesterEmail,
+        String body,
+        TicketStatus status,
+        TicketPriority priority,
+        String category,
+        List<String> tags,
+        Instant createdAt,
+        Instant updatedAt
+) {}
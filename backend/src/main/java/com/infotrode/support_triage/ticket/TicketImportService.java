@@ -0,0 +1,234 @@
+package com.infotrode.support_triage.ticket;
+
+import com.infotrode.support_triage.ticket.dto.TicketImportResult;
+import com.infotrode.support_triage.ticket.dto.TicketImportRow;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import from the old helpdesk: NDJSON (one object per line with the fields of
+ * {@code POST /api/tickets}, plus an optional {@code createdAt}) or CSV with a header row naming
+ * the same fields.
+ *
+ * Rows are parsed one at a time and written {@value #CHUNK_SIZE} per transaction as JDBC batches,
+ * so memory stays flat however large the upload is. A bad row is reported with its line number
+ * and skipped; it never aborts the import. When the database rejects a chunk, its rows are
+ * retried one by one so only the offending ones are lost.
+ */
+@Service
+public class TicketImportService {
+
+    public enum Format { NDJSON, CSV }
+
+    static final int CHUNK_SIZE = 1000;
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private final TicketService ticketService;
+    private final Validator validator;
+    private final JsonMapper json;
+
+    public TicketImportService(TicketService ticketService, Validator validator, JsonMapper json) {
+        this.ticketService = ticketService;
+        this.validator = validator;
+        this.json = json;
+    }
+
+    public TicketImportResult importTickets(InputStream body, Charset charset, Format format) throws IOException {
+        long start = System.nanoTime();
+        Report report = new Report();
+        List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset))) {
+            Rows rows = (format == Format.CSV) ? csvRows(reader) : ndjsonRows(reader);
+            for (Row row = rows.next(); row != null; row = rows.next()) {
+                String error = (row.error() != null) ? row.error() : validate(row.data());
+                if (error != null) {
+                    report.fail(row.line(), error);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) write(chunk, report);
+            }
+        }
+        write(chunk, report);
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        double rowsPerSecond = report.imported / Math.max(elapsedMs / 1000.0, 0.001);
+        return new TicketImportResult(report.imported, report.failed, elapsedMs, rowsPerSecond,
+                List.copyOf(report.errors), report.failed > report.errors.size());
+    }
+
+    private void write(List<Row> chunk, Report report) {
+        if (chunk.isEmpty()) return;
+        try {
+            report.imported += ticketService.createAll(chunk.stream().map(Row::data).toList());
+        } catch (RuntimeException chunkFailed) {
+            // one bad row fails the whole batch; retry each alone so only that row is lost
+            for (Row row : chunk) {
+                try {
+                    report.imported += ticketService.createAll(List.of(row.data()));
+                } catch (RuntimeException e) {
+                    report.fail(row.line(), "rejected by the database: " + rootMessage(e));
+                }
+            }
+        }
+        chunk.clear();
+    }
+
+    private String validate(TicketImportRow data) {
+        var violations = validator.validate(data);
+        if (violations.isEmpty()) return null;
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    // ---- NDJSON ----
+
+    private Rows ndjsonRows(BufferedReader reader) {
+        long[] line = {0};
+        return () -> {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line[0]++;
+                if (text.isBlank()) continue;
+                // null, arrays and scalars parse fine but are not a row (null would reach the validator)
+                if (text.strip().charAt(0) != '{') return Row.failed(line[0], "expected a JSON object");
+                try {
+                    return Row.ok(line[0], json.readValue(text, TicketImportRow.class));
+                } catch (JacksonException e) {
+                    return Row.failed(line[0], "invalid JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        };
+    }
+
+    // ---- CSV ----
+
+    private Rows csvRows(BufferedReader reader) throws IOException {
+        TicketCsvReader csv = new TicketCsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) return () -> null;
+
+        String[] columns = header.stream().map(TicketImportService::columnKey).toArray(String[]::new);
+        List<String> names = Arrays.asList(columns);
+        if (!names.containsAll(List.of("subject", "requesteremail", "body"))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "CSV header must name at least subject, requesterEmail and body columns");
+        }
+
+        boolean[] done = {false};
+        return () -> {
+            while (!done[0]) {
+                List<String> fields;
+                try {
+                    fields = csv.next();
+                } catch (IllegalStateException e) {
+                    done[0] = true; // nothing after an unterminated quote can be trusted
+                    return Row.failed(csv.recordLine(), "invalid CSV: " + e.getMessage());
+                }
+                if (fields == null) return null;
+                if (fields.size() == 1 && fields.get(0).isBlank()) continue;
+                try {
+                    return Row.ok(csv.recordLine(), csvRow(columns, fields));
+                } catch (IllegalArgumentException e) {
+                    return Row.failed(csv.recordLine(), e.getMessage());
+                }
+            }
+            return null;
+        };
+    }
+
+    /** Header names compare case-insensitively and ignore separators: requester_email = requesterEmail. */
+    private static String columnKey(String header) {
+        return header.trim().toLowerCase(Locale.ROOT).replaceAll("[\\s_-]+", "");
+    }
+
+    private static TicketImportRow csvRow(String[] columns, List<String> fields) {
+        TicketImportRow row = new TicketImportRow();
+        for (int i = 0; i < columns.length && i < fields.size(); i++) {
+            String value = fields.get(i);
+            if (value.isBlank()) continue;
+            switch (columns[i]) {
+                case "subject" -> row.setSubject(value);
+                case "requesteremail" -> row.setRequesterEmail(value.trim());
+                case "body" -> row.setBody(value);
+                case "status" -> row.setStatus(parseEnum(TicketStatus.class, "status", value));
+                case "priority" -> row.setPriority(parseEnum(TicketPriority.class, "priority", value));
+                case "category" -> row.setCategory(value);
+                case "tags" -> row.setTags(Arrays.stream(value.split("[,;]"))
+                        .map(String::trim).filter(t -> !t.isEmpty()).toList());
+                case "createdat" -> row.setCreatedAt(parseInstant(value));
+                default -> { } // columns we don't store are ignored
+            }
+        }
+        return row;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String field, String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value.trim()
+                    + ". Allowed: " + Arrays.toString(type.getEnumConstants()));
+        }
+    }
+
+    private static Instant parseInstant(String value) {
+        try {
+            return Instant.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid createdAt: " + value.trim()
+                    + " (expected ISO-8601, e.g. 2024-05-01T09:30:00Z)");
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) root = root.getCause();
+        return String.valueOf(root.getMessage());
+    }
+
+    // ---- plumbing ----
+
+    @FunctionalInterface
+    private interface Rows {
+        /** Next parsed row, or null at end of input. */
+        Row next() throws IOException;
+    }
+
+    private record Row(long line, TicketImportRow data, String error) {
+        static Row ok(long line, TicketImportRow data) { return new Row(line, data, null); }
+        static Row failed(long line, String error) { return new Row(line, null, error); }
+    }
+
+    private static final class Report {
+        int imported;
+        int failed;
+        final List<TicketImportResult.LineError> errors = new ArrayList<>();
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) errors.add(new TicketImportResult.LineError(line, message));
+        }
+    }
+}
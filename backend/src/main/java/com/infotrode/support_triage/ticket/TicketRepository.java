@@ -1,24 +1,173 @@
 package com.infotrode.support_triage.ticket;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+/**
+ * Listing queries are keyset-paged (see {@link TicketCursor}) and backed by the composite
+ * indexes from V7, so every page is an index range scan of {@code limit} rows.
+ */
 public interface TicketRepository extends JpaRepository<Ticket, Long> {
 
+    /** Inbox columns only: {@code body} is never selected for listings. */
+    String SUMMARY = """
+      select new com.infotrode.support_triage.ticket.TicketSummary(
+        t.id, t.subject, t.requesterEmail, t.status, t.priority, t.category, t.tags,
+        t.createdAt, t.updatedAt, t.snippet)
+      from Ticket t
+    """;
+
+    @Query(SUMMARY + "order by t.createdAt desc, t.id desc")
+    List<TicketSummary> listNewest(Limit limit);
+
+    @Query(SUMMARY + """
+      where (t.createdAt, t.id) < (:createdAt, :id)
+      order by t.createdAt desc, t.id desc
+    """)
+    List<TicketSummary> listCreatedBefore(@Param("createdAt") Instant createdAt, @Param("id") long id, Limit limit);
+
+    @Query(SUMMARY + """
+      where t.status = :status
+      order by t.updatedAt desc, t.id desc
+    """)
+    List<TicketSummary> listByStatus(@Param("status") TicketStatus status, Limit limit);
+
+    @Query(SUMMARY + """
+      where t.status = :status
+        and (t.updatedAt, t.id) < (:updatedAt, :id)
+      order by t.updatedAt desc, t.id desc
+    """)
+    List<TicketSummary> listByStatusUpdatedBefore(
+            @Param("status") TicketStatus status,
+            @Param("updatedAt") Instant updatedAt,
+            @Param("id") long id,
+            Limit limit
+    );
+
+    @Query(SUMMARY + "where t.id in :ids")
+    List<TicketSummary> listByIds(@Param("ids") Collection<Long> ids);
+
+    interface SearchHit {
+        long getId();
+        float getRank();
+    }
+
+    /**
+     * Ranked full-text match on the generated {@code search_vector} column (GIN-indexed, see V6),
+     * best first, strictly after ({@code rank}, {@code id}); pass +Infinity / Long.MAX_VALUE for
+     * the first page. {@code tsquery} is built by {@link TicketSearchQuery}; {@code status} is an
+     * enum name or null. Returns ids only; the page's rows are loaded with {@link #listByIds}.
+     */
+    @Query(value = """
+      select t.id as id, ts_rank(t.search_vector, query) as rank
+      from tickets t, to_tsquery('english', :tsquery) query
+      where (cast(:status as varchar) is null or t.status = cast(:status as varchar))
+        and t.search_vector @@ query
+        and (ts_rank(t.search_vector, query), t.id) < (cast(:rank as real), :id)
+      order by rank desc, t.id desc
+      limit :limit
+    """, nativeQuery = true)
+    List<SearchHit> search(
+            @Param("status") String status,
+            @Param("tsquery") String tsquery,
+            @Param("rank") float rank,
+            @Param("id") long id,
+            @Param("limit") int limit
+    );
+
+    interface ChangeHit {
+        long getId();
+        Instant getAt();
+        boolean getDeleted();
+    }
+
+    /**
+     * Delta sync: tickets updated and tickets deleted (tombstones, V11) strictly after
+     * ({@code since}, {@code afterId}), merged in (time, id) order, at most {@code limit}. Each
+     * branch is a range scan of at most {@code limit} rows on its (time, id) index.
+     */
+    @Query(value = """
+      select id, at, deleted from (
+        (select t.id as id, t.updated_at as at, false as deleted
+         from tickets t
+         where (t.updated_at, t.id) > (:since, :afterId)
+         order by t.updated_at, t.id
+         limit :limit)
+        union all
+        (select d.ticket_id, d.deleted_at, true
+         from ticket_tombstones d
+         where (d.deleted_at, d.ticket_id) > (:since, :afterId)
+         order by d.deleted_at, d.ticket_id
+         limit :limit)
+      ) c
+      order by at, id
+      limit :limit
+    """, nativeQuery = true)
+    List<ChangeHit> changes(@Param("since") Instant since, @Param("afterId") long afterId, @Param("limit") int limit);
+
+    interface SuggestionHit {
+        String getKind();
+        String getTerm();
+        float getScore();
+    }
+
+    /**
+     * Requester emails and subject words closest to {@code q} from the {@code ticket_terms}
+     * dictionary (V9), at most {@code limit} of each, merged best first and cut to {@code limit}.
+     * The GiST indexes return terms in distance order, so each branch reads only {@code limit}
+     * rows. {@code <%} bounds the scan at {@code pg_trgm.word_similarity_threshold} (default 0.6);
+     * {@code threshold} must not be lower than that to take effect.
+     */
+    @Query(value = """
+      select kind, term, score from (
+        (select 'REQUESTER' as kind, term, 1 - (:q <<-> term) as score
+         from ticket_terms
+         where kind = 'requester' and :q <% term
+         order by :q <<-> term
+         limit :limit)
+        union all
+        (select 'SUBJECT' as kind, term, 1 - (:q <<-> term) as score
+         from ticket_terms
+         where kind = 'subject' and :q <% term
+         order by :q <<-> term
+         limit :limit)
+      ) s
+      where score >= :threshold
+      order by score desc, term
+      limit :limit
+    """, nativeQuery = true)
+    List<SuggestionHit> suggest(@Param("q") String q, @Param("threshold") float threshold, @Param("limit") int limit);
+
+    /**
+     * Every ticket created in [{@code from}, {@code to}) with the given status (or any, if null),
+     * oldest id first, for the export. Read through a server-side cursor 500 rows at a time, so
+     * the caller must consume it inside a transaction and close it; rows are not entities and
+     * never pile up in the persistence context.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
     @Query("""
-      select t from Ticket t
+      select new com.infotrode.support_triage.ticket.TicketExportRow(
+        t.id, t.subject, t.requesterEmail, t.body, t.status, t.priority, t.category, t.tags,
+        t.createdAt, t.updatedAt)
+      from Ticket t
       where (:status is null or t.status = :status)
-        and (
-          :q is null or :q = '' or
-          lower(t.subject) like lower(concat('%', :q, '%')) or
-          lower(t.body) like lower(concat('%', :q, '%')) or
-          lower(t.requesterEmail) like lower(concat('%', :q, '%')) or
-          (t.category is not null and lower(t.category) like lower(concat('%', :q, '%')))
-        )
-      order by t.updatedAt desc
+        and t.createdAt >= :from
+        and t.createdAt < :to
+      order by t.id
     """)
-    List<Ticket> search(@Param("status") TicketStatus status, @Param("q") String q);
+    Stream<TicketExportRow> streamForExport(
+            @Param("status") TicketStatus status,
+            @Param("from") Instant from,
+            @Param("to") Instant to
+    );
 }
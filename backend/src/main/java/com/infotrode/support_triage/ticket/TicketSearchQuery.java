@@ -0,0 +1,41 @@
+package com.infotrode.support_triage.ticket;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns the inbox search box into a Postgres {@code tsquery}: every word must match, and the last
+ * one matches as a prefix, so results narrow while the user types ("pass res" finds
+ * "password reset"). Operators and quotes are stripped, so user input can never be a malformed
+ * tsquery.
+ */
+final class TicketSearchQuery {
+    private TicketSearchQuery() {}
+
+    private static final int MAX_TERMS = 8;
+
+    /** Null when {@code q} has no searchable words. */
+    static String toTsQuery(String q) {
+        if (q == null) return null;
+
+        // keep letters, digits and the characters that occur inside emails / error codes
+        String cleaned = q.replaceAll("[^\\p{L}\\p{N}@._-]+", " ").trim();
+        if (cleaned.isEmpty()) return null;
+
+        List<String> terms = new ArrayList<>();
+        for (String w : cleaned.split("\\s+")) {
+            String term = w.replaceAll("^[@._-]+|[@._-]+$", "");
+            if (!term.isEmpty()) terms.add(term);
+            if (terms.size() == MAX_TERMS) break;
+        }
+        if (terms.isEmpty()) return null;
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < terms.size(); i++) {
+            if (i > 0) sb.append(" & ");
+            sb.append('\'').append(terms.get(i)).append('\'');
+            if (i == terms.size() - 1) sb.append(":*");
+        }
+        return sb.toString();
+    }
+}
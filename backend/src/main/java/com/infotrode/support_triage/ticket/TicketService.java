@@ -1,36 +1,242 @@
 package com.infotrode.support_triage.ticket;
 
+import com.infotrode.support_triage.common.BoundedCache;
 import com.infotrode.support_triage.ticket.dto.CreateTicketRequest;
+import com.infotrode.support_triage.ticket.dto.TicketImportRow;
+import com.infotrode.support_triage.ticket.dto.TicketResponse;
 import com.infotrode.support_triage.ticket.dto.UpdateTicketRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 
 @Service
 public class TicketService {
 
     private final TicketRepository repo;
+    private final TicketCacheProperties cacheProps;
+    private final BoundedCache<Long, TicketResponse> cache;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
 
-    public TicketService(TicketRepository repo) {
+    public TicketService(TicketRepository repo, TicketCacheProperties cacheProps, MeterRegistry registry) {
         this.repo = repo;
+        this.cacheProps = cacheProps;
+        this.cache = new BoundedCache<>(cacheProps.getMaxEntries(), Duration.ofSeconds(cacheProps.getTtlSeconds()));
+        this.cacheHits = Counter.builder("tickets.cache.lookups").tag("result", "hit").register(registry);
+        this.cacheMisses = Counter.builder("tickets.cache.lookups").tag("result", "miss").register(registry);
+        Gauge.builder("tickets.cache.entries", cache, BoundedCache::size).register(registry);
     }
 
+    /** One page of the inbox; {@code nextCursor} is null on the last page. */
+    public record TicketPage(List<TicketSummary> items, String nextCursor) {}
+
+    /**
+     * Keyset-paged listing: at most {@code limit} tickets after {@code cursor} (null for the first
+     * page). No filters: createdAt desc. Status only: updatedAt desc. With {@code q}: best match first.
+     */
     @Transactional(readOnly = true)
-    public List<Ticket> list(TicketStatus status, String q) {
+    public TicketPage list(TicketStatus status, String q, String cursor, int limit) {
+        int size = Math.max(1, limit);
+        Limit fetch = Limit.of(size + 1); // one extra row tells whether there is a next page
         String query = (q == null) ? null : q.trim();
 
-        // If no filters, keep your existing behavior (createdAt desc)
-        if (status == null && (query == null || query.isEmpty())) {
-            return repo.findAll(Sort.by(Sort.Direction.DESC, "createdAt"));
+        if (query != null && !query.isEmpty()) {
+            return search(status, query, cursor, size);
+        }
+
+        if (status == null) {
+            TicketCursor after = TicketCursor.decode(cursor, TicketCursor.Order.CREATED);
+            List<TicketSummary> rows = after == null
+                    ? repo.listNewest(fetch)
+                    : repo.listCreatedBefore(after.time(), after.id(), fetch);
+            return page(rows, size, TicketCursor::created);
+        }
+
+        TicketCursor after = TicketCursor.decode(cursor, TicketCursor.Order.UPDATED);
+        List<TicketSummary> rows = after == null
+                ? repo.listByStatus(status, fetch)
+                : repo.listByStatusUpdatedBefore(status, after.time(), after.id(), fetch);
+        return page(rows, size, TicketCursor::updated);
+    }
+
+    private TicketPage search(TicketStatus status, String query, String cursor, int size) {
+        TicketCursor after = TicketCursor.decode(cursor, TicketCursor.Order.RANK);
+        String tsQuery = TicketSearchQuery.toTsQuery(query);
+        if (tsQuery == null) return new TicketPage(List.of(), null);
+
+        List<TicketRepository.SearchHit> hits = repo.search(
+                status == null ? null : status.name(),
+                tsQuery,
+                after == null ? Float.POSITIVE_INFINITY : after.rank(),
+                after == null ? Long.MAX_VALUE : after.id(),
+                size + 1);
+
+        boolean more = hits.size() > size;
+        if (more) hits = hits.subList(0, size);
+
+        Map<Long, TicketSummary> byId = new HashMap<>();
+        for (TicketSummary t : repo.listByIds(hits.stream().map(TicketRepository.SearchHit::getId).toList())) {
+            byId.put(t.id(), t);
+        }
+        List<TicketSummary> items = hits.stream().map(h -> byId.get(h.getId())).filter(Objects::nonNull).toList();
+
+        TicketRepository.SearchHit last = hits.isEmpty() ? null : hits.get(hits.size() - 1);
+        String next = more ? TicketCursor.rank(last.getRank(), last.getId()).encode() : null;
+        return new TicketPage(items, next);
+    }
+
+    /** One delta-sync response; pass {@code updatedSince} and {@code afterId} back for the next one. */
+    public record TicketChanges(
+            List<TicketSummary> changed,
+            List<Deleted> deleted,
+            Instant updatedSince,
+            long afterId,
+            boolean hasMore
+    ) {
+        public record Deleted(long id, Instant deletedAt) {}
+    }
+
+    /**
+     * Rows are stamped with {@code updatedAt} before their transaction commits, so a change can
+     * become visible with a time just behind a mark a client already holds. Marks handed out
+     * therefore stay this far behind the clock; the changes inside the window are sent again
+     * on the next poll, which a mirror simply re-applies.
+     */
+    static final Duration SYNC_SETTLE = Duration.ofSeconds(5);
+    /** How long deletions are remembered (V11 prunes tombstones at the same age). */
+    static final Duration TOMBSTONE_RETENTION = Duration.ofDays(30);
+
+    /**
+     * Delta sync: tickets created, updated or deleted after the client's high-water mark
+     * ({@code since}, {@code afterId}), oldest first, at most {@code limit}. With no {@code since}
+     * it starts from the beginning, which is how a client builds its first copy. A status change
+     * arrives as a changed ticket with its new status.
+     */
+    @Transactional(readOnly = true)
+    public TicketChanges changes(Instant since, long afterId, int limit) {
+        Instant now = Instant.now();
+        if (since != null && since.isBefore(now.minus(TOMBSTONE_RETENTION))) {
+            throw new ResponseStatusException(HttpStatus.GONE,
+                    "updatedSince is older than the deletions we keep; sync again without it");
         }
+        int size = Math.max(1, limit);
+        Instant from = (since == null) ? Instant.EPOCH : since;
+        long fromId = (since == null) ? 0 : afterId;
+
+        List<TicketRepository.ChangeHit> hits = repo.changes(from, fromId, size + 1);
+        boolean more = hits.size() > size;
+        if (more) hits = hits.subList(0, size);
 
-        // Otherwise use the search query (updatedAt desc)
-        return repo.search(status, query);
+        List<Long> changedIds = new ArrayList<>();
+        List<TicketChanges.Deleted> deleted = new ArrayList<>();
+        for (TicketRepository.ChangeHit h : hits) {
+            if (h.getDeleted()) deleted.add(new TicketChanges.Deleted(h.getId(), h.getAt()));
+            else changedIds.add(h.getId());
+        }
+        Map<Long, TicketSummary> byId = new HashMap<>();
+        for (TicketSummary t : repo.listByIds(changedIds)) byId.put(t.id(), t);
+        // a ticket deleted since the change query ran simply drops out; its tombstone comes next time
+        List<TicketSummary> changed = changedIds.stream().map(byId::get).filter(Objects::nonNull).toList();
+
+        Instant nextSince = from;
+        long nextId = fromId;
+        if (!hits.isEmpty()) {
+            TicketRepository.ChangeHit last = hits.get(hits.size() - 1);
+            nextSince = last.getAt();
+            nextId = last.getId();
+            // a full page always advances (or a busy window would repeat forever); the tail stays
+            // SYNC_SETTLE behind, but never behind where this request started
+            Instant settled = now.minus(SYNC_SETTLE);
+            if (!more && nextSince.isAfter(settled)) {
+                boolean startedInWindow = from.isAfter(settled);
+                nextSince = startedInWindow ? from : settled;
+                nextId = startedInWindow ? fromId : 0;
+            }
+        }
+        return new TicketChanges(changed, deleted, nextSince, nextId, more);
     }
 
+    /** Shorter input has too few trigrams to rank meaningfully. */
+    static final int SUGGEST_MIN_CHARS = 3;
+    /** Word similarity a suggestion needs: still lets one typo through in a 7-letter word. */
+    static final float SUGGEST_THRESHOLD = 0.6f;
+
+    /**
+     * Type-ahead: up to {@code limit} requester emails and subject words that look like {@code q}
+     * (partial or misspelled), best first. Picking one is meant to feed the {@code q} search.
+     * Empty for input shorter than {@link #SUGGEST_MIN_CHARS}.
+     */
+    @Transactional(readOnly = true)
+    public List<TicketSuggestion> suggest(String q, int limit) {
+        String text = (q == null) ? "" : q.trim();
+        if (text.length() < SUGGEST_MIN_CHARS) return List.of();
+
+        return repo.suggest(text, SUGGEST_THRESHOLD, Math.max(1, limit)).stream()
+                .map(h -> new TicketSuggestion(TicketSuggestion.Kind.valueOf(h.getKind()), h.getTerm(), h.getScore()))
+                .toList();
+    }
+
+    private static TicketPage page(List<TicketSummary> rows, int size, Function<TicketSummary, TicketCursor> cursorOf) {
+        if (rows.size() <= size) return new TicketPage(rows, null);
+        List<TicketSummary> items = rows.subList(0, size);
+        return new TicketPage(items, cursorOf.apply(items.get(size - 1)).encode());
+    }
+
+    /**
+     * Read model of one ticket for the detail view and the AI services, served from an in-process
+     * cache. {@link #update} evicts its entry once the change is committed; changes made elsewhere
+     * (another instance, SQL) evict it when their change event arrives ({@link #evict}), or at the
+     * latest after {@code tickets.cache.ttl-seconds} if events are not coming through.
+     *
+     * Deliberately not transactional, so a hit does not even borrow a connection.
+     */
+    public TicketResponse find(long id) {
+        TicketResponse t = cached(id);
+        if (t == null) throw new EntityNotFoundException("Ticket not found: " + id);
+        return t;
+    }
+
+    /** {@link #find} without the exception; missing tickets are not cached. */
+    public boolean exists(long id) {
+        return cached(id) != null;
+    }
+
+    private TicketResponse cached(long id) {
+        if (!cacheProps.isEnabled()) return load(id);
+        TicketResponse hit = cache.get(id);
+        if (hit != null) {
+            cacheHits.increment();
+            return hit;
+        }
+        cacheMisses.increment();
+        TicketResponse loaded = load(id);
+        if (loaded != null) cache.put(id, loaded);
+        return loaded;
+    }
+
+    private TicketResponse load(long id) {
+        return repo.findById(id).map(TicketResponse::from).orElse(null);
+    }
+
+    /** The managed entity, straight from the database; for changes. Reads should use {@link #find}. */
     @Transactional(readOnly = true)
     public Ticket get(long id) {
         return repo.findById(id).orElseThrow(() -> new EntityNotFoundException("Ticket not found: " + id));
@@ -38,6 +244,27 @@ public class TicketService {
 
     @Transactional
     public Ticket create(CreateTicketRequest req) {
+        return repo.save(newTicket(req));
+    }
+
+    /**
+     * Inserts all of {@code rows} in one transaction, as JDBC batches (see the id generator on
+     * {@link Ticket}). Used by the importer, one chunk at a time.
+     */
+    @Transactional
+    public int createAll(List<TicketImportRow> rows) {
+        List<Ticket> tickets = new ArrayList<>(rows.size());
+        for (TicketImportRow row : rows) {
+            Ticket t = newTicket(row);
+            t.setCreatedAt(row.getCreatedAt());
+            tickets.add(t);
+        }
+        repo.saveAll(tickets);
+        repo.flush();
+        return tickets.size();
+    }
+
+    static Ticket newTicket(CreateTicketRequest req) {
         Ticket t = new Ticket();
         t.setSubject(req.getSubject());
         t.setRequesterEmail(req.getRequesterEmail());
@@ -49,7 +276,7 @@ public class TicketService {
         t.setCategory((cat == null || cat.trim().isEmpty()) ? null : cat.trim());
 
         t.setTags(req.getTags());
-        return repo.save(t);
+        return t;
     }
 
     @Transactional
@@ -68,6 +295,29 @@ public class TicketService {
         if (req.getTags() != null) t.setTags(req.getTags());
         if (req.getBody() != null) t.setBody(req.getBody());
 
+        evictAfterCommit(id);
         return repo.save(t);
     }
+
+    /** Drops cached copies of tickets changed outside this instance (see {@code LiveEventsListener}). */
+    public void evict(Collection<Long> ids) {
+        ids.forEach(cache::invalidate);
+    }
+
+    /** For when changes may have been missed or are too many to name. */
+    public void evictAll() {
+        cache.clear();
+    }
+
+    // Evicting before the commit would let a concurrent find() cache the old row again; a read
+    // that started before the commit and finishes after it still can, until the TTL. New tickets
+    // need nothing, since misses are never cached.
+    private void evictAfterCommit(long id) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.invalidate(id);
+            }
+        });
+    }
 }
@@ -0,0 +1,10 @@
+package com.infotrode.support_triage.ticket;
+
+/**
+ * One type-ahead entry: a requester email (lower-cased) or a single subject word. {@code score}
+ * is the pg_trgm word similarity between the typed text and {@code term}, 0..1.
+ */
+public record TicketSuggestion(Kind kind, String term, float score) {
+
+    public enum Kind { REQUESTER, SUBJECT }
+}
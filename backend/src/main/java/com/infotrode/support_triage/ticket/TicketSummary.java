@@ -0,0 +1,22 @@
+package com.infotrode.support_triage.ticket;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Inbox row: everything the list shows, plus a short {@code snippet} instead of the body.
+ * Built by constructor-expression queries in {@link TicketRepository}, so {@code body} is never
+ * selected for listings; {@code GET /api/tickets/{id}} still returns the full ticket.
+ */
+public record TicketSummary(
+        Long id,
+        String subject,
+        String requesterEmail,
+        TicketStatus status,
+        TicketPriority priority,
+        String category,
+        List<String> tags,
+        Instant createdAt,
+        Instant updatedAt,
+        String snippet
+) {}
@@ -4,6 +4,7 @@ import com.infotrode.support_triage.ticket.TicketPriority;
 import com.infotrode.support_triage.ticket.TicketStatus;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import java.util.List;
 
@@ -28,7 +29,7 @@ public class CreateTicketRequest {
     @Size(max = 64)
     private String category;
 
-    private List<@Size(max = 64) String> tags;
+    private List<@NotNull @Size(max = 64) String> tags;
 
     public String getSubject() { return subject; }
     public void setSubject(String subject) { this.subject = subject; }
@@ -0,0 +1,19 @@
+package com.infotrode.support_triage.ticket.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of one import. Bad lines are skipped and listed in {@code errors} (the first
+ * {@code MAX_REPORTED_ERRORS}; {@code failed} counts all of them), the rest are imported.
+ */
+public record TicketImportResult(
+        int imported,
+        int failed,
+        long elapsedMs,
+        double rowsPerSecond,
+        List<LineError> errors,
+        boolean errorsTruncated
+) {
+    /** {@code line} is 1-based; for CSV it is the line the record starts on. */
+    public record LineError(long line, String message) {}
+}
@@ -0,0 +1,13 @@
+package com.infotrode.support_triage.ticket.dto;
+
+import java.time.Instant;
+
+/** One imported ticket: the fields of {@code POST /api/tickets}, plus the original creation time. */
+public class TicketImportRow extends CreateTicketRequest {
+
+    // optional; defaults to the import time
+    private Instant createdAt;
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
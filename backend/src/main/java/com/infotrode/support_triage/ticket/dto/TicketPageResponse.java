@@ -0,0 +1,22 @@
+package com.infotrode.support_triage.ticket.dto;
+
+import com.infotrode.support_triage.ticket.TicketService;
+import com.infotrode.support_triage.ticket.TicketSummary;
+import java.util.List;
+
+public class TicketPageResponse {
+    private List<TicketSummary> items;
+    private String nextCursor;
+
+    public static TicketPageResponse from(TicketService.TicketPage page) {
+        TicketPageResponse r = new TicketPageResponse();
+        r.items = page.items();
+        r.nextCursor = page.nextCursor();
+        return r;
+    }
+
+    /** Slim rows with a snippet instead of the body; {@code GET /api/tickets/{id}} has the full ticket. */
+    public List<TicketSummary> getItems() { return items; }
+    /** Opaque; pass back as {@code cursor} (with the same filters) for the next page. Null on the last page. */
+    public String getNextCursor() { return nextCursor; }
+}
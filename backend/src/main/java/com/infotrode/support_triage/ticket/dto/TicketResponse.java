@@ -4,8 +4,11 @@ import com.infotrode.support_triage.ticket.Ticket;
 import com.infotrode.support_triage.ticket.TicketPriority;
 import com.infotrode.support_triage.ticket.TicketStatus;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+/** Immutable once built, which is what lets {@code TicketService} cache and share instances. */
 public class TicketResponse {
     private Long id;
     private String subject;
@@ -27,7 +30,8 @@ public class TicketResponse {
         r.status = t.getStatus();
         r.priority = t.getPriority();
         r.category = t.getCategory();
-        r.tags = t.getTags();
+        // not List.copyOf: a null element already stored must not make the ticket unreadable
+        r.tags = t.getTags() == null ? null : Collections.unmodifiableList(new ArrayList<>(t.getTags()));
         r.createdAt = t.getCreatedAt();
         r.updatedAt = t.getUpdatedAt();
         return r;
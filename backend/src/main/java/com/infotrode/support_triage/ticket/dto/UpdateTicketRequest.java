@@ -2,6 +2,7 @@ package com.infotrode.support_triage.ticket.dto;
 
 import com.infotrode.support_triage.ticket.TicketPriority;
 import com.infotrode.support_triage.ticket.TicketStatus;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import java.util.List;
 
@@ -16,7 +17,7 @@ public class UpdateTicketRequest {
     @Size(max = 64)
     private String category;
 
-    private List<@Size(max = 64) String> tags;
+    private List<@NotNull @Size(max = 64) String> tags;
 
     @Size(max = 20000)
     private String body;
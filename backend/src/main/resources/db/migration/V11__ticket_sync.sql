@@ -0,0 +1,32 @@
+-- Delta sync (GET /api/tickets/changes): clients walk tickets in (updated_at, id) order from their
+-- last high-water mark, so each poll is a range scan over what changed, not the whole table.
+create index idx_tickets_updated_at_id on tickets (updated_at, id);
+
+-- A deleted ticket has no row left to show up in that scan; it leaves a tombstone instead, in
+-- the same (time, id) order.
+create table ticket_tombstones (
+  ticket_id bigint primary key,
+  deleted_at timestamptz not null
+);
+
+create index idx_ticket_tombstones_deleted_at_id on ticket_tombstones (deleted_at, ticket_id);
+
+-- Statement-level, so deleting many tickets writes their tombstones in one insert. The time is
+-- clock_timestamp(), the moment of the delete, not now(), which is when its transaction began:
+-- closer to when the delete becomes visible to pollers.
+-- Tombstones are kept 30 days (TicketService.TOMBSTONE_RETENTION); older marks must resync.
+create function ticket_tombstones_record() returns trigger language plpgsql as $$
+begin
+  insert into ticket_tombstones (ticket_id, deleted_at)
+  select id, clock_timestamp() from gone
+  on conflict (ticket_id) do nothing;
+
+  delete from ticket_tombstones where deleted_at < now() - interval '30 days';
+  return null;
+end
+$$;
+
+create trigger trg_tickets_tombstones
+  after delete on tickets
+  referencing old table as gone
+  for each statement execute function ticket_tombstones_record();
@@ -0,0 +1,37 @@
+-- V12 capped the items of a notes / ai-runs event at 100, but json_build_object output runs to
+-- ~90 bytes per ai_runs item, so a statement inserting 100+ runs overshot NOTIFY's 8000-byte
+-- payload limit and failed ("payload string too long"). 50 items stay well under it for both.
+
+create or replace function live_notify_notes() returns trigger language plpgsql as $$
+declare
+  n int;
+begin
+  select count(*) into n from added;
+  if n > 0 then
+    perform pg_notify('triage_events', json_build_object(
+      'type', 'notes',
+      'count', n,
+      'items', (select json_agg(json_build_object('id', id, 'ticketId', ticket_id, 'type', type))
+                from (select * from added order by id limit 50) a)
+    )::text);
+  end if;
+  return null;
+end
+$$;
+
+create or replace function live_notify_ai_runs() returns trigger language plpgsql as $$
+declare
+  n int;
+begin
+  select count(*) into n from added;
+  if n > 0 then
+    perform pg_notify('triage_events', json_build_object(
+      'type', 'ai-runs',
+      'count', n,
+      'items', (select json_agg(json_build_object('id', id, 'ticketId', ticket_id, 'type', type, 'status', status))
+                from (select * from added order by id limit 50) a)
+    )::text);
+  end if;
+  return null;
+end
+$$;
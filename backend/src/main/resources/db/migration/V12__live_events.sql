@@ -0,0 +1,92 @@
+-- Live inbox (GET /api/events): every change an agent's screen cares about raises a NOTIFY on
+-- channel 'triage_events'. Each backend node LISTENs on one connection and fans the events out
+-- to its SSE clients, so browsers no longer poll the ticket list.
+--
+-- Notifications are sent only when the transaction commits, and never for one that rolls back,
+-- so a client that re-reads on an event always finds the change. Whoever writes (the API, an
+-- import, plain SQL) is covered.
+--
+-- Triggers are statement-level: an import of 1000 tickets is one event, not 1000. The payload
+-- must stay under 8000 bytes, so it carries at most 100 items plus the total count; a client
+-- that sees count > number of items re-syncs instead of patching row by row.
+
+-- {"type":"tickets","op":"INSERT"|"UPDATE"|"DELETE","count":n,"ids":[...]}
+create function live_notify_tickets() returns trigger language plpgsql as $$
+declare
+  n int;
+begin
+  select count(*) into n from changed;
+  if n > 0 then
+    perform pg_notify('triage_events', json_build_object(
+      'type', 'tickets',
+      'op', tg_op,
+      'count', n,
+      'ids', (select json_agg(id) from (select id from changed order by id limit 100) c)
+    )::text);
+  end if;
+  return null;
+end
+$$;
+
+-- transition tables allow one event per trigger, hence three
+create trigger trg_tickets_live_insert
+  after insert on tickets
+  referencing new table as changed
+  for each statement execute function live_notify_tickets();
+
+create trigger trg_tickets_live_update
+  after update on tickets
+  referencing new table as changed
+  for each statement execute function live_notify_tickets();
+
+create trigger trg_tickets_live_delete
+  after delete on tickets
+  referencing old table as changed
+  for each statement execute function live_notify_tickets();
+
+-- {"type":"notes","count":n,"items":[{"id","ticketId","type"}]}
+create function live_notify_notes() returns trigger language plpgsql as $$
+declare
+  n int;
+begin
+  select count(*) into n from added;
+  if n > 0 then
+    perform pg_notify('triage_events', json_build_object(
+      'type', 'notes',
+      'count', n,
+      'items', (select json_agg(json_build_object('id', id, 'ticketId', ticket_id, 'type', type))
+                from (select * from added order by id limit 100) a)
+    )::text);
+  end if;
+  return null;
+end
+$$;
+
+create trigger trg_ticket_notes_live
+  after insert on ticket_notes
+  referencing new table as added
+  for each statement execute function live_notify_notes();
+
+-- ai_runs rows are written once the model call is over, so an insert is a completed run.
+-- {"type":"ai-runs","count":n,"items":[{"id","ticketId","type","status"}]}
+create function live_notify_ai_runs() returns trigger language plpgsql as $$
+declare
+  n int;
+begin
+  select count(*) into n from added;
+  if n > 0 then
+    perform pg_notify('triage_events', json_build_object(
+      'type', 'ai-runs',
+      'count', n,
+      'items', (select json_agg(json_build_object('id', id, 'ticketId', ticket_id, 'type', type, 'status', status))
+                from (select * from added order by id limit 100) a)
+    )::text);
+  end if;
+  return null;
+end
+$$;
+
+create trigger trg_ai_runs_live
+  after insert on ai_runs
+  referencing new table as added
+  for each statement execute function live_notify_ai_runs();
@@ -0,0 +1,151 @@
+-- ai_runs is the fastest-growing table. Two changes:
+--
+-- 1. Content-addressed prompt storage. Every run's input_json used to repeat the static system
+--    prompt and schema, and carried the ticket twice (inside the prompt and as ticketSnapshot).
+--    Now every top-level value of input_json of 128 bytes or more is stored once in
+--    ai_prompt_blobs, keyed by the sha256 of its jsonb text, and the run keeps
+--    {"$blob": "<hash>"} in its place. A BEFORE INSERT/UPDATE trigger does this for every writer;
+--    ai_input_expand() puts the values back for readers (export, cache rebuild).
+--
+-- 2. Monthly range partitions on created_at, so old runs leave by DETACH + DROP of a whole month
+--    (AiRunMaintenance) instead of a DELETE that has to visit and vacuum every row.
+--
+-- Existing rows are copied into the partitioned table and compacted on the way in.
+
+create table ai_prompt_blobs (
+  hash varchar(64) primary key,
+  content jsonb not null,
+  -- refreshed at most once a day while runs keep referencing the blob; AiRunMaintenance deletes
+  -- blobs last used before the oldest remaining run
+  last_used_at timestamptz not null default now()
+);
+
+create function ai_input_compact(input jsonb) returns jsonb language plpgsql as $$
+declare
+  k text;
+  v jsonb;
+  h varchar(64);
+  compacted jsonb := '{}';
+begin
+  if input is null or jsonb_typeof(input) <> 'object' then
+    return input;
+  end if;
+  for k, v in select key, value from jsonb_each(input) loop
+    if octet_length(v::text) >= 128 then
+      h := encode(sha256(convert_to(v::text, 'UTF8')), 'hex');
+      -- DO NOTHING takes no row lock, so runs sharing the system prompt don't queue on it;
+      -- the separate touch below locks the blob once a day at most
+      insert into ai_prompt_blobs (hash, content) values (h, v) on conflict (hash) do nothing;
+      update ai_prompt_blobs set last_used_at = now()
+      where hash = h and last_used_at < now() - interval '1 day';
+      v := jsonb_build_object('$blob', h);
+    end if;
+    compacted := compacted || jsonb_build_object(k, v);
+  end loop;
+  return compacted;
+end
+$$;
+
+create function ai_input_expand(input jsonb) returns jsonb language sql stable as $$
+  select case
+    when jsonb_typeof(input) = 'object' then coalesce(
+      (select jsonb_object_agg(e.key, coalesce(b.content, e.value))
+       from jsonb_each(input) e
+       left join ai_prompt_blobs b
+         on jsonb_typeof(e.value) = 'object' and b.hash = e.value ->> '$blob'),
+      input)
+    else input
+  end
+$$;
+
+create function ai_runs_compact_input() returns trigger language plpgsql as $$
+begin
+  new.input_json := ai_input_compact(new.input_json);
+  return new;
+end
+$$;
+
+-- One partition per calendar month (UTC), named ai_runs_YYYY_MM, for every month overlapping
+-- [from_ts, to_ts). Existing partitions are left alone. Returns how many were created.
+create function ai_runs_create_partitions(from_ts timestamptz, to_ts timestamptz) returns int
+language plpgsql as $$
+declare
+  m timestamp := date_trunc('month', from_ts at time zone 'UTC');
+  created int := 0;
+  name text;
+begin
+  while m < (to_ts at time zone 'UTC') loop
+    name := 'ai_runs_' || to_char(m, 'YYYY_MM');
+    if to_regclass(name) is null then
+      execute format('create table %I partition of ai_runs for values from (%L) to (%L)',
+                     name, m at time zone 'UTC', (m + interval '1 month') at time zone 'UTC');
+      created := created + 1;
+    end if;
+    m := m + interval '1 month';
+  end loop;
+  return created;
+end
+$$;
+
+-- ---- swap in the partitioned table ----
+
+alter table ai_runs rename to ai_runs_unpartitioned;
+drop trigger trg_ai_runs_live on ai_runs_unpartitioned;
+-- the id sequence must outlive the old table
+alter sequence ai_runs_id_seq owned by none;
+alter index idx_ai_runs_ticket_id rename to idx_ai_runs_unpartitioned_ticket_id;
+alter index idx_ai_runs_created_at rename to idx_ai_runs_unpartitioned_created_at;
+alter index idx_ai_runs_cache_key rename to idx_ai_runs_unpartitioned_cache_key;
+
+create table ai_runs (
+  id bigint not null default nextval('ai_runs_id_seq'),
+  ticket_id bigint not null references tickets(id) on delete cascade,
+  type varchar(64) not null,
+  provider varchar(64) not null,
+  model varchar(128) not null,
+  prompt_version varchar(64) not null,
+  input_json jsonb not null,
+  output_json jsonb,
+  latency_ms int,
+  created_at timestamptz not null default now(),
+  status varchar(16) not null default 'SUCCESS',
+  error_message text,
+  first_token_ms int,
+  cache_key varchar(64),
+  cache_hit boolean not null default false,
+  -- a unique key on a partitioned table must include the partition key
+  primary key (id, created_at)
+) partition by range (created_at);
+
+alter sequence ai_runs_id_seq owned by ai_runs.id;
+
+create index idx_ai_runs_ticket_id on ai_runs (ticket_id);
+create index idx_ai_runs_created_at on ai_runs (created_at);
+create index idx_ai_runs_cache_key on ai_runs (cache_key, id desc)
+  where status = 'SUCCESS' and cache_hit = false;
+
+-- catches rows outside the monthly partitions (a skewed clock, a bad import); should stay empty
+create table ai_runs_default partition of ai_runs default;
+
+-- also on update: an ORM re-saving a run writes the whole input back
+create trigger trg_ai_runs_compact_input
+  before insert or update of input_json on ai_runs
+  for each row execute function ai_runs_compact_input();
+
+select ai_runs_create_partitions(
+  coalesce((select min(created_at) from ai_runs_unpartitioned), now()),
+  now() + interval '3 months');
+
+insert into ai_runs (id, ticket_id, type, provider, model, prompt_version, input_json, output_json,
+                     latency_ms, created_at, status, error_message, first_token_ms, cache_key, cache_hit)
+select id, ticket_id, type, provider, model, prompt_version, input_json, output_json,
+       latency_ms, created_at, status, error_message, first_token_ms, cache_key, cache_hit
+from ai_runs_unpartitioned;
+
+drop table ai_runs_unpartitioned;
+
+-- the live feed (V12) is added after the copy, so history isn't announced as new runs
+create trigger trg_ai_runs_live
+  after insert on ai_runs
+  referencing new table as added
+  for each statement execute function live_notify_ai_runs();
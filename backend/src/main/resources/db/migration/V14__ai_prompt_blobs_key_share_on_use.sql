@@ -0,0 +1,39 @@
+-- Closes a race between a run reusing an old blob and AiRunMaintenance deleting it. ON CONFLICT
+-- DO NOTHING takes no lock, so the maintenance DELETE could remove the blob after the insert had
+-- seen it and before the run committed, leaving a dangling {"$blob": ...}.
+--
+-- Now every use of a blob also takes a KEY SHARE lock on its row, held until the run commits:
+-- - KEY SHARE locks do not conflict with each other (or with the once-a-day touch), so runs
+--   sharing the system prompt still do not queue on its row;
+-- - the maintenance DELETE picks rows FOR UPDATE SKIP LOCKED, so it passes over a blob in use;
+-- - if the DELETE got there first, the lock finds no row once it commits, and the blob is
+--   written again.
+
+create or replace function ai_input_compact(input jsonb) returns jsonb language plpgsql as $$
+declare
+  k text;
+  v jsonb;
+  h varchar(64);
+  compacted jsonb := '{}';
+begin
+  if input is null or jsonb_typeof(input) <> 'object' then
+    return input;
+  end if;
+  for k, v in select key, value from jsonb_each(input) loop
+    if octet_length(v::text) >= 128 then
+      h := encode(sha256(convert_to(v::text, 'UTF8')), 'hex');
+      loop
+        insert into ai_prompt_blobs (hash, content) values (h, v) on conflict (hash) do nothing;
+        perform 1 from ai_prompt_blobs where hash = h for key share;
+        exit when found;
+        -- deleted between the insert and the lock: write it again
+      end loop;
+      update ai_prompt_blobs set last_used_at = now()
+      where hash = h and last_used_at < now() - interval '1 day';
+      v := jsonb_build_object('$blob', h);
+    end if;
+    compacted := compacted || jsonb_build_object(k, v);
+  end loop;
+  return compacted;
+end
+$$;
@@ -0,0 +1,3 @@
+-- Streaming runs record time-to-first-token separately from total latency
+alter table ai_runs
+  add column if not exists first_token_ms int;
@@ -0,0 +1,11 @@
+-- Response cache: every run carries the content hash of its request so successful
+-- rows double as the persistent cache tier; cache hits are still audited as runs.
+alter table ai_runs
+  add column if not exists cache_key varchar(64);
+
+alter table ai_runs
+  add column if not exists cache_hit boolean not null default false;
+
+create index if not exists idx_ai_runs_cache_key
+  on ai_runs(cache_key, id desc)
+  where status = 'SUCCESS' and cache_hit = false;
@@ -0,0 +1,25 @@
+-- Durable AI job queue. Workers on any node claim rows with FOR UPDATE SKIP LOCKED and hold a
+-- time-bounded lease; rows whose lease expired (worker died) become claimable again.
+create table ai_jobs (
+  id bigserial primary key,
+  type varchar(32) not null,
+  ticket_id bigint not null references tickets(id) on delete cascade,
+  params_json jsonb not null default '{}',
+  status varchar(16) not null default 'QUEUED',
+  attempts int not null default 0,
+  max_attempts int not null,
+  run_after timestamptz not null default now(),
+  lease_owner varchar(128),
+  lease_expires_at timestamptz,
+  -- resulting ai_runs.id (no FK: runs are an audit log with their own lifecycle)
+  ai_run_id bigint,
+  result_json jsonb,
+  last_error text,
+  created_at timestamptz not null default now(),
+  updated_at timestamptz not null default now(),
+  finished_at timestamptz
+);
+
+create index idx_ai_jobs_queued on ai_jobs(run_after, id) where status = 'QUEUED';
+create index idx_ai_jobs_leased on ai_jobs(lease_expires_at) where status = 'RUNNING';
+create index idx_ai_jobs_ticket_id on ai_jobs(ticket_id);
@@ -0,0 +1,11 @@
+-- Full-text search for the inbox. Replaces lower(col) like '%q%', which no index can serve.
+-- Weights: subject (A) > category, requester email (B) > body (D). The email is indexed whole
+-- and split at '@', so both "jane@acme.io" and "acme.io" match.
+alter table tickets add column search_vector tsvector generated always as (
+  setweight(to_tsvector('english', subject), 'A') ||
+  setweight(to_tsvector('english', coalesce(category, '')), 'B') ||
+  setweight(to_tsvector('simple', requester_email || ' ' || replace(requester_email, '@', ' ')), 'B') ||
+  setweight(to_tsvector('english', body), 'D')
+) stored;
+
+create index idx_tickets_search on tickets using gin (search_vector);
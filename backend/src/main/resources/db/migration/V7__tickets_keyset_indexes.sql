@@ -0,0 +1,7 @@
+-- Keyset pagination: each inbox ordering gets an index that matches it exactly, so a page is
+-- a range scan of `limit` rows no matter how many tickets exist.
+create index idx_tickets_created_at_id on tickets (created_at desc, id desc);
+create index idx_tickets_status_updated_at_id on tickets (status, updated_at desc, id desc);
+
+-- superseded by idx_tickets_created_at_id
+drop index idx_tickets_created_at;
@@ -0,0 +1,9 @@
+-- Short, whitespace-collapsed preview of the body for the inbox list, kept by Postgres itself.
+-- List queries select this instead of body, so long (TOASTed) bodies are never read for the inbox.
+alter table tickets add column snippet varchar(200) generated always as (
+  case
+    when length(regexp_replace(btrim(body), '\s+', ' ', 'g')) <= 160
+      then regexp_replace(btrim(body), '\s+', ' ', 'g')
+    else left(regexp_replace(btrim(body), '\s+', ' ', 'g'), 159) || '…'
+  end
+) stored;
@@ -0,0 +1,52 @@
+-- Type-ahead for partial requester emails and misspelled subject words, which the full-text
+-- index (whole words and prefixes only) cannot serve.
+--
+-- Suggestions come from a dictionary of distinct terms rather than from tickets: thousands of
+-- tickets share a requester or a subject word, and a trigram scan over the tickets themselves
+-- has to score every one of them. A GiST index answers "nearest terms first" directly
+-- (ORDER BY term <<-> q LIMIT n stops after n), so broad input costs as little as narrow input;
+-- a GIN index can only filter and then score everything that passed.
+create extension if not exists pg_trgm;
+
+create table ticket_terms (
+  kind varchar(16) not null,  -- 'requester' (lower-cased email) or 'subject' (one word)
+  term text not null,
+  primary key (kind, term)
+);
+
+-- siglen 256: longer signatures make far fewer false candidates on the near-identical emails
+-- of large tenants than the default 12 bytes
+create index idx_ticket_terms_requester_trgm on ticket_terms
+  using gist (term gist_trgm_ops(siglen = 256)) where kind = 'requester';
+create index idx_ticket_terms_subject_trgm on ticket_terms
+  using gist (term gist_trgm_ops(siglen = 256)) where kind = 'subject';
+
+-- Terms are only ever added: a term whose tickets are gone still leads to a search, just an
+-- empty one.
+create function ticket_terms_collect() returns trigger language plpgsql as $$
+begin
+  insert into ticket_terms (kind, term)
+  values ('requester', lower(new.requester_email))
+  on conflict do nothing;
+
+  insert into ticket_terms (kind, term)
+  select distinct 'subject', w
+  from regexp_split_to_table(lower(new.subject), '[^[:alnum:]]+') w
+  where length(w) between 3 and 40
+  on conflict do nothing;
+
+  return null;
+end
+$$;
+
+create trigger trg_tickets_terms
+  after insert or update of subject, requester_email on tickets
+  for each row execute function ticket_terms_collect();
+
+insert into ticket_terms (kind, term)
+select distinct 'requester', lower(requester_email) from tickets;
+
+insert into ticket_terms (kind, term)
+select distinct 'subject', w
+from tickets, regexp_split_to_table(lower(subject), '[^[:alnum:]]+') w
+where length(w) between 3 and 40;
@@ -0,0 +1,211 @@
+package com.infotrode.support_triage.ai;
+
+import com.infotrode.support_triage.ai.dto.AiBulkTriageProgress;
+import com.infotrode.support_triage.ai.dto.AiBulkTriageSummary;
+import com.infotrode.support_triage.ai.dto.AiTriageSuggestion;
+import com.infotrode.support_triage.ticket.Ticket;
+import com.infotrode.support_triage.ticket.TicketPriority;
+import com.infotrode.support_triage.ticket.TicketRepository;
+import com.infotrode.support_triage.ticket.TicketService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+		"ai.cache.enabled=false",
+		"ai.jobs.workerEnabled=false",
+		"ai.bulk.executorThreads=3"
+})
+class AiBulkTriageTests {
+
+	private static final String EMAIL = "bulk-test@example.com";
+
+	private static StubOllamaServer stub;
+
+	@DynamicPropertySource
+	static void ollama(DynamicPropertyRegistry registry) throws IOException {
+		stub = new StubOllamaServer(0);
+		registry.add("ai.ollama.baseUrl", stub::baseUrl);
+	}
+
+	@AfterAll
+	static void stopStub() {
+		if (stub != null) stub.close();
+	}
+
+	@Autowired
+	AiBulkTriageService bulk;
+
+	@Autowired
+	TicketRepository tickets;
+
+	@Autowired
+	TicketService ticketService;
+
+	@Autowired
+	AiBulkProperties props;
+
+	@Autowired
+	@Qualifier("aiBulkExecutor")
+	TaskExecutor executor;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@BeforeEach
+	void resetStub() {
+		stub.delayMs(0);
+		stub.resetCounters();
+	}
+
+	@AfterEach
+	void cleanUp() {
+		jdbc.update("delete from tickets where requester_email = ?", EMAIL); // cascades to ai_runs
+	}
+
+	@Test
+	void parallelismCapsEachRunAndTheSharedExecutorCapsThemAll() throws Exception {
+		stub.delayMs(150);
+		bulk.run(tickets(6), false, 2, p -> {});
+		assertThat(stub.maxInFlight()).isEqualTo(2);
+
+		// two runs asking for 4 each share the 3 executor threads
+		stub.resetCounters();
+		CompletableFuture<AiBulkTriageSummary> a = runAsync(tickets(8), 4);
+		CompletableFuture<AiBulkTriageSummary> b = runAsync(tickets(8), 4);
+		assertThat(a.get(30, TimeUnit.SECONDS).succeeded()).isEqualTo(8);
+		assertThat(b.get(30, TimeUnit.SECONDS).succeeded()).isEqualTo(8);
+		assertThat(stub.requests()).isEqualTo(16);
+		assertThat(stub.maxInFlight()).isEqualTo(3);
+	}
+
+	@Test
+	void onlyApplyWritesTheSuggestionBack() throws Exception {
+		List<Long> ids = tickets(3);
+
+		List<AiBulkTriageProgress> progress = Collections.synchronizedList(new ArrayList<>());
+		AiBulkTriageSummary dryRun = bulk.run(ids, false, 2, progress::add);
+		assertThat(dryRun.succeeded()).isEqualTo(3);
+		assertThat(dryRun.applied()).isZero();
+		assertThat(progress).extracting(AiBulkTriageProgress::applied).containsOnly(false);
+		assertThat(tickets.findAllById(ids)).allSatisfy(t -> {
+			assertThat(t.getCategory()).isNull();
+			assertThat(t.getPriority()).isEqualTo(TicketPriority.MEDIUM);
+		});
+
+		progress.clear();
+		AiBulkTriageSummary applied = bulk.run(ids, true, 2, progress::add);
+		assertThat(applied.applied()).isEqualTo(3);
+		assertThat(progress).extracting(AiBulkTriageProgress::applied).containsOnly(true);
+		assertThat(tickets.findAllById(ids)).allSatisfy(t -> {
+			assertThat(t.getCategory()).isEqualTo("account");
+			assertThat(t.getPriority()).isEqualTo(TicketPriority.HIGH);
+			assertThat(t.getTags()).containsExactly("auth", "login");
+		});
+	}
+
+	@Test
+	void aClosedStreamStopsTheTicketsNotStartedYet() throws Exception {
+		stub.delayMs(50);
+		List<Long> ids = tickets(10);
+
+		AiBulkTriageSummary summary = bulk.run(ids, true, 2, p -> {
+			throw new IllegalStateException("client went away");
+		});
+
+		// the first two were already running; nothing else reached Ollama
+		assertThat(stub.requests()).isLessThanOrEqualTo(2);
+		assertThat(summary.total()).isEqualTo(10);
+		assertThat(summary.succeeded()).isLessThanOrEqualTo(2);
+		assertThat(jdbc.queryForObject(
+				"select count(*) from tickets where id = any(?) and category is not null", Long.class,
+				(Object) ids.toArray(new Long[0]))).isLessThanOrEqualTo(2L);
+	}
+
+	@Test
+	void summaryCountsSuccessesFailuresAndApplies() throws Exception {
+		List<Long> ids = new ArrayList<>(tickets(3));
+		ids.add(Long.MAX_VALUE); // no such ticket
+		List<AiBulkTriageProgress> progress = Collections.synchronizedList(new ArrayList<>());
+
+		AiBulkTriageSummary summary = bulk.run(ids, true, 3, progress::add);
+
+		assertThat(summary.total()).isEqualTo(4);
+		assertThat(summary.succeeded()).isEqualTo(3);
+		assertThat(summary.failed()).isEqualTo(1);
+		assertThat(summary.applied()).isEqualTo(3);
+		assertThat(summary.parallelism()).isEqualTo(3);
+		assertThat(summary.latencyMs().max()).isGreaterThanOrEqualTo(summary.latencyMs().p50());
+
+		assertThat(progress).extracting(AiBulkTriageProgress::completed).containsExactly(1, 2, 3, 4);
+		assertThat(progress).extracting(AiBulkTriageProgress::ticketId).containsExactlyInAnyOrderElementsOf(ids);
+		assertThat(progress).filteredOn(p -> !p.ok()).singleElement().satisfies(p -> {
+			assertThat(p.ticketId()).isEqualTo(Long.MAX_VALUE);
+			assertThat(p.error()).isNotBlank();
+			assertThat(p.applied()).isFalse();
+		});
+	}
+
+	@Test
+	void shedTicketsWaitAndRetryInsteadOfFailing() throws Exception {
+		AiTriageSuggestion ok = new AiTriageSuggestion("account", TicketPriority.HIGH, List.of("auth"), "Login is blocked.", null, 1L);
+		AiTriageService shedOnce = mock(AiTriageService.class);
+		when(shedOnce.triage(anyLong()))
+				.thenThrow(AiUnavailableException.overloaded(8, 1))
+				.thenReturn(ok);
+		AiBulkTriageService service = new AiBulkTriageService(shedOnce, ticketService, props, executor);
+
+		long start = System.nanoTime();
+		AiBulkTriageSummary summary = service.run(List.of(1L), false, 1, p -> {});
+
+		assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(1000);
+		assertThat(summary.succeeded()).isEqualTo(1);
+		assertThat(summary.failed()).isZero();
+		assertThat(summary.latencyMs().max()).isLessThan(1000); // the wait is not the ticket's latency
+		verify(shedOnce, times(2)).triage(1L);
+	}
+
+	private CompletableFuture<AiBulkTriageSummary> runAsync(List<Long> ids, int parallelism) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return bulk.run(ids, false, parallelism, p -> {});
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+
+	private List<Long> tickets(int n) {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			Ticket t = new Ticket();
+			t.setSubject("Bulk test " + i);
+			t.setRequesterEmail(EMAIL);
+			t.setBody("Cannot log in since this morning.");
+			ids.add(tickets.save(t).getId());
+		}
+		return ids;
+	}
+}
@@ -0,0 +1,107 @@
+package com.infotrode.support_triage.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infotrode.support_triage.ticket.Ticket;
+import com.infotrode.support_triage.ticket.TicketRepository;
+import com.infotrode.support_triage.ticket.TicketService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * More AI calls in flight than there are pooled connections: ticket reads must still be served
+ * promptly, because no connection is held while waiting on the model.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.hikari.maximum-pool-size=2",
+		"spring.datasource.hikari.connection-timeout=2000",
+		"ai.cache.enabled=false",
+		"ai.jobs.workerEnabled=false"
+})
+class AiConnectionPoolTests {
+
+	private static final int IN_FLIGHT = 6;
+
+	@MockitoBean
+	OllamaClient ollama;
+
+	@Autowired
+	AiTriageService triageService;
+
+	@Autowired
+	TicketService ticketService;
+
+	@Autowired
+	TicketRepository ticketRepository;
+
+	@Autowired
+	ObjectMapper om;
+
+	@Test
+	void ticketReadsStayFastWhileAiCallsOutnumberThePool() throws Exception {
+		// distinct tickets, so identical requests are not coalesced into one generation
+		List<Long> ticketIds = new ArrayList<>();
+		for (int i = 0; i < IN_FLIGHT; i++) {
+			Ticket t = new Ticket();
+			t.setSubject("Pool test " + UUID.randomUUID());
+			t.setRequesterEmail("pool@example.com");
+			t.setBody("Cannot log in since this morning.");
+			ticketIds.add(ticketRepository.save(t).getId());
+		}
+
+		CountDownLatch entered = new CountDownLatch(IN_FLIGHT);
+		CountDownLatch release = new CountDownLatch(1);
+		String triageJson = """
+				{"category":"account","priority":"HIGH","tags":["auth","login"],
+				 "rationale":"Login is blocked for the user.",
+				 "entities":{"requesterEmail":"","orderId":"","product":"","errorCode":""}}""";
+
+		when(ollama.generateJson(anyString(), anyString(), anyString(), any())).thenAnswer(inv -> {
+			entered.countDown();
+			release.await(30, TimeUnit.SECONDS);
+			return om.createObjectNode().put("response", triageJson).put("done", true);
+		});
+
+		ExecutorService pool = Executors.newFixedThreadPool(IN_FLIGHT);
+		try {
+			List<Future<?>> calls = new ArrayList<>();
+			for (long id : ticketIds) {
+				calls.add(pool.submit(() -> triageService.triage(id)));
+			}
+
+			// all generations are waiting on the model at once, with only 2 connections in the pool
+			assertThat(entered.await(10, TimeUnit.SECONDS)).isTrue();
+
+			long start = System.nanoTime();
+			ticketService.list(null, null, null, 50);
+			ticketService.get(ticketIds.get(0));
+			long readMs = (System.nanoTime() - start) / 1_000_000;
+
+			// well below hikari's 2s connection-timeout, i.e. nobody waited for a connection
+			assertThat(readMs).isLessThan(1000);
+
+			release.countDown();
+			for (Future<?> f : calls) {
+				f.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			release.countDown();
+			pool.shutdownNow();
+		}
+	}
+}
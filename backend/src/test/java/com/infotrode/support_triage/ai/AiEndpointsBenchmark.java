@@ -0,0 +1,133 @@
+package com.infotrode.support_triage.ai;
+
+import com.infotrode.support_triage.ticket.Ticket;
+import com.infotrode.support_triage.ticket.TicketRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end: many concurrent {@code POST /api/ai/triage} calls against a slow {@link StubOllamaServer}
+ * while Tomcat has only {@value #TOMCAT_THREADS} request threads. Reports AI throughput and how long a
+ * plain ticket read takes meanwhile. With blocking controllers every Tomcat thread sits in the Ollama
+ * wait; with async controllers they are handed back immediately.
+ *
+ * Not part of the regular build; run with {@code mvn test -Dtest=AiEndpointsBenchmark}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"server.tomcat.threads.max=" + AiEndpointsBenchmark.TOMCAT_THREADS,
+		"ai.ollama.maxConnections=" + AiEndpointsBenchmark.CONCURRENT_AI_CALLS,
+		"ai.ollama.maxConnectionsPerHost=" + AiEndpointsBenchmark.CONCURRENT_AI_CALLS,
+		"ai.cache.enabled=false",
+		"ai.jobs.workerEnabled=false"
+})
+class AiEndpointsBenchmark {
+
+	static final int TOMCAT_THREADS = 8;
+	static final int CONCURRENT_AI_CALLS = 64;
+	private static final long STUB_DELAY_MS = 500;
+	private static final int ROUNDS = 3;
+
+	private static StubOllamaServer stub;
+
+	@DynamicPropertySource
+	static void ollama(DynamicPropertyRegistry registry) throws IOException {
+		stub = new StubOllamaServer(STUB_DELAY_MS);
+		registry.add("ai.ollama.baseUrl", stub::baseUrl);
+	}
+
+	@AfterAll
+	static void stopStub() {
+		if (stub != null) stub.close();
+	}
+
+	@LocalServerPort
+	int port;
+
+	@Autowired
+	TicketRepository ticketRepository;
+
+	private final HttpClient http = HttpClient.newBuilder()
+			.executor(Executors.newCachedThreadPool())
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+
+	@Test
+	void concurrentTriageThroughput() throws Exception {
+		Ticket t = new Ticket();
+		t.setSubject("Benchmark " + UUID.randomUUID());
+		t.setRequesterEmail("bench@example.com");
+		t.setBody("Cannot log in since this morning.");
+		long ticketId = ticketRepository.save(t).getId();
+
+		// warm up the JIT, connection pools and the Ollama client
+		send(triage(ticketId)).join();
+		send(HttpRequest.newBuilder(uri("/api/tickets/" + ticketId)).GET().build()).join();
+
+		// the first burst still pays for opening connections; later rounds show the steady state
+		for (int round = 1; round <= ROUNDS; round++) {
+			burst(round, ticketId);
+		}
+	}
+
+	private void burst(int round, long ticketId) throws Exception {
+		stub.resetCounters();
+		long start = System.nanoTime();
+		List<CompletableFuture<HttpResponse<String>>> calls = new ArrayList<>();
+		for (int i = 0; i < CONCURRENT_AI_CALLS; i++) {
+			calls.add(send(triage(ticketId)));
+		}
+
+		// a cheap read issued while the AI calls are in flight
+		Thread.sleep(STUB_DELAY_MS / 5);
+		long readStart = System.nanoTime();
+		HttpResponse<String> read = send(HttpRequest.newBuilder(uri("/api/tickets/" + ticketId)).GET().build()).join();
+		long readMs = (System.nanoTime() - readStart) / 1_000_000;
+
+		CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+		double elapsedSec = (System.nanoTime() - start) / 1e9;
+
+		long ok = calls.stream().filter(f -> f.join().statusCode() == 200).count();
+		System.out.printf("round %d: %d concurrent triage calls, %d Tomcat threads, stub delay %d ms: "
+						+ "%.2f s total, %.1f calls/s, %d ok, max %d in flight at Ollama; ticket read during load: %d ms%n",
+				round, CONCURRENT_AI_CALLS, TOMCAT_THREADS, STUB_DELAY_MS, elapsedSec,
+				CONCURRENT_AI_CALLS / elapsedSec, ok, stub.maxInFlight(), readMs);
+
+		assertThat(read.statusCode()).isEqualTo(200);
+		assertThat(ok).isEqualTo(CONCURRENT_AI_CALLS);
+	}
+
+	private HttpRequest triage(long ticketId) {
+		return HttpRequest.newBuilder(uri("/api/ai/triage"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString("{\"ticketId\":" + ticketId + "}"))
+				.build();
+	}
+
+	private CompletableFuture<HttpResponse<String>> send(HttpRequest req) {
+		return http.sendAsync(req, HttpResponse.BodyHandlers.ofString());
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+}
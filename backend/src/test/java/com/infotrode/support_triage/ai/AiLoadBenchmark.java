@@ -0,0 +1,349 @@
+package com.infotrode.support_triage.ai;
+
+import com.infotrode.support_triage.ticket.Ticket;
+import com.infotrode.support_triage.ticket.TicketRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Open-loop load on the running app: AI triage, summaries, reply drafts (plain and streamed) and
+ * ticket create / read / list / update, mixed by {@code load.mix}, arriving at {@code load.rps}
+ * whether or not earlier requests have finished. Ollama is a {@link StubOllamaServer} with
+ * log-normal latency, injected failures and a canned answer per operation; the database is the
+ * local Postgres.
+ *
+ * Latency is measured from when a request was due, not when it was sent, so a backed-up client
+ * doesn't hide queueing. Reports per operation: throughput, p50/p95/p99/max, errors by status; and
+ * the pools while under load: Hikari, Ollama connections, the AI concurrency limit and the ai_runs
+ * writer queue.
+ *
+ * Knobs ({@code -D}): {@code load.rps} (40), {@code load.seconds} (30), {@code load.warmupSeconds}
+ * (5), {@code load.mix}, {@code load.tickets} (500), {@code load.ollamaMedianMs} (800),
+ * {@code load.ollamaSigma} (0.5), {@code load.ollamaFailureRate} (0.02), {@code load.seed} (42).
+ * App settings not fixed below can be overridden the same way, e.g. {@code -Dai.limiter.max-limit=32}.
+ * The AI response cache is off, so every AI call reaches the stub.
+ *
+ * Not part of the regular build; run with {@code mvn test -Dtest=AiLoadBenchmark} (needs the database).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"ai.cache.enabled=false",
+		"ai.jobs.workerEnabled=false",
+		// every injected failure logs a stack trace; the report counts them instead
+		"logging.level.com.infotrode.support_triage.ai=OFF"
+})
+class AiLoadBenchmark {
+
+	private static final int RPS = Integer.getInteger("load.rps", 40);
+	private static final int SECONDS = Integer.getInteger("load.seconds", 30);
+	private static final int WARMUP_SECONDS = Integer.getInteger("load.warmupSeconds", 5);
+	private static final String MIX = System.getProperty("load.mix",
+			"triage=20,summary=10,reply=10,replyStream=5,get=30,list=15,create=5,update=5");
+	private static final int TICKETS = Integer.getInteger("load.tickets", 500);
+	private static final long OLLAMA_MEDIAN_MS = Long.getLong("load.ollamaMedianMs", 800);
+	private static final double OLLAMA_SIGMA = Double.parseDouble(System.getProperty("load.ollamaSigma", "0.5"));
+	private static final double OLLAMA_FAILURE_RATE = Double.parseDouble(System.getProperty("load.ollamaFailureRate", "0.02"));
+	private static final long SEED = Long.getLong("load.seed", 42);
+
+	private static final String EMAIL = "load@load.bench.invalid";
+	private static final long MAX_LATENCY_MS = TimeUnit.MINUTES.toMillis(5);
+
+	private static StubOllamaServer stub;
+
+	@DynamicPropertySource
+	static void ollama(DynamicPropertyRegistry registry) throws IOException {
+		stub = new StubOllamaServer(0);
+		stub.latency(StubOllamaServer.logNormal(OLLAMA_MEDIAN_MS, OLLAMA_SIGMA, SEED));
+		stub.failureRate(OLLAMA_FAILURE_RATE, SEED);
+		Map<String, String> canned = new LinkedHashMap<>();
+		canned.put(StubOllamaServer.TRIAGE_PROMPT, StubOllamaServer.TRIAGE_JSON);
+		canned.put(StubOllamaServer.SUMMARY_PROMPT, StubOllamaServer.SUMMARY_JSON);
+		canned.put(StubOllamaServer.REPLY_PROMPT, StubOllamaServer.REPLY_JSON);
+		stub.respondTo(canned);
+		registry.add("ai.ollama.baseUrl", stub::baseUrl);
+	}
+
+	@AfterAll
+	static void stopStub() {
+		if (stub != null) stub.close();
+	}
+
+	@LocalServerPort
+	int port;
+
+	@Autowired
+	TicketRepository ticketRepository;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@Autowired
+	AiRunWriter writer;
+
+	@Autowired
+	MeterRegistry registry;
+
+	private final HttpClient http = HttpClient.newBuilder()
+			.executor(Executors.newCachedThreadPool())
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+
+	/** One kind of request and what it has seen. */
+	private static final class Op {
+		final String name;
+		final int weight;
+		final Histogram latencyMs = new ConcurrentHistogram(MAX_LATENCY_MS, 3);
+		final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+		Op(String name, int weight) {
+			this.name = name;
+			this.weight = weight;
+		}
+
+		void record(long dueNanos, String outcome) {
+			latencyMs.recordValue(Math.min(MAX_LATENCY_MS, (System.nanoTime() - dueNanos) / 1_000_000));
+			outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+		}
+
+		long count(boolean ok) {
+			return outcomes.entrySet().stream()
+					.filter(e -> e.getKey().equals("200") == ok)
+					.mapToLong(e -> e.getValue().sum()).sum();
+		}
+	}
+
+	/** Max and mean of a gauge, sampled while the load runs. */
+	private static final class Sampled {
+		double max;
+		double sum;
+		long samples;
+
+		synchronized void add(double v) {
+			if (Double.isNaN(v)) return;
+			max = Math.max(max, v);
+			sum += v;
+			samples++;
+		}
+	}
+
+	@AfterEach
+	void cleanUp() throws InterruptedException {
+		writer.flush(Duration.ofSeconds(30));
+		jdbc.update("delete from tickets where requester_email = ?", EMAIL); // cascades to notes and ai_runs
+		jdbc.update("delete from ai_prompt_blobs where content::text like ?", "%" + EMAIL + "%");
+	}
+
+	@Test
+	void mixedLoad() throws Exception {
+		List<Long> ticketIds = tickets();
+		List<Op> ops = mix();
+		int totalWeight = ops.stream().mapToInt(o -> o.weight).sum();
+		Random random = new Random(SEED);
+
+		Map<String, Sampled> pools = new LinkedHashMap<>();
+		ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+		sampler.scheduleAtFixedRate(() -> samplePools(pools), 0, 200, TimeUnit.MILLISECONDS);
+		Map<String, Double> countersBefore = counters();
+		long stubBefore = stub.requests();
+		long stubFailuresBefore = stub.failures();
+
+		List<CompletableFuture<?>> inFlight = new ArrayList<>();
+		long intervalNanos = 1_000_000_000L / RPS;
+		long start = System.nanoTime();
+		long measureFrom = start + TimeUnit.SECONDS.toNanos(WARMUP_SECONDS);
+		long end = measureFrom + TimeUnit.SECONDS.toNanos(SECONDS);
+		for (long due = start; due < end; due += intervalNanos) {
+			long wait = due - System.nanoTime();
+			if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+
+			int pick = random.nextInt(totalWeight);
+			Op op = ops.get(0);
+			for (Op o : ops) {
+				if (pick < o.weight) {
+					op = o;
+					break;
+				}
+				pick -= o.weight;
+			}
+			long ticketId = ticketIds.get(random.nextInt(ticketIds.size()));
+			Op recordTo = due >= measureFrom ? op : null;
+			long dueNanos = due;
+			inFlight.add(http.sendAsync(request(op.name, ticketId, random), HttpResponse.BodyHandlers.ofString())
+					.handle((res, err) -> {
+						if (recordTo != null) recordTo.record(dueNanos, outcome(res, err));
+						return null;
+					}));
+		}
+		double sendSeconds = (System.nanoTime() - measureFrom) / 1e9;
+		CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).get(5, TimeUnit.MINUTES);
+		sampler.shutdownNow();
+
+		report(ops, sendSeconds, pools, countersBefore, stub.requests() - stubBefore, stub.failures() - stubFailuresBefore);
+		assertThat(ops.stream().mapToLong(o -> o.latencyMs.getTotalCount()).sum()).isPositive();
+	}
+
+	private HttpRequest request(String op, long ticketId, Random random) {
+		String base = "http://localhost:" + port;
+		return switch (op) {
+			case "triage" -> post(base + "/api/ai/triage", "{\"ticketId\":" + ticketId + "}");
+			case "summary" -> post(base + "/api/ai/summary", "{\"ticketId\":" + ticketId + ",\"saveAsNote\":false}");
+			case "reply" -> post(base + "/api/ai/reply-draft", "{\"ticketId\":" + ticketId + ",\"tone\":\"PROFESSIONAL\"}");
+			case "replyStream" -> post(base + "/api/ai/reply-draft/stream", "{\"ticketId\":" + ticketId + ",\"tone\":\"CONCISE\"}");
+			case "get" -> HttpRequest.newBuilder(URI.create(base + "/api/tickets/" + ticketId)).GET().build();
+			case "list" -> HttpRequest.newBuilder(URI.create(base + "/api/tickets?status=OPEN&limit=50")).GET().build();
+			case "create" -> post(base + "/api/tickets", """
+					{"subject":"Load ticket %d","requesterEmail":"%s","body":"Cannot log in since this morning."}"""
+					.formatted(random.nextInt(1_000_000), EMAIL));
+			case "update" -> HttpRequest.newBuilder(URI.create(base + "/api/tickets/" + ticketId))
+					.header("Content-Type", "application/json")
+					.method("PATCH", HttpRequest.BodyPublishers.ofString(
+							"{\"priority\":\"" + (random.nextBoolean() ? "HIGH" : "MEDIUM") + "\"}"))
+					.build();
+			default -> throw new IllegalArgumentException("Unknown load.mix operation: " + op);
+		};
+	}
+
+	private static HttpRequest post(String url, String json) {
+		return HttpRequest.newBuilder(URI.create(url))
+				.timeout(Duration.ofMinutes(4))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json))
+				.build();
+	}
+
+	/** HTTP status; 2xx as "200". A stream that ended in an error event is "sse-error". */
+	private static String outcome(HttpResponse<String> res, Throwable err) {
+		if (err != null) return "io";
+		int status = res.statusCode();
+		if (status / 100 != 2) return String.valueOf(status);
+		if (res.body() != null && res.body().contains("event:error")) return "sse-error";
+		return "200";
+	}
+
+	private List<Long> tickets() {
+		List<Ticket> tickets = new ArrayList<>();
+		for (int i = 0; i < TICKETS; i++) {
+			Ticket t = new Ticket();
+			t.setSubject("Load ticket " + i + ": cannot log in");
+			t.setRequesterEmail(EMAIL);
+			t.setBody("Since this morning the login page rejects my password although I reset it twice. Ticket " + i + ".");
+			tickets.add(t);
+		}
+		return ticketRepository.saveAll(tickets).stream().map(Ticket::getId).toList();
+	}
+
+	private static List<Op> mix() {
+		List<Op> ops = new ArrayList<>();
+		for (String part : MIX.split(",")) {
+			String[] kv = part.trim().split("=");
+			int weight = Integer.parseInt(kv[1].trim());
+			if (weight > 0) ops.add(new Op(kv[0].trim(), weight));
+		}
+		return ops;
+	}
+
+	private void samplePools(Map<String, Sampled> pools) {
+		sample(pools, "hikari active", gauge("hikaricp.connections.active"));
+		sample(pools, "hikari pending", gauge("hikaricp.connections.pending"));
+		sample(pools, "ollama connections leased", gauge("ai.ollama.connections", "state", "leased"));
+		sample(pools, "ollama connections pending", gauge("ai.ollama.connections", "state", "pending"));
+		sample(pools, "ai limiter in flight", gauge("ai.limiter.in.flight"));
+		sample(pools, "ai limiter limit", gauge("ai.limiter.limit"));
+		sample(pools, "ai_runs writer queue", gauge("ai.runs.writer.queue"));
+	}
+
+	private static void sample(Map<String, Sampled> pools, String name, double value) {
+		pools.computeIfAbsent(name, k -> new Sampled()).add(value);
+	}
+
+	private double gauge(String name, String... tags) {
+		Gauge g = registry.find(name).tags(tags).gauge();
+		return g == null ? Double.NaN : g.value();
+	}
+
+	private Map<String, Double> counters() {
+		Map<String, Double> m = new TreeMap<>();
+		for (String name : List.of("ai.limiter.rejected", "ai.response.parse.failures", "ai.runs.writer.inline")) {
+			for (Counter c : registry.find(name).counters()) {
+				String tags = c.getId().getTags().stream()
+						.map(t -> t.getKey() + "=" + t.getValue()).reduce((a, b) -> a + "," + b).orElse("");
+				m.merge(name + (tags.isEmpty() ? "" : "{" + tags + "}"), c.count(), Double::sum);
+			}
+		}
+		return m;
+	}
+
+	private void report(List<Op> ops, double seconds, Map<String, Sampled> pools, Map<String, Double> countersBefore,
+						long stubCalls, long stubFailures) {
+		System.out.printf("%nLoad: %d req/s offered for %d s (after %d s warm-up); Ollama stub median %d ms, sigma %.2f, failure rate %.1f%%%n",
+				RPS, SECONDS, WARMUP_SECONDS, OLLAMA_MEDIAN_MS, OLLAMA_SIGMA, OLLAMA_FAILURE_RATE * 100);
+		System.out.printf("%-12s %8s %8s %8s %9s %9s %9s %9s  %s%n",
+				"operation", "done", "req/s", "error %", "p50 ms", "p95 ms", "p99 ms", "max ms", "outcomes");
+		Histogram all = new Histogram(MAX_LATENCY_MS, 3);
+		long allErrors = 0;
+		for (Op op : ops) {
+			Histogram h = op.latencyMs.copy();
+			all.add(h);
+			long n = h.getTotalCount();
+			long errors = op.count(false);
+			allErrors += errors;
+			System.out.printf("%-12s %8d %8.1f %8.2f %9d %9d %9d %9d  %s%n", op.name, n, n / seconds,
+					n == 0 ? 0.0 : 100.0 * errors / n, h.getValueAtPercentile(50), h.getValueAtPercentile(95),
+					h.getValueAtPercentile(99), h.getMaxValue(), new TreeMap<>(sums(op.outcomes)));
+		}
+		long n = all.getTotalCount();
+		System.out.printf("%-12s %8d %8.1f %8.2f %9d %9d %9d %9d%n", "all", n, n / seconds,
+				n == 0 ? 0.0 : 100.0 * allErrors / n, all.getValueAtPercentile(50), all.getValueAtPercentile(95),
+				all.getValueAtPercentile(99), all.getMaxValue());
+
+		System.out.printf("%nPools (sampled every 200 ms, warm-up included)   max       mean%n");
+		pools.forEach((name, s) -> {
+			if (s.samples > 0) System.out.printf("%-42s %9.0f %10.1f%n", name, s.max, s.sum / s.samples);
+		});
+
+		System.out.printf("%nWhole run, warm-up included: Ollama stub %d calls, %d failed on purpose%n", stubCalls, stubFailures);
+		counters().forEach((name, value) -> {
+			double delta = value - countersBefore.getOrDefault(name, 0.0);
+			if (delta > 0) System.out.printf("%-50s %8.0f%n", name, delta);
+		});
+	}
+
+	private static Map<String, Long> sums(Map<String, LongAdder> adders) {
+		Map<String, Long> m = new LinkedHashMap<>();
+		adders.forEach((k, v) -> m.put(k, v.sum()));
+		return m;
+	}
+}
@@ -0,0 +1,113 @@
+package com.infotrode.support_triage.ai;
+
+import com.infotrode.support_triage.ticket.Ticket;
+import com.infotrode.support_triage.ticket.TicketRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.micrometer.metrics.test.autoconfigure.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * What a Prometheus scrape sees after a ticket read, a triage and a triage the model botched.
+ * Tests get a plain in-memory registry unless they ask for the real exporters.
+ */
+@AutoConfigureMetrics
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"ai.cache.enabled=false",
+		"ai.jobs.workerEnabled=false"
+})
+class AiMetricsTests {
+
+	private static StubOllamaServer stub;
+
+	@DynamicPropertySource
+	static void ollama(DynamicPropertyRegistry registry) throws IOException {
+		stub = new StubOllamaServer(0);
+		registry.add("ai.ollama.baseUrl", stub::baseUrl);
+	}
+
+	@AfterAll
+	static void stopStub() {
+		if (stub != null) stub.close();
+	}
+
+	@LocalServerPort
+	int port;
+
+	@Autowired
+	TicketRepository ticketRepository;
+
+	private final HttpClient http = HttpClient.newHttpClient();
+
+	@Test
+	void scrapeCoversTheRequestPipeline() throws Exception {
+		Ticket t = new Ticket();
+		t.setSubject("Metrics test");
+		t.setRequesterEmail("metrics@example.com");
+		t.setBody("Cannot log in since this morning.");
+		long ticketId = ticketRepository.save(t).getId();
+
+		assertThat(send("GET", "/api/tickets/" + ticketId, null).statusCode()).isEqualTo(200);
+		assertThat(send("POST", "/api/ai/triage", "{\"ticketId\":" + ticketId + "}").statusCode()).isEqualTo(200);
+		stub.responseText("Sure! Here is the triage: category account");
+		try {
+			assertThat(send("POST", "/api/ai/triage", "{\"ticketId\":" + ticketId + "}").statusCode()).isEqualTo(502);
+		} finally {
+			stub.responseText(StubOllamaServer.TRIAGE_JSON);
+		}
+
+		HttpResponse<String> scrape = send("GET", "/actuator/prometheus", null);
+		assertThat(scrape.statusCode()).isEqualTo(200);
+		List<String> lines = Arrays.asList(scrape.body().split("\n"));
+
+		// both calls reached the model; the second answer just wasn't JSON
+		assertThat(sample(lines, "ai_ollama_requests_seconds_count", "operation=\"TRIAGE\"", "mode=\"blocking\"",
+				"model=\"llama3.2\"", "outcome=\"success\"")).isGreaterThanOrEqualTo(2);
+		assertThat(sample(lines, "ai_ollama_requests_seconds_bucket", "operation=\"TRIAGE\"", "outcome=\"success\"",
+				"le=\"+Inf\"")).isGreaterThanOrEqualTo(2);
+		assertThat(sample(lines, "ai_response_parse_failures_total", "operation=\"TRIAGE\"")).isGreaterThanOrEqualTo(1);
+
+		assertThat(sample(lines, "http_server_requests_seconds_count", "uri=\"/api/ai/triage\"", "status=\"200\""))
+				.isGreaterThanOrEqualTo(1);
+		assertThat(sample(lines, "http_server_requests_seconds_bucket", "uri=\"/api/tickets/{id}\"", "le=\"+Inf\""))
+				.isGreaterThanOrEqualTo(1);
+
+		assertThat(sample(lines, "hikaricp_connections_max")).isPositive();
+		assertThat(sample(lines, "hikaricp_connections_active")).isGreaterThanOrEqualTo(0);
+		assertThat(sample(lines, "hikaricp_connections_pending")).isGreaterThanOrEqualTo(0);
+	}
+
+	/** Sum of the samples of {@code metric} whose labels contain every fragment; -1 if there are none. */
+	private static double sample(List<String> lines, String metric, String... labels) {
+		double sum = 0;
+		boolean found = false;
+		for (String line : lines) {
+			if (!line.startsWith(metric + "{") && !line.startsWith(metric + " ")) continue;
+			if (!Arrays.stream(labels).allMatch(line::contains)) continue;
+			sum += Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+			found = true;
+		}
+		return found ? sum : -1;
+	}
+
+	private HttpResponse<String> send(String method, String path, String json) throws Exception {
+		HttpRequest.Builder req = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+		if (json == null) req.method(method, HttpRequest.BodyPublishers.noBody());
+		else req.method(method, HttpRequest.BodyPublishers.ofString(json)).header("Content-Type", "application/json");
+		return http.send(req.build(), HttpResponse.BodyHandlers.ofString());
+	}
+}
@@ -0,0 +1,132 @@
+package com.infotrode.support_triage.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infotrode.support_triage.ai.dto.AiReplyDraftResponse;
+import com.infotrode.support_triage.ai.dto.AiTriageSuggestion;
+import com.infotrode.support_triage.ticket.Ticket;
+import com.infotrode.support_triage.ticket.TicketRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+		"ai.cache.enabled=false",
+		"ai.jobs.workerEnabled=false"
+})
+class AiRequestCoalescerTests {
+
+	private static final String TRIAGE_JSON = """
+			{"category":"account","priority":"HIGH","tags":["auth","login"],
+			 "rationale":"Login is blocked for the user.",
+			 "entities":{"requesterEmail":"","orderId":"","product":"","errorCode":""}}""";
+
+	private static final String REPLY_JSON = """
+			{"draft":"Thanks for reaching out, we are looking into the login problem now."}""";
+
+	@MockitoBean
+	OllamaClient ollama;
+
+	@Autowired
+	AiTriageService triageService;
+
+	@Autowired
+	AiReplyDraftService replyService;
+
+	@Autowired
+	AiRequestCoalescer coalescer;
+
+	@Autowired
+	TicketRepository ticketRepository;
+
+	@Autowired
+	ObjectMapper om;
+
+	@Test
+	void concurrentIdenticalTriagesShareOneGeneration() throws Exception {
+		long ticketId = ticket();
+		AtomicInteger generations = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		when(ollama.generateJson(anyString(), anyString(), anyString(), any())).thenAnswer(inv -> {
+			generations.incrementAndGet();
+			release.await(10, TimeUnit.SECONDS);
+			return om.createObjectNode().put("response", TRIAGE_JSON).put("done", true);
+		});
+
+		ExecutorService pool = Executors.newFixedThreadPool(5);
+		try {
+			List<Future<AiTriageSuggestion>> calls = new ArrayList<>();
+			for (int i = 0; i < 5; i++) {
+				calls.add(pool.submit(() -> triageService.triage(ticketId)));
+			}
+			waitUntil(() -> generations.get() == 1);
+			Thread.sleep(200); // let the duplicates attach
+			release.countDown();
+
+			List<Long> runIds = new ArrayList<>();
+			for (Future<AiTriageSuggestion> f : calls) runIds.add(f.get(10, TimeUnit.SECONDS).aiRunId());
+
+			assertThat(generations).hasValue(1);
+			assertThat(runIds).containsOnly(runIds.get(0));
+			assertThat(coalescer.inFlight()).isZero();
+		} finally {
+			release.countDown();
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void differentTonesAreNotCoalesced() throws Exception {
+		long ticketId = ticket();
+		AtomicInteger generations = new AtomicInteger();
+		CountDownLatch bothStarted = new CountDownLatch(2);
+		when(ollama.generateJson(anyString(), anyString(), anyString(), any())).thenAnswer(inv -> {
+			generations.incrementAndGet();
+			bothStarted.countDown();
+			bothStarted.await(10, TimeUnit.SECONDS);
+			return om.createObjectNode().put("response", REPLY_JSON).put("done", true);
+		});
+
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			Future<AiReplyDraftResponse> empathetic = pool.submit(() -> replyService.draftReply(ticketId, ReplyTone.EMPATHETIC));
+			Future<AiReplyDraftResponse> concise = pool.submit(() -> replyService.draftReply(ticketId, ReplyTone.CONCISE));
+
+			assertThat(empathetic.get(10, TimeUnit.SECONDS).aiRunId())
+					.isNotEqualTo(concise.get(10, TimeUnit.SECONDS).aiRunId());
+			assertThat(generations).hasValue(2);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private long ticket() {
+		Ticket t = new Ticket();
+		t.setSubject("Coalesce test " + UUID.randomUUID());
+		t.setRequesterEmail("coalesce@example.com");
+		t.setBody("Cannot log in since this morning.");
+		return ticketRepository.save(t).getId();
+	}
+
+	private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!condition.getAsBoolean() && System.nanoTime() < deadline) Thread.sleep(10);
+		assertThat(condition.getAsBoolean()).isTrue();
+	}
+}
@@ -0,0 +1,190 @@
+package com.infotrode.support_triage.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infotrode.support_triage.ticket.Ticket;
+import com.infotrode.support_triage.ticket.TicketRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "ai.jobs.workerEnabled=false")
+class AiResponseCacheTests {
+
+	private static StubOllamaServer stub;
+
+	@DynamicPropertySource
+	static void ollama(DynamicPropertyRegistry registry) throws IOException {
+		stub = new StubOllamaServer(0);
+		registry.add("ai.ollama.baseUrl", stub::baseUrl);
+	}
+
+	@AfterAll
+	static void stopStub() {
+		if (stub != null) stub.close();
+	}
+
+	@Autowired
+	AiResponseCache cache;
+
+	@Autowired
+	AiCacheEndpoint endpoint;
+
+	@Autowired
+	AiTriageService triage;
+
+	@Autowired
+	AiRunRecorder recorder;
+
+	@Autowired
+	AiRunWriter writer;
+
+	@Autowired
+	OllamaClient ollama;
+
+	@Autowired
+	AiMetrics metrics;
+
+	@Autowired
+	AiRunRepository aiRuns;
+
+	@Autowired
+	TicketRepository tickets;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@Autowired
+	ObjectMapper om;
+
+	@Test
+	void keyDependsOnTheInputsOnly() throws Exception {
+		String k = cache.key("llama3.2", "triage-v3", "system", "prompt");
+		assertThat(k).hasSize(64).isEqualTo(cache.key("llama3.2", "triage-v3", "system", "prompt"));
+		assertThat(cache.key("llama3.2", "triage-v3", null, "prompt")).isEqualTo(cache.key("llama3.2", "triage-v3", "", "prompt"));
+		assertThat(cache.key("llama3.2", "triage-v3", "systemp", "rompt")).isNotEqualTo(k);
+		assertThat(cache.key("llama3.2", "triage-v4", "system", "prompt")).isNotEqualTo(k);
+
+		// the same ticket twice: one key; saving it unchanged keeps the key, editing the body does not
+		Ticket t = tickets.save(ticket());
+		triage.triage(t.getId());
+		tickets.save(t);
+		triage.triage(t.getId());
+		t.setBody(t.getBody() + " Still broken.");
+		tickets.save(t);
+		triage.triage(t.getId());
+		assertThat(writer.flush(Duration.ofSeconds(10))).isTrue();
+
+		List<String> keys = jdbc.queryForList(
+				"select cache_key from ai_runs where ticket_id = ? order by id", String.class, t.getId());
+		assertThat(keys).hasSize(3);
+		assertThat(keys.get(1)).isEqualTo(keys.get(0));
+		assertThat(keys.get(2)).isNotEqualTo(keys.get(0));
+	}
+
+	@Test
+	void memoryTierExpiresAndEvictsTheLeastRecentlyUsed() {
+		AiCacheProperties props = new AiCacheProperties();
+		props.setMaxEntries(2);
+		props.setTtlMinutes(1);
+		props.setPersistent(false);
+		AtomicLong now = new AtomicLong();
+		AiResponseCache small = new AiResponseCache(ollama, metrics, aiRuns, props, new SimpleMeterRegistry(), now::get);
+
+		small.remember("a", "{\"n\":1}", 100);
+		small.remember("b", "{\"n\":2}", 100);
+		assertThat(small.lookup("a")).isPresent(); // a is now the most recently used
+		small.remember("c", "{\"n\":3}", 100);
+
+		assertThat(small.lookup("b")).isEmpty();
+		assertThat(small.lookup("a")).isPresent();
+		assertThat(small.lookup("c")).get().extracting(AiResponseCache.Hit::tier).isEqualTo(AiResponseCache.TIER_MEMORY);
+
+		now.addAndGet(TimeUnit.SECONDS.toNanos(59));
+		assertThat(small.lookup("a")).isPresent();
+		now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+		assertThat(small.lookup("a")).isEmpty();
+		assertThat(small.lookup("c")).isEmpty();
+		assertThat(small.stats()).containsEntry("entries", 0).containsEntry("misses", 3L);
+	}
+
+	@Test
+	void persistentTierAnswersOnceMemoryIsClearedAndHitsAreRecorded() throws Exception {
+		long ticketId = tickets.save(ticket()).getId();
+		long calls = stub.requests();
+
+		triage.triage(ticketId);
+		assertThat(stub.requests()).isEqualTo(calls + 1);
+		assertThat(writer.flush(Duration.ofSeconds(10))).isTrue();
+
+		endpoint.clear();
+		assertThat(endpoint.stats()).containsEntry("entries", 0);
+		Map<String, Object> before = endpoint.stats();
+
+		triage.triage(ticketId); // from ai_runs
+		triage.triage(ticketId); // from memory again
+		assertThat(stub.requests()).isEqualTo(calls + 1);
+		assertThat(writer.flush(Duration.ofSeconds(10))).isTrue();
+
+		Map<String, Object> after = endpoint.stats();
+		assertThat((long) after.get("persistentHits")).isEqualTo((long) before.get("persistentHits") + 1);
+		assertThat((long) after.get("memoryHits")).isEqualTo((long) before.get("memoryHits") + 1);
+		assertThat((long) after.get("savedLatencyMs")).isGreaterThanOrEqualTo((long) before.get("savedLatencyMs"));
+		assertThat((int) after.get("entries")).isPositive();
+
+		List<Map<String, Object>> runs = jdbc.queryForList(
+				"select cache_key, cache_hit, status from ai_runs where ticket_id = ? order by id", ticketId);
+		assertThat(runs).extracting(r -> r.get("cache_hit")).containsExactly(false, true, true);
+		assertThat(runs).extracting(r -> r.get("status")).containsOnly("SUCCESS");
+		assertThat(runs).extracting(r -> r.get("cache_key")).containsOnly(runs.get(0).get("cache_key"));
+	}
+
+	@Test
+	void rebuildKeysRunsWrittenWithoutAKey() throws Exception {
+		long ticketId = tickets.save(ticket()).getId();
+		String prompt = "Ticket " + UUID.randomUUID();
+
+		AiRun run = new AiRun();
+		run.setTicketId(ticketId);
+		run.setType("TRIAGE");
+		run.setProvider("ollama");
+		run.setModel("llama3.2");
+		run.setPromptVersion("triage-v3");
+		Map<String, Object> input = new LinkedHashMap<>();
+		input.put("system", "You triage tickets.");
+		input.put("prompt", prompt);
+		run.setInputJson(om.valueToTree(input));
+		run.setOutputJson(om.readTree(StubOllamaServer.TRIAGE_JSON));
+		run.setLatencyMs(900);
+		long id = recorder.record(run).getId();
+		assertThat(writer.flush(Duration.ofSeconds(10))).isTrue();
+
+		assertThat((int) endpoint.rebuild().get("keyed")).isGreaterThanOrEqualTo(1);
+		String key = cache.key("llama3.2", "triage-v3", "You triage tickets.", prompt);
+		assertThat(jdbc.queryForObject("select cache_key from ai_runs where id = ?", String.class, id)).isEqualTo(key);
+		assertThat(cache.lookup(key)).get().extracting(AiResponseCache.Hit::tier).isEqualTo(AiResponseCache.TIER_PERSISTENT);
+	}
+
+	private static Ticket ticket() {
+		Ticket t = new Ticket();
+		t.setSubject("Cache test");
+		t.setRequesterEmail("cache@example.com");
+		t.setBody("Error 401 on login, ref " + UUID.randomUUID() + ".");
+		return t;
+	}
+}
@@ -0,0 +1,104 @@
+package com.infotrode.support_triage.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infotrode.support_triage.ticket.Ticket;
+import com.infotrode.support_triage.ticket.TicketRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "ai.jobs.workerEnabled=false")
+class AiRunStatsTests {
+
+	@Autowired
+	AiRunStats stats;
+
+	@Autowired
+	AiRunRecorder recorder;
+
+	@Autowired
+	TicketRepository tickets;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@Autowired
+	ObjectMapper om;
+
+	@Test
+	void seedsFromRecentRunsAndAddsNewOnes() {
+		String model = "stats-" + UUID.randomUUID();
+		long ticketId = ticket();
+		Instant now = Instant.now();
+		for (int latency : List.of(1000, 2000, 3000, 4000)) {
+			insert(ticketId, model, "SUCCESS", latency, false, now.minus(10, ChronoUnit.MINUTES));
+		}
+		insert(ticketId, model, "SUCCESS", 50, true, now.minus(10, ChronoUnit.MINUTES)); // cache hit: left out
+		insert(ticketId, model, "SUCCESS", 9000, false, now.minus(3, ChronoUnit.HOURS)); // outside the window
+		stats.seed(now);
+
+		recorder.recordFailure(run(ticketId, model, AiRun.Status.ERROR, null));
+		recorder.record(run(ticketId, model, AiRun.Status.SUCCESS, 5000));
+		stats.rotate();
+
+		Map<String, Object> ok = slice(stats.stats(null), model, "SUCCESS");
+		assertThat(ok.get("runs")).isEqualTo(5L);
+		assertThat(ok.get("errorRate")).isEqualTo(1 / 6.0);
+		@SuppressWarnings("unchecked")
+		Map<String, Object> latency = (Map<String, Object>) ok.get("latencyMs");
+		assertThat((Long) latency.get("p50")).isBetween(2900L, 3100L);
+		assertThat((Long) latency.get("max")).isBetween(4950L, 5050L);
+
+		Map<String, Object> failed = slice(stats.stats(null), model, "ERROR");
+		assertThat(failed.get("runs")).isEqualTo(1L);
+		assertThat(failed).doesNotContainKey("latencyMs");
+
+		// the seeded runs are 10 minutes old
+		assertThat(slice(stats.stats(5), model, "SUCCESS").get("runs")).isEqualTo(1L);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> slice(Map<String, Object> stats, String model, String status) {
+		return ((List<Map<String, Object>>) stats.get("slices")).stream()
+				.filter(s -> model.equals(s.get("model")) && status.equals(s.get("status")))
+				.findFirst().orElseThrow();
+	}
+
+	private void insert(long ticketId, String model, String status, int latencyMs, boolean cacheHit, Instant at) {
+		jdbc.update("""
+				insert into ai_runs (ticket_id, type, provider, model, prompt_version, input_json, latency_ms, status, cache_hit, created_at)
+				values (?, 'TRIAGE', 'ollama', ?, 'triage-v3', '{}', ?, ?, ?, ?)
+				""", ticketId, model, latencyMs, status, cacheHit, at.atOffset(ZoneOffset.UTC));
+	}
+
+	private AiRun run(long ticketId, String model, AiRun.Status status, Integer latencyMs) {
+		AiRun run = new AiRun();
+		run.setTicketId(ticketId);
+		run.setType("TRIAGE");
+		run.setProvider("ollama");
+		run.setModel(model);
+		run.setPromptVersion("triage-v3");
+		run.setInputJson(om.createObjectNode());
+		run.setStatus(status);
+		run.setLatencyMs(latencyMs);
+		return run;
+	}
+
+	private long ticket() {
+		Ticket t = new Ticket();
+		t.setSubject("Stats test");
+		t.setRequesterEmail("stats@example.com");
+		t.setBody("Body");
+		return tickets.save(t).getId();
+	}
+}
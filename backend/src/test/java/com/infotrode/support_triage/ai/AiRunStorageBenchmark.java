@@ -0,0 +1,157 @@
+package com.infotrode.support_triage.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Writes {@code bench.tickets} tickets (default 5000) with a triage, summary and reply-draft run
+ * each, shaped like the AI services' input_json, into two months of 2001 with identical content.
+ * Reports what the inputs take whole against compacted (row plus the blobs they added), and how
+ * long it takes to get rid of a month by DELETE versus DETACH + DROP of its partition.
+ *
+ * Not part of the regular build; run with {@code mvn test -Dtest=AiRunStorageBenchmark} (needs the database).
+ */
+@SpringBootTest(properties = "ai.jobs.workerEnabled=false")
+class AiRunStorageBenchmark {
+
+	private static final int TICKETS = Integer.getInteger("bench.tickets", 5000);
+	private static final String EMAIL = "runs@storage.bench.invalid";
+	private static final String MARKER = "storage-bench";
+	private static final String SYSTEM = ("You are a support triage assistant for a B2B invoicing product. "
+			+ "Classify the ticket, estimate its priority, suggest tags and explain your reasoning briefly. "
+			+ "Answer with a single JSON object matching the schema and nothing else. ").repeat(6);
+	private static final Map<String, Object> SCHEMA = Map.of("type", "object",
+			"required", List.of("category", "priority", "tags", "rationale"),
+			"properties", Map.of(
+					"category", Map.of("type", "string", "enum", List.of("BILLING", "BUG", "ACCOUNT", "HOW_TO", "OTHER")),
+					"priority", Map.of("type", "string", "enum", List.of("LOW", "MEDIUM", "HIGH", "URGENT")),
+					"tags", Map.of("type", "array", "items", Map.of("type", "string")),
+					"rationale", Map.of("type", "string")));
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@Autowired
+	ObjectMapper om;
+
+	@AfterEach
+	void cleanUp() {
+		jdbc.update("delete from tickets where requester_email = ?", EMAIL); // cascades to ai_runs
+		jdbc.execute("drop table if exists ai_runs_2001_03");
+		jdbc.execute("drop table if exists ai_runs_2001_04");
+		jdbc.update("delete from ai_prompt_blobs where content::text like ?", "%" + MARKER + "%");
+	}
+
+	@Test
+	void blobsShrinkRunsAndMonthsDropCheaply() throws Exception {
+		jdbc.queryForObject("select ai_runs_create_partitions('2001-03-01T00:00:00Z', '2001-05-01T00:00:00Z')", Integer.class);
+		long blobBytesBefore = blobBytes();
+
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < TICKETS; i++) {
+			String body = ("Ticket " + i + " (" + MARKER + "): since the upgrade the monthly invoice export stops at 80% "
+					+ "and the browser shows a gateway timeout. We have tried other browsers and a smaller date range. ").repeat(8);
+			Long ticketId = jdbc.queryForObject("""
+					insert into tickets (subject, body, requester_email, status, priority, created_at, updated_at)
+					values (?, ?, ?, 'OPEN', 'MEDIUM', now(), now()) returning id
+					""", Long.class, "Export times out " + i, body, EMAIL);
+			for (String type : List.of("TRIAGE", "SUMMARY", "REPLY_DRAFT")) {
+				String input = om.writeValueAsString(input(ticketId, type, body));
+				for (String month : List.of("2001-03-10T00:00:00Z", "2001-04-10T00:00:00Z")) {
+					rows.add(new Object[] {ticketId, type, input, Timestamp.from(Instant.parse(month).plusSeconds(i))});
+				}
+			}
+			if (rows.size() >= 3000) flush(rows);
+		}
+		flush(rows);
+
+		Map<String, Object> sizes = jdbc.queryForMap("""
+				select count(*) as runs,
+				       sum(pg_column_size(ai_input_expand(input_json))) as whole,
+				       sum(pg_column_size(input_json)) as compacted
+				from ai_runs where created_at >= '2001-03-01T00:00:00Z' and created_at < '2001-05-01T00:00:00Z'
+				""");
+		long runs = ((Number) sizes.get("runs")).longValue();
+		long whole = ((Number) sizes.get("whole")).longValue();
+		long compacted = ((Number) sizes.get("compacted")).longValue() + blobBytes() - blobBytesBefore;
+
+		// settle autovacuum first: dropping the partition's foreign key briefly locks tickets as well
+		jdbc.execute("vacuum analyze tickets");
+		jdbc.execute("vacuum analyze ai_runs_2001_03");
+		jdbc.execute("vacuum analyze ai_runs_2001_04");
+		String lsn = walPosition();
+		long start = System.nanoTime();
+		int deleted = jdbc.update("delete from ai_runs where created_at >= '2001-03-01T00:00:00Z' and created_at < '2001-04-01T00:00:00Z'");
+		jdbc.execute("vacuum ai_runs_2001_03");
+		double deleteMs = (System.nanoTime() - start) / 1e6;
+		long deleteWal = walSince(lsn);
+		long leftBehind = jdbc.queryForObject("select pg_total_relation_size('ai_runs_2001_03')", Long.class);
+
+		lsn = walPosition();
+		start = System.nanoTime();
+		jdbc.execute("alter table ai_runs detach partition ai_runs_2001_04");
+		double detachMs = (System.nanoTime() - start) / 1e6;
+		jdbc.execute("drop table ai_runs_2001_04");
+		double dropMs = (System.nanoTime() - start) / 1e6 - detachMs;
+		long dropWal = walSince(lsn);
+
+		System.out.printf("%d runs over %d tickets%n", runs, TICKETS);
+		System.out.printf("  input_json: %.1f KB per run whole, %.1f KB compacted including new blobs (%.1fx smaller)%n",
+				whole / 1024.0 / runs, compacted / 1024.0 / runs, whole / (double) compacted);
+		System.out.printf("  one month (%d runs):%n", deleted);
+		System.out.printf("    DELETE + VACUUM %.0f ms, %.1f MB of WAL, %.1f MB still allocated to the emptied partition%n",
+				deleteMs, deleteWal / 1048576.0, leftBehind / 1048576.0);
+		System.out.printf("    DETACH %.0f ms + DROP %.0f ms (file removal), %.1f MB of WAL, nothing left behind%n",
+				detachMs, dropMs, dropWal / 1048576.0);
+		assertThat(compacted).isLessThan(whole);
+	}
+
+	private void flush(List<Object[]> rows) {
+		jdbc.batchUpdate("""
+				insert into ai_runs (ticket_id, type, provider, model, prompt_version, input_json, created_at)
+				values (?, ?, 'ollama', 'llama3.2', 'v1', ?::jsonb, ?)
+				""", rows);
+		rows.clear();
+	}
+
+	private String walPosition() {
+		return jdbc.queryForObject("select pg_current_wal_lsn()::text", String.class);
+	}
+
+	private long walSince(String lsn) {
+		return jdbc.queryForObject("select pg_wal_lsn_diff(pg_current_wal_lsn(), ?::pg_lsn)::bigint", Long.class, lsn);
+	}
+
+	private long blobBytes() {
+		return jdbc.queryForObject("select coalesce(sum(pg_column_size(content) + 64), 0) from ai_prompt_blobs", Long.class);
+	}
+
+	private static Map<String, Object> input(long ticketId, String type, String body) {
+		Map<String, Object> snapshot = new LinkedHashMap<>();
+		snapshot.put("id", ticketId);
+		snapshot.put("subject", "Export times out");
+		snapshot.put("body", body);
+		snapshot.put("status", "OPEN");
+		snapshot.put("priority", "MEDIUM");
+		snapshot.put("tags", List.of("export", "invoices"));
+		Map<String, Object> payload = new LinkedHashMap<>();
+		payload.put("system", SYSTEM + type);
+		payload.put("prompt", "Subject: Export times out\nRequester: " + EMAIL + "\n\n" + body);
+		payload.put("schema", SCHEMA);
+		payload.put("ticketSnapshot", snapshot);
+		return payload;
+	}
+}
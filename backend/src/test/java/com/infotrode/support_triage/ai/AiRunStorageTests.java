@@ -0,0 +1,219 @@
+package com.infotrode.support_triage.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infotrode.support_triage.ticket.Ticket;
+import com.infotrode.support_triage.ticket.TicketRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "ai.jobs.workerEnabled=false")
+class AiRunStorageTests {
+
+	@Autowired
+	AiRunRecorder recorder;
+
+	@Autowired
+	AiRunWriter writer;
+
+	@Autowired
+	AiRunRepository runs;
+
+	@Autowired
+	TicketRepository tickets;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@Autowired
+	TransactionTemplate tx;
+
+	@Autowired
+	ObjectMapper om;
+
+	@Test
+	void promptPartsAreStoredOnceAndReadBackWhole() throws Exception {
+		long ticketId = ticket();
+		JsonNode input = input(ticketId);
+		long first = recorder.record(run(ticketId, input)).getId();
+		assertThat(writer.flush(Duration.ofSeconds(10))).isTrue();
+		long blobs = blobCount();
+		long second = recorder.record(run(ticketId, input)).getId();
+		assertThat(writer.flush(Duration.ofSeconds(10))).isTrue();
+
+		assertThat(blobCount()).isEqualTo(blobs); // nothing new the second time
+		JsonNode stored = om.readTree(jdbc.queryForObject("select input_json::text from ai_runs where id = ?", String.class, second));
+		for (String field : List.of("system", "prompt", "schema", "ticketSnapshot")) {
+			assertThat(stored.path(field).path("$blob").asText()).hasSize(64);
+		}
+		assertThat(stored.path("tone").asText()).isEqualTo("CONCISE"); // short values stay inline
+		assertThat(om.readTree(jdbc.queryForObject("select input_json::text from ai_runs where id = ?", String.class, first)))
+				.isEqualTo(stored); // same references
+
+		JsonNode expanded = om.readTree(jdbc.queryForObject(
+				"select ai_input_expand(input_json)::text from ai_runs where id = ?", String.class, second));
+		assertThat(expanded).isEqualTo(om.readTree(input.toString()));
+
+		// the cache rebuild reads unkeyed runs whole
+		AiRunRepository.UnkeyedRun unkeyed = runs.findUnkeyedAfter(first - 1).stream()
+				.filter(r -> r.getId() == first).findFirst().orElseThrow();
+		assertThat(unkeyed.getSystem()).isEqualTo(input.get("system").asText());
+		assertThat(unkeyed.getPrompt()).isEqualTo(input.get("prompt").asText());
+	}
+
+	@Test
+	void maintenanceDropsExpiredMonthsAndUnusedBlobs() throws Exception {
+		long ticketId = ticket();
+		recorder.record(run(ticketId, input(ticketId))); // keeps the current blobs referenced
+		assertThat(writer.flush(Duration.ofSeconds(10))).isTrue();
+		jdbc.queryForObject("select ai_runs_create_partitions('1990-01-10T00:00:00Z', '1990-01-20T00:00:00Z')", Integer.class);
+		jdbc.update("""
+				insert into ai_runs (ticket_id, type, provider, model, prompt_version, input_json, created_at)
+				values (?, 'TRIAGE', 'ollama', 'llama3.2', 'triage-v3', '{}', '1990-01-15T00:00:00Z')
+				""", ticketId);
+		jdbc.update("""
+				insert into ai_prompt_blobs (hash, content, last_used_at)
+				values (repeat('0', 64), '"orphan"', '1980-01-01T00:00:00Z') on conflict (hash) do nothing
+				""");
+
+		// retention reaching just past January 1990, so no real month is touched
+		Instant now = Instant.now();
+		AiRunsProperties props = new AiRunsProperties();
+		props.setRetentionDays((int) Duration.between(Instant.parse("1990-02-02T00:00:00Z"), now).toDays());
+		AiRunMaintenance.Result result = runMaintenance(new AiRunMaintenance(jdbc, tx, props), now);
+
+		assertThat(result.partitionsDropped()).containsExactly("ai_runs_1990_01");
+		assertThat(jdbc.queryForObject("select to_regclass('ai_runs_1990_01') is null", Boolean.class)).isTrue();
+		assertThat(jdbc.queryForObject("select count(*) from ai_prompt_blobs where hash = repeat('0', 64)", Long.class)).isZero();
+		String ahead = "ai_runs_" + YearMonth.from(now.atOffset(ZoneOffset.UTC)).plusMonths(3).toString().replace('-', '_');
+		assertThat(jdbc.queryForObject("select to_regclass(?) is not null", Boolean.class, ahead)).isTrue();
+	}
+
+	@Test
+	void aBlobReusedWhileMaintenanceRunsIsKept() throws Exception {
+		long ticketId = ticket();
+		String old = om.writeValueAsString("A system prompt nobody has used for a long time. ".repeat(4));
+		jdbc.update("""
+				insert into ai_prompt_blobs (hash, content, last_used_at)
+				values (encode(sha256(convert_to(?::jsonb::text, 'UTF8')), 'hex'), ?::jsonb, '1980-01-01T00:00:00Z')
+				on conflict (hash) do update set last_used_at = excluded.last_used_at
+				""", old, old);
+		AiRunMaintenance maintenance = new AiRunMaintenance(jdbc, tx, new AiRunsProperties());
+
+		// a run picks the blob up again and has not committed when maintenance comes by
+		tx.executeWithoutResult(s -> {
+			jdbc.update("""
+					insert into ai_runs (ticket_id, type, provider, model, prompt_version, input_json)
+					values (?, 'TRIAGE', 'ollama', 'llama3.2', 'triage-v3', jsonb_build_object('system', ?::jsonb))
+					""", ticketId, old);
+			CompletableFuture<AiRunMaintenance.Result> pass =
+					CompletableFuture.supplyAsync(() -> runMaintenance(maintenance, Instant.now()));
+			try {
+				pass.get(10, TimeUnit.SECONDS);
+			} catch (Exception e) {
+				throw new AssertionError("maintenance waited for the run's transaction", e);
+			}
+		});
+
+		assertThat(jdbc.queryForObject("""
+				select last_used_at > now() - interval '1 minute' from ai_prompt_blobs
+				where hash = encode(sha256(convert_to(?::jsonb::text, 'UTF8')), 'hex')
+				""", Boolean.class, old)).isTrue();
+		assertThat(jdbc.queryForObject("""
+				select ai_input_expand(input_json) -> 'system' = ?::jsonb from ai_runs
+				where ticket_id = ? order by id desc limit 1
+				""", Boolean.class, old, ticketId)).isTrue();
+	}
+
+	@Test
+	void runsSharingABlobDoNotWaitForEachOther() throws Exception {
+		long ticketId = ticket();
+		String shared = om.writeValueAsString("A system prompt every run uses. ".repeat(8));
+		String insert = """
+				insert into ai_runs (ticket_id, type, provider, model, prompt_version, input_json)
+				values (?, 'TRIAGE', 'ollama', 'llama3.2', 'triage-v3', jsonb_build_object('system', ?::jsonb))
+				""";
+		jdbc.update(insert, ticketId, shared);
+
+		tx.executeWithoutResult(s -> {
+			jdbc.update(insert, ticketId, shared); // holds its lock on the blob until the end
+			CompletableFuture<Integer> other = CompletableFuture.supplyAsync(() -> jdbc.update(insert, ticketId, shared));
+			try {
+				assertThat(other.get(10, TimeUnit.SECONDS)).isEqualTo(1);
+			} catch (Exception e) {
+				throw new AssertionError("a run waited for another run's lock on a shared blob", e);
+			}
+		});
+		assertThat(jdbc.queryForObject("select count(*) from ai_runs where ticket_id = ?", Long.class, ticketId)).isEqualTo(3);
+	}
+
+	/** One pass; the startup pass may hold the lock for a moment. */
+	private AiRunMaintenance.Result runMaintenance(AiRunMaintenance maintenance, Instant now) {
+		AiRunMaintenance.Result result = maintenance.run(now);
+		for (int i = 0; i < 50 && result.skipped(); i++) {
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+			result = maintenance.run(now);
+		}
+		assertThat(result.skipped()).isFalse();
+		return result;
+	}
+
+	private long ticket() {
+		Ticket t = new Ticket();
+		t.setSubject("Cannot export invoices");
+		t.setRequesterEmail("runs@example.com");
+		t.setBody("Since this morning the invoice export fails with a timeout. ".repeat(5));
+		return tickets.save(t).getId();
+	}
+
+	/** Shaped like the AI services' input_json. */
+	private JsonNode input(long ticketId) {
+		Map<String, Object> snapshot = new LinkedHashMap<>();
+		snapshot.put("id", ticketId);
+		snapshot.put("subject", "Cannot export invoices");
+		snapshot.put("body", "Since this morning the invoice export fails with a timeout. ".repeat(5));
+		snapshot.put("tags", List.of());
+		Map<String, Object> payload = new LinkedHashMap<>();
+		payload.put("system", "You are a support triage assistant. Answer with JSON only. ".repeat(4));
+		payload.put("prompt", "Ticket " + ticketId + ": Since this morning the invoice export fails with a timeout. ".repeat(5));
+		payload.put("schema", Map.of("type", "object", "required", List.of("category", "priority", "tags", "rationale"),
+				"properties", Map.of("category", Map.of("type", "string"), "priority", Map.of("type", "string"))));
+		payload.put("ticketSnapshot", snapshot);
+		payload.put("tone", "CONCISE");
+		return om.valueToTree(payload);
+	}
+
+	private static AiRun run(long ticketId, JsonNode input) {
+		AiRun run = new AiRun();
+		run.setTicketId(ticketId);
+		run.setType("REPLY_DRAFT");
+		run.setProvider("ollama");
+		run.setModel("llama3.2");
+		run.setPromptVersion("reply-v1");
+		run.setInputJson(input);
+		return run;
+	}
+
+	private long blobCount() {
+		return jdbc.queryForObject("select count(*) from ai_prompt_blobs", Long.class);
+	}
+}
@@ -0,0 +1,127 @@
+package com.infotrode.support_triage.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@value #THREADS} request threads each recording {@code bench.runs} / {@value #THREADS} runs with
+ * ~5 KB of input_json, once written on the caller's thread (what every AI response used to wait
+ * for) and once through the write-behind queue. Reports what recording costs the caller and how
+ * long until every row is in the table.
+ *
+ * Not part of the regular build; run with {@code mvn test -Dtest=AiRunWriterBenchmark} (needs the database).
+ */
+@SpringBootTest(properties = "ai.jobs.workerEnabled=false")
+class AiRunWriterBenchmark {
+
+	private static final int RUNS = Integer.getInteger("bench.runs", 20_000);
+	private static final int THREADS = 16;
+	private static final String EMAIL = "runs@writer.bench.invalid";
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@Autowired
+	TransactionTemplate tx;
+
+	@Autowired
+	ObjectMapper om;
+
+	@AfterEach
+	void cleanUp() {
+		jdbc.update("delete from tickets where requester_email = ?", EMAIL); // cascades to ai_runs
+		jdbc.update("delete from ai_prompt_blobs where content::text like ?", "%" + EMAIL + "%");
+	}
+
+	@Test
+	void recordingLeavesTheRequestPath() throws Exception {
+		long ticketId = jdbc.queryForObject("""
+				insert into tickets (subject, body, requester_email, status, priority)
+				values ('Writer benchmark', 'Body', ?, 'OPEN', 'MEDIUM') returning id
+				""", Long.class, EMAIL);
+
+		for (boolean writeBehind : List.of(false, true, false, true)) { // first pair warms up
+			AiRunsProperties props = new AiRunsProperties();
+			props.setWriteBehind(writeBehind);
+			AiRunWriter writer = new AiRunWriter(jdbc, tx, om, props, new SimpleMeterRegistry());
+			writer.start();
+
+			ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+			List<Future<double[]>> parts = new ArrayList<>();
+			long start = System.nanoTime();
+			for (int t = 0; t < THREADS; t++) {
+				int thread = t;
+				parts.add(pool.submit(() -> {
+					double[] ms = new double[RUNS / THREADS];
+					for (int i = 0; i < ms.length; i++) {
+						AiRun run = run(ticketId, thread * ms.length + i);
+						long s = System.nanoTime();
+						writer.submit(run);
+						ms[i] = (System.nanoTime() - s) / 1e6;
+					}
+					return ms;
+				}));
+			}
+			double[] all = new double[0];
+			for (Future<double[]> f : parts) {
+				double[] ms = f.get();
+				int n = all.length;
+				all = Arrays.copyOf(all, n + ms.length);
+				System.arraycopy(ms, 0, all, n, ms.length);
+			}
+			double handedOver = (System.nanoTime() - start) / 1e6;
+			assertThat(writer.flush(Duration.ofMinutes(5))).isTrue();
+			double written = (System.nanoTime() - start) / 1e6;
+			writer.stop();
+			pool.shutdown();
+			pool.awaitTermination(10, TimeUnit.SECONDS);
+
+			Arrays.sort(all);
+			System.out.printf("%-12s %d runs: per call p50 %.3f ms, p99 %.3f ms, max %.1f ms; all handed over in %.0f ms, all written in %.0f ms (%.0f rows/s)%n",
+					writeBehind ? "write-behind" : "inline", all.length, all[all.length / 2], all[(int) (all.length * 0.99)],
+					all[all.length - 1], handedOver, written, all.length / (written / 1000));
+			jdbc.update("delete from ai_runs where ticket_id = ?", ticketId);
+		}
+	}
+
+	private AiRun run(long ticketId, int n) {
+		Map<String, Object> snapshot = new LinkedHashMap<>();
+		snapshot.put("id", ticketId);
+		snapshot.put("requesterEmail", EMAIL);
+		snapshot.put("body", ("Run " + n + ": the invoice export stops at 80% and times out. ").repeat(20));
+		Map<String, Object> payload = new LinkedHashMap<>();
+		payload.put("system", "You are a support triage assistant. Answer with JSON only. ".repeat(20));
+		payload.put("prompt", "Requester: " + EMAIL + "\n" + ("Run " + n + ": the invoice export stops at 80%. ").repeat(20));
+		payload.put("ticketSnapshot", snapshot);
+		AiRun run = new AiRun();
+		run.setTicketId(ticketId);
+		run.setType("TRIAGE");
+		run.setProvider("ollama");
+		run.setModel("llama3.2");
+		run.setPromptVersion("triage-v3");
+		run.setInputJson(om.valueToTree(payload));
+		run.setOutputJson(om.valueToTree(Map.of("category", "BILLING", "priority", "HIGH",
+				"rationale", "Exports failing for a paying customer.")));
+		run.setLatencyMs(1800);
+		return run;
+	}
+}
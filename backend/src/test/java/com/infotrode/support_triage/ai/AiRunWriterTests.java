@@ -0,0 +1,187 @@
+package com.infotrode.support_triage.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infotrode.support_triage.ticket.Ticket;
+import com.infotrode.support_triage.ticket.TicketRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "ai.jobs.workerEnabled=false")
+class AiRunWriterTests {
+
+	@Autowired
+	AiRunRecorder recorder;
+
+	@Autowired
+	AiRunWriter writer;
+
+	@Autowired
+	TicketRepository tickets;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@Autowired
+	TransactionTemplate tx;
+
+	@Autowired
+	DataSource dataSource;
+
+	@Autowired
+	ObjectMapper om;
+
+	@Test
+	void idsComeAtOnceAndRowsInBatches() throws Exception {
+		long ticketId = ticket();
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 500; i++) ids.add(recorder.record(run(ticketId)).getId());
+
+		assertThat(ids).doesNotContainNull().doesNotHaveDuplicates();
+		assertThat(writer.flush(Duration.ofSeconds(10))).isTrue();
+		assertThat(jdbc.queryForList("select id from ai_runs where ticket_id = ?", Long.class, ticketId))
+				.containsExactlyInAnyOrderElementsOf(ids);
+	}
+
+	@Test
+	void fullQueueWritesOnTheCallersThreadAndStopDrains() throws Exception {
+		long stuck = ticket();
+		long other = ticket();
+		AiRunsProperties props = new AiRunsProperties();
+		props.setWriterQueueCapacity(2);
+		props.setWriterEnqueueTimeoutMs(10);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		AiRunWriter small = new AiRunWriter(jdbc, tx, om, props, registry);
+		small.start();
+
+		// hold the ticket row, so the writer's insert for it waits on the foreign key check
+		CountDownLatch locked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> tx.executeWithoutResult(s -> {
+			jdbc.queryForObject("select id from tickets where id = ? for update", Long.class, stuck);
+			locked.countDown();
+			try {
+				release.await(30, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+		try {
+			assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+			small.submit(run(stuck));
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			while (small.queued() > 0 && System.nanoTime() < deadline) Thread.sleep(10); // taken, now blocked
+
+			List<Long> ids = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				AiRun run = run(other);
+				small.submit(run);
+				ids.add(run.getId());
+			}
+			// two queued behind the blocked batch, two written by the caller right away
+			assertThat(small.queued()).isEqualTo(2);
+			assertThat(registry.get("ai.runs.writer.inline").counter().count()).isEqualTo(2);
+			assertThat(count(other)).isEqualTo(2);
+		} finally {
+			release.countDown();
+			holder.get(10, TimeUnit.SECONDS);
+		}
+		small.stop();
+
+		assertThat(small.queued()).isZero();
+		assertThat(count(stuck)).isEqualTo(1);
+		assertThat(count(other)).isEqualTo(4);
+	}
+
+	@Test
+	void aRefusedRowDoesNotTakeItsBatchDown() throws Exception {
+		long ticketId = ticket();
+		long gone = ticket();
+		tickets.deleteById(gone);
+
+		recorder.record(run(ticketId));
+		recorder.recordFailure(run(gone));
+		recorder.record(run(ticketId));
+		assertThat(writer.flush(Duration.ofSeconds(10))).isTrue();
+
+		assertThat(count(ticketId)).isEqualTo(2);
+		assertThat(count(gone)).isZero();
+	}
+
+	@Test
+	void runsQueuedWhileTheDatabaseIsUnreachableAreWrittenOnceItIsBack() throws Exception {
+		long ticketId = ticket();
+		AtomicBoolean down = new AtomicBoolean(true);
+		DataSource flaky = new DelegatingDataSource(dataSource) {
+			@Override
+			public Connection getConnection() throws SQLException {
+				if (down.get()) throw new SQLTransientConnectionException("Connection is not available");
+				return super.getConnection();
+			}
+		};
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		AiRunWriter offline = new AiRunWriter(new JdbcTemplate(flaky), new TransactionTemplate(new DataSourceTransactionManager(flaky)),
+				om, new AiRunsProperties(), registry);
+		offline.start();
+		try {
+			AiRun run = run(ticketId);
+			run.setId(jdbc.queryForObject("select nextval('ai_runs_id_seq')", Long.class)); // the id block needs the database too
+			offline.submit(run);
+
+			assertThat(offline.flush(Duration.ofMillis(700))).isFalse(); // still retrying
+			assertThat(count(ticketId)).isZero();
+
+			down.set(false);
+			assertThat(offline.flush(Duration.ofSeconds(10))).isTrue();
+			assertThat(count(ticketId)).isEqualTo(1);
+			assertThat(registry.find("ai.runs.writer.dropped").counters()).allSatisfy(c -> assertThat(c.count()).isZero());
+		} finally {
+			offline.stop();
+		}
+	}
+
+	private long count(long ticketId) {
+		return jdbc.queryForObject("select count(*) from ai_runs where ticket_id = ?", Long.class, ticketId);
+	}
+
+	private long ticket() {
+		Ticket t = new Ticket();
+		t.setSubject("Writer test");
+		t.setRequesterEmail("writer@example.com");
+		t.setBody("Body");
+		return tickets.save(t).getId();
+	}
+
+	private AiRun run(long ticketId) {
+		AiRun run = new AiRun();
+		run.setTicketId(ticketId);
+		run.setType("TRIAGE");
+		run.setProvider("ollama");
+		run.setModel("llama3.2");
+		run.setPromptVersion("triage-v3");
+		run.setInputJson(om.valueToTree(Map.of("prompt", "Ticket " + ticketId)));
+		run.setOutputJson(om.valueToTree(Map.of("category", "BILLING")));
+		run.setLatencyMs(1200);
+		return run;
+	}
+}
@@ -0,0 +1,71 @@
+package com.infotrode.support_triage.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput with 1, 2 and 3 stub Ollama nodes, each limited to {@value #SLOTS_PER_NODE} concurrent
+ * generations of {@value #GENERATION_MS} ms (a GPU box with OLLAMA_NUM_PARALLEL=2). Routing is the
+ * production {@link OllamaBackendPool}; throughput should grow linearly with the node count.
+ *
+ * Not part of the regular build; run with {@code mvn test -Dtest=OllamaBackendPoolBenchmark}.
+ */
+class OllamaBackendPoolBenchmark {
+
+	private static final int SLOTS_PER_NODE = 2;
+	private static final long GENERATION_MS = 100;
+	private static final int CALLERS = 24;
+	private static final int CALLS = 300;
+
+	@Test
+	void throughputScalesWithNodes() throws Exception {
+		double single = 0;
+		for (int nodes = 1; nodes <= 3; nodes++) {
+			double rps = measure(nodes);
+			if (nodes == 1) single = rps;
+			System.out.printf("%d node(s): %6.1f calls/s  (%.2fx one node)%n", nodes, rps, rps / single);
+			assertThat(rps).isGreaterThan(single * nodes * 0.8);
+		}
+	}
+
+	private double measure(int nodes) throws Exception {
+		List<StubOllamaServer> stubs = new ArrayList<>();
+		OllamaRequestFactory rf = null;
+		ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+		try {
+			OllamaProperties props = new OllamaProperties();
+			props.setHealthCheckIntervalSeconds(0);
+			for (int i = 0; i < nodes; i++) {
+				StubOllamaServer s = new StubOllamaServer(GENERATION_MS, SLOTS_PER_NODE, 0);
+				stubs.add(s);
+				OllamaProperties.Backend b = new OllamaProperties.Backend();
+				b.setUrl(s.baseUrl());
+				props.getBackends().add(b);
+			}
+			rf = new OllamaRequestFactory(props);
+			OllamaClient client = new OllamaClient(
+					new OllamaBackendPool(props, rf, new ObjectMapper(), new SimpleMeterRegistry()), new ObjectMapper());
+
+			long start = System.nanoTime();
+			List<Future<?>> calls = new ArrayList<>();
+			for (int i = 0; i < CALLS; i++) {
+				calls.add(callers.submit(() -> client.generateJson("llama3.2", "system", "prompt")));
+			}
+			for (Future<?> f : calls) f.get();
+			return CALLS / ((System.nanoTime() - start) / 1e9);
+		} finally {
+			callers.shutdownNow();
+			if (rf != null) rf.destroy();
+			stubs.forEach(StubOllamaServer::close);
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package com.infotrode.support_triage.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OllamaBackendPoolTests {
+
+	private final List<AutoCloseable> resources = new ArrayList<>();
+
+	@AfterEach
+	void close() throws Exception {
+		for (AutoCloseable c : resources) c.close();
+	}
+
+	@Test
+	void spreadsConcurrentCallsOverNodesByOutstandingRequests() throws Exception {
+		StubOllamaServer a = stub(200);
+		StubOllamaServer b = stub(200);
+		StubOllamaServer c = stub(200);
+		OllamaClient client = client(pool(a, b, c));
+
+		ExecutorService callers = Executors.newFixedThreadPool(30);
+		try {
+			List<Future<?>> calls = new ArrayList<>();
+			for (int i = 0; i < 30; i++) {
+				calls.add(callers.submit(() -> client.generateJson("llama3.2", "system", "prompt")));
+			}
+			for (Future<?> f : calls) f.get();
+		} finally {
+			callers.shutdownNow();
+		}
+
+		assertThat(a.requests() + b.requests() + c.requests()).isEqualTo(30);
+		assertThat(List.of(a.requests(), b.requests(), c.requests())).allSatisfy(n -> assertThat(n).isBetween(8L, 12L));
+	}
+
+	@Test
+	void ejectsUnreachableNodeAndReadmitsItWhenItIsBack() throws Exception {
+		StubOllamaServer up = stub(0);
+		StubOllamaServer down = stub(0);
+		int downPort = down.port();
+		down.close();
+
+		OllamaBackendPool pool = pool(up, down);
+		OllamaClient client = client(pool);
+
+		// refused connections are retried on the other node, so callers never notice
+		for (int i = 0; i < 6; i++) client.generateJson("llama3.2", "system", "prompt");
+		assertThat(up.requests()).isEqualTo(6);
+
+		pool.probeAll();
+		assertThat(pool.state()).extracting(OllamaBackendPool.BackendState::healthy).containsExactly(true, false);
+
+		StubOllamaServer back = track(new StubOllamaServer(0, 0, downPort));
+		pool.probeAll();
+		assertThat(pool.state()).extracting(OllamaBackendPool.BackendState::healthy).containsExactly(true, true);
+
+		for (int i = 0; i < 6; i++) client.generateJson("llama3.2", "system", "prompt");
+		assertThat(back.requests()).isPositive();
+	}
+
+	@Test
+	void routesToNodesThatServeTheModel() throws Exception {
+		StubOllamaServer llama = stub(0);
+		StubOllamaServer mistral = stub(0);
+		mistral.models("mistral:latest");
+
+		OllamaBackendPool pool = pool(llama, mistral);
+		pool.probeAll();
+		OllamaClient client = client(pool);
+
+		for (int i = 0; i < 4; i++) client.generateJson("mistral", "system", "prompt");
+		for (int i = 0; i < 4; i++) client.generateJson("llama3.2", "system", "prompt");
+
+		assertThat(mistral.requests()).isEqualTo(4);
+		assertThat(llama.requests()).isEqualTo(4);
+	}
+
+	private StubOllamaServer stub(long delayMs) throws Exception {
+		return track(new StubOllamaServer(delayMs));
+	}
+
+	private <T extends AutoCloseable> T track(T resource) {
+		resources.add(resource);
+		return resource;
+	}
+
+	private OllamaBackendPool pool(StubOllamaServer... stubs) {
+		OllamaProperties props = new OllamaProperties();
+		props.setEjectAfterFailures(1);
+		props.setHealthCheckIntervalSeconds(0); // probes are driven by the test
+		for (StubOllamaServer s : stubs) {
+			OllamaProperties.Backend b = new OllamaProperties.Backend();
+			b.setUrl(s.baseUrl());
+			props.getBackends().add(b);
+		}
+		OllamaRequestFactory rf = new OllamaRequestFactory(props);
+		resources.add(rf::destroy);
+		return new OllamaBackendPool(props, rf, new ObjectMapper(), new SimpleMeterRegistry());
+	}
+
+	private static OllamaClient client(OllamaBackendPool pool) {
+		return new OllamaClient(pool, new ObjectMapper());
+	}
+}
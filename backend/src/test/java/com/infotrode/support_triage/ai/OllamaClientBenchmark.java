@@ -0,0 +1,98 @@
+package com.infotrode.support_triage.ai;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent {@link OllamaClient#generateJson} throughput against {@link StubOllamaServer}, with the
+ * old {@link SimpleClientHttpRequestFactory} (HttpURLConnection, keeps at most 5 idle sockets per
+ * host) and with the pooled {@link OllamaRequestFactory}.
+ *
+ * Not part of the regular build (surefire only picks up *Tests); run with
+ * {@code mvn test -Dtest=OllamaClientBenchmark}.
+ */
+class OllamaClientBenchmark {
+
+	private static final int CONCURRENCY = 32;
+	private static final int CALLS = 4000;
+	private static final int WARMUP_CALLS = 400;
+	private static final long STUB_DELAY_MS = 0;
+
+	private final ObjectMapper om = new ObjectMapper();
+
+	@Test
+	void pooledVersusSimpleFactory() throws Exception {
+		try (StubOllamaServer stub = new StubOllamaServer(STUB_DELAY_MS)) {
+			OllamaProperties props = new OllamaProperties();
+			props.setBaseUrl(stub.baseUrl());
+			props.setMaxConnections(CONCURRENCY);
+			props.setMaxConnectionsPerHost(CONCURRENCY);
+
+			SimpleClientHttpRequestFactory simple = new SimpleClientHttpRequestFactory();
+			simple.setConnectTimeout(props.getConnectTimeoutMs());
+			simple.setReadTimeout(props.getTimeoutSeconds() * 1000);
+			Result before = measure("simple (before)", simple, stub);
+
+			OllamaRequestFactory pooled = new OllamaRequestFactory(props);
+			try {
+				Result after = measure("pooled (after)", pooled, stub);
+				assertThat(after.connections()).isLessThanOrEqualTo(CONCURRENCY);
+			} finally {
+				pooled.destroy();
+			}
+			assertThat(before.calls()).isEqualTo(CALLS);
+		}
+	}
+
+	private Result measure(String label, ClientHttpRequestFactory rf, StubOllamaServer stub) throws Exception {
+		OllamaClient client = new OllamaClient(
+				RestClient.builder().baseUrl(stub.baseUrl()).requestFactory(rf).build(), om);
+
+		run(client, WARMUP_CALLS);
+		stub.resetCounters();
+
+		long start = System.nanoTime();
+		long[] latencies = run(client, CALLS);
+		long elapsedNanos = System.nanoTime() - start;
+
+		Arrays.sort(latencies);
+		Result r = new Result(CALLS, stub.connectionsSeen());
+		System.out.printf("%-16s %6d calls  %8.0f req/s  p50 %5.1f ms  p99 %5.1f ms  connections opened %d%n",
+				label, CALLS, CALLS / (elapsedNanos / 1e9),
+				latencies[CALLS / 2] / 1e6, latencies[(int) (CALLS * 0.99)] / 1e6, r.connections());
+		return r;
+	}
+
+	private static long[] run(OllamaClient client, int calls) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(CONCURRENCY);
+		try {
+			List<Future<Long>> futures = new ArrayList<>(calls);
+			for (int i = 0; i < calls; i++) {
+				futures.add(pool.submit(() -> {
+					long t0 = System.nanoTime();
+					client.generateJson("llama3.2", "system", "prompt");
+					return System.nanoTime() - t0;
+				}));
+			}
+			long[] latencies = new long[calls];
+			for (int i = 0; i < calls; i++) latencies[i] = futures.get(i).get();
+			return latencies;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private record Result(int calls, int connections) {}
+}
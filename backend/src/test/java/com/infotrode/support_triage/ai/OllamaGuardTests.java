@@ -0,0 +1,129 @@
+package com.infotrode.support_triage.ai;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OllamaGuardTests {
+
+	private final AtomicLong clock = new AtomicLong();
+
+	@Test
+	void shedsCallsBeyondTheLimitWithRetryAfter() throws Exception {
+		AiLimiterProperties props = props();
+		props.setInitialLimit(2);
+		props.setMaxLimit(2);
+		OllamaGuard guard = guard(props);
+
+		CountDownLatch entered = new CountDownLatch(2);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService callers = Executors.newFixedThreadPool(2);
+		try {
+			for (int i = 0; i < 2; i++) {
+				callers.submit(() -> guard.call(() -> {
+					entered.countDown();
+					await(release);
+					return "ok";
+				}));
+			}
+			assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+			assertThatThrownBy(() -> guard.call(() -> "never"))
+					.isInstanceOfSatisfying(AiUnavailableException.class, e -> {
+						assertThat(e.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+						assertThat(e.getRetryAfterSeconds()).isPositive();
+					});
+		} finally {
+			release.countDown();
+			callers.shutdown();
+		}
+	}
+
+	@Test
+	void limitBacksOffOnSlowCallsAndRecovers() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 20, 0.5, 2.0);
+		long fast = TimeUnit.MILLISECONDS.toNanos(100);
+
+		for (int i = 0; i < 5; i++) complete(limit, 10, fast);
+		int before = limit.limit();
+
+		complete(limit, 10, fast * 10);
+		assertThat(limit.limit()).isLessThan(before);
+
+		int shrunk = limit.limit();
+		for (int i = 0; i < 5; i++) complete(limit, shrunk, fast);
+		assertThat(limit.limit()).isGreaterThan(shrunk);
+	}
+
+	@Test
+	void circuitOpensAfterConsecutiveFailuresAndClosesAfterATrialCall() {
+		AiLimiterProperties props = props();
+		props.setCircuitFailureThreshold(3);
+		props.setCircuitOpenSeconds(30);
+		OllamaGuard guard = guard(props);
+
+		for (int i = 0; i < 3; i++) {
+			assertThatThrownBy(() -> guard.call(() -> { throw new ResourceAccessException("connection refused"); }))
+					.isInstanceOf(ResourceAccessException.class);
+		}
+
+		AtomicInteger calls = new AtomicInteger();
+		assertThatThrownBy(() -> guard.call(calls::incrementAndGet))
+				.isInstanceOfSatisfying(AiUnavailableException.class, e -> {
+					assertThat(e.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+					assertThat(e.getRetryAfterSeconds()).isEqualTo(30);
+				});
+		assertThat(calls).hasValue(0);
+
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(31));
+		assertThat(guard.call(calls::incrementAndGet)).isEqualTo(1);
+		assertThat(guard.circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+	}
+
+	@Test
+	void callerErrorsDoNotTripTheCircuit() {
+		OllamaGuard guard = guard(props());
+
+		for (int i = 0; i < 10; i++) {
+			assertThatThrownBy(() -> guard.call(() -> { throw new IllegalStateException("client went away"); }))
+					.isInstanceOf(IllegalStateException.class);
+		}
+		assertThat(guard.circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+		assertThat(guard.call(() -> "ok")).isEqualTo("ok");
+	}
+
+	private static void complete(AdaptiveConcurrencyLimit limit, int concurrent, long latencyNanos) {
+		int acquired = 0;
+		while (acquired < concurrent && limit.tryAcquire()) acquired++;
+		for (int i = 0; i < acquired; i++) limit.onSuccess(latencyNanos);
+	}
+
+	private static AiLimiterProperties props() {
+		AiLimiterProperties props = new AiLimiterProperties();
+		props.setCircuitFailureThreshold(5);
+		return props;
+	}
+
+	private OllamaGuard guard(AiLimiterProperties props) {
+		return new OllamaGuard(props, new SimpleMeterRegistry(), clock::get);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package com.infotrode.support_triage.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartialJsonFieldTests {
+
+	/** Feeds {@code json} in chunks of {@code size} chars and collects the deltas. */
+	private static List<String> stream(String json, int size) {
+		PartialJsonField field = new PartialJsonField("draft");
+		StringBuilder buffer = new StringBuilder();
+		List<String> deltas = new ArrayList<>();
+		for (int i = 0; i < json.length(); i += size) {
+			buffer.append(json, i, Math.min(json.length(), i + size));
+			String delta = field.newlyDecoded(buffer);
+			if (!delta.isEmpty()) deltas.add(delta);
+		}
+		return deltas;
+	}
+
+	@Test
+	void everyChunkingDecodesTheSameValue() {
+		String json = "{\"subject\": \"x\", \"draft\" : \"Tab\\there, \\\"quoted\\\", back\\\\slash \\/ "
+				+ "caf\\u00e9 \\ud83d\\ude00 \uD83D\uDE80 line\\nend\", \"tone\": \"friendly\"}";
+		String expected = "Tab\there, \"quoted\", back\\slash / café \uD83D\uDE00 \uD83D\uDE80 line\nend";
+
+		for (int size = 1; size <= json.length(); size++) {
+			List<String> deltas = stream(json, size);
+			assertThat(String.join("", deltas)).as("chunk size %d", size).isEqualTo(expected);
+			for (String d : deltas) {
+				// no delta ends half way through an escape or a surrogate pair
+				assertThat(Character.isHighSurrogate(d.charAt(d.length() - 1))).as("chunk size %d", size).isFalse();
+				assertThat(Character.isLowSurrogate(d.charAt(0))).as("chunk size %d", size).isFalse();
+			}
+		}
+		assertThat(new PartialJsonField("draft").decodedSoFar(json)).isEqualTo(expected);
+	}
+
+	@Test
+	void escapesCutInHalfAreHeldBack() {
+		PartialJsonField field = new PartialJsonField("draft");
+		StringBuilder buffer = new StringBuilder("{\"draft\":\"a\\");
+		assertThat(field.newlyDecoded(buffer)).isEqualTo("a");
+		buffer.append("\"b"); // an escaped quote, not the end of the value
+		assertThat(field.newlyDecoded(buffer)).isEqualTo("\"b");
+		buffer.append("\\u00");
+		assertThat(field.newlyDecoded(buffer)).isEmpty();
+		buffer.append("e9\\ud83d");
+		assertThat(field.newlyDecoded(buffer)).isEqualTo("é"); // high surrogate waits for its pair
+		buffer.append("\\ude00\" ");
+		assertThat(field.newlyDecoded(buffer)).isEqualTo("\uD83D\uDE00");
+		buffer.append(", \"draft\": \"ignored\"}");
+		assertThat(field.newlyDecoded(buffer)).isEmpty();
+		assertThat(field.decodedSoFar(buffer)).isEqualTo("a\"bé\uD83D\uDE00");
+	}
+
+	@Test
+	void nothingUntilTheValueStarts() {
+		PartialJsonField field = new PartialJsonField("draft");
+		StringBuilder buffer = new StringBuilder("{\"dr");
+		assertThat(field.newlyDecoded(buffer)).isEmpty();
+		buffer.append("aft\"");
+		assertThat(field.newlyDecoded(buffer)).isEmpty();
+		buffer.append(" :  ");
+		assertThat(field.newlyDecoded(buffer)).isEmpty();
+		buffer.append("\"");
+		assertThat(field.newlyDecoded(buffer)).isEmpty();
+		buffer.append("Hi");
+		assertThat(field.newlyDecoded(buffer)).isEqualTo("Hi");
+		assertThat(field.decodedSoFar(buffer)).isEqualTo("Hi");
+
+		assertThat(new PartialJsonField("draft").decodedSoFar("{\"summary\": \"no draft here")).isEmpty();
+	}
+
+	@Test
+	void theNameAsAValueIsNotTheField() {
+		String json = "{\"note\": \"draft\", \"draft\": \"real\"}";
+		assertThat(new PartialJsonField("draft").decodedSoFar(json)).isEqualTo("real");
+		assertThat(String.join("", stream(json, 3))).isEqualTo("real");
+	}
+}
@@ -0,0 +1,55 @@
+package com.infotrode.support_triage.ai;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infotrode.support_triage.ai.dto.AiTriageSuggestion;
+import com.infotrode.support_triage.config.JacksonConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PromptRegistryTests {
+
+	private final ObjectMapper om = new ObjectMapper();
+
+	@Test
+	void everyPromptVersionHasASchema() {
+		PromptRegistry registry = new PromptRegistry(om);
+
+		assertThat(registry.byVersion()).containsOnlyKeys(PromptRegistry.declaredVersions());
+		assertThat(registry.byVersion().values()).allSatisfy(p -> {
+			assertThat(p.schema().path("type").asText()).isEqualTo("object");
+			assertThat(p.schema().path("required").isArray()).isTrue();
+		});
+	}
+
+	@Test
+	void schemaKeepsItsFieldOrderThroughTheAppMapper() throws Exception {
+		ObjectMapper appMapper = new JacksonConfig().objectMapper();
+		JsonNode schema = new PromptRegistry(appMapper).triage().schema();
+
+		assertThat(schema.fieldNames()).toIterable().containsExactly("type", "required", "properties");
+		assertThat(schema.path("properties").fieldNames()).toIterable()
+				.containsExactly("category", "priority", "tags", "rationale", "entities");
+		String json = appMapper.writeValueAsString(schema);
+		assertThat(json).startsWith("{\"type\":\"object\",\"required\":");
+		assertThat(json.indexOf("\"requesterEmail\":{")).isLessThan(json.indexOf("\"orderId\":{"));
+	}
+
+	@Test
+	void schemaIsSentAsStructuredFormatNotInThePrompt() throws Exception {
+		PromptRegistry.Prompt triage = new PromptRegistry(om).triage();
+		String prompt = PromptTemplates.triageUserPrompt("Can't log in", "Error 401 since this morning.", "a@example.com");
+
+		try (StubOllamaServer stub = new StubOllamaServer(0)) {
+			OllamaClient client = new OllamaClient(RestClient.builder().baseUrl(stub.baseUrl()).build(), om);
+			JsonNode res = client.generateJson("llama3.2", triage.system(), prompt, triage.schema());
+
+			JsonNode sent = om.readTree(stub.lastRequestBody());
+			assertThat(sent.path("format")).isEqualTo(triage.schema());
+			assertThat(sent.path("prompt").asText()).doesNotContain("\"properties\"");
+			assertThat(om.readValue(OllamaClient.extractResponseText(res), AiTriageSuggestion.class).priority()).isNotNull();
+		}
+	}
+}
@@ -0,0 +1,264 @@
+package com.infotrode.support_triage.ai;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Minimal stand-in for Ollama on a random local port: {@code POST /api/generate} answers after a fixed
+ * delay with {@link #responseText} (non-streaming, or as NDJSON when the body asks for
+ * {@code "stream": true}), and {@code GET /api/tags} lists {@link #models(String...)}.
+ *
+ * Counts requests and distinct client sockets, so benchmarks can show connection reuse. With
+ * {@code parallel > 0} at most that many generations run at once and the rest wait, like a GPU box
+ * with {@code OLLAMA_NUM_PARALLEL} set.
+ *
+ * For load tests the delay can follow a distribution ({@link #latency}, e.g. {@link #logNormal}),
+ * a share of calls can fail with a 500 ({@link #failureRate}), and each prompt type can get its own
+ * canned answer ({@link #respondTo}). Random draws come from seeded generators, so a run with the
+ * same settings sees the same sequence of delays and failures.
+ */
+public final class StubOllamaServer implements AutoCloseable {
+
+	static final String TRIAGE_JSON = """
+			{"category":"account","priority":"HIGH","tags":["auth","login"],\
+			"rationale":"Login is blocked for the user.",\
+			"entities":{"requesterEmail":"","orderId":"","product":"","errorCode":""}}""";
+
+	static final String SUMMARY_JSON = """
+			{"summary":"The customer cannot log in since this morning and is blocked from working.",\
+			"keyPoints":["Login fails since this morning","No workaround known"]}""";
+
+	static final String REPLY_JSON = """
+			{"draft":"Hi, thanks for reaching out and sorry for the trouble logging in. \
+			We are looking into it now and will update you within the hour."}""";
+
+	/** Text that only the user prompt of each operation contains (see {@link PromptTemplates}). */
+	static final String TRIAGE_PROMPT = "Triage this support ticket";
+	static final String SUMMARY_PROMPT = "Create an internal summary";
+	static final String REPLY_PROMPT = "Draft a reply";
+
+	private final HttpServer server;
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+	private final AtomicLong failures = new AtomicLong();
+
+	private final Semaphore slots;
+
+	private volatile LongSupplier latency;
+	private volatile double failureRate;
+	private volatile Random failureRandom = new Random(0);
+	private volatile String responseText = TRIAGE_JSON;
+	private volatile Map<String, String> cannedByPrompt = Map.of();
+	private volatile String lastRequestBody;
+	private volatile List<String> models = List.of("llama3.2:latest");
+
+	static {
+		// otherwise Nagle + delayed ACKs add ~40 ms to every keep-alive response
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+	}
+
+	public StubOllamaServer(long delayMs) throws IOException {
+		this(delayMs, 0, 0);
+	}
+
+	StubOllamaServer(long delayMs, int parallel, int port) throws IOException {
+		this.latency = () -> delayMs;
+		this.slots = parallel > 0 ? new Semaphore(parallel, true) : null;
+		this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+		server.createContext("/api/generate", this::generate);
+		server.createContext("/api/tags", this::tags);
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	public String baseUrl() {
+		return "http://127.0.0.1:" + port();
+	}
+
+	int port() {
+		return server.getAddress().getPort();
+	}
+
+	void delayMs(long delayMs) { this.latency = () -> delayMs; }
+
+	/** Delay before each answer, drawn per request. */
+	void latency(LongSupplier latency) { this.latency = latency; }
+
+	/**
+	 * Log-normal delays around {@code medianMs}: most calls near the median, a long right tail
+	 * ({@code sigma} 0.5 puts p99 at about 3.2 x the median), as generation times tend to be.
+	 */
+	static LongSupplier logNormal(long medianMs, double sigma, long seed) {
+		Random random = new Random(seed);
+		return () -> {
+			double g;
+			synchronized (random) {
+				g = random.nextGaussian();
+			}
+			return Math.round(medianMs * Math.exp(sigma * g));
+		};
+	}
+
+	/** Share of generate calls (0..1) answered with a 500 after their delay. */
+	void failureRate(double rate, long seed) {
+		this.failureRandom = new Random(seed);
+		this.failureRate = rate;
+	}
+
+	/**
+	 * Answers requests whose body contains a key with its value (checked in insertion order);
+	 * others get {@link #responseText(String)}.
+	 */
+	void respondTo(Map<String, String> cannedByPrompt) { this.cannedByPrompt = cannedByPrompt; }
+
+	void responseText(String responseText) { this.responseText = responseText; }
+
+	/** Model names listed by {@code /api/tags}. */
+	void models(String... names) { this.models = List.of(names); }
+
+	long requests() { return requests.get(); }
+
+	/** Calls answered with a 500 by {@link #failureRate}. */
+	long failures() { return failures.get(); }
+
+	/** Raw JSON of the most recent {@code /api/generate} request. */
+	String lastRequestBody() { return lastRequestBody; }
+
+	/** Distinct client sockets seen since the last {@link #resetCounters()}. */
+	int connectionsSeen() { return clientPorts.size(); }
+
+	/** Most generate calls being served at the same time since the last {@link #resetCounters()}. */
+	int maxInFlight() { return maxInFlight.get(); }
+
+	void resetCounters() {
+		requests.set(0);
+		failures.set(0);
+		clientPorts.clear();
+		maxInFlight.set(0);
+	}
+
+	private void generate(HttpExchange ex) throws IOException {
+		if (slots != null) slots.acquireUninterruptibly();
+		maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+		try {
+			respond(ex);
+		} finally {
+			inFlight.decrementAndGet();
+			if (slots != null) slots.release();
+		}
+	}
+
+	private void respond(HttpExchange ex) throws IOException {
+		requests.incrementAndGet();
+		clientPorts.add(ex.getRemoteAddress().getPort());
+		String body = new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+		lastRequestBody = body;
+		boolean stream = body.replace(" ", "").contains("\"stream\":true");
+
+		sleep(latency.getAsLong());
+
+		if (failureRate > 0 && fails()) {
+			failures.incrementAndGet();
+			send(ex, 500, "application/json", "{\"error\":\"stub failure\"}");
+			return;
+		}
+
+		String text = cannedFor(body);
+		if (!stream) {
+			send(ex, 200, "application/json",
+					"{\"model\":\"llama3.2\",\"response\":" + quote(text) + ",\"done\":true}");
+			return;
+		}
+
+		ex.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+		ex.sendResponseHeaders(200, 0);
+		try (OutputStream out = ex.getResponseBody()) {
+			// a handful of chunks is enough to exercise the streaming path
+			int step = Math.max(1, text.length() / 8);
+			for (int i = 0; i < text.length(); i += step) {
+				String piece = text.substring(i, Math.min(text.length(), i + step));
+				out.write(("{\"response\":" + quote(piece) + ",\"done\":false}\n").getBytes(StandardCharsets.UTF_8));
+				out.flush();
+			}
+			out.write("{\"response\":\"\",\"done\":true}\n".getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private boolean fails() {
+		Random random = failureRandom;
+		synchronized (random) {
+			return random.nextDouble() < failureRate;
+		}
+	}
+
+	private String cannedFor(String body) {
+		for (Map.Entry<String, String> e : cannedByPrompt.entrySet()) {
+			if (body.contains(e.getKey())) return e.getValue();
+		}
+		return responseText;
+	}
+
+	private void tags(HttpExchange ex) throws IOException {
+		String list = models.stream().map(m -> "{\"name\":" + quote(m) + "}").collect(Collectors.joining(","));
+		send(ex, 200, "application/json", "{\"models\":[" + list + "]}");
+	}
+
+	private static void send(HttpExchange ex, int status, String contentType, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		ex.getResponseHeaders().set("Content-Type", contentType);
+		ex.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = ex.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	private static String quote(String s) {
+		StringBuilder sb = new StringBuilder("\"");
+		for (char c : s.toCharArray()) {
+			switch (c) {
+				case '"' -> sb.append("\\\"");
+				case '\\' -> sb.append("\\\\");
+				case '\n' -> sb.append("\\n");
+				case '\r' -> sb.append("\\r");
+				case '\t' -> sb.append("\\t");
+				default -> sb.append(c);
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+	private static void sleep(long ms) {
+		if (ms <= 0) return;
+		try {
+			Thread.sleep(ms);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+}
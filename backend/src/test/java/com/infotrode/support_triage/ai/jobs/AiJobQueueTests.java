@@ -0,0 +1,272 @@
+package com.infotrode.support_triage.ai.jobs;
+
+import com.infotrode.support_triage.ai.AiTriageService;
+import com.infotrode.support_triage.ai.AiUnavailableException;
+import com.infotrode.support_triage.ai.StubOllamaServer;
+import com.infotrode.support_triage.ai.jobs.dto.SubmitAiJobRequest;
+import com.infotrode.support_triage.ticket.Ticket;
+import com.infotrode.support_triage.ticket.TicketRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The ai_jobs queue against the real database. Test jobs are made due in 2000, so claims pick
+ * them ahead of anything else queued in the dev database.
+ */
+@SpringBootTest(properties = "ai.jobs.workerEnabled=false")
+class AiJobQueueTests {
+
+	private static final String EMAIL = "jobs-test@example.com";
+
+	private static StubOllamaServer stub;
+
+	@DynamicPropertySource
+	static void ollama(DynamicPropertyRegistry registry) throws IOException {
+		stub = new StubOllamaServer(0);
+		registry.add("ai.ollama.baseUrl", stub::baseUrl);
+	}
+
+	@AfterAll
+	static void stopStub() {
+		if (stub != null) stub.close();
+	}
+
+	@Autowired
+	AiJobService jobs;
+
+	@Autowired
+	AiJobRepository repo;
+
+	@Autowired
+	AiJobWorker worker;
+
+	@Autowired
+	AiJobProperties props;
+
+	@Autowired
+	TicketRepository tickets;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@Autowired
+	TransactionTemplate tx;
+
+	@AfterEach
+	void cleanUp() {
+		jdbc.update("delete from tickets where requester_email = ?", EMAIL); // cascades to ai_jobs and ai_runs
+	}
+
+	@Test
+	void concurrentClaimsGetDisjointRows() throws Exception {
+		long ticketId = ticket();
+		Set<Long> ours = new HashSet<>();
+		for (int i = 0; i < 4; i++) ours.add(submit(ticketId));
+
+		// worker a keeps its claim's transaction open; worker b must skip those rows, not wait for them
+		List<Long> claimedByB = new ArrayList<>();
+		List<Long> claimedByA = tx.execute(s -> {
+			List<Long> a = repo.claim("worker-a", 300, 2);
+			CompletableFuture<List<AiJob>> b = CompletableFuture.supplyAsync(() -> jobs.claim("worker-b", 2));
+			try {
+				b.get(10, TimeUnit.SECONDS).forEach(j -> claimedByB.add(j.getId()));
+			} catch (Exception e) {
+				throw new AssertionError("second claim blocked on the first one's rows", e);
+			}
+			return a;
+		});
+
+		assertThat(claimedByA).hasSize(2).doesNotContainAnyElementsOf(claimedByB);
+		assertThat(claimedByB).hasSize(2);
+		assertThat(ours).containsExactlyInAnyOrderElementsOf(concat(claimedByA, claimedByB));
+		for (long id : claimedByB) {
+			AiJob job = repo.findById(id).orElseThrow();
+			assertThat(job.getStatus()).isEqualTo(AiJob.Status.RUNNING);
+			assertThat(job.getLeaseOwner()).isEqualTo("worker-b");
+			assertThat(job.getAttempts()).isEqualTo(1);
+		}
+	}
+
+	@Test
+	void expiredLeaseIsReclaimedAndTheLateResultDropped() {
+		long id = submit(ticket());
+		AiJob first = claimOne("worker-a", id);
+
+		expireLease(id);
+		AiJob second = claimOne("worker-b", id);
+		assertThat(second.getAttempts()).isEqualTo(2);
+		assertThat(second.getLeaseOwner()).isEqualTo("worker-b");
+
+		// worker a comes back after its lease was taken over
+		assertThat(jobs.succeed(first, "worker-a", null, List.of("late"))).isFalse();
+		assertThat(jobs.fail(first, "worker-a", "late", true)).isFalse();
+		AiJob job = repo.findById(id).orElseThrow();
+		assertThat(job.getStatus()).isEqualTo(AiJob.Status.RUNNING);
+		assertThat(job.getResultJson()).isNull();
+
+		assertThat(jobs.succeed(second, "worker-b", null, List.of("on time"))).isTrue();
+		job = repo.findById(id).orElseThrow();
+		assertThat(job.getStatus()).isEqualTo(AiJob.Status.SUCCEEDED);
+		assertThat(job.getResultJson().get(0).asText()).isEqualTo("on time");
+		assertThat(job.getLeaseOwner()).isNull();
+		assertThat(job.getFinishedAt()).isNotNull();
+	}
+
+	@Test
+	void failedAttemptsBackOffUntilTheLastOneFailsForGood() {
+		assertThat(jobs.backoffSeconds(1)).isEqualTo(10);
+		assertThat(jobs.backoffSeconds(2)).isEqualTo(20);
+		assertThat(jobs.backoffSeconds(3)).isEqualTo(40);
+		assertThat(jobs.backoffSeconds(50)).isEqualTo(600);
+
+		long id = submit(ticket());
+		assertThat(jobs.fail(claimOne("worker-a", id), "worker-a", "Ollama timed out", true)).isTrue();
+		assertThat(secondsUntilDue(id)).isBetween(8.0, 10.0);
+		AiJob job = repo.findById(id).orElseThrow();
+		assertThat(job.getStatus()).isEqualTo(AiJob.Status.QUEUED);
+		assertThat(job.getLastError()).isEqualTo("Ollama timed out");
+
+		makeDue(id);
+		assertThat(jobs.fail(claimOne("worker-a", id), "worker-a", "Ollama timed out", true)).isTrue();
+		assertThat(secondsUntilDue(id)).isBetween(18.0, 20.0);
+
+		makeDue(id);
+		assertThat(jobs.fail(claimOne("worker-a", id), "worker-a", "Ollama timed out", true)).isTrue();
+		job = repo.findById(id).orElseThrow();
+		assertThat(job.getStatus()).isEqualTo(AiJob.Status.FAILED);
+		assertThat(job.getAttempts()).isEqualTo(3);
+		assertThat(job.getFinishedAt()).isNotNull();
+	}
+
+	@Test
+	void leaseExpiringOnTheLastAttemptFailsTheJob() {
+		long id = submit(ticket());
+		jdbc.update("update ai_jobs set max_attempts = 1 where id = ?", id);
+		claimOne("worker-a", id);
+		expireLease(id);
+
+		assertThat(jobs.claim("worker-b", 1)).extracting(AiJob::getId).doesNotContain(id);
+		AiJob job = repo.findById(id).orElseThrow();
+		assertThat(job.getStatus()).isEqualTo(AiJob.Status.FAILED);
+		assertThat(job.getLastError()).isEqualTo("lease expired (gave up after 1 attempts)");
+	}
+
+	@Test
+	void workerStoresTheResultOrFailsForGood() {
+		long ticketId = ticket();
+		long ok = submit(ticketId);
+		worker.process(claimOne(worker.getWorkerId(), ok));
+		AiJob job = repo.findById(ok).orElseThrow();
+		assertThat(job.getStatus()).isEqualTo(AiJob.Status.SUCCEEDED);
+		assertThat(job.getAiRunId()).isNotNull();
+		assertThat(job.getResultJson().path("priority").asText()).isNotBlank();
+
+		// a result that cannot be written as JSON is not retried
+		long unserializable = submit(ticketId);
+		assertThat(jobs.succeed(claimOne("worker-a", unserializable), "worker-a", null, new Object())).isTrue();
+		job = repo.findById(unserializable).orElseThrow();
+		assertThat(job.getStatus()).isEqualTo(AiJob.Status.FAILED);
+		assertThat(job.getResultJson()).isNull();
+		assertThat(job.getLastError()).startsWith("result could not be serialized");
+	}
+
+	@Test
+	void workerResultAfterALostLeaseIsDropped() {
+		long id = submit(ticket());
+		AiJob mine = claimOne(worker.getWorkerId(), id);
+		expireLease(id);
+		claimOne("worker-b", id);
+
+		worker.process(mine);
+
+		AiJob job = repo.findById(id).orElseThrow();
+		assertThat(job.getStatus()).isEqualTo(AiJob.Status.RUNNING);
+		assertThat(job.getLeaseOwner()).isEqualTo("worker-b");
+		assertThat(job.getResultJson()).isNull();
+	}
+
+	@Test
+	void shedJobIsPostponedWithoutUsingAnAttempt() {
+		AiTriageService shedding = mock(AiTriageService.class);
+		when(shedding.triage(anyLong())).thenThrow(AiUnavailableException.overloaded(8, 7));
+		AiJobWorker shed = new AiJobWorker(jobs, props, shedding, null, null);
+
+		long id = submit(ticket());
+		shed.process(claimOne(shed.getWorkerId(), id));
+
+		AiJob job = repo.findById(id).orElseThrow();
+		assertThat(job.getStatus()).isEqualTo(AiJob.Status.QUEUED);
+		assertThat(job.getAttempts()).isZero();
+		assertThat(job.getLeaseOwner()).isNull();
+		assertThat(job.getLastError()).startsWith("Too many AI requests in flight");
+		assertThat(secondsUntilDue(id)).isBetween(5.0, 7.0);
+
+		// as often as it takes: a shed job never runs out of attempts
+		for (int i = 0; i < props.getMaxAttempts() + 1; i++) {
+			makeDue(id);
+			shed.process(claimOne(shed.getWorkerId(), id));
+		}
+		job = repo.findById(id).orElseThrow();
+		assertThat(job.getStatus()).isEqualTo(AiJob.Status.QUEUED);
+		assertThat(job.getAttempts()).isZero();
+	}
+
+	/** Claims one job and checks it is the expected one. */
+	private AiJob claimOne(String owner, long id) {
+		List<AiJob> claimed = jobs.claim(owner, 1);
+		assertThat(claimed).extracting(AiJob::getId).containsExactly(id);
+		return claimed.get(0);
+	}
+
+	private long submit(long ticketId) {
+		long id = jobs.submit(new SubmitAiJobRequest(AiJob.Type.TRIAGE, ticketId, null, null)).getId();
+		makeDue(id);
+		return id;
+	}
+
+	private void makeDue(long id) {
+		jdbc.update("update ai_jobs set run_after = timestamptz '2000-01-01T00:00:00Z' + id * interval '1 microsecond' where id = ?", id);
+	}
+
+	private void expireLease(long id) {
+		jdbc.update("update ai_jobs set lease_expires_at = now() - interval '1 second' where id = ?", id);
+	}
+
+	private double secondsUntilDue(long id) {
+		return jdbc.queryForObject("select extract(epoch from run_after - now()) from ai_jobs where id = ?", Double.class, id);
+	}
+
+	private long ticket() {
+		Ticket t = new Ticket();
+		t.setSubject("Job queue test");
+		t.setRequesterEmail(EMAIL);
+		t.setBody("Cannot log in since this morning.");
+		return tickets.save(t).getId();
+	}
+
+	private static List<Long> concat(List<Long> a, List<Long> b) {
+		List<Long> all = new ArrayList<>(a);
+		all.addAll(b);
+		return all;
+	}
+}
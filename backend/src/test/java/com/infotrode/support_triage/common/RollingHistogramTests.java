@@ -0,0 +1,83 @@
+package com.infotrode.support_triage.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RollingHistogramTests {
+
+	private static final Duration SLOT = Duration.ofSeconds(10);
+
+	@Test
+	void valuesShowAfterRotationAndLeaveWithTheWindow() {
+		long t0 = 1_000_000_000L;
+		RollingHistogram h = new RollingHistogram(SLOT, 6, 600_000, 2, t0);
+		for (int v = 1; v <= 100; v++) h.record(v * 10L);
+		h.recordWithoutValue();
+		assertThat(h.snapshot(t0, Duration.ofMinutes(1)).events()).isZero(); // not rotated yet
+
+		h.rotate(t0 + 10_000);
+		RollingHistogram.Snapshot s = h.snapshot(t0 + 10_000, Duration.ofMinutes(1));
+		assertThat(s.events()).isEqualTo(101);
+		assertThat(s.values()).isEqualTo(100);
+		assertThat(s.p50()).isCloseTo(500, within(5L));
+		assertThat(s.p99()).isCloseTo(990, within(10L));
+		assertThat(s.max()).isCloseTo(1000, within(10L));
+
+		h.record(5_000);
+		h.rotate(t0 + 20_000);
+		assertThat(h.snapshot(t0 + 20_000, Duration.ofSeconds(10)).values()).isEqualTo(1); // only the newest slot
+		assertThat(h.snapshot(t0 + 20_000, Duration.ofMinutes(1)).values()).isEqualTo(101);
+
+		// a minute on, the first slot has left the window
+		h.record(7);
+		h.rotate(t0 + 60_000);
+		RollingHistogram.Snapshot later = h.snapshot(t0 + 60_000, Duration.ofMinutes(1));
+		assertThat(later.values()).isEqualTo(2);
+		assertThat(later.events()).isEqualTo(2);
+	}
+
+	@Test
+	void seededValuesLandInTheirSlotAndTooOldOnesAreSkipped() {
+		long now = 2_000_000_000L;
+		RollingHistogram h = new RollingHistogram(SLOT, 6, 600_000, 2, now);
+		h.recordAt(now - 30_000, 1_200L);
+		h.recordAt(now - 30_000, null);
+		h.recordAt(now - 5 * 60_000, 9_999L); // before the ring
+		h.recordAt(now, 2_000_000L); // above the highest value: counted as the highest
+
+		RollingHistogram.Snapshot s = h.snapshot(now, Duration.ofMinutes(1));
+		assertThat(s.events()).isEqualTo(3);
+		assertThat(s.values()).isEqualTo(2);
+		assertThat(s.max()).isCloseTo(600_000, within(6_000L));
+		assertThat(h.snapshot(now, Duration.ofSeconds(20)).values()).isEqualTo(1);
+	}
+
+	@Test
+	void concurrentRecordingLosesNothing() throws Exception {
+		long t0 = 3_000_000_000L;
+		RollingHistogram h = new RollingHistogram(SLOT, 6, 600_000, 2, t0);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		for (int t = 0; t < 8; t++) {
+			pool.submit(() -> {
+				for (int i = 0; i < 100_000; i++) h.record(i % 1000);
+			});
+		}
+		// rotations while recording is under way split the values over slots, but keep them all
+		for (int r = 1; r <= 3; r++) {
+			Thread.sleep(5);
+			h.rotate(t0 + r * 10_000L);
+		}
+		pool.shutdown();
+		assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+		h.rotate(t0 + 40_000);
+
+		assertThat(h.snapshot(t0 + 40_000, Duration.ofMinutes(1)).values()).isEqualTo(800_000);
+	}
+}
@@ -0,0 +1,150 @@
+package com.infotrode.support_triage.export;
+
+import com.infotrode.support_triage.ai.AiRun;
+import com.infotrode.support_triage.ai.AiRunRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports {@code bench.rows} generated ai_runs (default 200k, ~2.5 KB of jsonb each) and reports
+ * throughput for NDJSON, CSV and gzipped NDJSON. A second pass forces a GC every 8 MB of output
+ * and records the live heap, against what the old way, {@code findAll()} into entities, keeps
+ * live per row (measured on a {@value #BASELINE_ROWS}-row page and extrapolated, since loading
+ * everything would take the test JVM down).
+ *
+ * Not part of the regular build; run with {@code mvn test -Dtest=ExportBenchmark} (needs the database).
+ */
+@SpringBootTest(properties = "ai.jobs.workerEnabled=false")
+class ExportBenchmark {
+
+	private static final int ROWS = Integer.getInteger("bench.rows", 200_000);
+	private static final int BASELINE_ROWS = 20_000;
+	private static final String EMAIL = "runs@export.bench.invalid";
+	// generated runs are one second apart from here on, so the date filter selects exactly them
+	private static final Instant FROM = Instant.parse("2001-01-01T00:00:00Z");
+
+	@Autowired
+	ExportService exportService;
+
+	@Autowired
+	AiRunRepository aiRunRepo;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@Autowired
+	TransactionTemplate tx;
+
+	@AfterEach
+	void cleanUp() {
+		jdbc.update("delete from tickets where requester_email = ?", EMAIL); // cascades to ai_runs
+	}
+
+	@Test
+	void aiRunsExportInConstantMemory() throws Exception {
+		long start = System.nanoTime();
+		generate();
+		System.out.printf("generated %d ai_runs in %d ms%n", ROWS, (System.nanoTime() - start) / 1_000_000);
+		Instant from = FROM, to = FROM.plusSeconds(ROWS + 1);
+
+		exportService.exportAiRuns(null, from, to, ExportFormat.NDJSON, false, OutputStream.nullOutputStream()); // warm-up
+
+		System.out.printf("%-14s %10s %10s %10s %10s%n", "format", "rows", "ms", "rows/s", "MB out");
+		for (Object[] f : new Object[][] {{ExportFormat.NDJSON, false}, {ExportFormat.CSV, false}, {ExportFormat.NDJSON, true}}) {
+			Counting out = new Counting(Long.MAX_VALUE);
+			long t0 = System.nanoTime();
+			long rows = exportService.exportAiRuns(null, from, to, (ExportFormat) f[0], (boolean) f[1], out);
+			double ms = (System.nanoTime() - t0) / 1e6;
+			System.out.printf("%-14s %10d %10.0f %10.0f %10.1f%n", f[0] + ((boolean) f[1] ? "+gzip" : ""),
+					rows, ms, rows / (ms / 1000), out.bytes / 1e6);
+			assertThat(rows).isEqualTo(ROWS);
+		}
+
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		long before = liveHeap(memory);
+		Counting sampled = new Counting(8L << 20);
+		exportService.exportAiRuns(null, from, to, ExportFormat.NDJSON, false, sampled);
+		double streamMb = (sampled.maxLive - before) / 1e6;
+
+		long baseBefore = liveHeap(memory);
+		double perRow = tx.execute(s -> {
+			List<AiRun> page = aiRunRepo.findAll(PageRequest.of(0, BASELINE_ROWS, Sort.by("id"))).getContent();
+			return (liveHeap(memory) - baseBefore) / (double) page.size();
+		});
+		System.out.printf("live heap while streaming %d rows: %.1f MB (%d samples)%n", ROWS, streamMb, sampled.samples);
+		System.out.printf("findAll(): %.1f KB per row -> %.0f MB for %d rows, %.0f MB for 1M%n",
+				perRow / 1024, perRow * ROWS / 1e6, ROWS, perRow * 1_000_000 / 1e6);
+
+		assertThat(streamMb).isLessThan(32);
+	}
+
+	private void generate() {
+		jdbc.update("insert into tickets (subject, requester_email, body, status, priority, tags) values ('Export bench', ?, 'x', 'OPEN', 'LOW', '{}')", EMAIL);
+		// prompt-sized input and a triage-sized output, with enough entropy that gzip is realistic
+		jdbc.update("""
+				insert into ai_runs (ticket_id, type, provider, model, prompt_version, input_json, output_json,
+				                     latency_ms, status, cache_hit, created_at)
+				select t.id, 'triage', 'ollama', 'llama3.2', 'triage-v3',
+				  jsonb_build_object('ticketId', t.id, 'subject', 'Subject ' || i,
+				    'body', (select string_agg(md5((i * 31 + k)::text), ' ') from generate_series(1, 28) k)),
+				  jsonb_build_object('category', 'billing', 'priority', 'HIGH', 'tags', jsonb_build_array('refund', 'invoice'),
+				    'rationale', (select string_agg(md5((i * 17 + k)::text), ' ') from generate_series(1, 40) k)),
+				  100 + i % 900, 'SUCCESS', false, cast(? as timestamptz) + make_interval(secs => i)
+				from tickets t, generate_series(1, ?) i
+				where t.requester_email = ?
+				""", FROM.atOffset(ZoneOffset.UTC), ROWS, EMAIL);
+		jdbc.execute("vacuum analyze ai_runs");
+	}
+
+	private static long liveHeap(MemoryMXBean memory) {
+		System.gc();
+		return memory.getHeapMemoryUsage().getUsed();
+	}
+
+	/** Discards output; every {@code sampleEvery} bytes it records the live heap. */
+	private static final class Counting extends OutputStream {
+		private final long sampleEvery;
+		private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		long bytes;
+		long maxLive;
+		int samples;
+
+		Counting(long sampleEvery) {
+			this.sampleEvery = sampleEvery;
+		}
+
+		@Override
+		public void write(int b) {
+			count(1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count(len);
+		}
+
+		private void count(int n) {
+			long crossed = (bytes + n) / sampleEvery - bytes / sampleEvery;
+			bytes += n;
+			if (crossed > 0) {
+				maxLive = Math.max(maxLive, liveHeap(memory));
+				samples++;
+			}
+		}
+	}
+}
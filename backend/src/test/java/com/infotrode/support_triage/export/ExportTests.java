@@ -0,0 +1,244 @@
+package com.infotrode.support_triage.export;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.infotrode.support_triage.ai.AiRun;
+import com.infotrode.support_triage.ai.AiRunRepository;
+import com.infotrode.support_triage.notes.TicketNote;
+import com.infotrode.support_triage.notes.TicketNoteRepository;
+import com.infotrode.support_triage.ticket.Ticket;
+import com.infotrode.support_triage.ticket.TicketImportService;
+import com.infotrode.support_triage.ticket.TicketRepository;
+import com.infotrode.support_triage.ticket.TicketStatus;
+import com.infotrode.support_triage.ticket.dto.TicketImportResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"ai.jobs.workerEnabled=false",
+		"export.maxConcurrent=1"
+})
+class ExportTests {
+
+	@Autowired
+	ExportService exportService;
+
+	@Autowired
+	TicketImportService importService;
+
+	@Autowired
+	TicketRepository ticketRepo;
+
+	@Autowired
+	TicketNoteRepository noteRepo;
+
+	@Autowired
+	AiRunRepository aiRunRepo;
+
+	@Autowired
+	JsonMapper json;
+
+	@Autowired
+	ExportController controller;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@Autowired
+	TransactionTemplate tx;
+
+	@LocalServerPort
+	int port;
+
+	private final HttpClient http = HttpClient.newHttpClient();
+
+	@Test
+	void ticketsFilteredByDateAndStatusAndCsvImportsBackUnchanged() throws Exception {
+		// an hour of 1990s nobody else writes into
+		Instant from = Instant.parse("1990-01-01T00:00:00Z").plus(Duration.ofHours(ThreadLocalRandom.current().nextInt(80_000)));
+		String tag = "export-" + UUID.randomUUID();
+		for (int i = 0; i < 3; i++) {
+			Ticket t = new Ticket();
+			t.setSubject("Export " + i + ", with a comma");
+			t.setRequesterEmail("export@example.com");
+			t.setBody("Line one\nline \"two\"");
+			t.setStatus(i == 0 ? TicketStatus.RESOLVED : TicketStatus.OPEN);
+			t.setTags(List.of(tag, "x"));
+			t.setCreatedAt(from.plusSeconds(i));
+			ticketRepo.save(t);
+		}
+		Instant to = from.plus(Duration.ofHours(1));
+
+		List<JsonNode> all = ndjson(exportService.exportTickets(null, from, to, ExportFormat.NDJSON, false, buffer()));
+		List<JsonNode> resolved = ndjson(exportService.exportTickets(TicketStatus.RESOLVED, from, to, ExportFormat.NDJSON, false, buffer()));
+
+		assertThat(all).hasSize(3);
+		assertThat(all.get(0).get("body").asString()).isEqualTo("Line one\nline \"two\"");
+		assertThat(all.get(0).get("createdAt").asString()).isEqualTo(from.toString());
+		assertThat(resolved).extracting(n -> n.get("subject").asString()).containsExactly("Export 0, with a comma");
+
+		// export -> import is lossless for everything the import takes
+		ByteArrayOutputStream csv = buffer();
+		assertThat(exportService.exportTickets(null, from, to, ExportFormat.CSV, false, csv)).isEqualTo(3);
+		String text = csv.toString(StandardCharsets.UTF_8);
+		assertThat(text).startsWith("id,subject,requesterEmail,body,status,priority,category,tags,createdAt,updatedAt\r\n");
+
+		Instant importedFrom = from.plus(Duration.ofDays(30));
+		TicketImportResult imported = importService.importTickets(new ByteArrayInputStream(
+						text.replace(from.toString().substring(0, 10), importedFrom.toString().substring(0, 10))
+								.getBytes(StandardCharsets.UTF_8)),
+				StandardCharsets.UTF_8, TicketImportService.Format.CSV);
+		assertThat(imported.imported()).isEqualTo(3);
+
+		List<JsonNode> copies = ndjson(exportService.exportTickets(null, importedFrom, importedFrom.plus(Duration.ofHours(1)),
+				ExportFormat.NDJSON, false, buffer()));
+		assertThat(copies).hasSize(3);
+		for (int i = 0; i < 3; i++) {
+			for (String field : List.of("subject", "requesterEmail", "body", "status", "priority", "tags")) {
+				assertThat(copies.get(i).get(field)).as(field).isEqualTo(all.get(i).get(field));
+			}
+		}
+	}
+
+	@Test
+	void aiRunPayloadsAreCopiedAsJsonAndGzipWorks() throws Exception {
+		Instant from = Instant.now();
+		Ticket t = new Ticket();
+		t.setSubject("Export AI runs");
+		t.setRequesterEmail("export@example.com");
+		t.setBody("Body");
+		long ticketId = ticketRepo.save(t).getId();
+
+		AiRun ok = run(ticketId, AiRun.Status.SUCCESS);
+		ok.setOutputJson(JsonNodeFactory.instance.objectNode().put("summary", "all \"good\""));
+		aiRunRepo.save(ok);
+		AiRun failed = run(ticketId, AiRun.Status.ERROR);
+		failed.setErrorMessage("model timed out");
+		aiRunRepo.save(failed);
+
+		TicketNote note = new TicketNote();
+		note.setTicketId(ticketId);
+		note.setType("note");
+		note.setBody("Called back, \"fixed\"");
+		noteRepo.save(note);
+
+		ByteArrayOutputStream gz = buffer();
+		exportService.exportAiRuns(null, from, null, ExportFormat.NDJSON, true, gz);
+		List<JsonNode> runs = ndjson(new GZIPInputStream(new ByteArrayInputStream(gz.toByteArray())).readAllBytes());
+
+		assertThat(runs).hasSize(2);
+		assertThat(runs.get(0).get("inputJson").get("ticketId").asLong()).isEqualTo(ticketId);
+		assertThat(runs.get(0).get("outputJson").get("summary").asString()).isEqualTo("all \"good\"");
+		assertThat(runs.get(1).get("outputJson").isNull()).isTrue();
+		assertThat(runs.get(1).get("errorMessage").asString()).isEqualTo("model timed out");
+
+		ByteArrayOutputStream errors = buffer();
+		assertThat(exportService.exportAiRuns(AiRun.Status.ERROR, from, null, ExportFormat.CSV, false, errors)).isEqualTo(1);
+		assertThat(errors.toString(StandardCharsets.UTF_8).lines().skip(1).findFirst().orElseThrow())
+				.contains(",ERROR,\"{\"\"ticketId\"\": " + ticketId + "}\",,");
+
+		ByteArrayOutputStream notes = buffer();
+		assertThat(exportService.exportNotes(from, null, ExportFormat.CSV, false, notes)).isEqualTo(1);
+		assertThat(notes.toString(StandardCharsets.UTF_8)).contains("," + ticketId + ",note,\"Called back, \"\"fixed\"\"\",");
+	}
+
+	@Test
+	void exportsBeyondTheLimitAreTurnedAwayUntilASlotFrees() throws Exception {
+		// an export stuck behind a table lock keeps the only slot (export.maxConcurrent=1)
+		CountDownLatch locked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> tx.executeWithoutResult(s -> {
+			jdbc.execute("lock table ticket_notes in access exclusive mode");
+			locked.countDown();
+			try {
+				release.await(30, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+		CompletableFuture<HttpResponse<String>> stuck;
+		try {
+			assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+			stuck = http.sendAsync(get("/api/export/notes?from=1990-01-01&to=1990-01-02"), HttpResponse.BodyHandlers.ofString());
+			assertThat(await(() -> controller.running() == 1)).isTrue();
+
+			HttpResponse<String> busy = http.send(get("/api/export/tickets?from=1990-01-01&to=1990-01-02"), HttpResponse.BodyHandlers.ofString());
+			assertThat(busy.statusCode()).isEqualTo(503);
+			assertThat(busy.headers().firstValue("Retry-After")).hasValue("30");
+			assertThat(json.readTree(busy.body()).get("message").asString()).startsWith("Too many exports running");
+		} finally {
+			release.countDown();
+			holder.get(10, TimeUnit.SECONDS);
+		}
+
+		assertThat(stuck.get(10, TimeUnit.SECONDS).statusCode()).isEqualTo(200);
+		assertThat(await(() -> controller.running() == 0)).isTrue();
+		assertThat(http.send(get("/api/export/tickets?from=1990-01-01&to=1990-01-02"), HttpResponse.BodyHandlers.ofString())
+				.statusCode()).isEqualTo(200);
+	}
+
+	private HttpRequest get(String path) {
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+	}
+
+	private static boolean await(BooleanSupplier condition) throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			if (condition.getAsBoolean()) return true;
+			Thread.sleep(50);
+		}
+		return false;
+	}
+
+	private ByteArrayOutputStream last;
+
+	private ByteArrayOutputStream buffer() {
+		return last = new ByteArrayOutputStream();
+	}
+
+	private List<JsonNode> ndjson(long rows) {
+		List<JsonNode> nodes = ndjson(last.toByteArray());
+		assertThat(nodes).hasSize((int) rows);
+		return nodes;
+	}
+
+	private List<JsonNode> ndjson(byte[] bytes) {
+		return new String(bytes, StandardCharsets.UTF_8).lines().map(json::readTree).toList();
+	}
+
+	private static AiRun run(long ticketId, AiRun.Status status) {
+		AiRun r = new AiRun();
+		r.setTicketId(ticketId);
+		r.setType("summary");
+		r.setProvider("ollama");
+		r.setModel("test");
+		r.setPromptVersion("v1");
+		r.setStatus(status);
+		r.setInputJson(JsonNodeFactory.instance.objectNode().put("ticketId", ticketId));
+		return r;
+	}
+}
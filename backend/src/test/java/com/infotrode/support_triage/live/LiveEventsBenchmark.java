@@ -0,0 +1,168 @@
+package com.infotrode.support_triage.live;
+
+import com.infotrode.support_triage.ticket.Ticket;
+import com.infotrode.support_triage.ticket.TicketRepository;
+import com.infotrode.support_triage.ticket.TicketService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@value #CLIENTS} browser tabs on one node: as real SSE streams on {@code GET /api/events},
+ * versus polling page 1 of the inbox every {@value #POLL_SECONDS} s. Reports the database
+ * connections in use with all streams open, how long one ticket update takes to reach every
+ * stream, and the query load the same tabs would put on the database by polling.
+ *
+ * Not part of the regular build; run with {@code mvn test -Dtest=LiveEventsBenchmark} (needs the database).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "ai.jobs.workerEnabled=false")
+class LiveEventsBenchmark {
+
+	private static final int CLIENTS = Integer.getInteger("bench.clients", 1000);
+	private static final int POLL_SECONDS = 15;
+	private static final int UPDATES = 5;
+
+	@LocalServerPort
+	int port;
+
+	@Autowired
+	TicketService ticketService;
+
+	@Autowired
+	TicketRepository tickets;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@Autowired
+	LiveEventHub hub;
+
+	@Test
+	void oneConnectionServesEveryTab() throws Exception {
+		Ticket t = new Ticket();
+		t.setSubject("Live benchmark");
+		t.setRequesterEmail("live-bench@example.com");
+		t.setBody("Body");
+		long id = tickets.save(t).getId();
+		String marker = "[" + id + "]";
+
+		int before = backendConnections();
+		HttpClient http = HttpClient.newBuilder()
+				.executor(Executors.newFixedThreadPool(8))
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(10))
+				.build();
+		List<Stream> streams = new ArrayList<>();
+		List<CompletableFuture<?>> responses = new ArrayList<>();
+		for (int i = 0; i < CLIENTS; i++) {
+			Stream s = new Stream(marker);
+			streams.add(s);
+			HttpRequest req = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/events")).GET().build();
+			responses.add(http.sendAsync(req, HttpResponse.BodyHandlers.fromLineSubscriber(s)));
+		}
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+		while (hub.clients() < CLIENTS && System.nanoTime() < deadline) Thread.sleep(50);
+		assertThat(hub.clients()).isGreaterThanOrEqualTo(CLIENTS);
+		int during = backendConnections();
+
+		List<Double> all = new ArrayList<>();
+		for (int round = 0; round < UPDATES; round++) {
+			CountDownLatch done = new CountDownLatch(CLIENTS);
+			streams.forEach(s -> s.arm(done));
+			long start = System.nanoTime();
+			jdbc.update("update tickets set status = ? where id = ?", round % 2 == 0 ? "IN_PROGRESS" : "OPEN", id);
+			assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+			streams.forEach(s -> all.add((s.receivedAt.get() - start) / 1e6));
+		}
+		double[] ms = all.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+
+		double pageMs = pageLatency();
+		double perSecond = CLIENTS / (double) POLL_SECONDS;
+		System.out.printf("%d tabs%n", CLIENTS);
+		System.out.printf("  SSE:     db connections %d -> %d with all streams open; update reaches all tabs p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+				before, during, ms[ms.length / 2], ms[(int) (ms.length * 0.99)], ms[ms.length - 1]);
+		System.out.printf("  polling: %.0f inbox queries/s at %.1f ms each = %.0f ms of connection time per second, and changes seen %d s late on average%n",
+				perSecond, pageMs, perSecond * pageMs, POLL_SECONDS / 2);
+
+		responses.forEach(r -> r.cancel(true));
+		tickets.deleteById(id);
+		assertThat(during).isLessThanOrEqualTo(before + 1);
+	}
+
+	/** Sessions of this user on the database, whatever they are doing. */
+	private int backendConnections() {
+		return jdbc.queryForObject(
+				"select count(*) from pg_stat_activity where usename = current_user and datname = current_database()",
+				Integer.class);
+	}
+
+	private double pageLatency() {
+		for (int i = 0; i < 20; i++) ticketService.list(null, null, null, 50);
+		double[] ms = new double[51];
+		for (int i = 0; i < ms.length; i++) {
+			long start = System.nanoTime();
+			ticketService.list(null, null, null, 50);
+			ms[i] = (System.nanoTime() - start) / 1e6;
+		}
+		Arrays.sort(ms);
+		return ms[ms.length / 2];
+	}
+
+	/** One tab: notes when the next "tickets" event naming the ticket arrives. */
+	private static final class Stream implements Flow.Subscriber<String> {
+		final String marker;
+		final AtomicLong receivedAt = new AtomicLong();
+		volatile CountDownLatch armed;
+
+		Stream(String marker) {
+			this.marker = marker;
+		}
+
+		void arm(CountDownLatch latch) {
+			receivedAt.set(0);
+			armed = latch;
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			subscription.request(Long.MAX_VALUE);
+		}
+
+		@Override
+		public void onNext(String line) {
+			CountDownLatch latch = armed;
+			if (latch != null && line.startsWith("data:") && line.contains(marker)
+					&& receivedAt.compareAndSet(0, System.nanoTime())) {
+				armed = null;
+				latch.countDown();
+			}
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+		}
+
+		@Override
+		public void onComplete() {
+		}
+	}
+}
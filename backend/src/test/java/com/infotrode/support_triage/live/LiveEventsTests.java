@@ -0,0 +1,207 @@
+package com.infotrode.support_triage.live;
+
+import com.infotrode.support_triage.notes.TicketNote;
+import com.infotrode.support_triage.notes.TicketNoteRepository;
+import com.infotrode.support_triage.ticket.Ticket;
+import com.infotrode.support_triage.ticket.TicketRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+		"ai.jobs.workerEnabled=false",
+		"live.events.subscriberQueue=8"
+})
+class LiveEventsTests {
+
+	@Autowired
+	LiveEventHub hub;
+
+	@Autowired
+	LiveEventsListener listener;
+
+	@Autowired
+	TicketRepository tickets;
+
+	@Autowired
+	TicketNoteRepository notes;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@Autowired
+	JsonMapper json;
+
+	private final BlockingQueue<JsonNode> received = new LinkedBlockingQueue<>();
+	private AutoCloseable subscription;
+
+	@BeforeEach
+	void subscribe() throws InterruptedException {
+		for (int i = 0; i < 100 && !listener.isConnected(); i++) Thread.sleep(50);
+		assertThat(listener.isConnected()).isTrue();
+		subscription = hub.subscribe((event, data) -> {
+			if (event != null) received.add(json.readTree(data));
+		});
+	}
+
+	@AfterEach
+	void unsubscribe() throws Exception {
+		subscription.close();
+		jdbc.update("delete from tickets where requester_email = 'live@bulk.invalid'");
+	}
+
+	@Test
+	void ticketNoteAndAiRunChangesArriveAfterCommit() throws InterruptedException {
+		Ticket t = new Ticket();
+		t.setSubject("Live");
+		t.setRequesterEmail("live@example.com");
+		t.setBody("Body");
+		long id = tickets.save(t).getId();
+		JsonNode insert = next(e -> e.path("type").asString().equals("tickets") && e.path("ids").path(0).asLong() == id);
+		assertThat(insert.path("op").asString()).isEqualTo("INSERT");
+
+		jdbc.update("update tickets set status = 'RESOLVED' where id = ?", id);
+		next(e -> e.path("op").asString().equals("UPDATE") && e.path("ids").path(0).asLong() == id);
+
+		TicketNote note = new TicketNote();
+		note.setTicketId(id);
+		note.setType("note");
+		note.setBody("Live note");
+		long noteId = notes.save(note).getId();
+		JsonNode noteEvent = next(e -> e.path("type").asString().equals("notes")
+				&& e.path("items").path(0).path("id").asLong() == noteId);
+		assertThat(noteEvent.path("items").get(0).path("ticketId").asLong()).isEqualTo(id);
+
+		jdbc.update("""
+				insert into ai_runs (ticket_id, type, provider, model, prompt_version, input_json, output_json, latency_ms, status)
+				values (?, 'triage', 'ollama', 'llama3.2', 'triage-v3', '{}', '{}', 1, 'SUCCESS')
+				""", id);
+		JsonNode runEvent = next(e -> e.path("type").asString().equals("ai-runs")
+				&& e.path("items").path(0).path("ticketId").asLong() == id);
+		assertThat(runEvent.path("items").get(0).path("status").asString()).isEqualTo("SUCCESS");
+
+		// rolled back: nothing is sent
+		jdbc.execute("begin; update tickets set status = 'OPEN' where id = " + id + "; rollback;");
+		tickets.deleteById(id);
+		JsonNode next = next(e -> e.path("ids").path(0).asLong() == id);
+		assertThat(next.path("op").asString()).isEqualTo("DELETE");
+	}
+
+	@Test
+	void oneEventPerStatementWithACappedIdList() throws InterruptedException {
+		jdbc.update("""
+				insert into tickets (subject, requester_email, body, status, priority)
+				select 'Bulk ' || i, 'live@bulk.invalid', 'Body', 'OPEN', 'LOW' from generate_series(1, 250) i
+				""");
+		JsonNode insert = next(e -> e.path("count").asInt() == 250);
+		assertThat(insert.path("ids").size()).isEqualTo(100);
+
+		jdbc.update("update tickets set priority = 'HIGH' where requester_email = 'live@bulk.invalid'");
+		JsonNode update = next(e -> e.path("op").asString().equals("UPDATE"));
+		assertThat(update.path("count").asInt()).isEqualTo(250);
+		assertThat(received.poll(300, TimeUnit.MILLISECONDS)).isNull();
+	}
+
+	@Test
+	void aStalledClientIsDroppedWithoutHoldingUpTheOthers() throws Exception {
+		CountDownLatch stalled = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		try (AutoCloseable slow = hub.subscribe((event, data) -> {
+			stalled.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		})) {
+			int before = hub.clients();
+			hub.publish("test", "{\"n\":0}");
+			assertThat(stalled.await(5, TimeUnit.SECONDS)).isTrue();
+
+			// the slow one sits in its first send while its queue fills up; publishing never waits on it
+			for (int n = 1; n <= 20; n++) {
+				hub.publish("test", "{\"n\":" + n + "}");
+				Thread.sleep(5);
+			}
+			assertThat(hub.clients()).isEqualTo(before - 1);
+
+			for (int n = 0; n <= 20; n++) {
+				int expected = n;
+				next(e -> e.path("n").asInt(-1) == expected);
+			}
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	void concurrentOpensNeverGoPastMaxClients() throws Exception {
+		LiveEventsProperties props = new LiveEventsProperties();
+		props.setMaxClients(2);
+		LiveEventHub small = new LiveEventHub(props, new SimpleMeterRegistry());
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Callable<Boolean>> opens = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				opens.add(() -> {
+					start.await();
+					try {
+						small.open();
+						return true;
+					} catch (ResponseStatusException e) {
+						assertThat(e.getStatusCode().value()).isEqualTo(503);
+						return false;
+					}
+				});
+			}
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (Callable<Boolean> open : opens) results.add(pool.submit(open));
+			start.countDown();
+			int opened = 0;
+			for (Future<Boolean> r : results) if (r.get(5, TimeUnit.SECONDS)) opened++;
+			assertThat(opened).isEqualTo(2);
+			assertThat(small.clients()).isEqualTo(2);
+
+			// dropped streams give their slots back
+			small.closeAll();
+			assertThat(small.clients()).isZero();
+			small.open();
+			small.open();
+			assertThat(small.clients()).isEqualTo(2);
+		} finally {
+			pool.shutdownNow();
+			small.destroy();
+		}
+	}
+
+	private JsonNode next(Predicate<JsonNode> matching) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (System.nanoTime() < deadline) {
+			JsonNode e = received.poll(100, TimeUnit.MILLISECONDS);
+			if (e != null && matching.test(e)) return e;
+		}
+		throw new AssertionError("no matching live event within 5 s");
+	}
+}
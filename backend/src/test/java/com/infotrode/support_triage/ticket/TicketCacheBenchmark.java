@@ -0,0 +1,88 @@
+package com.infotrode.support_triage.ticket;
+
+import com.infotrode.support_triage.ticket.dto.TicketResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * One ticket detail view (~4 KB body) served three ways: the old path (query, map, serialize),
+ * a cache hit that is still serialized (200), and a cache hit revalidated by ETag (304). Reports
+ * median microseconds per request.
+ *
+ * Not part of the regular build; run with {@code mvn test -Dtest=TicketCacheBenchmark} (needs the database).
+ */
+@SpringBootTest(properties = "ai.jobs.workerEnabled=false")
+class TicketCacheBenchmark {
+
+	private static final int RUNS = 2000;
+
+	@Autowired
+	TicketService ticketService;
+
+	@Autowired
+	TicketController controller;
+
+	@Autowired
+	TicketRepository repo;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@Autowired
+	JsonMapper json;
+
+	@AfterEach
+	void cleanUp() {
+		TicketCorpus.delete(jdbc);
+	}
+
+	@Test
+	void cachedAndConditionalGetsSkipTheDatabase() {
+		Ticket t = new Ticket();
+		t.setSubject("Detail view");
+		t.setRequesterEmail("detail@cache.bench.invalid");
+		t.setBody("Quoted thread line. ".repeat(200));
+		long id = repo.save(t).getId();
+		String etag = TicketController.etag(ticketService.find(id));
+
+		double old = p50us(() -> json.writeValueAsBytes(TicketResponse.from(ticketService.get(id))).length);
+		double hit = p50us(() -> json.writeValueAsBytes(controller.get(id, request(null)).getBody()).length);
+		double revalidated = p50us(() -> controller.get(id, request(etag)) == null ? 0 : 1);
+
+		System.out.printf("%-34s %8.1f us%n", "old: query + serialize", old);
+		System.out.printf("%-34s %8.1f us%n", "cache hit + serialize (200)", hit);
+		System.out.printf("%-34s %8.1f us%n", "cache hit, If-None-Match (304)", revalidated);
+		assertThat(revalidated).isLessThan(old / 5);
+	}
+
+	private static double p50us(LongSupplier call) {
+		for (int i = 0; i < RUNS / 4; i++) call.getAsLong(); // warm-up
+		double[] us = new double[RUNS];
+		for (int i = 0; i < RUNS; i++) {
+			long start = System.nanoTime();
+			call.getAsLong();
+			us[i] = (System.nanoTime() - start) / 1e3;
+		}
+		Arrays.sort(us);
+		return us[RUNS / 2];
+	}
+
+	private static ServletWebRequest request(String ifNoneMatch) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tickets/1");
+		if (ifNoneMatch != null) request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+		return new ServletWebRequest(request, new MockHttpServletResponse());
+	}
+}
@@ -0,0 +1,134 @@
+package com.infotrode.support_triage.ticket;
+
+import com.infotrode.support_triage.ticket.dto.CreateTicketRequest;
+import com.infotrode.support_triage.ticket.dto.TicketResponse;
+import com.infotrode.support_triage.ticket.dto.UpdateTicketRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "ai.jobs.workerEnabled=false")
+class TicketCacheTests {
+
+	@Autowired
+	TicketService ticketService;
+
+	@Autowired
+	TicketController controller;
+
+	@Autowired
+	TicketRepository repo;
+
+	@Autowired
+	MeterRegistry registry;
+
+	@Autowired
+	Validator validator;
+
+	@Test
+	void readsComeFromTheCacheUntilUpdateEvicts() throws Exception {
+		long id = save("Cached subject");
+
+		TicketResponse first = ticketService.find(id);
+		double hits = hits();
+		assertThat(ticketService.find(id)).isSameAs(first);
+		assertThat(ticketService.exists(id)).isTrue();
+		assertThat(hits()).isEqualTo(hits + 2);
+
+		// writes that bypass the service (another node, SQL) evict through their change event (V12)
+		Ticket t = repo.findById(id).orElseThrow();
+		t.setSubject("Changed behind the cache");
+		repo.save(t);
+		assertThat(awaitSubject(id, "Changed behind the cache")).isTrue();
+
+		UpdateTicketRequest req = new UpdateTicketRequest();
+		req.setSubject("Updated subject");
+		ticketService.update(id, req);
+		TicketResponse updated = ticketService.find(id);
+		assertThat(updated.getSubject()).isEqualTo("Updated subject");
+		assertThat(updated.getUpdatedAt()).isAfter(first.getUpdatedAt());
+		assertThat(ticketService.exists(Long.MAX_VALUE)).isFalse();
+	}
+
+	@Test
+	void unchangedTicketIsA304AndAnUpdateChangesTheTag() {
+		long id = save("Conditional GET");
+
+		MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+		ResponseEntity<TicketResponse> first = controller.get(id, request(null, firstResponse));
+		String etag = firstResponse.getHeader(HttpHeaders.ETAG);
+		assertThat(first.getBody()).isNotNull();
+		assertThat(etag).isNotBlank();
+		assertThat(firstResponse.getHeader(HttpHeaders.LAST_MODIFIED)).isNotBlank();
+
+		MockHttpServletResponse notModified = new MockHttpServletResponse();
+		assertThat(controller.get(id, request(etag, notModified))).isNull();
+		assertThat(notModified.getStatus()).isEqualTo(304);
+
+		UpdateTicketRequest req = new UpdateTicketRequest();
+		req.setSubject("Conditional GET, changed");
+		ticketService.update(id, req);
+
+		MockHttpServletResponse changed = new MockHttpServletResponse();
+		ResponseEntity<TicketResponse> again = controller.get(id, request(etag, changed));
+		assertThat(again.getBody().getSubject()).isEqualTo("Conditional GET, changed");
+		assertThat(changed.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+	}
+
+	@Test
+	void nullTagsAreRejectedAndAStoredOneDoesNotBreakReads() {
+		CreateTicketRequest create = new CreateTicketRequest();
+		create.setSubject("Null tag");
+		create.setRequesterEmail("cache@example.com");
+		create.setBody("Body");
+		create.setTags(Arrays.asList("billing", null));
+		assertThat(validator.validate(create)).extracting(v -> v.getPropertyPath().toString()).containsExactly("tags[1].<list element>");
+		UpdateTicketRequest update = new UpdateTicketRequest();
+		update.setTags(Arrays.asList(null, "billing"));
+		assertThat(validator.validate(update)).extracting(v -> v.getPropertyPath().toString()).containsExactly("tags[0].<list element>");
+
+		// written before the check, or behind the API's back
+		long id = save("Null tag");
+		Ticket t = repo.findById(id).orElseThrow();
+		t.setTags(Arrays.asList("billing", null));
+		repo.save(t);
+		assertThat(ticketService.find(id).getTags()).containsExactly("billing", null);
+	}
+
+	private long save(String subject) {
+		Ticket t = new Ticket();
+		t.setSubject(subject);
+		t.setRequesterEmail("cache@example.com");
+		t.setBody("Body");
+		return repo.save(t).getId();
+	}
+
+	private boolean awaitSubject(long id, String subject) throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			if (ticketService.find(id).getSubject().equals(subject)) return true;
+			Thread.sleep(50);
+		}
+		return false;
+	}
+
+	private double hits() {
+		return registry.get("tickets.cache.lookups").tag("result", "hit").counter().count();
+	}
+
+	private static ServletWebRequest request(String ifNoneMatch, MockHttpServletResponse response) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tickets/1");
+		if (ifNoneMatch != null) request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+		return new ServletWebRequest(request, response);
+	}
+}
@@ -0,0 +1,55 @@
+package com.infotrode.support_triage.ticket;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Generated tickets for the search and paging benchmarks. Rows use {@code *.bench.invalid} email
+ * domains so they can be deleted again.
+ */
+final class TicketCorpus {
+	private TicketCorpus() {}
+
+	// ~2% of tickets carry each topic; the rest of the body is filler with a large vocabulary
+	private static final String SQL = """
+			insert into tickets (subject, requester_email, body, status, priority, category, tags)
+			select
+			  initcap(topic) || ' problem on ' || product,
+			  'user' || i || '@' || product || '.bench.invalid',
+			  'Hello, ' || topic || ' started failing. '
+			    || (select string_agg('tok' || floor(random() * 20000)::int, ' ') from generate_series(1, 60 + (i % 2)))
+			    || ' Regards.',
+			  (array['OPEN','IN_PROGRESS','RESOLVED'])[1 + i % 3],
+			  (array['LOW','MEDIUM','HIGH','URGENT'])[1 + i % 4],
+			  (array['billing','bug','account','question'])[1 + i % 4],
+			  '{}'
+			from (
+			  select i,
+			    (array['password','invoice','timeout','refund','login','export','webhook','latency','invite','sso',
+			           'upload','billing','outage','mobile','api','integration','subscription','csv','dashboard','report',
+			           'notification','search','permissions','checkout','coupon','shipping','tracking','calendar','sync','backup',
+			           'restore','migration','import','audit','token','certificate','domain','email','sms','crash',
+			           'freeze','memory','storage','quota','trial','plan','seat','license','onboarding','locale'])[1 + (i * 7919) % 50] as topic,
+			    (array['acme','globex','initech','umbrella','hooli'])[1 + i % 5] as product
+			  from generate_series(1, ?) i
+			) s
+			""";
+
+	static void generate(JdbcTemplate jdbc, int tickets) {
+		delete(jdbc);
+		long start = System.nanoTime();
+		jdbc.update(SQL, tickets);
+		// steady state: statistics, visibility map and hint bits as autovacuum would leave them
+		jdbc.execute("vacuum analyze tickets");
+		jdbc.execute("vacuum analyze ticket_terms");
+		System.out.printf("generated %d tickets in %d ms%n", tickets, (System.nanoTime() - start) / 1_000_000);
+	}
+
+	static void delete(JdbcTemplate jdbc) {
+		Object start = jdbc.queryForObject("select clock_timestamp()", Object.class);
+		jdbc.update("delete from tickets where requester_email like '%.bench.invalid'");
+		// nobody mirrors generated tickets; don't leave a tombstone per row behind (V11)
+		jdbc.update("delete from ticket_tombstones where deleted_at >= ?", start);
+		// ticket_terms is append-only (V9); drop the generated requesters so they don't linger in suggestions
+		jdbc.update("delete from ticket_terms where kind = 'requester' and term like '%.bench.invalid'");
+	}
+}
@@ -0,0 +1,105 @@
+package com.infotrode.support_triage.ticket;
+
+import com.infotrode.support_triage.ticket.dto.CreateTicketRequest;
+import com.infotrode.support_triage.ticket.dto.TicketImportResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Import throughput in rows/sec: one {@code TicketService.create} per ticket (what the old
+ * one-POST-per-ticket migration did) versus the streaming importer on NDJSON and CSV. The upload
+ * is generated on the fly while it is read, like a request body, so it never sits in memory.
+ *
+ * Not part of the regular build; run with {@code mvn test -Dtest=TicketImportBenchmark} (needs the database).
+ */
+@SpringBootTest(properties = "ai.jobs.workerEnabled=false")
+class TicketImportBenchmark {
+
+	private static final int ONE_BY_ONE = 5_000;
+	private static final int STREAMED = Integer.getInteger("bench.tickets", 100_000);
+	private static final int WARMUP = 10_000;
+
+	@Autowired
+	TicketService ticketService;
+
+	@Autowired
+	TicketImportService importService;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@AfterEach
+	void cleanUp() {
+		TicketCorpus.delete(jdbc);
+	}
+
+	@Test
+	void streamingImportOutrunsOneInsertPerTicket() throws Exception {
+		long start = System.nanoTime();
+		for (int i = 0; i < ONE_BY_ONE; i++) {
+			CreateTicketRequest req = new CreateTicketRequest();
+			req.setSubject("Legacy ticket " + i);
+			req.setRequesterEmail("legacy" + i + "@import.bench.invalid");
+			req.setBody(body(i));
+			ticketService.create(req);
+		}
+		double oneByOne = ONE_BY_ONE / ((System.nanoTime() - start) / 1e9);
+
+		// warm-up: JIT and a first batch of ticket_terms, so neither format pays for them alone
+		importService.importTickets(generated("subject,requester_email,body\n", WARMUP,
+				i -> "Warm-up %d,w%d@import.bench.invalid,body\n".formatted(i, i)), StandardCharsets.UTF_8, TicketImportService.Format.CSV);
+
+		TicketImportResult ndjson = importService.importTickets(generated("", STREAMED, i -> """
+				{"subject":"Imported %d","requesterEmail":"nd%d@import.bench.invalid","body":"%s","priority":"HIGH","tags":["legacy"]}
+				""".formatted(i, i, body(i))), StandardCharsets.UTF_8, TicketImportService.Format.NDJSON);
+
+		TicketImportResult csv = importService.importTickets(generated("subject,requester_email,body,priority,tags\n", STREAMED,
+				i -> "Imported %d,csv%d@import.bench.invalid,\"%s\",HIGH,legacy\n".formatted(i, i, body(i))),
+				StandardCharsets.UTF_8, TicketImportService.Format.CSV);
+
+		System.out.printf("%-24s %8s %10s%n", "path", "rows", "rows/sec");
+		System.out.printf("%-24s %8d %10.0f%n", "create() per ticket", ONE_BY_ONE, oneByOne);
+		System.out.printf("%-24s %8d %10.0f%n", "import NDJSON", ndjson.imported(), ndjson.rowsPerSecond());
+		System.out.printf("%-24s %8d %10.0f%n", "import CSV", csv.imported(), csv.rowsPerSecond());
+
+		assertThat(ndjson.imported()).isEqualTo(STREAMED);
+		assertThat(csv.imported()).isEqualTo(STREAMED);
+		assertThat(ndjson.rowsPerSecond()).isGreaterThan(oneByOne * 3);
+	}
+
+	private static String body(int i) {
+		return "Hello, since the upgrade ticket " + i + " cannot be processed. We tried restarting twice and "
+				+ "clearing the cache, the error stays the same. Please advise. Regards.";
+	}
+
+	/** {@code header}, then rows {@code 1..rows}, each produced only when the reader gets to it. */
+	private static InputStream generated(String header, int rows, IntFunction<String> row) {
+		return new SequenceInputStream(new Enumeration<>() {
+			int next = 0;
+
+			@Override
+			public boolean hasMoreElements() {
+				return next <= rows;
+			}
+
+			@Override
+			public InputStream nextElement() {
+				String text = (next == 0) ? header : row.apply(next);
+				next++;
+				return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+			}
+		});
+	}
+}
@@ -0,0 +1,84 @@
+package com.infotrode.support_triage.ticket;
+
+import com.infotrode.support_triage.ticket.dto.TicketImportResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "ai.jobs.workerEnabled=false")
+class TicketImportTests {
+
+	@Autowired
+	TicketImportService importService;
+
+	@Autowired
+	TicketRepository repo;
+
+	@Test
+	void ndjsonBadLinesAreReportedAndTheRestImported() throws Exception {
+		String tag = "import-" + UUID.randomUUID();
+		String ndjson = """
+				{"subject":"Printer on fire","requesterEmail":"a@example.com","body":"Smoke.","tags":["%1$s"],"createdAt":"2021-03-04T05:06:07Z"}
+				{"subject":"Broken json","requesterEmail":
+				{"subject":"No email","body":"x","tags":["%1$s"]}
+
+				{"subject":"NUL byte","requesterEmail":"c@example.com","body":"bad \\u0000 byte","tags":["%1$s"]}
+				null
+				["not", "a", "row"]
+				42
+				{"subject":"Fine too","requesterEmail":"d@example.com","body":"ok","priority":"HIGH","tags":["%1$s"]}
+				""".formatted(tag);
+
+		TicketImportResult r = importService.importTickets(
+				new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8,
+				TicketImportService.Format.NDJSON);
+
+		assertThat(r.imported()).isEqualTo(2);
+		assertThat(r.failed()).isEqualTo(6);
+		// parse and validation errors as they are read, database rejections when their chunk is written
+		assertThat(r.errors()).extracting(TicketImportResult.LineError::line).containsExactly(2L, 3L, 6L, 7L, 8L, 5L);
+		assertThat(r.errors().get(0).message()).startsWith("invalid JSON");
+		assertThat(r.errors().get(1).message()).contains("requesterEmail");
+		assertThat(r.errors().subList(2, 5)).extracting(TicketImportResult.LineError::message)
+				.containsOnly("expected a JSON object");
+		assertThat(r.errors().get(5).message()).startsWith("rejected by the database");
+
+		Ticket first = repo.findAll().stream()
+				.filter(t -> t.getTags().contains(tag) && t.getSubject().equals("Printer on fire"))
+				.findFirst().orElseThrow();
+		assertThat(first.getCreatedAt()).isEqualTo(Instant.parse("2021-03-04T05:06:07Z"));
+	}
+
+	@Test
+	void csvWithQuotedMultilineFieldsAndHeaderAliases() throws Exception {
+		String tag = "import-" + UUID.randomUUID();
+		String csv = "Subject,requester_email,Body,Status,Tags,legacy_id\r\n"
+				+ "\"Refund, partial\",e@example.com,\"Line one\nline \"\"two\"\"\",resolved,\"" + tag + ";billing\",17\r\n"
+				+ "Bad status,f@example.com,body,LOST," + tag + ",18\r\n"
+				+ "Plain,g@example.com,body,,\"" + tag + "\",19\r\n";
+
+		TicketImportResult r = importService.importTickets(
+				new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8,
+				TicketImportService.Format.CSV);
+
+		assertThat(r.imported()).isEqualTo(2);
+		assertThat(r.errors()).singleElement().satisfies(e -> {
+			assertThat(e.line()).isEqualTo(4); // the quoted body spans lines 2-3
+			assertThat(e.message()).startsWith("Invalid status: LOST");
+		});
+
+		Ticket refund = repo.findAll().stream()
+				.filter(t -> t.getTags().contains(tag) && t.getSubject().equals("Refund, partial"))
+				.findFirst().orElseThrow();
+		assertThat(refund.getBody()).isEqualTo("Line one\nline \"two\"");
+		assertThat(refund.getStatus()).isEqualTo(TicketStatus.RESOLVED);
+		assertThat(refund.getTags()).containsExactly(tag, "billing");
+	}
+}
@@ -0,0 +1,129 @@
+package com.infotrode.support_triage.ticket;
+
+import com.infotrode.support_triage.ticket.dto.TicketResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Inbox listing at two corpus sizes: the old unpaged {@code findAll(Sort)} versus a keyset page
+ * of {@value #PAGE} (the first one, and one {@value #DEPTH} pages deep). Reports median latency
+ * and bytes allocated per request; both should stay flat for pages while the old listing grows
+ * with the table. A second test compares the JSON size of one page as slim
+ * {@link TicketSummary} rows against the same tickets as full {@link TicketResponse}s.
+ *
+ * Not part of the regular build; run with {@code mvn test -Dtest=TicketPagingBenchmark} (needs the database).
+ */
+@SpringBootTest(properties = "ai.jobs.workerEnabled=false")
+class TicketPagingBenchmark {
+
+	private static final int PAGE = 50;
+	private static final int DEPTH = 100;
+	private static final int RUNS = 7;
+
+	@Autowired
+	TicketService ticketService;
+
+	@Autowired
+	TicketRepository repo;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@Autowired
+	TransactionTemplate tx;
+
+	@AfterEach
+	void cleanUp() {
+		TicketCorpus.delete(jdbc);
+	}
+
+	@Test
+	void pagesStayFlatAsTheTableGrows() {
+		System.out.printf("%8s  %-22s %10s %10s%n", "tickets", "listing", "p50 ms", "alloc MB");
+		List<double[]> firstPages = new ArrayList<>();
+		for (int tickets : List.of(20_000, 200_000)) {
+			TicketCorpus.generate(jdbc, tickets);
+
+			String deep = cursorAt(null, DEPTH);
+			String deepOpen = cursorAt(TicketStatus.OPEN, DEPTH);
+
+			report(tickets, "old: all, unpaged", () -> tx.execute(s -> repo.findAll(Sort.by(Sort.Direction.DESC, "createdAt"))
+					.stream().map(TicketResponse::from).toList()));
+			double[] first = report(tickets, "page 1", () -> ticketService.list(null, null, null, PAGE));
+			report(tickets, "page " + (DEPTH + 1), () -> ticketService.list(null, null, deep, PAGE));
+			report(tickets, "status=OPEN page " + (DEPTH + 1), () -> ticketService.list(TicketStatus.OPEN, null, deepOpen, PAGE));
+			firstPages.add(first);
+		}
+		// 10x the tickets, same page cost (generous bound for noise)
+		assertThat(firstPages.get(1)[0]).isLessThan(Math.max(20, firstPages.get(0)[0] * 3));
+	}
+
+	@Test
+	void summaryPageIsAFractionOfFullTickets() {
+		JsonMapper json = JsonMapper.builder().build(); // what MVC renders with
+		TicketCorpus.generate(jdbc, 20_000);
+		double shortBodies = payloadRatio(json, "~0.5 KB bodies");
+
+		// quoted replies pile up in real email threads; grow the page's bodies to ~4 KB
+		List<Long> ids = ticketService.list(null, null, null, PAGE).items().stream().map(TicketSummary::id).toList();
+		jdbc.update("update tickets set body = repeat(body || E'\\n> ', 8) where id = any(?)",
+				(Object) ids.toArray(Long[]::new));
+		double threads = payloadRatio(json, "~4 KB bodies");
+
+		assertThat(shortBodies).isLessThan(0.6);
+		assertThat(threads).isLessThan(0.2);
+	}
+
+	private double payloadRatio(JsonMapper json, String label) {
+		List<TicketSummary> page = ticketService.list(null, null, null, PAGE).items();
+		List<TicketResponse> full = repo.findAllById(page.stream().map(TicketSummary::id).toList())
+				.stream().map(TicketResponse::from).toList();
+		int slim = json.writeValueAsBytes(page).length;
+		int old = json.writeValueAsBytes(full).length;
+		System.out.printf("page of %d, %s: full %d bytes, summary %d bytes (%.0f%%)%n",
+				PAGE, label, old, slim, 100.0 * slim / old);
+		return slim / (double) old;
+	}
+
+	private String cursorAt(TicketStatus status, int pages) {
+		String cursor = null;
+		for (int i = 0; i < pages; i++) cursor = ticketService.list(status, null, cursor, PAGE).nextCursor();
+		assertThat(cursor).isNotNull();
+		return cursor;
+	}
+
+	private static double[] report(int tickets, String label, Supplier<Object> listing) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long self = Thread.currentThread().getId();
+		listing.get(); // warm-up
+
+		List<Double> times = new ArrayList<>();
+		long allocated = 0;
+		for (int i = 0; i < RUNS; i++) {
+			long bytes = threads.getThreadAllocatedBytes(self);
+			long start = System.nanoTime();
+			listing.get();
+			times.add((System.nanoTime() - start) / 1e6);
+			allocated += threads.getThreadAllocatedBytes(self) - bytes;
+		}
+		Collections.sort(times);
+		double p50 = times.get(times.size() / 2);
+		double mb = allocated / (double) RUNS / (1024 * 1024);
+		System.out.printf("%8d  %-22s %10.1f %10.1f%n", tickets, label, p50, mb);
+		return new double[] {p50, mb};
+	}
+}
@@ -0,0 +1,80 @@
+package com.infotrode.support_triage.ticket;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "ai.jobs.workerEnabled=false")
+class TicketPagingTests {
+
+	@Autowired
+	TicketService ticketService;
+
+	@Autowired
+	TicketRepository repo;
+
+	@Test
+	void searchPagesWalkEveryMatchOnceInRankOrder() {
+		String word = "zq" + UUID.randomUUID().toString().replace("-", "").substring(0, 10);
+		List<Long> created = new ArrayList<>();
+		for (int i = 0; i < 7; i++) {
+			Ticket t = new Ticket();
+			// the first ticket has the word in its subject, so it must rank first
+			t.setSubject(i == 0 ? "Paging " + word : "Paging test " + i);
+			t.setRequesterEmail("paging@example.com");
+			t.setBody("Mentions " + word + " in the body.");
+			created.add(repo.save(t).getId());
+		}
+
+		List<Long> seen = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			TicketService.TicketPage page = ticketService.list(null, word, cursor, 3);
+			page.items().forEach(t -> seen.add(t.id()));
+			cursor = page.nextCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertThat(pages).isEqualTo(3);
+		assertThat(seen).containsExactlyInAnyOrderElementsOf(created);
+		assertThat(seen.get(0)).isEqualTo(created.get(0));
+	}
+
+	@Test
+	void newestFirstListingContinuesAfterTheCursor() {
+		List<Long> created = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			Ticket t = new Ticket();
+			t.setSubject("Newest " + i);
+			t.setRequesterEmail("paging@example.com");
+			t.setBody("Body");
+			created.add(repo.save(t).getId());
+		}
+
+		TicketService.TicketPage first = ticketService.list(null, null, null, 2);
+		TicketService.TicketPage second = ticketService.list(null, null, first.nextCursor(), 2);
+
+		assertThat(first.items()).extracting(TicketSummary::id).containsExactly(created.get(3), created.get(2));
+		assertThat(second.items()).extracting(TicketSummary::id).containsExactly(created.get(1), created.get(0));
+	}
+
+	@Test
+	void cursorFromAnotherListingIsRejected() {
+		TicketService.TicketPage page = ticketService.list(null, null, null, 1);
+		assertThat(page.nextCursor()).isNotNull();
+
+		assertThatThrownBy(() -> ticketService.list(TicketStatus.OPEN, null, page.nextCursor(), 1))
+				.isInstanceOf(ResponseStatusException.class);
+		assertThatThrownBy(() -> ticketService.list(null, null, "not-a-cursor", 1))
+				.isInstanceOf(ResponseStatusException.class);
+	}
+}
@@ -0,0 +1,95 @@
+package com.infotrode.support_triage.ticket;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Inbox search on a generated corpus ({@code -Dbench.tickets}, default 200k): the old
+ * {@code lower(col) like '%q%'} query versus ranked full-text search on the GIN-indexed
+ * {@code search_vector}. Both return every match as mapped {@link Ticket} entities.
+ *
+ * Not part of the regular build; run with {@code mvn test -Dtest=TicketSearchBenchmark} (needs the database).
+ */
+@SpringBootTest(properties = "ai.jobs.workerEnabled=false")
+class TicketSearchBenchmark {
+
+	private static final int TICKETS = Integer.getInteger("bench.tickets", 200_000);
+	private static final int WARMUP = 3;
+	private static final int RUNS = 10;
+	private static final int ALL = 1_000_000; // every match, like the old unpaged query
+
+	private static final String LEGACY_SQL = """
+			select t.* from tickets t
+			where lower(t.subject) like lower(concat('%', :q, '%'))
+			   or lower(t.body) like lower(concat('%', :q, '%'))
+			   or lower(t.requester_email) like lower(concat('%', :q, '%'))
+			   or (t.category is not null and lower(t.category) like lower(concat('%', :q, '%')))
+			order by t.updated_at desc
+			""";
+
+	@Autowired
+	TicketService ticketService;
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@Autowired
+	TransactionTemplate tx;
+
+	@BeforeEach
+	void generateCorpus() {
+		TicketCorpus.generate(jdbc, TICKETS);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		TicketCorpus.delete(jdbc);
+	}
+
+	@Test
+	void fullTextSearchBeatsLikeScan() {
+		System.out.printf("%-16s %8s %12s %12s %8s%n", "query", "matches", "like p50 ms", "fts p50 ms", "speedup");
+		for (String q : List.of("password", "webhook fail", "invo", "globex")) {
+			int[] ftsCount = {0};
+			double legacy = medianMs(() -> legacy(q));
+			double fts = medianMs(() -> ftsCount[0] = ticketService.list(null, q, null, ALL).items().size());
+
+			System.out.printf("%-16s %8d %12.1f %12.1f %7.1fx%n", q, ftsCount[0], legacy, fts, legacy / fts);
+			assertThat(ftsCount[0]).isPositive();
+			assertThat(fts).isLessThan(legacy);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<Ticket> legacy(String q) {
+		return tx.execute(s -> em.createNativeQuery(LEGACY_SQL, Ticket.class).setParameter("q", q).getResultList());
+	}
+
+	private static double medianMs(Supplier<Object> query) {
+		for (int i = 0; i < WARMUP; i++) query.get();
+		List<Double> times = new ArrayList<>();
+		for (int i = 0; i < RUNS; i++) {
+			long start = System.nanoTime();
+			query.get();
+			times.add((System.nanoTime() - start) / 1e6);
+		}
+		Collections.sort(times);
+		return times.get(times.size() / 2);
+	}
+}
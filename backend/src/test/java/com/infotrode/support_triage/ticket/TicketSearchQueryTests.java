@@ -0,0 +1,21 @@
+package com.infotrode.support_triage.ticket;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TicketSearchQueryTests {
+
+	@Test
+	void allWordsMustMatchAndTheLastOneIsAPrefix() {
+		assertThat(TicketSearchQuery.toTsQuery("  password  res ")).isEqualTo("'password' & 'res':*");
+		assertThat(TicketSearchQuery.toTsQuery("jane@acme.io")).isEqualTo("'jane@acme.io':*");
+	}
+
+	@Test
+	void operatorsAndQuotesAreStripped() {
+		assertThat(TicketSearchQuery.toTsQuery("can't | !login & (sso):*")).isEqualTo("'can' & 't' & 'login' & 'sso':*");
+		assertThat(TicketSearchQuery.toTsQuery("'); drop table tickets; --")).isEqualTo("'drop' & 'table' & 'tickets':*");
+		assertThat(TicketSearchQuery.toTsQuery(" !&| ")).isNull();
+	}
+}
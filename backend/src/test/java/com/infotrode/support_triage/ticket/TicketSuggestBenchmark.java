@@ -0,0 +1,83 @@
+package com.infotrode.support_triage.ticket;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Type-ahead on a generated corpus ({@code -Dbench.tickets}, default 200k): an unindexed
+ * {@code ilike '%q%'} over requester email and subject versus {@link TicketService#suggest} on
+ * the trigram-indexed term dictionary. Inputs are a partial email (every generated email starts
+ * with "user1"), two misspelled topics and a fragment that occurs in a fifth of all tickets.
+ * The ilike query can only find exact substrings, so it finds nothing for the misspellings.
+ * Times include the transaction and JPA round trips, not just the query.
+ *
+ * Not part of the regular build; run with {@code mvn test -Dtest=TicketSuggestBenchmark} (needs the database).
+ */
+@SpringBootTest(properties = "ai.jobs.workerEnabled=false")
+class TicketSuggestBenchmark {
+
+	private static final int TICKETS = Integer.getInteger("bench.tickets", 200_000);
+	private static final int LIMIT = 8;
+	private static final int WARMUP = 3;
+	private static final int RUNS = 15;
+
+	private static final String LEGACY_SQL = """
+			(select distinct requester_email from tickets where requester_email ilike '%' || ? || '%' limit ?)
+			union all
+			(select subject from tickets where subject ilike '%' || ? || '%' order by id desc limit ?)
+			""";
+
+	@Autowired
+	TicketService ticketService;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@BeforeEach
+	void generateCorpus() {
+		TicketCorpus.generate(jdbc, TICKETS);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		TicketCorpus.delete(jdbc);
+	}
+
+	@Test
+	void suggestCostDoesNotGrowWithMatches() {
+		System.out.printf("%-16s %6s %12s %12s%n", "input", "hits", "ilike p50 ms", "trgm p50 ms");
+		for (String q : List.of("user12345@", "pasword", "webhok", "globex")) {
+			int[] hits = {0};
+			double legacy = medianMs(() -> jdbc.queryForList(LEGACY_SQL, String.class, q, LIMIT, q, LIMIT));
+			double trgm = medianMs(() -> hits[0] = ticketService.suggest(q, LIMIT).size());
+
+			System.out.printf("%-16s %6d %12.1f %12.1f%n", q, hits[0], legacy, trgm);
+			assertThat(hits[0]).isPositive();
+			// end to end through JPA; generous bound for noisy machines
+			assertThat(trgm).isLessThan(Math.min(legacy, 25));
+		}
+	}
+
+	private static double medianMs(Supplier<Object> query) {
+		for (int i = 0; i < WARMUP; i++) query.get();
+		List<Double> times = new ArrayList<>();
+		for (int i = 0; i < RUNS; i++) {
+			long start = System.nanoTime();
+			query.get();
+			times.add((System.nanoTime() - start) / 1e6);
+		}
+		Collections.sort(times);
+		return times.get(times.size() / 2);
+	}
+}
@@ -0,0 +1,53 @@
+package com.infotrode.support_triage.ticket;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = "ai.jobs.workerEnabled=false")
+class TicketSuggestTests {
+
+	@Autowired
+	TicketService ticketService;
+
+	@Autowired
+	TicketRepository repo;
+
+	@Test
+	void partialEmailAndMisspelledSubjectWordBothSuggest() {
+		String who = "quill" + UUID.randomUUID().toString().substring(0, 6);
+		Ticket t = new Ticket();
+		t.setSubject("Thermostat firmware rollback");
+		t.setRequesterEmail(who + ".Henderson@example.org");
+		t.setBody("Body");
+		repo.save(t);
+
+		assertThat(ticketService.suggest(who + ".hend", 5))
+				.first()
+				.extracting(TicketSuggestion::kind, TicketSuggestion::term)
+				.containsExactly(TicketSuggestion.Kind.REQUESTER, who + ".henderson@example.org");
+		assertThat(ticketService.suggest("thermostst", 5))
+				.extracting(TicketSuggestion::kind, TicketSuggestion::term)
+				.contains(tuple(TicketSuggestion.Kind.SUBJECT, "thermostat"));
+	}
+
+	@Test
+	void shortOrUnrelatedInputSuggestsNothingAndLimitHolds() {
+		assertThat(ticketService.suggest("ab", 5)).isEmpty();
+		assertThat(ticketService.suggest("zzxqvkjw", 5)).isEmpty();
+
+		for (int i = 0; i < 4; i++) {
+			Ticket t = new Ticket();
+			t.setSubject("Suggest limit check");
+			t.setRequesterEmail("suggestlimit" + i + "@example.org");
+			t.setBody("Body");
+			repo.save(t);
+		}
+		assertThat(ticketService.suggest("suggestlimit", 3)).hasSize(3);
+	}
+}
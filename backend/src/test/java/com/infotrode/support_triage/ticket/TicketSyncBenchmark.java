@@ -0,0 +1,95 @@
+package com.infotrode.support_triage.ticket;
+
+import com.infotrode.support_triage.ticket.dto.UpdateTicketRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * One inbox poll after {@value #CHANGES} tickets changed, at two corpus sizes: re-reading every
+ * ticket through the paged listing (what a client without deltas has to do to stay current)
+ * versus one {@code changes} call from the previous mark. Reports median latency and JSON size;
+ * the delta should stay flat while the full re-read grows with the table.
+ *
+ * Not part of the regular build; run with {@code mvn test -Dtest=TicketSyncBenchmark} (needs the database).
+ */
+@SpringBootTest(properties = "ai.jobs.workerEnabled=false")
+class TicketSyncBenchmark {
+
+	private static final int CHANGES = 20;
+	private static final int RUNS = 7;
+
+	@Autowired
+	TicketService ticketService;
+
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@Autowired
+	JsonMapper json;
+
+	@AfterEach
+	void cleanUp() {
+		TicketCorpus.delete(jdbc);
+	}
+
+	@Test
+	void pollCostFollowsChangesNotTickets() throws Exception {
+		System.out.printf("%8s  %-26s %10s %12s%n", "tickets", "poll", "p50 ms", "KB");
+		List<Double> deltas = new ArrayList<>();
+		for (int tickets : List.of(20_000, 200_000)) {
+			TicketCorpus.generate(jdbc, tickets);
+			Thread.sleep(TicketService.SYNC_SETTLE.toMillis() + 100); // the corpus is older than the mark
+			TicketService.TicketChanges caughtUp = ticketService.changes(Instant.now().minusSeconds(1), 0, 10);
+
+			List<Long> ids = jdbc.queryForList(
+					"select id from tickets where requester_email like '%.bench.invalid' order by random() limit ?", Long.class, CHANGES);
+			for (long id : ids) {
+				UpdateTicketRequest req = new UpdateTicketRequest();
+				req.setStatus(TicketStatus.WAITING_ON_CUSTOMER);
+				ticketService.update(id, req);
+			}
+
+			report(tickets, "full re-read (pages of 200)", RUNS / 3 + 1, () -> {
+				List<Object> pages = new ArrayList<>();
+				String cursor = null;
+				do {
+					TicketService.TicketPage page = ticketService.list(null, null, cursor, 200);
+					pages.add(page.items());
+					cursor = page.nextCursor();
+				} while (cursor != null);
+				return pages;
+			});
+			deltas.add(report(tickets, "changes since last mark", RUNS, () -> {
+				TicketService.TicketChanges c = ticketService.changes(caughtUp.updatedSince(), caughtUp.afterId(), 500);
+				assertThat(c.changed()).hasSizeGreaterThanOrEqualTo(CHANGES);
+				return c;
+			}));
+		}
+		assertThat(deltas.get(1)).isLessThan(Math.max(20, deltas.get(0) * 3));
+	}
+
+	private double report(int tickets, String label, int runs, Supplier<Object> poll) {
+		int bytes = json.writeValueAsBytes(poll.get()).length; // also the warm-up
+		double[] ms = new double[runs];
+		for (int i = 0; i < runs; i++) {
+			long start = System.nanoTime();
+			poll.get();
+			ms[i] = (System.nanoTime() - start) / 1e6;
+		}
+		Arrays.sort(ms);
+		System.out.printf("%8d  %-26s %10.1f %12.1f%n", tickets, label, ms[runs / 2], bytes / 1024.0);
+		return ms[runs / 2];
+	}
+}
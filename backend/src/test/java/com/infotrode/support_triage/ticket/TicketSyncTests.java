@@ -0,0 +1,91 @@
+package com.infotrode.support_triage.ticket;
+
+import com.infotrode.support_triage.ticket.dto.UpdateTicketRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "ai.jobs.workerEnabled=false")
+class TicketSyncTests {
+
+	@Autowired
+	TicketService ticketService;
+
+	@Autowired
+	TicketRepository repo;
+
+	@Test
+	void mirrorFollowsCreatesStatusChangesAndDeletes() {
+		Instant mark = Instant.now().minusSeconds(1);
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 4; i++) ids.add(save("Sync " + i));
+
+		UpdateTicketRequest resolve = new UpdateTicketRequest();
+		resolve.setStatus(TicketStatus.RESOLVED);
+		ticketService.update(ids.get(1), resolve);
+		repo.deleteById(ids.get(2));
+
+		// a mirror: apply pages of 2 in order until caught up
+		Map<Long, TicketSummary> mirror = new HashMap<>();
+		Set<Long> deleted = new HashSet<>();
+		Instant since = mark;
+		long afterId = 0;
+		int pages = 0;
+		TicketService.TicketChanges page;
+		do {
+			page = ticketService.changes(since, afterId, 2);
+			page.changed().forEach(t -> mirror.put(t.id(), t));
+			page.deleted().forEach(d -> {
+				mirror.remove(d.id());
+				deleted.add(d.id());
+			});
+			if (page.hasMore()) assertThat(page.updatedSince()).isAfterOrEqualTo(since);
+			since = page.updatedSince();
+			afterId = page.afterId();
+			pages++;
+		} while (page.hasMore());
+
+		assertThat(pages).isGreaterThan(1);
+		assertThat(mirror).containsKeys(ids.get(0), ids.get(1), ids.get(3)).doesNotContainKey(ids.get(2));
+		assertThat(mirror.get(ids.get(1)).status()).isEqualTo(TicketStatus.RESOLVED);
+		assertThat(deleted).contains(ids.get(2));
+	}
+
+	@Test
+	void markStaysBehindRecentWritesAndTooOldMarksMustResync() {
+		Instant mark = Instant.now().minusSeconds(60);
+		long id = save("Sync settle");
+
+		TicketService.TicketChanges first = ticketService.changes(mark, 0, 1000);
+		assertThat(first.changed()).extracting(TicketSummary::id).contains(id);
+		assertThat(first.updatedSince()).isAfter(mark).isBefore(Instant.now().minus(TicketService.SYNC_SETTLE));
+
+		// still inside the settle window, so it comes again rather than being skipped past
+		TicketService.TicketChanges again = ticketService.changes(first.updatedSince(), first.afterId(), 1000);
+		assertThat(again.changed()).extracting(TicketSummary::id).contains(id);
+
+		assertThatThrownBy(() -> ticketService.changes(
+				Instant.now().minus(TicketService.TOMBSTONE_RETENTION).minusSeconds(60), 0, 10))
+				.isInstanceOf(ResponseStatusException.class);
+	}
+
+	private long save(String subject) {
+		Ticket t = new Ticket();
+		t.setSubject(subject);
+		t.setRequesterEmail("sync@example.com");
+		t.setBody("Body");
+		return repo.save(t).getId();
+	}
+}
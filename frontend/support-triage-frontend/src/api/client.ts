@@ -20,6 +20,32 @@ export type Ticket = {
   updatedAt: string;
 };
 
+// Inbox row: no body, just a server-computed snippet (GET /api/tickets/{id} has the full ticket)
+export type TicketSummary = Omit<Ticket, "body"> & {
+  snippet: string | null;
+};
+
+export type TicketPage = {
+  items: TicketSummary[];
+  nextCursor: string | null; // pass back as `cursor` (same filters) for the next page
+};
+
+// Delta sync: what changed after a mark; pass updatedSince/afterId back for the next poll
+export type TicketChanges = {
+  changed: TicketSummary[]; // created or updated (incl. status changes), oldest first
+  deleted: { id: number; deletedAt: string }[];
+  updatedSince: string;
+  afterId: number;
+  hasMore: boolean; // poll again right away
+};
+
+// Type-ahead entry: a requester email or one subject word; score is trigram similarity 0..1
+export type TicketSuggestion = {
+  kind: "REQUESTER" | "SUBJECT";
+  term: string;
+  score: number;
+};
+
 export type CreateTicketRequest = {
   subject: string;
   requesterEmail: string;
@@ -72,6 +98,7 @@ export type AiSummaryResponse = {
   summary: string;
   keyPoints: string[];
   savedNoteId: number | null;
+  aiRunId: number;
 };
 
 // --- AI reply draft types ---
@@ -100,13 +127,85 @@ async function http<T>(path: string, init?: RequestInit): Promise<T> {
   return (await res.json()) as T;
 }
 
+// Minimal SSE reader over fetch (EventSource can't POST a JSON body).
+async function streamSse(
+  path: string,
+  body: unknown,
+  onEvent: (event: string, data: any) => void
+): Promise<void> {
+  const res = await fetch(path, {
+    method: "POST",
+    headers: { "Content-Type": "application/json", Accept: "text/event-stream" },
+    body: JSON.stringify(body),
+  });
+
+  if (!res.ok || !res.body) {
+    const text = await res.text();
+    throw new Error(`${res.status} ${res.statusText}: ${text}`);
+  }
+
+  const reader = res.body.getReader();
+  const decoder = new TextDecoder();
+  let buf = "";
+
+  for (;;) {
+    const { value, done } = await reader.read();
+    if (done) break;
+    buf += decoder.decode(value, { stream: true });
+
+    let sep: number;
+    while ((sep = buf.indexOf("\n\n")) >= 0) {
+      const frame = buf.slice(0, sep);
+      buf = buf.slice(sep + 2);
+
+      let event = "message";
+      const data: string[] = [];
+      for (const line of frame.split("\n")) {
+        if (line.startsWith("event:")) event = line.slice(6).trim();
+        else if (line.startsWith("data:")) data.push(line.slice(5).replace(/^ /, ""));
+      }
+      if (data.length) onEvent(event, JSON.parse(data.join("\n")));
+    }
+  }
+}
+
 export const api = {
-  listTickets: (params?: { status?: string; q?: string }) => {
+  listTickets: (params?: { status?: string; q?: string; cursor?: string; limit?: number }) => {
     const usp = new URLSearchParams();
     if (params?.status) usp.set("status", params.status);
     if (params?.q) usp.set("q", params.q);
+    if (params?.cursor) usp.set("cursor", params.cursor);
+    if (params?.limit) usp.set("limit", String(params.limit));
+    const qs = usp.toString();
+    return http<TicketPage>(qs ? `/api/tickets?${qs}` : "/api/tickets");
+  },
+
+  // 410 when the mark is older than the server remembers deletions (30 days): reload instead
+  ticketChanges: (mark?: { updatedSince: string; afterId: number }, limit?: number) => {
+    const usp = new URLSearchParams();
+    if (mark) {
+      usp.set("updatedSince", mark.updatedSince);
+      usp.set("afterId", String(mark.afterId));
+    }
+    if (limit) usp.set("limit", String(limit));
     const qs = usp.toString();
-    return http<Ticket[]>(qs ? `/api/tickets?${qs}` : "/api/tickets");
+    return http<TicketChanges>(qs ? `/api/tickets/changes?${qs}` : "/api/tickets/changes");
+  },
+
+  // Server change feed (SSE). The browser reconnects by itself; close() it when done.
+  // Events: ready, tickets, notes, ai-runs, resync (see LiveEventsController)
+  liveEvents: (events: string[], onEvent: (event: string, data: any) => void) => {
+    const source = new EventSource("/api/events");
+    for (const name of events) {
+      source.addEventListener(name, (e) => onEvent(name, JSON.parse((e as MessageEvent).data)));
+    }
+    return source;
+  },
+
+  suggestTickets: (q: string, limit?: number) => {
+    const usp = new URLSearchParams({ q });
+    if (limit) usp.set("limit", String(limit));
+    return http<TicketSuggestion[]>(`/api/tickets/suggest?${usp.toString()}`);
   },
 
   getTicket: (id: number) => http<Ticket>(`/api/tickets/${id}`),
@@ -146,4 +245,21 @@ export const api = {
       method: "POST",
       body: JSON.stringify({ ticketId, tone }),
     }),
+
+  // Streams the draft as it is generated; resolves with the final response.
+  replyDraftStream: (
+    ticketId: number,
+    tone: ReplyTone,
+    onDelta: (text: string) => void
+  ) =>
+    new Promise<AiReplyDraftResponse>((resolve, reject) => {
+      let final: AiReplyDraftResponse | null = null;
+      streamSse("/api/ai/reply-draft/stream", { ticketId, tone }, (event, data) => {
+        if (event === "delta") onDelta(data.text ?? "");
+        else if (event === "done") final = data as AiReplyDraftResponse;
+        else if (event === "error") reject(new Error(data.message ?? "AI reply draft failed"));
+      })
+        .then(() => (final ? resolve(final) : reject(new Error("AI reply draft stream ended early"))))
+        .catch(reject);
+    }),
 };
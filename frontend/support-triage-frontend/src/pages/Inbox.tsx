@@ -1,7 +1,9 @@
-import { useEffect, useMemo, useState } from "react";
+import { useEffect, useMemo, useRef, useState } from "react";
 import { Link } from "react-router-dom";
 import { api } from "../api/client";
-import type { CreateTicketRequest, Ticket } from "../api/client";
+import type { CreateTicketRequest, TicketChanges, TicketSuggestion, TicketSummary } from "../api/client";
+
+const POLL_MS = 15_000;
 
 function formatDate(iso: string) {
   try {
@@ -11,12 +13,36 @@ function formatDate(iso: string) {
   }
 }
 
+function key(t: TicketSummary, byUpdated: boolean) {
+  return Date.parse(byUpdated ? t.updatedAt : t.createdAt);
+}
+
+// Applies a delta to the loaded rows, keeping the listing's order: newest created first, or
+// last updated first under a status filter.
+function applyChanges(rows: TicketSummary[], changes: TicketChanges, status?: string) {
+  const gone = new Set(changes.deleted.map((d) => d.id));
+  changes.changed.forEach((t) => gone.add(t.id));
+  const next = rows.filter((t) => !gone.has(t.id));
+  const oldestLoaded = rows.length ? rows[rows.length - 1] : null;
+  for (const t of changes.changed) {
+    if (status && t.status !== status.toUpperCase()) continue;
+    const wasLoaded = rows.some((r) => r.id === t.id);
+    // rows past the loaded page come in with "load more", not here
+    if (!wasLoaded && !status && oldestLoaded && key(t, false) < key(oldestLoaded, false)) continue;
+    next.push(t);
+  }
+  return next.sort((a, b) => key(b, !!status) - key(a, !!status) || b.id - a.id);
+}
+
 export default function Inbox() {
-  const [tickets, setTickets] = useState<Ticket[]>([]);
+  const [tickets, setTickets] = useState<TicketSummary[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
   const [filterStatus, setFilterStatus] = useState<string>("");
   const [q, setQ] = useState("");
+  const [suggestions, setSuggestions] = useState<TicketSuggestion[]>([]);
 
 
   // simple create form state
@@ -33,16 +59,29 @@ export default function Inbox() {
     return subject.trim() && requesterEmail.trim() && body.trim();
   }, [subject, requesterEmail, body]);
 
+  // the cursor only continues the listing it came from, so "load more" reuses the applied filters
+  const [applied, setApplied] = useState<{ status?: string; q?: string }>({});
+  // delta-sync mark: the newest updatedAt among the loaded rows (server time, so no clock skew)
+  const mark = useRef<{ updatedSince: string; afterId: number } | null>(null);
+
   async function refresh() {
     setError(null);
     setLoading(true);
     try {
-      const data = await api.listTickets({
+      const filters = {
         status: filterStatus.trim() ? filterStatus.trim() : undefined,
         q: q.trim() ? q.trim() : undefined,
-      });
+      };
+      const page = await api.listTickets(filters);
 
-      setTickets(data);
+      setApplied(filters);
+      setTickets(page.items);
+      setNextCursor(page.nextCursor);
+      const newest = page.items.reduce<string | null>(
+        (max, t) => (max === null || Date.parse(t.updatedAt) > Date.parse(max) ? t.updatedAt : max),
+        null
+      );
+      mark.current = newest ? { updatedSince: newest, afterId: 0 } : null;
     } catch (e: any) {
       setError(e?.message ?? "Failed to load tickets");
     } finally {
@@ -50,10 +89,90 @@ export default function Inbox() {
     }
   }
 
+  async function loadMore() {
+    if (!nextCursor) return;
+    setError(null);
+    setLoadingMore(true);
+    try {
+      const page = await api.listTickets({ ...applied, cursor: nextCursor });
+      setTickets((prev) => [...prev, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (e: any) {
+      setError(e?.message ?? "Failed to load tickets");
+    } finally {
+      setLoadingMore(false);
+    }
+  }
+
   useEffect(() => {
     refresh();
   }, []);
 
+  // keep the loaded rows current by fetching only what changed: on change events from the server,
+  // or every POLL_MS while the event stream is down; search results are left alone
+  useEffect(() => {
+    if (applied.q) return;
+    let stopped = false;
+    let syncing = false;
+    let again = false; // events that arrive mid-sync are folded into one more round
+
+    async function sync() {
+      if (syncing) {
+        again = true;
+        return;
+      }
+      syncing = true;
+      try {
+        do {
+          again = false;
+          let changes: TicketChanges;
+          do {
+            if (stopped || !mark.current) return;
+            changes = await api.ticketChanges(mark.current);
+            if (stopped) return;
+            mark.current = { updatedSince: changes.updatedSince, afterId: changes.afterId };
+            const batch = changes;
+            setTickets((prev) => applyChanges(prev, batch, applied.status));
+          } while (changes.hasMore);
+        } while (again);
+      } catch (e: any) {
+        if (String(e?.message).startsWith("410")) refresh();
+      } finally {
+        syncing = false;
+      }
+    }
+
+    const events = api.liveEvents(["ready", "tickets", "resync"], () => sync());
+    const timer = setInterval(() => {
+      if (events.readyState !== EventSource.OPEN) sync();
+    }, POLL_MS);
+    return () => {
+      stopped = true;
+      clearInterval(timer);
+      events.close();
+    };
+  }, [applied]);
+
+  // type-ahead for the word being typed; the last response wins, older ones are dropped
+  const lastWord = q.trimStart().split(/\s+/).pop() ?? "";
+  useEffect(() => {
+    if (lastWord.length < 3) {
+      setSuggestions([]);
+      return;
+    }
+    let stale = false;
+    const timer = setTimeout(() => {
+      api
+        .suggestTickets(lastWord)
+        .then((s) => !stale && setSuggestions(s))
+        .catch(() => !stale && setSuggestions([]));
+    }, 150);
+    return () => {
+      stale = true;
+      clearTimeout(timer);
+    };
+  }, [lastWord]);
+
   async function onCreate() {
     setError(null);
     const req: CreateTicketRequest = {
@@ -108,8 +227,18 @@ export default function Inbox() {
             value={q}
             onChange={(e) => setQ(e.target.value)}
             placeholder="Search subject/body/email/category..."
+            list="ticket-suggestions"
             style={{ flex: 1, padding: 8 }}
           />
+          <datalist id="ticket-suggestions">
+            {suggestions.map((s) => (
+              <option
+                key={`${s.kind}:${s.term}`}
+                value={q.slice(0, q.length - lastWord.length) + s.term}
+                label={s.kind === "REQUESTER" ? "requester" : "subject"}
+              />
+            ))}
+          </datalist>
 
           <button onClick={refresh} style={{ padding: "8px 12px", cursor: "pointer" }}>
             Search
@@ -140,6 +269,11 @@ export default function Inbox() {
               <div style={{ fontSize: 12, opacity: 0.8, marginTop: 6 }}>
                 {t.requesterEmail} · {formatDate(t.createdAt)}
               </div>
+              {t.snippet && (
+                <div style={{ marginTop: 6, fontSize: 13, opacity: 0.9 }}>
+                  {t.snippet}
+                </div>
+              )}
               {t.tags?.length > 0 && (
                 <div style={{ marginTop: 8, fontSize: 12 }}>
                   Tags: {t.tags.join(", ")}
@@ -148,6 +282,16 @@ export default function Inbox() {
             </div>
           ))}
         </div>
+
+        {!loading && nextCursor && (
+          <button
+            onClick={loadMore}
+            disabled={loadingMore}
+            style={{ marginTop: 12, padding: "8px 12px", cursor: "pointer" }}
+          >
+            {loadingMore ? "Loading..." : "Load more"}
+          </button>
+        )}
       </section>
 
       <aside style={{ border: "1px solid #ddd", padding: 12, borderRadius: 8 }}>
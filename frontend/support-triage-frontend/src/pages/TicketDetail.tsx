@@ -102,6 +102,18 @@ export default function TicketDetail() {
     load();
   }, [ticketId]);
 
+  // notes added elsewhere (other agents, background AI jobs) show up without a reload
+  useEffect(() => {
+    if (!Number.isFinite(ticketId)) return;
+    const events = api.liveEvents(["notes"], (_, data) => {
+      const items: { ticketId: number }[] = data.items ?? [];
+      if (data.count > items.length || items.some((n) => n.ticketId === ticketId)) {
+        refreshNotes().catch(() => {});
+      }
+    });
+    return () => events.close();
+  }, [ticketId]);
+
   async function refreshNotes() {
     const ns = await api.listNotes(ticketId);
     setNotes(ns);
@@ -230,7 +242,10 @@ export default function TicketDetail() {
     setCopied(false);
 
     try {
-      const r = await api.replyDraft(ticketId, replyTone);
+      setReplyText("");
+      const r = await api.replyDraftStream(ticketId, replyTone, (delta) =>
+        setReplyText((prev) => prev + delta)
+      );
       setReplyResult(r);
       setReplyText(r.draft ?? "");
     } catch (e: any) {